@@ -0,0 +1,78 @@
+package com.connectbase.backend.csv;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing an import file: the previous readLine + lookahead-regex split + cleanup path against {@link CsvReader}.
+ * "longQuoted" rows carry a 2 KB quoted notes field full of commas, where the regex rescans the rest of the
+ * line at every comma. Both paths produce the same trimmed field Strings.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=CsvParsingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParsingBenchmark {
+
+    private static final String SPLIT = ",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)";
+
+    @Param({"typical", "longQuoted"})
+    public String shape;
+
+    @Param({"10000"})
+    public int rows;
+
+    private String csv;
+
+    @Setup
+    public void setUp() {
+        String notes = "\"" + "call back, re: renewal, ".repeat(80) + "\"";
+        StringBuilder builder = new StringBuilder("First Name,Last Name,Email,Phone,Title,Image URL\n");
+        for (int i = 0; i < rows; i++) {
+            builder.append("First").append(i).append(",\"Last, Jr.\",person").append(i)
+                    .append("@example.com,+1 415 555 0100,Account Manager,");
+            builder.append(shape.equals("longQuoted") ? notes : "https://res.cloudinary.com/demo/image/upload/a.jpg");
+            builder.append('\n');
+        }
+        csv = builder.toString();
+    }
+
+    @Benchmark
+    public void regexSplit(Blackhole blackhole) throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader(csv));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            for (String field : line.split(SPLIT, -1)) {
+                blackhole.consume(cleanup(field));
+            }
+        }
+    }
+
+    @Benchmark
+    public void stateMachine(Blackhole blackhole) throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(csv), ',');
+        while (reader.next()) {
+            for (int i = 0; i < reader.fieldCount(); i++) {
+                blackhole.consume(reader.field(i).trim());
+            }
+        }
+    }
+
+    // The cleanup step of the previous import path
+    private static String cleanup(String data) {
+        String cleaned = data.trim();
+        if (cleaned.startsWith("\"") && cleaned.endsWith("\"")) {
+            cleaned = cleaned.substring(1, cleaned.length() - 1);
+            cleaned = cleaned.replace("\"\"", "\"");
+        }
+        return cleaned;
+    }
+}
@@ -0,0 +1,82 @@
+package com.connectbase.backend.dto;
+
+import com.connectbase.backend.model.Contact;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.module.blackbird.BlackbirdModule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of one contact-list response. "before" is the previous shape: ApiResponse around a
+ * PageImpl of entities, on a plain mapper. "after" is ApiResponse around a PageResponse of ContactView
+ * records, on a mapper with Blackbird. Bytes per response are printed once per trial.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=ContactSerializationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContactSerializationBenchmark {
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private JsonMapper plainMapper;
+    private JsonMapper blackbirdMapper;
+    private ApiResponse<Page<Contact>> before;
+    private ApiResponse<PageResponse<ContactView>> after;
+
+    @Setup
+    public void setUp() {
+        plainMapper = JsonMapper.builder().build();
+        blackbirdMapper = JsonMapper.builder().addModule(new BlackbirdModule()).build();
+
+        List<Contact> contacts = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Contact contact = new Contact();
+            contact.setId(i + 1);
+            contact.setFirstName("First" + i);
+            contact.setLastName("Last" + i);
+            contact.setTitle("Engineer");
+            contact.setEmail("first" + i + ".last@example.com");
+            contact.setPhone("555-0100-" + i);
+            contact.setImage("https://res.cloudinary.com/demo/image/upload/v1/contacts/" + i + ".jpg");
+            contact.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+            contact.setUpdatedAt(LocalDateTime.of(2024, 6, 1, 12, 0));
+            contacts.add(contact);
+        }
+        PageRequest pageRequest = PageRequest.of(3, pageSize);
+        before = new ApiResponse<>(200, "Contacts retrieved successfully",
+                new PageImpl<>(contacts, pageRequest, 10_000));
+        after = new ApiResponse<>(200, "Contacts retrieved successfully",
+                PageResponse.of(new PageImpl<>(contacts.stream().map(ContactView::from).toList(), pageRequest, 10_000)));
+
+        System.out.printf("%nbytes per response (pageSize=%d): before=%d, after=%d%n", pageSize,
+                plainMapper.writeValueAsBytes(before).length, blackbirdMapper.writeValueAsBytes(after).length);
+    }
+
+    @Benchmark
+    public byte[] before() {
+        return plainMapper.writeValueAsBytes(before);
+    }
+
+    @Benchmark
+    public byte[] after() {
+        return blackbirdMapper.writeValueAsBytes(after);
+    }
+
+    // Isolates the mapper change from the shape change
+    @Benchmark
+    public byte[] afterWithoutBlackbird() {
+        return plainMapper.writeValueAsBytes(after);
+    }
+}
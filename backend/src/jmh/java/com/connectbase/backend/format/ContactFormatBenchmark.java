@@ -0,0 +1,83 @@
+package com.connectbase.backend.format;
+
+import com.connectbase.backend.dto.ContactExportRow;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.ReflectionUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import and export throughput per format over the same contacts, through the streaming readers and writers the
+ * endpoints use. Exports go to a discarding stream, so only encoding is measured.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=ContactFormatBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContactFormatBenchmark {
+
+    @Param({"csv", "vcard", "ndjson"})
+    public String format;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ContactFormat contactFormat;
+    private ContactExportRow[] contacts;
+    private byte[] exported;
+
+    @Setup
+    public void setUp() throws IOException {
+        contactFormat = switch (format) {
+            case "csv" -> new CsvFormat();
+            case "vcard" -> new VCardFormat();
+            default -> {
+                NdjsonFormat ndjson = new NdjsonFormat();
+                var field = ReflectionUtils.findField(NdjsonFormat.class, "jsonMapper");
+                ReflectionUtils.makeAccessible(field);
+                ReflectionUtils.setField(field, ndjson, JsonMapper.builder().build());
+                yield ndjson;
+            }
+        };
+        contacts = new ContactExportRow[rows];
+        for (int i = 0; i < rows; i++) {
+            contacts[i] = new ContactExportRow("First" + i, "Last, Jr.", "person" + i + "@example.com",
+                    "+1 415 555 0100", "Account Manager", "https://res.cloudinary.com/demo/image/upload/a.jpg");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeAll(out);
+        exported = out.toByteArray();
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        writeAll(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) throws IOException {
+        try (ContactReader reader = contactFormat.reader(new ByteArrayInputStream(exported), FormatOptions.DEFAULT)) {
+            while (reader.next()) {
+                blackhole.consume(reader.contact());
+            }
+        }
+    }
+
+    private void writeAll(OutputStream out) throws IOException {
+        try (ContactWriter writer = contactFormat.writer(out, FormatOptions.DEFAULT)) {
+            writer.begin();
+            for (ContactExportRow contact : contacts) {
+                writer.write(contact);
+            }
+        }
+    }
+}
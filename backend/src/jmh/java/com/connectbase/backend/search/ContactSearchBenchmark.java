@@ -0,0 +1,106 @@
+package com.connectbase.backend.search;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trigram index vs. the current {@code LOWER(col) LIKE '%kw%'} query (page + COUNT) for one user's address book,
+ * on in-memory H2. Run with {@code ./gradlew jmh -Pjmh.includes=ContactSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ContactSearchBenchmark {
+
+    private static final String LIKE_PREDICATE = "user_id = ? AND (" +
+            "LOWER(first_name) LIKE ? OR LOWER(last_name) LIKE ? OR LOWER(email) LIKE ? OR " +
+            "LOWER(title) LIKE ? OR LOWER(phone) LIKE ?)";
+
+    @Param({"10000", "100000"})
+    public int contacts;
+
+    @Param({"smi", "john.sm", "555-01"})
+    public String query;
+
+    private Connection connection;
+    private PreparedStatement pageQuery;
+    private PreparedStatement countQuery;
+    private TrigramIndex index;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:search" + contacts + ";DB_CLOSE_DELAY=-1");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS contact");
+            ddl.execute("CREATE TABLE contact (id BIGINT PRIMARY KEY, user_id BIGINT, first_name VARCHAR(255), " +
+                    "last_name VARCHAR(255), email VARCHAR(255), title VARCHAR(255), phone VARCHAR(255))");
+            ddl.execute("CREATE INDEX idx_contact_user ON contact (user_id, id)");
+        }
+
+        String[] first = {"John", "Jane", "Alice", "Bob", "Maria", "Ahmed", "Wei", "Olga", "Carlos", "Priya"};
+        String[] last = {"Smith", "Jones", "Khan", "Garcia", "Chen", "Ivanova", "Brown", "Patel", "Silva", "Kim"};
+        String[] titles = {"Engineer", "Manager", "Sales", "Founder", "Designer", null};
+        Random random = new Random(42);
+        List<ContactIndexRow> rows = new ArrayList<>(contacts);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO contact VALUES (?, 1, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= contacts; i++) {
+                String f = first[random.nextInt(first.length)] + (i % 97);
+                String l = last[random.nextInt(last.length)];
+                ContactIndexRow row = new ContactIndexRow(i, f, l, (f + "." + l + i + "@example.com").toLowerCase(),
+                        titles[random.nextInt(titles.length)], String.format("555-%04d-%03d", random.nextInt(10_000), i % 1000));
+                rows.add(row);
+                insert.setLong(1, row.id());
+                insert.setString(2, row.firstName());
+                insert.setString(3, row.lastName());
+                insert.setString(4, row.email());
+                insert.setString(5, row.title());
+                insert.setString(6, row.phone());
+                insert.addBatch();
+                if (i % 1_000 == 0) insert.executeBatch();
+            }
+            insert.executeBatch();
+        }
+        index = new TrigramIndex(rows);
+
+        pageQuery = connection.prepareStatement("SELECT * FROM contact WHERE " + LIKE_PREDICATE + " LIMIT 10");
+        countQuery = connection.prepareStatement("SELECT COUNT(*) FROM contact WHERE " + LIKE_PREDICATE);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int sqlLikeWithCount() throws SQLException {
+        int rows = 0;
+        bind(pageQuery);
+        try (ResultSet page = pageQuery.executeQuery()) {
+            while (page.next()) rows++;
+        }
+        bind(countQuery);
+        try (ResultSet count = countQuery.executeQuery()) {
+            count.next();
+            return rows + count.getInt(1);
+        }
+    }
+
+    @Benchmark
+    public int trigramIndex() {
+        return index.search(query).length;
+    }
+
+    private void bind(PreparedStatement statement) throws SQLException {
+        String pattern = "%" + query.toLowerCase() + "%";
+        statement.setLong(1, 1);
+        for (int i = 2; i <= 6; i++) statement.setString(i, pattern);
+    }
+}
@@ -0,0 +1,52 @@
+package com.connectbase.backend.search;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typo-tolerant ranked search ({@link FuzzyIndex}) over a 100k-contact address book, top 10 results.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=FuzzyIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class FuzzyIndexBenchmark {
+
+    @Param({"100000"})
+    public int contacts;
+
+    @Param({"jonh smth", "mraia garcia", "enginer", "priya"})
+    public String query;
+
+    private FuzzyIndex index;
+
+    @Setup
+    public void setUp() {
+        String[] first = {"John", "Jane", "Alice", "Bob", "Maria", "Ahmed", "Wei", "Olga", "Carlos", "Priya",
+                "Johnny", "Joan", "Mario", "Marta", "Chris", "Christine", "Sam", "Samantha", "Ali", "Alina"};
+        String[] last = {"Smith", "Smyth", "Jones", "Khan", "Garcia", "Chen", "Ivanova", "Brown", "Patel", "Silva",
+                "Kim", "Nguyen", "Schmidt", "Muller", "Rossi", "Tanaka", "Kowalski", "Novak", "Cohen", "Haddad"};
+        String[] titles = {"Engineer", "Senior Engineer", "Manager", "Sales Lead", "Founder", "Designer", null};
+        Random random = new Random(42);
+        List<ContactIndexRow> rows = new ArrayList<>(contacts);
+        for (int i = 1; i <= contacts; i++) {
+            String f = first[random.nextInt(first.length)];
+            String l = last[random.nextInt(last.length)];
+            rows.add(new ContactIndexRow(i, f, l, (f + "." + l + i + "@example.com").toLowerCase(),
+                    titles[random.nextInt(titles.length)], null));
+        }
+        index = new FuzzyIndex(rows);
+    }
+
+    @Benchmark
+    public int search() {
+        return index.search(query, 10).ids().length;
+    }
+}
@@ -0,0 +1,58 @@
+package com.connectbase.backend.search;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete lookups against one user's {@link PrefixIndex}, including a pending delta of recent writes.
+ * Sample mode reports p99 directly; the target is under a millisecond at 50k contacts.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=PrefixIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PrefixIndexBenchmark {
+
+    @Param({"50000"})
+    public int contacts;
+
+    @Param({"j", "jo", "smith", "maria.g", "555"})
+    public String prefix;
+
+    private PrefixIndex index;
+
+    @Setup
+    public void setUp() {
+        String[] first = {"John", "Jane", "Alice", "Bob", "Maria", "Ahmed", "Wei", "Olga", "Carlos", "Priya"};
+        String[] last = {"Smith", "Jones", "Khan", "Garcia", "Chen", "Ivanova", "Brown", "Patel", "Silva", "Kim"};
+        Random random = new Random(42);
+        List<ContactIndexRow> rows = new ArrayList<>(contacts);
+        for (int i = 1; i <= contacts; i++) {
+            rows.add(randomRow(i, first, last, random));
+        }
+        index = new PrefixIndex(rows);
+        // Leave some unmerged writes behind, as in steady-state use
+        for (int i = 0; i < 300; i++) {
+            index.upsert(randomRow(1 + random.nextInt(contacts), first, last, random));
+        }
+    }
+
+    @Benchmark
+    public int suggest() {
+        return index.suggest(prefix, 8).size();
+    }
+
+    private static ContactIndexRow randomRow(long id, String[] first, String[] last, Random random) {
+        String f = first[random.nextInt(first.length)] + (id % 97);
+        String l = last[random.nextInt(last.length)];
+        return new ContactIndexRow(id, f, l, (f + "." + l + id + "@example.com").toLowerCase(), null,
+                String.format("555-%04d-%03d", random.nextInt(10_000), id % 1000));
+    }
+}
@@ -0,0 +1,50 @@
+package com.connectbase.backend.security;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a limiter check on the login path. Run with {@code ./gradlew jmh}.
+ * The multi-threaded variants show the striping keeps unrelated keys contention-free.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class TokenBucketLimiterBenchmark {
+
+    private TokenBucketLimiter limiter;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        // Generous limits: measures the normal, non-throttled path
+        limiter = new TokenBucketLimiter(1_000_000, 1, TimeUnit.SECONDS, 100_000);
+        keys = new String[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "user" + i + "@example.com";
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long singleThreadDistinctKeys() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(keys.length)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long eightThreadsDistinctKeys() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(keys.length)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long eightThreadsSameKey() {
+        return limiter.tryAcquire(keys[0]);
+    }
+}
@@ -0,0 +1,117 @@
+package com.connectbase.backend.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ReflectionUtils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of shrinking one upload, against hashing it (all a repeated upload costs, as it reuses the stored files).
+ * The photo is a synthetic phone photo: gradients with sensor-like noise at JPEG quality 0.95. Bytes uploaded per
+ * image and bytes of avatars served per list page (10 contacts, the client's page size) are printed once per
+ * trial, for the raw upload and for the normalized image with its thumbnail.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=ImageProcessingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ImageProcessingBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    // 12 MP is a current phone's main camera; 2 MP a messaging-app resend
+    @Param({"4032x3024", "1600x1200"})
+    public String size;
+
+    private ImageProcessor processor;
+    private Path dir;
+    private Path photo;
+
+    @Setup
+    public void setUp() throws IOException {
+        processor = new ImageProcessor();
+        set("maxDimension", 1024);
+        set("thumbnailSize", 128);
+        set("quality", 0.82f);
+        set("maxPixels", 50_000_000L);
+
+        String[] dimensions = size.split("x");
+        dir = Files.createTempDirectory("image-bench");
+        photo = photo(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+
+        ImageProcessor.Normalized normalized = processor.normalize(photo, true);
+        long raw = Files.size(photo);
+        long image = Files.size(normalized.image());
+        long thumbnail = Files.size(normalized.thumbnail());
+        System.out.printf("%nbytes uploaded per image (%s): raw=%d, normalized=%d (image %d + thumbnail %d)%n",
+                size, raw, image + thumbnail, image, thumbnail);
+        System.out.printf("bytes served per list page of %d avatars: raw=%d, thumbnails=%d%n",
+                PAGE_SIZE, raw * PAGE_SIZE, thumbnail * PAGE_SIZE);
+        delete(normalized);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(photo);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public ImageProcessor.Normalized normalize() throws IOException {
+        ImageProcessor.Normalized normalized = processor.normalize(photo, true);
+        delete(normalized);
+        return normalized;
+    }
+
+    @Benchmark
+    public String hash() throws IOException {
+        return ImageProcessor.hash(photo);
+    }
+
+    private Path photo(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(32);
+                image.setRGB(x, y, (x * 200 / width + noise) << 16 | (y * 200 / height + noise) << 8 | (x + y) % 200 + noise);
+            }
+        }
+        Path file = dir.resolve("photo.jpg");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (FileImageOutputStream out = new FileImageOutputStream(file.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.95f);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return file;
+    }
+
+    private static void delete(ImageProcessor.Normalized normalized) throws IOException {
+        Files.deleteIfExists(normalized.image());
+        Files.deleteIfExists(normalized.thumbnail());
+    }
+
+    private void set(String name, Object value) {
+        var field = ReflectionUtils.findField(ImageProcessor.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, processor, value);
+    }
+}
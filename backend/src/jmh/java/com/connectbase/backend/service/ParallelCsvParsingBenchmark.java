@@ -0,0 +1,93 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.format.ContactReader;
+import com.connectbase.backend.format.CsvFormat;
+import com.connectbase.backend.format.FormatOptions;
+import com.connectbase.backend.model.Contact;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a 1M-row CSV import on 1 to 8 threads, against the single-threaded reader the small-file path uses.
+ * Rows are only parsed and validated; nothing is inserted.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=ParallelCsvParsingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParallelCsvParsingBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private final CsvFormat format = new CsvFormat();
+    private Path file;
+    private ParallelCsvParser parser;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("contacts-bench", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("First Name,Last Name,Email,Phone,Title\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write("First" + i + ",\"Last, Jr.\",person" + i + "@example.com,+1 415 555 0100,Account Manager\n");
+            }
+        }
+        parser = new ParallelCsvParser();
+        set("threads", threads);
+        set("chunkBytes", 1 << 20);
+        set("maxBufferedBytes", 32L << 20);
+        set("minFileBytes", 0L);
+        parser.init();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        parser.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void parallel(Blackhole blackhole) throws IOException {
+        try (ParallelCsvParser.Ranges ranges = parser.open(file, format, FormatOptions.DEFAULT, ParallelCsvParsingBenchmark::validate)) {
+            List<ParsedRow> range;
+            while ((range = ranges.next()) != null) {
+                blackhole.consume(range);
+            }
+        }
+    }
+
+    // Independent of threads; compare with parallel at threads=1 for the splitting overhead
+    @Benchmark
+    public void sequential(Blackhole blackhole) throws IOException {
+        try (ContactReader reader = format.reader(Files.newInputStream(file), FormatOptions.DEFAULT)) {
+            while (reader.next()) {
+                blackhole.consume(ParsedRow.read(reader).validated(ParallelCsvParsingBenchmark::validate));
+            }
+        }
+    }
+
+    private static String validate(Contact contact) {
+        return contact.getEmail().indexOf('@') < 0 ? "Invalid email" : null;
+    }
+
+    private void set(String name, Object value) {
+        var field = ReflectionUtils.findField(ParallelCsvParser.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, parser, value);
+    }
+}
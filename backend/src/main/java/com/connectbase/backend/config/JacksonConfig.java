@@ -0,0 +1,37 @@
+package com.connectbase.backend.config;
+
+import com.connectbase.backend.dto.ApiResponse;
+import com.connectbase.backend.dto.ContactView;
+import com.connectbase.backend.dto.CursorPage;
+import com.connectbase.backend.dto.PageResponse;
+import com.connectbase.backend.model.ImageStatus;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.module.blackbird.BlackbirdModule;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Configuration
+public class JacksonConfig {
+
+    // Picked up by Boot's JsonMapper: property access through generated lambdas instead of reflection
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    // Build and cache the serializers for the contact responses at startup, not on the first request
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpSerializers(ApplicationReadyEvent event) {
+        JsonMapper jsonMapper = event.getApplicationContext().getBean(JsonMapper.class);
+        ContactView sample = new ContactView(1, "a", "b", "c", "d", "d", ImageStatus.READY, "e", "f",
+                LocalDateTime.now(), LocalDateTime.now());
+        jsonMapper.writeValueAsBytes(new ApiResponse<>(200, "", new PageResponse<>(List.of(sample), 0, 1, 1, 1)));
+        jsonMapper.writeValueAsBytes(new ApiResponse<>(200, "", new CursorPage<>(List.of(sample), 1, false, null)));
+        jsonMapper.writeValueAsBytes(new ApiResponse<>(200, "", sample));
+    }
+}
@@ -2,9 +2,12 @@ package com.connectbase.backend.controller;
 
 import com.connectbase.backend.dto.ApiResponse;
 import com.connectbase.backend.model.User;
+import com.connectbase.backend.security.AuthCookies;
+import com.connectbase.backend.security.AuthRateLimiter;
 import com.connectbase.backend.security.JwtUtils;
+import com.connectbase.backend.security.RefreshTokenService;
 import com.connectbase.backend.service.AuthService;
-import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +20,8 @@ public class AuthController {
 
     @Autowired private AuthService authService;
     @Autowired private JwtUtils jwtUtils;
+    @Autowired private AuthRateLimiter authRateLimiter;
+    @Autowired private RefreshTokenService refreshTokenService;
 
     @PostMapping("/register")
     public ResponseEntity<ApiResponse<User>> register(
@@ -36,23 +41,41 @@ public class AuthController {
     public ResponseEntity<ApiResponse<String>> login(
             @RequestParam("email") String email,
             @RequestParam("password") String password,
+            HttpServletRequest request,
             HttpServletResponse response) {
 
+        // Throttle before any DB lookup or BCrypt work
+        authRateLimiter.checkLogin(email, request);
         User user = authService.loginUser(email, password);
 
         // Generate Tokens
-        String accessToken = jwtUtils.generateAccessToken(user.getEmail());
-        String refreshToken = jwtUtils.generateRefreshToken(user.getEmail());
+        String accessToken = jwtUtils.generateAccessToken(user);
+        String refreshToken = jwtUtils.generateRefreshToken(user);
 
-        // Set Cookies
-        addCookie(response, "accessToken", accessToken, 15 * 60);
-        addCookie(response, "refreshToken", refreshToken, 7 * 24 * 60 * 60);
+        // Set Cookies (lifetimes match the tokens inside them)
+        addCookie(response, AuthCookies.ACCESS_TOKEN, accessToken, jwtUtils.getAccessTokenMaxAgeSeconds());
+        addCookie(response, AuthCookies.REFRESH_TOKEN, refreshToken, jwtUtils.getRefreshTokenMaxAgeSeconds());
 
         return ResponseEntity.ok(new ApiResponse<>(200, "Login successful", "Welcome " + user.getFirstName()));
     }
 
+    // Renews the session from the refresh cookie alone: no password, no BCrypt, one primary-key lookup
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<String>> refresh(
+            @CookieValue(value = AuthCookies.REFRESH_TOKEN, required = false) String refreshToken,
+            HttpServletResponse response) {
+
+        RefreshTokenService.TokenPair tokens = refreshTokenService.refresh(refreshToken);
+
+        addCookie(response, AuthCookies.ACCESS_TOKEN, tokens.accessToken(), jwtUtils.getAccessTokenMaxAgeSeconds());
+        addCookie(response, AuthCookies.REFRESH_TOKEN, tokens.refreshToken(), jwtUtils.getRefreshTokenMaxAgeSeconds());
+        return ResponseEntity.ok(new ApiResponse<>(200, "Session refreshed", null));
+    }
+
     @PostMapping("/forgot-password")
-    public ResponseEntity<ApiResponse<String>> forgotPassword(@RequestParam("email") String email) {
+    public ResponseEntity<ApiResponse<String>> forgotPassword(@RequestParam("email") String email,
+                                                              HttpServletRequest request) {
+        authRateLimiter.checkPasswordReset(email, request);
         authService.generateResetCode(email);
         return ResponseEntity.ok(new ApiResponse<>(200, "Verification code sent to email", null));
     }
@@ -67,8 +90,10 @@ public class AuthController {
     public ResponseEntity<ApiResponse<String>> resetPassword(
             @RequestParam("email") String email,
             @RequestParam("code") String code,
-            @RequestParam("newPassword") String newPassword) {
+            @RequestParam("newPassword") String newPassword,
+            HttpServletRequest request) {
 
+        authRateLimiter.checkPasswordReset(email, request);
         authService.resetPassword(email, code, newPassword);
         return ResponseEntity.ok(new ApiResponse<>(200, "Password reset successfully", null));
     }
@@ -82,29 +107,34 @@ public class AuthController {
     @PostMapping("/change-password")
     public ResponseEntity<ApiResponse<String>> changePassword(
             @RequestBody com.connectbase.backend.dto.ChangePasswordRequest request,
-            java.security.Principal principal) {
+            java.security.Principal principal,
+            HttpServletResponse response) {
         
-        authService.changePassword(
+        User user = authService.changePassword(
             principal.getName(), 
             request.getOldPassword(), 
             request.getNewPassword()
         );
+        // Every other session has ended; this one continues on a new token family
+        addCookie(response, AuthCookies.ACCESS_TOKEN, jwtUtils.generateAccessToken(user), jwtUtils.getAccessTokenMaxAgeSeconds());
+        addCookie(response, AuthCookies.REFRESH_TOKEN, jwtUtils.generateRefreshToken(user), jwtUtils.getRefreshTokenMaxAgeSeconds());
         return ResponseEntity.ok(new ApiResponse<>(200, "Password changed successfully", null));
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse<String>> logout(HttpServletResponse response) {
+    public ResponseEntity<ApiResponse<String>> logout(
+            @CookieValue(value = AuthCookies.REFRESH_TOKEN, required = false) String refreshToken,
+            HttpServletResponse response) {
+        if (refreshToken != null) {
+            refreshTokenService.revoke(refreshToken);
+        }
         // Overwrite cookies with age 0
-        addCookie(response, "accessToken", "", 0);
-        addCookie(response, "refreshToken", "", 0);
+        addCookie(response, AuthCookies.ACCESS_TOKEN, "", 0);
+        addCookie(response, AuthCookies.REFRESH_TOKEN, "", 0);
         return ResponseEntity.ok(new ApiResponse<>(200, "Logged out", null));
     }
 
     private void addCookie(HttpServletResponse response, String name, String value, int maxAge) {
-        Cookie cookie = new Cookie(name, value);
-        cookie.setHttpOnly(true); // Secure: JS cannot read this
-        cookie.setPath("/");
-        cookie.setMaxAge(maxAge);
-        response.addCookie(cookie);
+        AuthCookies.write(response, name, value, maxAge);
     }
 }
\ No newline at end of file
@@ -1,19 +1,43 @@
 package com.connectbase.backend.controller;
 
 import com.connectbase.backend.dto.ApiResponse;
+import com.connectbase.backend.dto.BulkDeleteRequest;
+import com.connectbase.backend.dto.BulkResult;
+import com.connectbase.backend.dto.BulkUpdateRequest;
+import com.connectbase.backend.dto.ContactView;
+import com.connectbase.backend.dto.CursorPage;
+import com.connectbase.backend.dto.ImportJobStatus;
+import com.connectbase.backend.dto.ImportResult;
+import com.connectbase.backend.dto.PageResponse;
+import com.connectbase.backend.format.ContactFormat;
+import com.connectbase.backend.format.ContactFormats;
+import com.connectbase.backend.format.ContactWriter;
+import com.connectbase.backend.format.FormatOptions;
 import com.connectbase.backend.model.Contact;
-import com.connectbase.backend.model.User;
-import com.connectbase.backend.repo.UserRepo;
+import com.connectbase.backend.repo.ContactCursor;
+import com.connectbase.backend.repo.ContactSort;
+import com.connectbase.backend.search.ContactSuggestion;
+import com.connectbase.backend.security.AuthenticatedUser;
 import com.connectbase.backend.service.ContactService;
+import com.connectbase.backend.service.ContactVersionTracker;
+import com.connectbase.backend.service.DuplicateMode;
+import com.connectbase.backend.service.ImportJobService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 
 import java.net.URI;
@@ -22,40 +46,75 @@ import java.net.URI;
 @RequestMapping("/api")
 public class ContactController {
 
+    // Browsers may keep the body but must revalidate it (cheap: see notModified)
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     @Autowired
     private ContactService contactService;
 
     @Autowired
-    private UserRepo userRepo;
+    private ContactVersionTracker contactVersions;
 
-    private User getAuthenticatedUser() {
+    @Autowired
+    private ImportJobService importJobService;
+
+    @Autowired
+    private ContactFormats contactFormats;
+
+    // The principal is built from the verified token, so this costs no database query
+    private long getAuthenticatedUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+        return principal.id();
+    }
+
+    // Conditional GET: ETag/Last-Modified come from the user's contact version, looked up once per request, so a
+    // matching If-None-Match (or If-Modified-Since) is answered with 304 before any contact query runs. Sets both
+    // headers otherwise; the same stamp then keys the page cache.
+    private static boolean notModified(WebRequest request, ContactVersionTracker.Stamp stamp) {
+        return request.checkNotModified(stamp.eTag(), stamp.lastModified());
+    }
+
+    private static boolean notModified(WebRequest request, ContactVersionTracker.Stamp stamp, String variant) {
+        return request.checkNotModified(stamp.eTag(variant), stamp.lastModified());
     }
 
-    // Show all contacts with pagination
+    // Show all contacts with pagination. Passing "after" or "sort" switches to keyset (cursor) paging:
+    // start with ?sort=name, then follow nextCursor via ?sort=name&after=...
     @GetMapping("/contacts")
-    public ResponseEntity<ApiResponse<Page<Contact>>> getContacts(
+    public ResponseEntity<ApiResponse<?>> getContacts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        User user = getAuthenticatedUser();
-        Page<Contact> contacts = contactService.getAllContacts(user, page, size);
-        ApiResponse<Page<Contact>> response = new ApiResponse<>(200, "Contacts retrieved successfully", contacts);
-        return ResponseEntity.ok(response);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            WebRequest request) {
+        long userId = getAuthenticatedUserId();
+        ContactVersionTracker.Stamp stamp = contactVersions.current(userId);
+        if (notModified(request, stamp)) return null;
+        if (after != null || sort != null) {
+            ContactSort contactSort = ContactSort.fromParam(sort);
+            Slice<ContactView> slice = contactService.getContactsAfter(userId, contactSort, decodeCursor(after, contactSort), size);
+            return ResponseEntity.ok().cacheControl(REVALIDATE)
+                    .body(new ApiResponse<>(200, "Contacts retrieved successfully", toCursorPage(slice, contactSort)));
+        }
+        Page<ContactView> contacts = contactService.getAllContacts(userId, stamp.version(), page, size);
+        ApiResponse<PageResponse<ContactView>> response = new ApiResponse<>(200, "Contacts retrieved successfully", PageResponse.of(contacts));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
     }
 
     @GetMapping("/contact/{id}")
-    public ResponseEntity<ApiResponse<Contact>> getContactById(@PathVariable long id){
-        User user = getAuthenticatedUser();
-        Contact contact = contactService.getContactById(id, user);
-        ApiResponse<Contact> response = new ApiResponse<>(200, "Contact retrieved successfully", contact);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<ApiResponse<ContactView>> getContactById(@PathVariable long id, WebRequest request){
+        long userId = getAuthenticatedUserId();
+        if (notModified(request, contactVersions.current(userId))) return null;
+        ContactView contact = contactService.getContactView(id, userId);
+        ApiResponse<ContactView> response = new ApiResponse<>(200, "Contact retrieved successfully", contact);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
     }
 
     @PostMapping("/contact/create")
-    public ResponseEntity<ApiResponse<Contact>> createContact(
+    public ResponseEntity<ApiResponse<ContactView>> createContact(
             @RequestParam("firstName") String firstName,
             @RequestParam("lastName") String lastName,
             @RequestParam("email") String email,
@@ -63,7 +122,7 @@ public class ContactController {
             @RequestParam("title") String title,
             @RequestParam(value = "image", required = false) MultipartFile image) {
         
-        User user = getAuthenticatedUser();
+        long userId = getAuthenticatedUserId();
         Contact contact = new Contact();
         contact.setFirstName(firstName);
         contact.setLastName(lastName);
@@ -71,13 +130,13 @@ public class ContactController {
         contact.setPhone(phone);
         contact.setTitle(title);
 
-        Contact createdContact = contactService.createContact(user, contact, image);
+        Contact createdContact = contactService.createContact(userId, contact, image);
         return ResponseEntity.created(URI.create("/api/contact/" + createdContact.getId()))
-                .body(new ApiResponse<>(201, "Contact created successfully", createdContact));
+                .body(new ApiResponse<>(201, "Contact created successfully", ContactView.from(createdContact)));
     }
 
     @PutMapping("/update-contact/{id}")
-    public ResponseEntity<ApiResponse<Contact>> updateContact(
+    public ResponseEntity<ApiResponse<ContactView>> updateContact(
             @PathVariable long id,
             @RequestParam(value = "firstName", required = false) String firstName,
             @RequestParam(value = "lastName", required = false) String lastName,
@@ -86,7 +145,7 @@ public class ContactController {
             @RequestParam(value = "title", required = false) String title,
             @RequestParam(value = "image", required = false) MultipartFile image) {
 
-        User user = getAuthenticatedUser();
+        long userId = getAuthenticatedUserId();
         Contact contactDetails = new Contact();
         contactDetails.setFirstName(firstName);
         contactDetails.setLastName(lastName);
@@ -94,51 +153,167 @@ public class ContactController {
         contactDetails.setPhone(phone);
         contactDetails.setTitle(title);
 
-        Contact updatedContact = contactService.updateContact(id, user, contactDetails, image);
-        return ResponseEntity.ok(new ApiResponse<>(200, "Contact updated successfully", updatedContact));
+        Contact updatedContact = contactService.updateContact(id, userId, contactDetails, image);
+        return ResponseEntity.ok(new ApiResponse<>(200, "Contact updated successfully", ContactView.from(updatedContact)));
     }
 
     @DeleteMapping("/delete-contact/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteContact(@PathVariable long id) {
-        User user = getAuthenticatedUser();
-        contactService.deleteContact(id, user);
+        long userId = getAuthenticatedUserId();
+        contactService.deleteContact(id, userId);
         return ResponseEntity.ok(new ApiResponse<>(200, "Contact deleted successfully", true)); 
     }
 
+    // Set-based: a fixed number of statements whatever the number of contacts. Select by "ids" or by a search
+    // "query" (substring match, as /contacts/search); images are deleted in the background
+    @PostMapping("/contacts/bulk-delete")
+    public ResponseEntity<ApiResponse<BulkResult>> bulkDeleteContacts(@RequestBody BulkDeleteRequest request) {
+        long userId = getAuthenticatedUserId();
+        BulkResult result = contactService.bulkDelete(userId, request.ids(), request.query());
+        return ResponseEntity.ok(new ApiResponse<>(200, "Contacts deleted successfully", result));
+    }
+
+    // Same selection; the given fields are set on every selected contact
+    @PostMapping("/contacts/bulk-update")
+    public ResponseEntity<ApiResponse<BulkResult>> bulkUpdateContacts(@RequestBody BulkUpdateRequest request) {
+        long userId = getAuthenticatedUserId();
+        Contact changes = new Contact();
+        changes.setFirstName(request.firstName());
+        changes.setLastName(request.lastName());
+        changes.setEmail(request.email());
+        changes.setPhone(request.phone());
+        changes.setTitle(request.title());
+
+        BulkResult result = contactService.bulkUpdate(userId, request.ids(), request.query(), changes);
+        return ResponseEntity.ok(new ApiResponse<>(200, "Contacts updated successfully", result));
+    }
+
     @GetMapping("/contacts/search")
-    public ResponseEntity<ApiResponse<Page<Contact>>> searchContacts(
+    public ResponseEntity<ApiResponse<?>> searchContacts(
             @RequestParam("query") String query,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        User user = getAuthenticatedUser();
-        Page<Contact> contacts = contactService.searchContacts(user, query, page, size);
-        ApiResponse<Page<Contact>> response = new ApiResponse<>(200, "Search completed successfully", contacts);
-        return ResponseEntity.ok(response);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "exact") String mode,
+            WebRequest request) {
+        long userId = getAuthenticatedUserId();
+        ContactVersionTracker.Stamp stamp = contactVersions.current(userId);
+        // mode=fuzzy: typo-tolerant, ranked by relevance (page/size only); exact matches while the index warms up.
+        // Those are sent without validators, so a client cannot keep them once ranked results are available;
+        // ranked results get an ETag of their own
+        if ("fuzzy".equalsIgnoreCase(mode)) {
+            if (contactService.isFuzzySearchReady(userId) && notModified(request, stamp, "fuzzy")) return null;
+            Page<ContactView> ranked = contactService.fuzzySearchContacts(userId, stamp.version(), query, page, size);
+            return ResponseEntity.ok().cacheControl(REVALIDATE)
+                    .body(new ApiResponse<>(200, "Search completed successfully", PageResponse.of(ranked)));
+        }
+        if (notModified(request, stamp)) return null;
+        // mode=words: whole-word prefixes over the database's FULLTEXT index, where enabled (page/size only)
+        if ("words".equalsIgnoreCase(mode)) {
+            Page<ContactView> matches = contactService.wordSearchContacts(userId, query, page, size);
+            return ResponseEntity.ok().cacheControl(REVALIDATE)
+                    .body(new ApiResponse<>(200, "Search completed successfully", PageResponse.of(matches)));
+        }
+        if (!"exact".equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Unsupported search mode: " + mode + " (use exact, fuzzy or words)");
+        }
+        if (after != null || sort != null) {
+            ContactSort contactSort = ContactSort.fromParam(sort);
+            Slice<ContactView> slice = contactService.searchContactsAfter(userId, query, contactSort, decodeCursor(after, contactSort), size);
+            return ResponseEntity.ok().cacheControl(REVALIDATE)
+                    .body(new ApiResponse<>(200, "Search completed successfully", toCursorPage(slice, contactSort)));
+        }
+        Page<ContactView> contacts = contactService.searchContacts(userId, stamp.version(), query, page, size);
+        ApiResponse<PageResponse<ContactView>> response = new ApiResponse<>(200, "Search completed successfully", PageResponse.of(contacts));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
     }
 
+    // Autocomplete for the search box: top matches by name, email local part or phone digits
+    @GetMapping("/contacts/suggest")
+    public ResponseEntity<ApiResponse<List<ContactSuggestion>>> suggestContacts(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        long userId = getAuthenticatedUserId();
+        List<ContactSuggestion> suggestions = contactService.suggestContacts(userId, prefix, limit);
+        return ResponseEntity.ok(new ApiResponse<>(200, "Suggestions retrieved successfully", suggestions));
+    }
+
+    // An empty "after" requests the first page
+    private static ContactCursor decodeCursor(String after, ContactSort sort) {
+        return after == null || after.isEmpty() ? null : ContactCursor.decode(after, sort);
+    }
+
+    private static CursorPage<ContactView> toCursorPage(Slice<ContactView> slice, ContactSort sort) {
+        return CursorPage.of(slice, contact -> ContactCursor.of(sort, contact).encode());
+    }
+
+    // format (csv, vcard, ndjson) defaults to the Accept header's choice, then CSV. version (3.0, 4.0) is for vCard;
+    // delimiter and charset for CSV.
     @GetMapping("/contacts/export")
-    public void exportContacts(HttpServletResponse response) throws IOException {
-        User user = getAuthenticatedUser();
-        response.setContentType("text/csv");
-        response.setCharacterEncoding("UTF-8");
-        response.setHeader("Content-Disposition", "attachment; filename=\"contacts.csv\"");
-        contactService.exportContacts(user, response.getWriter());
+    public void exportContacts(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String delimiter,
+            @RequestParam(required = false) String charset,
+            @RequestParam(required = false) String version,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletResponse response, WebRequest request) throws IOException {
+        ContactFormat contactFormat = contactFormats.forDownload(format, accept);
+        FormatOptions options = FormatOptions.of(charset, delimiter, version);
+        long userId = getAuthenticatedUserId();
+        if (notModified(request, contactVersions.current(userId))) return;
+        response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String filename = "contacts." + contactFormat.fileExtensions().get(0);
+        if (gzip) {
+            // A .gz download, compressed on the fly (unlike transport compression, the file stays compressed)
+            response.setContentType("application/gzip");
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + ".gz\"");
+        } else {
+            response.setContentType(contactFormat.mediaType().toString());
+            response.setCharacterEncoding(contactFormat.charset(options).name());
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+        }
+
+        OutputStream body = response.getOutputStream();
+        if (gzip) {
+            body = new GZIPOutputStream(body, GZIP_BUFFER_SIZE, true); // Sync flush, so periodic flushes reach the client
+        }
+        try (ContactWriter writer = contactFormat.writer(body, options)) {
+            contactService.exportContacts(userId, writer);
+        }
     }
 
+    // format (csv, vcard, ndjson) defaults to the upload's content type, then its file extension.
+    // delimiter ("," ";" "tab" ...) and charset (UTF-8, windows-1252 ...) apply to CSV and default to comma and UTF-8.
+    // async=true spools the file and returns 202 with a job to poll; invalid rows are then skipped and reported.
+    // duplicates (skip, merge, overwrite; default skip) decides what happens to rows matching existing contacts
     @PostMapping("/contacts/import")
-    public ResponseEntity<ApiResponse<String>> importContacts(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<ApiResponse<?>> importContacts(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String delimiter,
+            @RequestParam(required = false) String charset,
+            @RequestParam(defaultValue = "false") boolean async,
+            @RequestParam(required = false) String duplicates) {
         if (file.isEmpty()) {
              return ResponseEntity.badRequest().body(new ApiResponse<>(400, "File is empty", null));
         }
 
-        if (!isCsvFile(file)) {
-             return ResponseEntity.badRequest().body(new ApiResponse<>(400, "Invalid file type. Please upload a .csv file.", null));
-        }
-
         try {
-            User user = getAuthenticatedUser();
-            contactService.importContacts(user, file);
-            return ResponseEntity.ok(new ApiResponse<>(200, "Contacts imported successfully", null));
+            long userId = getAuthenticatedUserId();
+            ContactFormat contactFormat = contactFormats.forUpload(format, file);
+            FormatOptions options = FormatOptions.of(charset, delimiter, null);
+            DuplicateMode duplicateMode = DuplicateMode.fromParam(duplicates);
+            if (async) {
+                ImportJobStatus job = importJobService.submit(userId, file, contactFormat, options, duplicateMode);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/contacts/import/" + job.id()))
+                        .body(new ApiResponse<>(202, "Import started", job));
+            }
+            ImportResult result = contactService.importContacts(userId, file, contactFormat, options, duplicateMode);
+            return ResponseEntity.ok(new ApiResponse<>(200, "Contacts imported successfully", result));
         } catch (IllegalArgumentException e) {
              return ResponseEntity.badRequest().body(new ApiResponse<>(400, e.getMessage(), null));
         } catch (IOException e) {
@@ -146,12 +321,15 @@ public class ContactController {
         }
     }
 
-    private boolean isCsvFile(MultipartFile file) {
-        String contentType = file.getContentType();
-        if (contentType != null && (contentType.equals("text/csv") || contentType.equals("application/vnd.ms-excel"))) {
-            return true;
-        }
-        String filename = file.getOriginalFilename();
-        return filename != null && filename.toLowerCase().endsWith(".csv");
+    @GetMapping("/contacts/import/{jobId}")
+    public ResponseEntity<ApiResponse<ImportJobStatus>> getImportJob(@PathVariable String jobId) {
+        ImportJobStatus job = importJobService.status(getAuthenticatedUserId(), jobId);
+        return ResponseEntity.ok(new ApiResponse<>(200, "Import job retrieved successfully", job));
+    }
+
+    @PostMapping("/contacts/import/{jobId}/cancel")
+    public ResponseEntity<ApiResponse<ImportJobStatus>> cancelImportJob(@PathVariable String jobId) {
+        ImportJobStatus job = importJobService.cancel(getAuthenticatedUserId(), jobId);
+        return ResponseEntity.ok(new ApiResponse<>(200, "Import job cancellation requested", job));
     }
 }
@@ -0,0 +1,43 @@
+package com.connectbase.backend.csv;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+
+// Parsing of the user-facing format options shared by import and export
+public final class Csv {
+
+    public static final char DEFAULT_DELIMITER = ',';
+
+    private Csv() {
+    }
+
+    // "," / ";" / "\t" / "tab"; null or empty means comma
+    public static char delimiter(String value) {
+        if (value == null || value.isEmpty()) return DEFAULT_DELIMITER;
+        if (value.equalsIgnoreCase("tab") || value.equals("\\t")) return '\t';
+        if (value.length() != 1) {
+            throw new IllegalArgumentException("Delimiter must be a single character: " + value);
+        }
+        char delimiter = value.charAt(0);
+        checkDelimiter(delimiter);
+        return delimiter;
+    }
+
+    // null or empty means UTF-8
+    public static Charset charset(String name) {
+        if (name == null || name.isEmpty()) return StandardCharsets.UTF_8;
+        try {
+            return Charset.forName(name);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            throw new IllegalArgumentException("Unsupported charset: " + name);
+        }
+    }
+
+    static void checkDelimiter(char delimiter) {
+        if (delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+            throw new IllegalArgumentException("Invalid delimiter: " + (int) delimiter);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.connectbase.backend.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Single-pass RFC 4180 reader.
+ * <p>
+ * Characters are pulled from a fixed buffer through a small state machine, and each record's fields are
+ * unescaped into one reused char array; Strings are only created when a field is asked for. Quoted fields may
+ * contain delimiters, doubled quotes and line breaks. A leading byte order mark is skipped, and LF, CRLF
+ * and lone CR all end a record. Being lenient about input from spreadsheets, a quote inside an unquoted field is
+ * taken literally, and text after a closing quote is appended to the field.
+ */
+public final class CsvReader implements Closeable {
+
+    private static final char BOM = '\uFEFF';
+
+    private final Reader in;
+    private final char delimiter;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    private char[] chars = new char[256];
+    private int length;
+    private int[] fieldEnds = new int[16];
+    private int fieldCount;
+
+    private long line = 1; // Physical line of the next character
+    private long recordLine;
+    private boolean started;
+
+    public CsvReader(Reader in, char delimiter) {
+        Csv.checkDelimiter(delimiter);
+        this.in = in;
+        this.delimiter = delimiter;
+    }
+
+    public static CsvReader open(InputStream in, Charset charset, char delimiter) {
+        return new CsvReader(new InputStreamReader(in, charset), delimiter);
+    }
+
+    /**
+     * Reads a slice of a file that starts on a record boundary ({@link CsvSplitter}): there is no byte order
+     * mark to skip, and line numbers continue from {@code firstLine}.
+     */
+    public static CsvReader openAt(InputStream in, Charset charset, char delimiter, long firstLine) {
+        CsvReader reader = open(in, charset, delimiter);
+        reader.line = firstLine;
+        reader.started = true;
+        return reader;
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return false at end of input
+     * @throws IllegalArgumentException if a quoted field is not closed before end of input
+     */
+    public boolean next() throws IOException {
+        length = 0;
+        fieldCount = 0;
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == BOM) c = read();
+        }
+        if (c == -1) return false;
+        recordLine = line;
+
+        boolean fieldStart = true;
+        while (true) {
+            if (fieldStart && c == '"') {
+                c = readQuoted();
+            }
+            if (c == delimiter) {
+                endField();
+                fieldStart = true;
+                c = read();
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                endField();
+                if (c == '\r' && peek() == '\n') read();
+                if (c != -1) line++;
+                return true;
+            } else {
+                append((char) c);
+                fieldStart = false;
+                c = read();
+            }
+        }
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    public String field(int index) {
+        if (index >= fieldCount) throw new IndexOutOfBoundsException("Record has " + fieldCount + " fields");
+        int start = index == 0 ? 0 : fieldEnds[index - 1];
+        return new String(chars, start, fieldEnds[index] - start);
+    }
+
+    // A line with nothing on it but whitespace
+    public boolean isBlankRecord() {
+        if (fieldCount != 1) return false;
+        for (int i = 0; i < length; i++) {
+            if (!Character.isWhitespace(chars[i])) return false;
+        }
+        return true;
+    }
+
+    // Physical line on which the current record starts (1-based)
+    public long lineNumber() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // Consumes a quoted field up to and including its closing quote; returns the character after it
+    private int readQuoted() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new IllegalArgumentException("Unterminated quoted field starting on line " + recordLine);
+            }
+            if (c == '"') {
+                int next = read();
+                if (next != '"') return next;
+            } else if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                line++;
+            }
+            append((char) c);
+        }
+    }
+
+    private void append(char c) {
+        if (length == chars.length) chars = Arrays.copyOf(chars, length * 2);
+        chars[length++] = c;
+    }
+
+    private void endField() {
+        if (fieldCount == fieldEnds.length) fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        fieldEnds[fieldCount++] = length;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) return false;
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -0,0 +1,220 @@
+package com.connectbase.backend.csv;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Splits a CSV file into byte ranges that each start on a record boundary, so that they can be parsed
+ * independently and in parallel ({@link CsvReader#openAt}).
+ * <p>
+ * Whether a line break ends a record depends on the quote state, which depends on everything before it. The
+ * file is cut into segments of about {@code targetBytes}, and each segment is scanned in parallel with
+ * {@link CsvReader}'s state machine reduced to bytes, once from every state it could start in, recording the
+ * state it ends in and its first record boundary. Chaining the segments from the start of the file then fixes
+ * the real state at every cut, so the ranges are exact under CsvReader's rules, stray quotes included. This
+ * needs a charset in which line breaks, quotes and the delimiter are single bytes that never occur inside
+ * another character ({@link #supports}).
+ */
+public final class CsvSplitter {
+
+    // CsvReader's states: at a field start, in an unquoted field, in quotes, and after a quote in quotes
+    // (the closing one unless another quote follows)
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+    private static final int STATES = 4;
+
+    /**
+     * Bytes {@code [start, end)} of the file, starting on physical line {@code firstLine}. The first range
+     * starts at 0 and still holds the byte order mark, if any, and the header record.
+     */
+    public record Range(long start, long end, long firstLine) {
+    }
+
+    private CsvSplitter() {
+    }
+
+    public static boolean supports(Charset charset, char delimiter) {
+        if (delimiter >= 0x80) return false;
+        String name = charset.name();
+        return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)
+                || name.startsWith("ISO-8859-") || name.startsWith("windows-125");
+    }
+
+    /**
+     * @param pool scans the segments; the caller waits for them
+     */
+    public static List<Range> split(Path file, Charset charset, char delimiter, int targetBytes, ExecutorService pool)
+            throws IOException {
+        if (!supports(charset, delimiter)) {
+            throw new IllegalArgumentException("Cannot split " + charset.name() + " CSV on byte boundaries");
+        }
+        if (targetBytes < 1) throw new IllegalArgumentException("targetBytes must be positive");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long scanStart = charset.equals(StandardCharsets.UTF_8) && startsWithBom(channel) ? 3 : 0;
+            byte delimiterByte = (byte) delimiter;
+
+            List<Future<Segment>> scans = new ArrayList<>();
+            for (long start = scanStart; start < size; start += targetBytes) {
+                long from = start;
+                long to = Math.min(size, start + targetBytes);
+                scans.add(pool.submit(() -> scan(channel, from, to, delimiterByte)));
+            }
+
+            List<Range> ranges = new ArrayList<>();
+            long rangeStart = 0;
+            long rangeLine = 1;
+            long line = 1; // Physical line at the start of the segment
+            int state = FIELD_START;
+            for (int i = 0; i < scans.size(); i++) {
+                Segment segment = await(scans, i);
+                long boundary = segment.firstRecord[state];
+                // Segment 0 starts on a boundary already; a boundary at the end of the file would leave an empty range
+                if (i > 0 && boundary >= 0 && boundary < size) {
+                    ranges.add(new Range(rangeStart, boundary, rangeLine));
+                    rangeStart = boundary;
+                    rangeLine = line + segment.breaksBeforeFirst[state];
+                }
+                line += segment.breaks;
+                state = segment.endState[state];
+            }
+            if (rangeStart < size) ranges.add(new Range(rangeStart, size, rangeLine));
+            return ranges;
+        }
+    }
+
+    // The bytes of one range; closing it closes the file
+    public static InputStream open(Path file, Range range) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        channel.position(range.start());
+        return new BoundedInputStream(Channels.newInputStream(channel), range.end() - range.start());
+    }
+
+    // Runs the byte state machine over [start, end) from each possible state at once
+    private static Segment scan(FileChannel channel, long start, long end, byte delimiter) throws IOException {
+        int length = (int) (end - start);
+        byte[] bytes = read(channel, start, length + 1); // One byte past the end tells whether a trailing CR ends a line
+        int[] state = {FIELD_START, UNQUOTED, QUOTED, QUOTE_IN_QUOTED};
+        long[] firstRecord = {-1, -1, -1, -1};
+        long[] breaksBeforeFirst = new long[STATES];
+        long breaks = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[i];
+            // Physical lines as CsvReader counts them: LF, CRLF and lone CR, quoted or not
+            boolean lineBreak = b == '\n' || (b == '\r' && (i + 1 == bytes.length || bytes[i + 1] != '\n'));
+            if (lineBreak) breaks++;
+            for (int s = 0; s < STATES; s++) {
+                int from = state[s];
+                int to;
+                if (from == QUOTED) {
+                    to = b == '"' ? QUOTE_IN_QUOTED : QUOTED;
+                } else if (b == '"') {
+                    to = from == UNQUOTED ? UNQUOTED : QUOTED; // Literal in an unquoted field; escaped after a quote
+                } else if (b == delimiter || b == '\n' || b == '\r') {
+                    to = FIELD_START;
+                    if (lineBreak && firstRecord[s] < 0) {
+                        firstRecord[s] = start + i + 1;
+                        breaksBeforeFirst[s] = breaks;
+                    }
+                } else {
+                    to = UNQUOTED;
+                }
+                state[s] = to;
+            }
+        }
+        return new Segment(state, firstRecord, breaksBeforeFirst, breaks);
+    }
+
+    // Up to length bytes from position; fewer at the end of the file
+    private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) break;
+        }
+        if (buffer.hasRemaining()) {
+            byte[] bytes = new byte[buffer.position()];
+            buffer.flip().get(bytes);
+            return bytes;
+        }
+        return buffer.array();
+    }
+
+    private static boolean startsWithBom(FileChannel channel) throws IOException {
+        byte[] head = read(channel, 0, 3);
+        return head.length == 3 && head[0] == (byte) 0xEF && head[1] == (byte) 0xBB && head[2] == (byte) 0xBF;
+    }
+
+    private static Segment await(List<Future<Segment>> scans, int index) throws IOException {
+        try {
+            return scans.get(index).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scans.forEach(scan -> scan.cancel(true));
+            throw new InterruptedIOException("Interrupted while splitting CSV");
+        } catch (ExecutionException e) {
+            scans.forEach(scan -> scan.cancel(true));
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Indexed by start state: the end state, the first record boundary (-1 if none) and the line breaks before it
+    private record Segment(int[] endState, long[] firstRecord, long[] breaksBeforeFirst, long breaks) {
+    }
+
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = in.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (remaining <= 0) return -1;
+            int read = in.read(bytes, offset, (int) Math.min(length, remaining));
+            if (read > 0) remaining -= read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+    }
+}
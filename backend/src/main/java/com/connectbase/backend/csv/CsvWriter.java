@@ -0,0 +1,78 @@
+package com.connectbase.backend.csv;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * RFC 4180 writer. Fields are written straight to the underlying writer; only fields containing the
+ * delimiter, a quote, a line break or leading/trailing whitespace are quoted, with quotes doubled.
+ * Records end with CRLF. Null is written as an empty field.
+ */
+public final class CsvWriter implements Flushable, Closeable {
+
+    private final Writer out;
+    private final char delimiter;
+    private boolean recordStart = true;
+
+    public CsvWriter(Writer out, char delimiter) {
+        Csv.checkDelimiter(delimiter);
+        this.out = out;
+        this.delimiter = delimiter;
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        if (!recordStart) out.write(delimiter);
+        recordStart = false;
+        if (value == null || value.isEmpty()) return this;
+
+        if (!needsQuotes(value)) {
+            out.write(value);
+            return this;
+        }
+        out.write('"');
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                out.write(value, from, i + 1 - from);
+                out.write('"');
+                from = i + 1;
+            }
+        }
+        out.write(value, from, value.length() - from);
+        out.write('"');
+        return this;
+    }
+
+    public void endRecord() throws IOException {
+        out.write("\r\n");
+        recordStart = true;
+    }
+
+    public void record(String... values) throws IOException {
+        for (String value : values) field(value);
+        endRecord();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private boolean needsQuotes(String value) {
+        if (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1))) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
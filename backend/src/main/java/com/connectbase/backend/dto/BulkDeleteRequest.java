@@ -0,0 +1,7 @@
+package com.connectbase.backend.dto;
+
+import java.util.List;
+
+// Selects contacts by ids or by a search query (substring match, as /api/contacts/search); exactly one of the two
+public record BulkDeleteRequest(List<Long> ids, String query) {
+}
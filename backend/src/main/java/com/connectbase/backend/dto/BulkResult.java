@@ -0,0 +1,5 @@
+package com.connectbase.backend.dto;
+
+// affected: contacts deleted or updated; imagesQueued: uploaded images scheduled for deletion
+public record BulkResult(int affected, int imagesQueued) {
+}
@@ -0,0 +1,8 @@
+package com.connectbase.backend.dto;
+
+import java.util.List;
+
+// Same selection as BulkDeleteRequest; non-null fields are set on every selected contact
+public record BulkUpdateRequest(List<Long> ids, String query, String firstName, String lastName, String email,
+                                String phone, String title) {
+}
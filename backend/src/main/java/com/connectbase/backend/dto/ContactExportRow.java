@@ -0,0 +1,5 @@
+package com.connectbase.backend.dto;
+
+// The exported CSV columns, in file order
+public record ContactExportRow(String firstName, String lastName, String email, String phone, String title, String image) {
+}
@@ -0,0 +1,5 @@
+package com.connectbase.backend.dto;
+
+// What import duplicate detection needs of an existing contact
+public record ContactKeyRow(long id, String email, String phone) {
+}
@@ -0,0 +1,22 @@
+package com.connectbase.backend.dto;
+
+import com.connectbase.backend.model.Contact;
+import com.connectbase.backend.model.ImageStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for contact endpoints. Repositories select straight into it (JPQL constructor expressions),
+ * so reads load only these columns and never create managed entities. {@code imageStatus} is PENDING while a new
+ * image is being uploaded: clients poll the contact until it is READY or FAILED. Lists should show
+ * {@code thumbnail}, an avatar-sized copy of the image; it is null for imported image URLs.
+ */
+public record ContactView(long id, String firstName, String lastName, String title, String image,
+                          String thumbnail, ImageStatus imageStatus, String email, String phone, LocalDateTime createdAt,
+                          LocalDateTime updatedAt) {
+
+    public static ContactView from(Contact contact) {
+        return new ContactView(contact.getId(), contact.getFirstName(), contact.getLastName(), contact.getTitle(),
+                contact.getImage(), contact.getThumbnail(), contact.getImageStatus(), contact.getEmail(), contact.getPhone(), contact.getCreatedAt(), contact.getUpdatedAt());
+    }
+}
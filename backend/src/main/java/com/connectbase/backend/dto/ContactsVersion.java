@@ -0,0 +1,5 @@
+package com.connectbase.backend.dto;
+
+// A user's contact list version and when it last changed (epoch millis, whole seconds; 0 = never changed)
+public record ContactsVersion(long version, long modifiedAt) {
+}
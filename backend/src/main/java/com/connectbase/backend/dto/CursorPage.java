@@ -0,0 +1,16 @@
+package com.connectbase.backend.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Keyset page: pass nextCursor back as "after" to fetch the following page (null on the last page)
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String nextCursor) {
+
+    public static <T> CursorPage<T> of(Slice<T> slice, Function<T, String> cursorOf) {
+        List<T> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty() ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorPage<>(content, slice.getSize(), slice.hasNext(), nextCursor);
+    }
+}
@@ -0,0 +1,25 @@
+package com.connectbase.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of an asynchronous import. {@code rejections} lists at most the first
+ * {@code contacts.import.jobs.max-reported-rejections} rejected rows; {@code rowsRejected} counts all of them.
+ */
+public record ImportJobStatus(
+        String id,
+        String state,
+        long rowsProcessed,
+        long rowsImported,
+        long rowsRejected,
+        List<ImportRejection> rejections,
+        long duplicatesSkipped,
+        long duplicatesMerged,
+        long rowsPerSecond,
+        String error,
+        LocalDateTime createdAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt
+) {
+}
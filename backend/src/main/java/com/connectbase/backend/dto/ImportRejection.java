@@ -0,0 +1,5 @@
+package com.connectbase.backend.dto;
+
+/** A row an import job skipped, by its 1-based line in the uploaded file. */
+public record ImportRejection(long line, String reason) {
+}
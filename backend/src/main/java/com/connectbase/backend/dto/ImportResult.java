@@ -0,0 +1,12 @@
+package com.connectbase.backend.dto;
+
+// rowsPerSecond counts every row read, duplicates included
+public record ImportResult(long imported, long duplicatesSkipped, long duplicatesMerged, long elapsedMillis, long rowsPerSecond) {
+
+    public static ImportResult of(long imported, long duplicatesSkipped, long duplicatesMerged, long elapsedNanos) {
+        long rows = imported + duplicatesSkipped + duplicatesMerged;
+        long millis = elapsedNanos / 1_000_000;
+        long rowsPerSecond = elapsedNanos > 0 ? rows * 1_000_000_000L / elapsedNanos : rows;
+        return new ImportResult(imported, duplicatesSkipped, duplicatesMerged, millis, rowsPerSecond);
+    }
+}
@@ -0,0 +1,13 @@
+package com.connectbase.backend.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+// Compact page envelope: the fields the client reads, instead of PageImpl's pageable/sort structure
+public record PageResponse<T>(List<T> content, int number, int size, long totalElements, int totalPages) {
+
+    public static <T> PageResponse<T> of(Page<T> page) {
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+    }
+}
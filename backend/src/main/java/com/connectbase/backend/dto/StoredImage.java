@@ -0,0 +1,5 @@
+package com.connectbase.backend.dto;
+
+// The uploaded files of a contact image; hash is the SHA-256 of the file the user sent, null for imported URLs
+public record StoredImage(String image, String thumbnail, String hash) {
+}
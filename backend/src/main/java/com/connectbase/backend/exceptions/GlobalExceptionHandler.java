@@ -3,6 +3,7 @@ package com.connectbase.backend.exceptions;
 import com.connectbase.backend.dto.ApiResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -23,7 +24,35 @@ public class GlobalExceptionHandler {
         );
     }
 
-    // 2. Handle Custom "Resource Not Found" (Example)
+    // 2. Handle saturated worker pools (e.g. password hashing during a login storm)
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<String>> handleServiceBusy(ServiceBusyException ex) {
+        log.warn("⏳ Service Busy: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiResponse<>(503, ex.getMessage(), false));
+    }
+
+    // 3. Handle rate-limited callers
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse<String>> handleTooManyRequests(TooManyRequestsException ex) {
+        log.warn("🚦 Rate Limited: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ApiResponse<>(429, ex.getMessage(), false));
+    }
+
+    // 4. Handle invalid or revoked session tokens
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<ApiResponse<String>> handleInvalidToken(InvalidTokenException ex) {
+        log.warn("🔑 Invalid Token: {}", ex.getMessage());
+        return new ResponseEntity<>(
+                new ApiResponse<>(401, ex.getMessage(), false),
+                HttpStatus.UNAUTHORIZED
+        );
+    }
+
+    // 5. Handle Custom "Resource Not Found" (Example)
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ApiResponse<String>> handleRuntimeException(RuntimeException ex) {
         log.warn("⚠️ Application Warning: {}", ex.getMessage());
@@ -0,0 +1,11 @@
+package com.connectbase.backend.exceptions;
+
+/**
+ * Thrown when a presented token is missing, invalid, expired or revoked; mapped to 401.
+ */
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
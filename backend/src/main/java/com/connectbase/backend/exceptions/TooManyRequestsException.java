@@ -0,0 +1,18 @@
+package com.connectbase.backend.exceptions;
+
+/**
+ * Thrown when a caller exceeds a rate limit; mapped to 429 with a Retry-After header.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,30 @@
+package com.connectbase.backend.format;
+
+import com.connectbase.backend.model.Contact;
+
+// Shared by the formats: imported contacts are built, and exports buffered, the same way in each
+final class ContactFields {
+
+    // Export writers buffer this much before the servlet stream sees it
+    static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private ContactFields() {
+    }
+
+    // Fields are trimmed; a blank image is no image
+    static Contact contact(String firstName, String lastName, String email, String phone, String title, String image) {
+        Contact contact = new Contact();
+        contact.setFirstName(trim(firstName));
+        contact.setLastName(trim(lastName));
+        contact.setEmail(trim(email));
+        contact.setPhone(trim(phone));
+        contact.setTitle(trim(title));
+        String trimmedImage = trim(image);
+        if (trimmedImage != null && !trimmedImage.isEmpty()) contact.setImage(trimmedImage);
+        return contact;
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+}
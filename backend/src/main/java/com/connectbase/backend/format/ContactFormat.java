@@ -0,0 +1,37 @@
+package com.connectbase.backend.format;
+
+import org.springframework.http.MediaType;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * A contact file format for import and export. Readers and writers stream one record at a time, so memory use
+ * does not depend on the file size. Implementations are Spring beans; {@link ContactFormats} picks one by the
+ * {@code format} parameter, the upload's content type or file extension, or the Accept header.
+ */
+public interface ContactFormat {
+
+    // The ?format= value
+    String name();
+
+    // Content-Type of exports
+    MediaType mediaType();
+
+    // Content types recognized on upload and in Accept headers; the first is mediaType()
+    List<MediaType> mediaTypes();
+
+    // Upload file extensions, without the dot; the first names export downloads
+    List<String> fileExtensions();
+
+    // Formats with a fixed encoding ignore the charset option
+    default Charset charset(FormatOptions options) {
+        return options.charset();
+    }
+
+    ContactReader reader(InputStream in, FormatOptions options);
+
+    ContactWriter writer(OutputStream out, FormatOptions options);
+}
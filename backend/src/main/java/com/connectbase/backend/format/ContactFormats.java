@@ -0,0 +1,88 @@
+package com.connectbase.backend.format;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Picks the {@link ContactFormat} for an import or export. An explicit {@code format} parameter always wins;
+ * otherwise uploads are matched by content type, then file extension, and downloads by the Accept header,
+ * falling back to CSV.
+ */
+@Component
+public class ContactFormats {
+
+    @Autowired
+    private List<ContactFormat> formats; // In @Order: CSV first
+
+    public ContactFormat get(String name) {
+        for (ContactFormat format : formats) {
+            if (format.name().equalsIgnoreCase(name)) return format;
+        }
+        throw new IllegalArgumentException("Unsupported format: " + name + " (use " + names() + ")");
+    }
+
+    public ContactFormat defaultFormat() {
+        return formats.get(0);
+    }
+
+    public ContactFormat forUpload(String name, MultipartFile file) {
+        if (name != null && !name.isEmpty()) return get(name);
+        if (file.getContentType() != null) {
+            ContactFormat byType = byMediaType(file.getContentType());
+            if (byType != null) return byType;
+        }
+        String filename = file.getOriginalFilename();
+        int dot = filename == null ? -1 : filename.lastIndexOf('.');
+        if (dot >= 0) {
+            String extension = filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+            for (ContactFormat format : formats) {
+                if (format.fileExtensions().contains(extension)) return format;
+            }
+        }
+        throw new IllegalArgumentException("Invalid file type. Please upload a .csv, .vcf or .ndjson file.");
+    }
+
+    // Accept entries are tried in order; wildcards and unknown types fall through to the default
+    public ContactFormat forDownload(String name, String accept) {
+        if (name != null && !name.isEmpty()) return get(name);
+        if (accept != null && !accept.isEmpty()) {
+            try {
+                for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                    ContactFormat format = byMediaType(type);
+                    if (format != null) return format;
+                }
+            } catch (InvalidMediaTypeException e) {
+                // A malformed Accept header gets the default rather than an error
+            }
+        }
+        return defaultFormat();
+    }
+
+    private ContactFormat byMediaType(String contentType) {
+        try {
+            return byMediaType(MediaType.parseMediaType(contentType));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+
+    private ContactFormat byMediaType(MediaType type) {
+        if (type.isWildcardType() || type.isWildcardSubtype()) return null;
+        for (ContactFormat format : formats) {
+            for (MediaType candidate : format.mediaTypes()) {
+                if (candidate.equalsTypeAndSubtype(type)) return format;
+            }
+        }
+        return null;
+    }
+
+    private String names() {
+        return String.join(", ", formats.stream().map(ContactFormat::name).toList());
+    }
+}
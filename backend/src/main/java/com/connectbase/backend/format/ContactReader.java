@@ -0,0 +1,30 @@
+package com.connectbase.backend.format;
+
+import com.connectbase.backend.model.Contact;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pull reader over an import file, one contact record at a time.
+ */
+public interface ContactReader extends Closeable {
+
+    /**
+     * Advances to the next record, skipping headers and blank lines.
+     *
+     * @return false at end of input
+     * @throws IllegalArgumentException if the input is malformed in a way later records cannot be recovered from
+     */
+    boolean next() throws IOException;
+
+    // 1-based line on which the current record starts
+    long lineNumber();
+
+    /**
+     * The current record as a new, unsaved contact with trimmed fields.
+     *
+     * @throws IllegalArgumentException if just this record is malformed; reading can continue with {@link #next()}
+     */
+    Contact contact();
+}
@@ -0,0 +1,19 @@
+package com.connectbase.backend.format;
+
+import com.connectbase.backend.dto.ContactExportRow;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Push writer for exports. Output is buffered: callers flush to hand what they wrote so far to the client.
+ */
+public interface ContactWriter extends Flushable, Closeable {
+
+    // Anything the format puts before the first record, such as a header row
+    default void begin() throws IOException {
+    }
+
+    void write(ContactExportRow contact) throws IOException;
+}
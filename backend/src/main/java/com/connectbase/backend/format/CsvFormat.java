@@ -0,0 +1,154 @@
+package com.connectbase.backend.format;
+
+import com.connectbase.backend.csv.CsvReader;
+import com.connectbase.backend.csv.CsvSplitter;
+import com.connectbase.backend.csv.CsvWriter;
+import com.connectbase.backend.dto.ContactExportRow;
+import com.connectbase.backend.model.Contact;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.List;
+
+/**
+ * The original format: a header row, then First Name, Last Name, Email, Phone, Title and an optional Image URL.
+ */
+@Component
+@Order(0) // The default
+public class CsvFormat implements ContactFormat {
+
+    static final String[] HEADER = {"First Name", "Last Name", "Email", "Phone", "Title", "Image URL"};
+
+    static final String TOO_FEW_COLUMNS = "Row must contain at least 5 columns (First Name, Last Name, Email, Phone, Title)";
+
+    private static final List<MediaType> MEDIA_TYPES = List.of(
+            MediaType.parseMediaType("text/csv"),
+            MediaType.parseMediaType("application/csv"),
+            MediaType.parseMediaType("application/vnd.ms-excel")); // What Windows browsers send for .csv
+
+    @Override
+    public String name() {
+        return "csv";
+    }
+
+    @Override
+    public MediaType mediaType() {
+        return MEDIA_TYPES.get(0);
+    }
+
+    @Override
+    public List<MediaType> mediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public List<String> fileExtensions() {
+        return List.of("csv");
+    }
+
+    @Override
+    public ContactReader reader(InputStream in, FormatOptions options) {
+        return new CsvContactReader(CsvReader.open(in, options.charset(), options.delimiter()), true);
+    }
+
+    /**
+     * Reads one range of a split file ({@link CsvSplitter#open}). The header is not skipped: it is the file's
+     * first record, which the caller drops.
+     */
+    public ContactReader reader(InputStream in, FormatOptions options, CsvSplitter.Range range) {
+        CsvReader csv = range.start() == 0
+                ? CsvReader.open(in, options.charset(), options.delimiter())
+                : CsvReader.openAt(in, options.charset(), options.delimiter(), range.firstLine());
+        return new CsvContactReader(csv, false);
+    }
+
+    @Override
+    public ContactWriter writer(OutputStream out, FormatOptions options) {
+        return new CsvContactWriter(new CsvWriter(new BufferedWriter(new OutputStreamWriter(out, options.charset()),
+                ContactFields.WRITE_BUFFER_SIZE), options.delimiter()));
+    }
+
+    private static final class CsvContactReader implements ContactReader {
+
+        private final CsvReader csv;
+        private boolean headerSeen;
+
+        CsvContactReader(CsvReader csv, boolean skipHeader) {
+            this.csv = csv;
+            this.headerSeen = !skipHeader;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            while (csv.next()) {
+                if (csv.isBlankRecord()) continue;
+                if (!headerSeen) {
+                    headerSeen = true;
+                    continue;
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long lineNumber() {
+            return csv.lineNumber();
+        }
+
+        @Override
+        public Contact contact() {
+            if (csv.fieldCount() < 5) {
+                throw new IllegalArgumentException(TOO_FEW_COLUMNS);
+            }
+            return ContactFields.contact(csv.field(0), csv.field(1), csv.field(2), csv.field(3), csv.field(4),
+                    csv.fieldCount() > 5 ? csv.field(5) : null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            csv.close();
+        }
+    }
+
+    private static final class CsvContactWriter implements ContactWriter {
+
+        private final CsvWriter csv;
+
+        CsvContactWriter(CsvWriter csv) {
+            this.csv = csv;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            csv.record(HEADER);
+        }
+
+        @Override
+        public void write(ContactExportRow contact) throws IOException {
+            csv.field(contact.firstName())
+                    .field(contact.lastName())
+                    .field(contact.email())
+                    .field(contact.phone())
+                    .field(contact.title())
+                    .field(contact.image())
+                    .endRecord();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            csv.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            csv.close();
+        }
+    }
+}
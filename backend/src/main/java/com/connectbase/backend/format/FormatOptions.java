@@ -0,0 +1,23 @@
+package com.connectbase.backend.format;
+
+import com.connectbase.backend.csv.Csv;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * User-facing options of import and export. Formats ignore the ones that do not apply to them.
+ *
+ * @param charset      CSV only; vCard and NDJSON are always UTF-8
+ * @param delimiter    CSV only
+ * @param vcardVersion vCard export only: "3.0" or "4.0"
+ */
+public record FormatOptions(Charset charset, char delimiter, String vcardVersion) {
+
+    public static final FormatOptions DEFAULT = new FormatOptions(StandardCharsets.UTF_8, Csv.DEFAULT_DELIMITER, VCardFormat.VERSION_4);
+
+    // Request parameters; null or empty means the default
+    public static FormatOptions of(String charset, String delimiter, String vcardVersion) {
+        return new FormatOptions(Csv.charset(charset), Csv.delimiter(delimiter), VCardFormat.version(vcardVersion));
+    }
+}
@@ -0,0 +1,156 @@
+package com.connectbase.backend.format;
+
+import com.connectbase.backend.dto.ContactExportRow;
+import com.connectbase.backend.model.Contact;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Newline-delimited JSON: one object per line with the export fields ({@code firstName}, {@code lastName},
+ * {@code email}, {@code phone}, {@code title}, {@code image}), for sync jobs that process records as they arrive.
+ * Unknown fields are ignored on import, so exported records (or richer ones) can be sent back as they are.
+ * A line that is not a valid object only rejects that record.
+ */
+@Component
+@Order(2)
+public class NdjsonFormat implements ContactFormat {
+
+    private static final List<MediaType> MEDIA_TYPES = List.of(
+            MediaType.parseMediaType("application/x-ndjson"),
+            MediaType.parseMediaType("application/ndjson"),
+            MediaType.parseMediaType("application/jsonl"));
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Override
+    public String name() {
+        return "ndjson";
+    }
+
+    @Override
+    public MediaType mediaType() {
+        return MEDIA_TYPES.get(0);
+    }
+
+    @Override
+    public List<MediaType> mediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public List<String> fileExtensions() {
+        return List.of("ndjson", "jsonl");
+    }
+
+    @Override
+    public Charset charset(FormatOptions options) {
+        return StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public ContactReader reader(InputStream in, FormatOptions options) {
+        ObjectReader records = jsonMapper.readerFor(ContactExportRow.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return new NdjsonReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), records);
+    }
+
+    @Override
+    public ContactWriter writer(OutputStream out, FormatOptions options) {
+        return new NdjsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
+                ContactFields.WRITE_BUFFER_SIZE), jsonMapper.writerFor(ContactExportRow.class));
+    }
+
+    private static final class NdjsonReader implements ContactReader {
+
+        private final BufferedReader in;
+        private final ObjectReader records;
+        private String line;
+        private long lineNumber;
+
+        NdjsonReader(BufferedReader in, ObjectReader records) {
+            this.in = in;
+            this.records = records;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long lineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public Contact contact() {
+            ContactExportRow row;
+            try {
+                row = records.readValue(line);
+            } catch (JacksonException e) {
+                throw new IllegalArgumentException("Invalid JSON record: " + e.getOriginalMessage());
+            }
+            if (row == null) {
+                throw new IllegalArgumentException("Invalid JSON record: expected an object");
+            }
+            return ContactFields.contact(row.firstName(), row.lastName(), row.email(), row.phone(), row.title(), row.image());
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static final class NdjsonWriter implements ContactWriter {
+
+        private final Writer out;
+        private final ObjectWriter records;
+
+        NdjsonWriter(Writer out, ObjectWriter records) {
+            this.out = out;
+            this.records = records;
+        }
+
+        // JSON escapes line breaks inside strings, so each record stays on one line
+        @Override
+        public void write(ContactExportRow contact) throws IOException {
+            out.write(records.writeValueAsString(contact));
+            out.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.connectbase.backend.format;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * vCard 3.0 (RFC 2426) and 4.0 (RFC 6350), as exchanged by phone and mail clients. Import reads either version;
+ * export writes 4.0 unless 3.0 is asked for. Always UTF-8.
+ */
+@Component
+@Order(1)
+public class VCardFormat implements ContactFormat {
+
+    public static final String VERSION_3 = "3.0";
+    public static final String VERSION_4 = "4.0";
+
+    private static final List<MediaType> MEDIA_TYPES = List.of(
+            MediaType.parseMediaType("text/vcard"),
+            MediaType.parseMediaType("text/x-vcard"),
+            MediaType.parseMediaType("text/directory"));
+
+    // null or empty means 4.0
+    public static String version(String value) {
+        if (value == null || value.isEmpty()) return VERSION_4;
+        if (value.equals("3") || value.equals(VERSION_3)) return VERSION_3;
+        if (value.equals("4") || value.equals(VERSION_4)) return VERSION_4;
+        throw new IllegalArgumentException("Unsupported vCard version: " + value + " (use 3.0 or 4.0)");
+    }
+
+    @Override
+    public String name() {
+        return "vcard";
+    }
+
+    @Override
+    public MediaType mediaType() {
+        return MEDIA_TYPES.get(0);
+    }
+
+    @Override
+    public List<MediaType> mediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public List<String> fileExtensions() {
+        return List.of("vcf", "vcard");
+    }
+
+    @Override
+    public Charset charset(FormatOptions options) {
+        return StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public ContactReader reader(InputStream in, FormatOptions options) {
+        return new VCardReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public ContactWriter writer(OutputStream out, FormatOptions options) {
+        return new VCardWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
+                ContactFields.WRITE_BUFFER_SIZE), options.vcardVersion());
+    }
+}
@@ -0,0 +1,266 @@
+package com.connectbase.backend.format;
+
+import com.connectbase.backend.model.Contact;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streaming vCard 3.0 / 4.0 reader.
+ * <p>
+ * Content lines are unfolded (a line starting with a space or tab continues the previous one) into one reused,
+ * bounded buffer: a value longer than {@link #MAX_LINE} characters is skipped rather than held, so an inline
+ * base64 PHOTO does not grow the heap. Of each card only N (or FN), the first EMAIL, TEL and TITLE, and a
+ * PHOTO given as an http(s) URL are kept; inline and {@code data:} photos are dropped, as contacts store image
+ * URLs. Text values are unescaped ({@code \n \, \; \\}). LF, CRLF and lone CR all end a line.
+ */
+final class VCardReader implements ContactReader {
+
+    static final int MAX_LINE = 16 * 1024;
+
+    private static final char BOM = '\uFEFF';
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean started;
+
+    private final StringBuilder line = new StringBuilder(256);
+    private boolean overflow;
+    private long nextLine = 1; // Physical line of the next character
+    private long lineStart;
+
+    // Parsed content line
+    private String name;
+    private String params;
+    private String value;
+
+    // Current card
+    private long cardLine;
+    private String n;
+    private String fn;
+    private String email;
+    private String tel;
+    private String title;
+    private String photo;
+    private String problem;
+
+    VCardReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the input ends inside a card
+     */
+    @Override
+    public boolean next() throws IOException {
+        n = fn = email = tel = title = photo = problem = null;
+        while (readLine()) {
+            if (parse() && name.equals("BEGIN") && value.trim().equalsIgnoreCase("VCARD")) {
+                cardLine = lineStart;
+                return readCard();
+            }
+            // Anything between cards is ignored
+        }
+        return false;
+    }
+
+    @Override
+    public long lineNumber() {
+        return cardLine;
+    }
+
+    @Override
+    public Contact contact() {
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+        String firstName = null;
+        String lastName = null;
+        String[] names = n != null ? splitComponents(n) : new String[0];
+        if (names.length > 1 && !(names[0].isBlank() && names[1].isBlank())) {
+            lastName = names[0];
+            firstName = names[1];
+        } else if (names.length == 1 && !names[0].isBlank()) {
+            lastName = names[0];
+        } else if (fn != null) {
+            // No usable N: take the first word of the formatted name as the first name
+            String full = unescape(fn).trim();
+            int space = full.indexOf(' ');
+            firstName = space < 0 ? full : full.substring(0, space);
+            lastName = space < 0 ? "" : full.substring(space + 1);
+        }
+        return ContactFields.contact(firstName, lastName,
+                stripScheme(email == null ? null : unescape(email), "mailto:"),
+                stripScheme(tel == null ? null : unescape(tel), "tel:"),
+                title == null ? null : unescape(title),
+                photo);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean readCard() throws IOException {
+        while (readLine()) {
+            if (!parse()) continue;
+            switch (name) {
+                case "END" -> {
+                    if (value.trim().equalsIgnoreCase("VCARD")) return true;
+                }
+                case "N", "FN", "EMAIL", "TEL", "TITLE" -> keep();
+                case "PHOTO" -> {
+                    if (photo == null && !overflow) photo = photoUrl();
+                }
+                default -> {
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unterminated vCard starting on line " + cardLine);
+    }
+
+    // The first occurrence of each property wins
+    private void keep() {
+        if (overflow) {
+            if (problem == null) {
+                problem = name + " on line " + lineStart + " is longer than " + MAX_LINE + " characters";
+            }
+            return;
+        }
+        switch (name) {
+            case "N" -> n = n != null ? n : value;
+            case "FN" -> fn = fn != null ? fn : value;
+            case "EMAIL" -> email = email != null ? email : value;
+            case "TEL" -> tel = tel != null ? tel : value;
+            case "TITLE" -> title = title != null ? title : value;
+            default -> {
+            }
+        }
+    }
+
+    // Only http(s) URLs: inline binary (ENCODING=b in 3.0) and data: URIs (4.0) are not stored
+    private String photoUrl() {
+        String upperParams = params.toUpperCase(Locale.ROOT);
+        if (upperParams.contains("ENCODING=B")) return null;
+        String url = value.trim();
+        String lower = url.toLowerCase(Locale.ROOT);
+        return lower.startsWith("http://") || lower.startsWith("https://") ? url : null;
+    }
+
+    // Splits the content line into name (group prefix dropped, upper case), parameters and value
+    private boolean parse() {
+        int colon = -1;
+        int semicolon = -1;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && c == ';' && semicolon < 0) {
+                semicolon = i;
+            } else if (!quoted && c == ':') {
+                colon = i;
+                break;
+            }
+        }
+        if (colon < 0) return false;
+        int nameEnd = semicolon >= 0 ? semicolon : colon;
+        String qualified = line.substring(0, nameEnd).trim();
+        name = qualified.substring(qualified.lastIndexOf('.') + 1).toUpperCase(Locale.ROOT);
+        params = semicolon >= 0 ? line.substring(semicolon + 1, colon) : "";
+        value = line.substring(colon + 1);
+        return true;
+    }
+
+    // Reads the next unfolded content line into the buffer; false at end of input
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        overflow = false;
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == BOM) c = read();
+        }
+        if (c == -1) return false;
+        lineStart = nextLine;
+        while (c != -1) {
+            if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek() == '\n') read();
+                nextLine++;
+                int following = peek();
+                if (following != ' ' && following != '\t') return true;
+                read(); // Folded: drop the line break and the one whitespace character
+            } else if (line.length() < MAX_LINE) {
+                line.append((char) c);
+            } else {
+                overflow = true;
+            }
+            c = read();
+        }
+        return true;
+    }
+
+    // Structured value components (N), split on unescaped semicolons and unescaped
+    static String[] splitComponents(String value) {
+        List<String> parts = new ArrayList<>(5);
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == ';') {
+                parts.add(unescape(value.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        parts.add(unescape(value.substring(start)));
+        return parts.toArray(new String[0]);
+    }
+
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) return value;
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                result.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private static String stripScheme(String value, String scheme) {
+        if (value == null) return null;
+        String trimmed = value.trim();
+        return trimmed.regionMatches(true, 0, scheme, 0, scheme.length()) ? trimmed.substring(scheme.length()) : trimmed;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
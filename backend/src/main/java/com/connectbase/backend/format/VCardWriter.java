@@ -0,0 +1,99 @@
+package com.connectbase.backend.format;
+
+import com.connectbase.backend.dto.ContactExportRow;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes one vCard per contact. Content lines end in CRLF and are folded before 75 octets of UTF-8, never
+ * inside a character; text values are escaped. 4.0 marks the phone number as text (its default TEL value is a
+ * URI) and gives PHOTO as a plain URI; 3.0 uses the equivalent TYPE and VALUE parameters.
+ */
+final class VCardWriter implements ContactWriter {
+
+    private static final int MAX_OCTETS = 75;
+
+    private final Writer out;
+    private final String version;
+    private final boolean v4;
+
+    VCardWriter(Writer out, String version) {
+        this.out = out;
+        this.version = version;
+        this.v4 = version.equals(VCardFormat.VERSION_4);
+    }
+
+    @Override
+    public void write(ContactExportRow contact) throws IOException {
+        line("BEGIN:VCARD");
+        line("VERSION:" + version);
+        line("FN:" + text(formattedName(contact)));
+        line("N:" + text(contact.lastName()) + ";" + text(contact.firstName()) + ";;;");
+        if (!isBlank(contact.email())) line((v4 ? "EMAIL:" : "EMAIL;TYPE=INTERNET:") + text(contact.email()));
+        if (!isBlank(contact.phone())) line((v4 ? "TEL;VALUE=text:" : "TEL;TYPE=VOICE:") + text(contact.phone()));
+        if (!isBlank(contact.title())) line("TITLE:" + text(contact.title()));
+        if (!isBlank(contact.image())) line((v4 ? "PHOTO:" : "PHOTO;VALUE=uri:") + contact.image().replaceAll("[\r\n]", ""));
+        line("END:VCARD");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void line(String content) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            // A surrogate pair is 4 octets, all counted on the high surrogate, so the pair is never split
+            int size = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : Character.isLowSurrogate(c) ? 0 : 3;
+            if (octets + size > MAX_OCTETS) {
+                out.write("\r\n ");
+                octets = 1;
+            }
+            out.write(c);
+            octets += size;
+        }
+        out.write("\r\n");
+    }
+
+    // FN is required: the name, or failing that the email or phone
+    private static String formattedName(ContactExportRow contact) {
+        String first = isBlank(contact.firstName()) ? "" : contact.firstName().trim();
+        String last = isBlank(contact.lastName()) ? "" : contact.lastName().trim();
+        String name = (first + " " + last).trim();
+        if (!name.isEmpty()) return name;
+        if (!isBlank(contact.email())) return contact.email();
+        return isBlank(contact.phone()) ? "" : contact.phone();
+    }
+
+    static String text(String value) {
+        if (value == null) return "";
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case ',' -> escaped.append("\\,");
+                case ';' -> escaped.append("\\;");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> {
+                    escaped.append("\\n");
+                    if (i + 1 < value.length() && value.charAt(i + 1) == '\n') i++;
+                }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -1,5 +1,7 @@
 package com.connectbase.backend.model;
 
+import com.connectbase.backend.repo.IdBlockAllocator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import lombok.AllArgsConstructor;
@@ -10,6 +12,7 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
 @Data
@@ -17,14 +20,34 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
 public class Contact {
+    // Pooled-lo blocks (not IDENTITY) so that Hibernate can batch inserts; a one-row table on MySQL (V5 migration)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_seq")
+    @SequenceGenerator(name = "contact_seq", sequenceName = IdBlockAllocator.CONTACTS, allocationSize = IdBlockAllocator.BLOCK_SIZE)
     private long id;
     private String firstName;
     private String lastName;
     private String title;
+    // Only ContactRepo's image updates change these after insert
+    @Column(updatable = false)
     private String image;
 
+    @Column(updatable = false)
+    private String thumbnail;
+
+    @Column(updatable = false)
+    @JsonIgnore
+    private String imageHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(updatable = false)
+    private ImageStatus imageStatus;
+
+    // Epoch millis at which the pending upload was requested; set with imageStatus
+    @Column(updatable = false)
+    @JsonIgnore
+    private Long imageRequestedAt;
+
     @Email(message = "Please provide a valid email address")
     private String email;
     private String phone;
@@ -38,6 +61,49 @@ public class Contact {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
-    @com.fasterxml.jackson.annotation.JsonIgnore
+    @JsonIgnore
     private User user;
+
+    // Lower-cased copies of the searchable columns, so search never applies LOWER() per row
+    @JsonIgnore
+    private String firstNameNorm;
+    @JsonIgnore
+    private String lastNameNorm;
+    @JsonIgnore
+    private String emailNorm;
+    @JsonIgnore
+    private String titleNorm;
+    @JsonIgnore
+    private String phoneNorm;
+    // For phone prefix suggestions: "+1 (415) 555" is stored as "1415555"
+    @JsonIgnore
+    private String phoneDigits;
+
+    @PrePersist
+    @PreUpdate
+    void normalizeSearchColumns() {
+        firstNameNorm = normalize(firstName);
+        lastNameNorm = normalize(lastName);
+        emailNorm = normalize(email);
+        titleNorm = normalize(title);
+        phoneNorm = normalize(phone);
+        phoneDigits = digits(phone);
+    }
+
+    // Must match the migration backfills: COALESCE(LOWER(TRIM(col)), ''). Never null, so keyset
+    // comparisons on the name column need no null handling
+    public static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Must match the migration backfill: REGEXP_REPLACE(COALESCE(phone, ''), '[^0-9]', '')
+    public static String digits(String value) {
+        if (value == null) return "";
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') digits.append(c);
+        }
+        return digits.toString();
+    }
 }
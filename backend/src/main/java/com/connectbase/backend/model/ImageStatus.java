@@ -0,0 +1,11 @@
+package com.connectbase.backend.model;
+
+/**
+ * State of an image uploaded in the background (ImageUploadService). Null when no upload was ever requested.
+ * While PENDING or after a FAILED upload the image column keeps the previous image, if any.
+ */
+public enum ImageStatus {
+    PENDING,
+    READY,
+    FAILED
+}
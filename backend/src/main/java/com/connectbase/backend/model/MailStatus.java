@@ -0,0 +1,8 @@
+package com.connectbase.backend.model;
+
+public enum MailStatus {
+    PENDING, // Waiting for (another) delivery attempt
+    SENDING, // Claimed by a dispatcher until next_attempt_at; claimed again after that if it never finished
+    SENT,
+    DEAD     // Gave up after the maximum number of attempts
+}
@@ -1,5 +1,7 @@
 package com.connectbase.backend.model;
 
+import com.connectbase.backend.repo.IdBlockAllocator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,8 +12,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Table(name = "users") // 'user' is often a reserved keyword in SQL
 public class User {
+    // Pooled-lo blocks (not IDENTITY) so that Hibernate can batch inserts; a one-row table on MySQL (V5 migration)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = IdBlockAllocator.USERS, allocationSize = IdBlockAllocator.BLOCK_SIZE)
     private long id;
 
     @Column(unique = true, nullable = false)
@@ -22,8 +26,21 @@ public class User {
     private String lastName;
     private String phone;
     private String gender;
+    @Column(updatable = false) // Only UserRepo's picture updates change these after insert
     private String profilePic; // Cloudinary URL
 
+    @Enumerated(EnumType.STRING)
+    @Column(updatable = false)
+    private ImageStatus profilePicStatus;
+
+    @Column(updatable = false)
+    @JsonIgnore
+    private Long profilePicRequestedAt; // Epoch millis, set with a PENDING status
+
+    // Refresh tokens issued under an older version are rejected (RefreshTokenService); bumped by UserRepo only
+    @Column(updatable = false)
+    private int sessionVersion;
+
     // For Password Reset Simplicity
     private String verificationCode;
     private LocalDateTime verificationCodeExpiry;
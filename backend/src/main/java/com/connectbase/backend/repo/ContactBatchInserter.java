@@ -0,0 +1,150 @@
+package com.connectbase.backend.repo;
+
+import com.connectbase.backend.model.Contact;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC batches for bulk contact writes.
+ * <p>
+ * Bulk paths skip the persistence context (no managed entities, no dirty checking) and send one JDBC batch per
+ * chunk; on MySQL, {@code rewriteBatchedStatements} turns it into multi-row INSERTs. Rows are written as the entity
+ * callbacks would write them: normalized search columns and audit timestamps included. Ids are reserved up front
+ * from the pool the entity generator uses ({@link IdBlockAllocator}).
+ */
+@Repository
+public class ContactBatchInserter {
+
+    private static final String INSERT = "INSERT INTO contact (id, first_name, last_name, title, image, email, phone, " +
+            "first_name_norm, last_name_norm, email_norm, title_norm, phone_norm, phone_digits, created_at, updated_at, user_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Fills blank columns only; each value column is assigned before its norm column, and MySQL evaluates
+    // SET left to right, so every CASE still sees the old norm value
+    private static final String MERGE = "UPDATE contact SET " +
+            "first_name = CASE WHEN first_name_norm = '' THEN COALESCE(?, first_name) ELSE first_name END, " +
+            "first_name_norm = CASE WHEN first_name_norm = '' THEN COALESCE(?, first_name_norm) ELSE first_name_norm END, " +
+            "last_name = CASE WHEN last_name_norm = '' THEN COALESCE(?, last_name) ELSE last_name END, " +
+            "last_name_norm = CASE WHEN last_name_norm = '' THEN COALESCE(?, last_name_norm) ELSE last_name_norm END, " +
+            "title = CASE WHEN title_norm = '' THEN COALESCE(?, title) ELSE title END, " +
+            "title_norm = CASE WHEN title_norm = '' THEN COALESCE(?, title_norm) ELSE title_norm END, " +
+            "image = CASE WHEN image IS NULL OR image = '' THEN COALESCE(?, image) ELSE image END, " +
+            "email = CASE WHEN email_norm = '' THEN COALESCE(?, email) ELSE email END, " +
+            "email_norm = CASE WHEN email_norm = '' THEN COALESCE(?, email_norm) ELSE email_norm END, " +
+            "phone = CASE WHEN phone_norm = '' THEN COALESCE(?, phone) ELSE phone END, " +
+            "phone_digits = CASE WHEN phone_norm = '' THEN COALESCE(?, phone_digits) ELSE phone_digits END, " +
+            "phone_norm = CASE WHEN phone_norm = '' THEN COALESCE(?, phone_norm) ELSE phone_norm END, " +
+            "updated_at = ? WHERE id = ? AND user_id = ?";
+
+    // Non-blank values replace the stored ones; blank ones (bound as NULL) keep them. A different image drops the
+    // thumbnail and hash of the upload it replaces; assigned first, so that MySQL still compares the old image
+    private static final String OVERWRITE = "UPDATE contact SET " +
+            "thumbnail = CASE WHEN COALESCE(?, image) = image THEN thumbnail END, " +
+            "image_hash = CASE WHEN COALESCE(?, image) = image THEN image_hash END, " +
+            "first_name = COALESCE(?, first_name), first_name_norm = COALESCE(?, first_name_norm), " +
+            "last_name = COALESCE(?, last_name), last_name_norm = COALESCE(?, last_name_norm), " +
+            "title = COALESCE(?, title), title_norm = COALESCE(?, title_norm), " +
+            "image = COALESCE(?, image), " +
+            "email = COALESCE(?, email), email_norm = COALESCE(?, email_norm), " +
+            "phone = COALESCE(?, phone), phone_digits = COALESCE(?, phone_digits), phone_norm = COALESCE(?, phone_norm), " +
+            "updated_at = ? WHERE id = ? AND user_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    // The ids of the inserted rows, in row order
+    public long[] insert(long userId, List<Contact> contacts, LocalDateTime now) {
+        if (contacts.isEmpty()) return new long[0];
+        long[] ids = idBlockAllocator.allocate(IdBlockAllocator.CONTACTS, contacts.size());
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                bindInsert(ps, ids[i], contacts.get(i), userId, timestamp);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return contacts.size();
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Applies import rows to existing contacts, identified by {@link Contact#getId()}. With {@code fillBlanksOnly}
+     * the row only fills the contact's blank fields; otherwise its non-blank fields replace the stored ones.
+     */
+    public void update(long userId, List<Contact> rows, boolean fillBlanksOnly, LocalDateTime now) {
+        if (rows.isEmpty()) return;
+        Timestamp timestamp = Timestamp.valueOf(now);
+        // MERGE only sets an image where there is none, so there is no thumbnail or hash to drop
+        int i = fillBlanksOnly ? 0 : 2;
+        jdbcTemplate.batchUpdate(fillBlanksOnly ? MERGE : OVERWRITE, rows, rows.size(), (ps, row) -> {
+            String image = blankToNull(row.getImage());
+            if (!fillBlanksOnly) {
+                ps.setString(1, image);
+                ps.setString(2, image);
+            }
+            bindValue(ps, i + 1, row.getFirstName());
+            bindValue(ps, i + 3, row.getLastName());
+            bindValue(ps, i + 5, row.getTitle());
+            ps.setString(i + 7, image);
+            bindValue(ps, i + 8, row.getEmail());
+            bindPhone(ps, i + 10, row.getPhone());
+            ps.setTimestamp(i + 13, timestamp);
+            ps.setLong(i + 14, row.getId());
+            ps.setLong(i + 15, userId);
+        });
+    }
+
+    private static void bindInsert(PreparedStatement ps, long id, Contact contact, long userId, Timestamp timestamp)
+            throws SQLException {
+        ps.setLong(1, id);
+        ps.setString(2, contact.getFirstName());
+        ps.setString(3, contact.getLastName());
+        ps.setString(4, contact.getTitle());
+        ps.setString(5, contact.getImage());
+        ps.setString(6, contact.getEmail());
+        ps.setString(7, contact.getPhone());
+        ps.setString(8, Contact.normalize(contact.getFirstName()));
+        ps.setString(9, Contact.normalize(contact.getLastName()));
+        ps.setString(10, Contact.normalize(contact.getEmail()));
+        ps.setString(11, Contact.normalize(contact.getTitle()));
+        ps.setString(12, Contact.normalize(contact.getPhone()));
+        ps.setString(13, Contact.digits(contact.getPhone()));
+        ps.setTimestamp(14, timestamp);
+        ps.setTimestamp(15, timestamp);
+        ps.setLong(16, userId);
+    }
+
+    // A value and its norm column; blank binds NULL so the COALESCE keeps the stored value
+    private static void bindValue(PreparedStatement ps, int index, String value) throws SQLException {
+        String v = blankToNull(value);
+        ps.setString(index, v);
+        ps.setString(index + 1, v == null ? null : Contact.normalize(v));
+    }
+
+    // The phone, its digits and its norm column
+    private static void bindPhone(PreparedStatement ps, int index, String value) throws SQLException {
+        String v = blankToNull(value);
+        ps.setString(index, v);
+        ps.setString(index + 1, v == null ? null : Contact.digits(v));
+        ps.setString(index + 2, v == null ? null : Contact.normalize(v));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,52 @@
+package com.connectbase.backend.repo;
+
+import com.connectbase.backend.dto.ContactView;
+import com.connectbase.backend.model.Contact;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after the last contact of a keyset page: the sort key and id of that contact.
+ * Clients see it as an opaque base64url token.
+ */
+public record ContactCursor(ContactSort sort, String key, long id) {
+
+    public static ContactCursor of(ContactSort sort, ContactView last) {
+        String key = switch (sort) {
+            case ID -> "";
+            case NAME -> Contact.normalize(last.firstName()); // Same value as the persisted first_name_norm
+            case UPDATED_AT -> last.updatedAt().toString();
+        };
+        return new ContactCursor(sort, key, last.id());
+    }
+
+    // Layout "sort:id:key"; the key goes last so it may itself contain ':'
+    public String encode() {
+        String raw = sort.getParam() + ":" + id + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ContactCursor decode(String token, ContactSort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            ContactSort sort = ContactSort.fromParam(parts[0]);
+            if (parts.length != 3 || sort != expectedSort) {
+                throw new IllegalArgumentException("Cursor does not match sort " + expectedSort.getParam());
+            }
+            if (sort == ContactSort.UPDATED_AT) {
+                LocalDateTime.parse(parts[2]);
+            }
+            return new ContactCursor(sort, parts[2], Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public LocalDateTime updatedAt() {
+        return LocalDateTime.parse(key);
+    }
+}
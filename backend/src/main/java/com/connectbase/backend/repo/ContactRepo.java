@@ -1,27 +1,156 @@
 package com.connectbase.backend.repo;
 
+import com.connectbase.backend.dto.ContactExportRow;
+import com.connectbase.backend.dto.ContactKeyRow;
+import com.connectbase.backend.dto.ContactView;
+import com.connectbase.backend.dto.StoredImage;
 import com.connectbase.backend.model.Contact;
-import com.connectbase.backend.model.User;
+import com.connectbase.backend.model.ImageStatus;
+import com.connectbase.backend.search.ContactIndexRow;
+import com.connectbase.backend.search.ContactSuggestion;
+import com.connectbase.backend.search.PrefixIndex;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ContactRepo extends JpaRepository<Contact, Long> {
+public interface ContactRepo extends JpaRepository<Contact, Long>, ContactRepoCustom {
+
+    // Read endpoints select straight into the ContactView record: only these columns, no managed entities
+    String CONTACT_VIEW = "new com.connectbase.backend.dto.ContactView(c.id, c.firstName, c.lastName, c.title, c.image, " +
+            "c.thumbnail, c.imageStatus, c.email, c.phone, c.createdAt, c.updatedAt)";
+
+    // All lookups are scoped by the user id (the contact's FK column), so the users table is never joined.
+    // Matches against the persisted lower-cased columns; the pattern is the normalized keyword (LikePattern.contains).
+    String SEARCH_PREDICATE = "c.user.id = :userId AND (" +
+            "c.firstNameNorm LIKE :pattern ESCAPE '!' OR " +
+            "c.lastNameNorm LIKE :pattern ESCAPE '!' OR " +
+            "c.emailNorm LIKE :pattern ESCAPE '!' OR " +
+            "c.titleNorm LIKE :pattern ESCAPE '!' OR " +
+            "c.phoneNorm LIKE :pattern ESCAPE '!')";
+
+    @Query(value = "SELECT " + CONTACT_VIEW + " FROM Contact c WHERE " + SEARCH_PREDICATE,
+            countQuery = "SELECT COUNT(c) FROM Contact c WHERE " + SEARCH_PREDICATE)
+    Page<ContactView> searchContactsMatching(@Param("userId") long userId, @Param("pattern") String pattern, Pageable pageable);
+
+    // '%' and '_' in the keyword match literally, as in bulk selection by query (ContactRepoImpl)
+    default Page<ContactView> searchContacts(long userId, String keyword, Pageable pageable) {
+        return searchContactsMatching(userId, LikePattern.contains(Contact.normalize(keyword)), pageable);
+    }
+
+    // MySQL only: word-prefix search over the ft_contact_search FULLTEXT index (V3 migration), for mode=words.
+    // terms is a boolean-mode expression such as "+smi* +acme*". Only ids are read here; the rows are loaded with
+    // findViewsByUserIdAndIdIn, so the projection is the same JPQL one every other search uses
+    @Query(value = "SELECT id FROM contact WHERE user_id = :userId AND " +
+            "MATCH(first_name_norm, last_name_norm, email_norm, title_norm, phone_norm) AGAINST (:terms IN BOOLEAN MODE) ORDER BY id",
+            countQuery = "SELECT COUNT(*) FROM contact WHERE user_id = :userId AND " +
+                    "MATCH(first_name_norm, last_name_norm, email_norm, title_norm, phone_norm) AGAINST (:terms IN BOOLEAN MODE)",
+            nativeQuery = true)
+    Page<Long> searchContactIdsFullText(@Param("userId") long userId, @Param("terms") String terms, Pageable pageable);
+
+    @Query(value = "SELECT " + CONTACT_VIEW + " FROM Contact c WHERE c.user.id = :userId",
+            countQuery = "SELECT COUNT(c) FROM Contact c WHERE c.user.id = :userId")
+    Page<ContactView> findViewsByUserId(@Param("userId") long userId, Pageable pageable);
+
+    @Query("SELECT " + CONTACT_VIEW + " FROM Contact c WHERE c.id = :id AND c.user.id = :userId")
+    Optional<ContactView> findViewByIdAndUserId(@Param("id") long id, @Param("userId") long userId);
+
+    @Query("SELECT " + CONTACT_VIEW + " FROM Contact c WHERE c.user.id = :userId AND c.id IN :ids ORDER BY c.id")
+    List<ContactView> findViewsByUserIdAndIdIn(@Param("userId") long userId, @Param("ids") Collection<Long> ids);
+
+    // Forward-only cursor for CSV export: only the exported columns, read-only, fetched in batches (MySQL needs
+    // useCursorFetch for the fetch size to take effect). Must be consumed inside a transaction and closed.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.connectbase.backend.dto.ContactExportRow(c.firstName, c.lastName, c.email, c.phone, c.title, c.image) " +
+            "FROM Contact c WHERE c.user.id = :userId ORDER BY c.id")
+    Stream<ContactExportRow> streamExportRows(@Param("userId") long userId);
+
+    // Seeds import duplicate detection; same cursor rules as streamExportRows
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.connectbase.backend.dto.ContactKeyRow(c.id, c.email, c.phone) FROM Contact c WHERE c.user.id = :userId")
+    Stream<ContactKeyRow> streamKeyRows(@Param("userId") long userId);
+
+    Optional<Contact> findByIdAndUserId(long id, long userId);
+
+    // Background image uploads (ImageUploadService). Saving the entity never writes the image columns once the
+    // row exists, so an edit racing with an upload cannot put back the image it replaced
+    @Query("SELECT new com.connectbase.backend.dto.StoredImage(c.image, c.thumbnail, c.imageHash) FROM Contact c WHERE c.id = :id")
+    Optional<StoredImage> findStoredImageById(@Param("id") long id);
+
+    // Another contact of the user with the same upload, whose files can be shared (idx_contact_user_image_hash)
+    @Query("SELECT new com.connectbase.backend.dto.StoredImage(c.image, c.thumbnail, c.imageHash) FROM Contact c " +
+            "WHERE c.user.id = :userId AND c.imageHash = :hash")
+    List<StoredImage> findStoredImages(@Param("userId") long userId, @Param("hash") String hash, Pageable pageable);
+
+    @Query("SELECT DISTINCT c.imageHash FROM Contact c WHERE c.user.id = :userId AND c.imageHash IN :hashes")
+    List<String> findImageHashesInUse(@Param("userId") long userId, @Param("hashes") Collection<String> hashes);
+
+    @Modifying
+    @Query("UPDATE Contact c SET c.image = :image, c.thumbnail = :thumbnail, c.imageHash = :hash, " +
+            "c.imageStatus = :status, c.updatedAt = :now WHERE c.id = :id")
+    int updateImage(@Param("id") long id, @Param("image") String image, @Param("thumbnail") String thumbnail,
+                    @Param("hash") String hash, @Param("status") ImageStatus status, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Contact c SET c.imageStatus = :status WHERE c.id = :id")
+    int updateImageStatus(@Param("id") long id, @Param("status") ImageStatus status);
+
+    @Modifying
+    @Query("UPDATE Contact c SET c.imageStatus = com.connectbase.backend.model.ImageStatus.PENDING, " +
+            "c.imageRequestedAt = :now WHERE c.id = :id")
+    int markImagePending(@Param("id") long id, @Param("now") long now);
+
+    // Uploads requested before the cutoff that are still pending, with those from before image_requested_at existed
+    String STALE_IMAGE = "c.imageStatus = :status AND (c.imageRequestedAt IS NULL OR c.imageRequestedAt < :before)";
+
+    @Query("SELECT DISTINCT c.user.id FROM Contact c WHERE " + STALE_IMAGE)
+    List<Long> findUserIdsWithStaleImages(@Param("status") ImageStatus status, @Param("before") long before);
+
+    @Modifying
+    @Query("UPDATE Contact c SET c.imageStatus = :to WHERE " + STALE_IMAGE)
+    int updateStaleImageStatuses(@Param("status") ImageStatus status, @Param("to") ImageStatus to, @Param("before") long before);
+
+    long countByUserId(long userId);
 
-    @Query("SELECT c FROM Contact c WHERE c.user = :user AND (" +
-            "LOWER(c.firstName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(c.lastName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(c.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(c.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(c.phone) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Contact> searchContacts(@Param("user") User user, @Param("keyword") String keyword, Pageable pageable);
+    // Only the searchable columns, for building the in-memory search index
+    @Query("SELECT new com.connectbase.backend.search.ContactIndexRow(c.id, c.firstName, c.lastName, c.email, c.title, c.phone) " +
+            "FROM Contact c WHERE c.user.id = :userId")
+    List<ContactIndexRow> findIndexRowsByUserId(@Param("userId") long userId);
 
-    Page<Contact> findByUser(User user, Pageable pageable);
+    // Autocomplete while the user's prefix index is still being built. Same keys as PrefixIndex: full name, last name,
+    // email local part (so a prefix containing '@' never matches an email) and phone digits
+    @Query("SELECT new com.connectbase.backend.search.ContactSuggestion(c.id, c.firstName, c.lastName, c.email, c.phone) " +
+            "FROM Contact c WHERE c.user.id = :userId AND (CONCAT(c.firstNameNorm, ' ', c.lastNameNorm) LIKE :pattern ESCAPE '!' " +
+            "OR c.lastNameNorm LIKE :pattern ESCAPE '!' OR (:matchEmail = TRUE AND c.emailNorm LIKE :pattern ESCAPE '!') " +
+            "OR c.phoneDigits LIKE :pattern ESCAPE '!') ORDER BY c.firstNameNorm, c.id")
+    List<ContactSuggestion> findSuggestions(@Param("userId") long userId, @Param("pattern") String pattern,
+                                            @Param("matchEmail") boolean matchEmail, Pageable pageable);
 
-    java.util.List<Contact> findByUser(User user);
+    // The prefix is normalized as the warm PrefixIndex does it, so results do not change when the index warms up
+    default List<ContactSuggestion> findSuggestions(long userId, String prefix, int limit) {
+        String needle = PrefixIndex.normalizeQuery(prefix);
+        if (needle.isEmpty()) return List.of();
+        return findSuggestions(userId, LikePattern.startsWith(needle), needle.indexOf('@') < 0, PageRequest.of(0, limit));
+    }
 }
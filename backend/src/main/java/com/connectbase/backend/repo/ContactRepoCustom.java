@@ -0,0 +1,36 @@
+package com.connectbase.backend.repo;
+
+import com.connectbase.backend.dto.ContactView;
+import com.connectbase.backend.dto.StoredImage;
+import com.connectbase.backend.model.Contact;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ContactRepoCustom {
+
+    /**
+     * Keyset page of a user's contacts: seeks past {@code after} instead of using OFFSET, and runs no COUNT query.
+     *
+     * @param keyword optional substring filter over the normalized search columns (null for a plain listing)
+     * @param after   position of the previous page's last row, or null for the first page
+     */
+    Slice<ContactView> findSlice(long userId, String keyword, ContactSort sort, ContactCursor after, int size);
+
+    // Bulk operations select a user's contacts by ids or, when ids is null, by the same keyword filter as findSlice.
+    // Each is a single statement and needs the caller's transaction.
+
+    // Stored images of the selected contacts that have one
+    List<StoredImage> findImages(long userId, Collection<Long> ids, String keyword);
+
+    int deleteMatching(long userId, Collection<Long> ids, String keyword);
+
+    /**
+     * Sets the non-null fields of {@code changes} (and their normalized search columns) on the selected contacts.
+     *
+     * @return number of contacts updated
+     */
+    int updateMatching(long userId, Collection<Long> ids, String keyword, Contact changes, LocalDateTime now);
+}
@@ -0,0 +1,131 @@
+package com.connectbase.backend.repo;
+
+import com.connectbase.backend.dto.ContactView;
+import com.connectbase.backend.dto.StoredImage;
+import com.connectbase.backend.model.Contact;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Spring Data fragment implementation for ContactRepoCustom
+class ContactRepoImpl implements ContactRepoCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<ContactView> findSlice(long userId, String keyword, ContactSort sort, ContactCursor after, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ContactView> query = cb.createQuery(ContactView.class);
+        Root<Contact> contact = query.from(Contact.class);
+        Path<Long> id = contact.get("id");
+        query.select(cb.construct(ContactView.class, id, contact.get("firstName"), contact.get("lastName"),
+                contact.get("title"), contact.get("image"), contact.get("thumbnail"), contact.get("imageStatus"), contact.get("email"),
+                contact.get("phone"), contact.get("createdAt"), contact.get("updatedAt")));
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(contact.get("user").get("id"), userId));
+        if (keyword != null) {
+            where.add(matchesKeyword(cb, contact, keyword));
+        }
+
+        switch (sort) {
+            case ID -> {
+                if (after != null) where.add(cb.greaterThan(id, after.id()));
+                query.orderBy(cb.asc(id));
+            }
+            case NAME -> {
+                Path<String> name = contact.get("firstNameNorm");
+                if (after != null) {
+                    where.add(cb.or(
+                            cb.greaterThan(name, after.key()),
+                            cb.and(cb.equal(name, after.key()), cb.greaterThan(id, after.id()))));
+                }
+                query.orderBy(cb.asc(name), cb.asc(id));
+            }
+            case UPDATED_AT -> {
+                Path<LocalDateTime> updatedAt = contact.get("updatedAt");
+                if (after != null) {
+                    LocalDateTime key = after.updatedAt();
+                    where.add(cb.or(
+                            cb.lessThan(updatedAt, key),
+                            cb.and(cb.equal(updatedAt, key), cb.lessThan(id, after.id()))));
+                }
+                query.orderBy(cb.desc(updatedAt), cb.desc(id));
+            }
+        }
+        query.where(where.toArray(Predicate[]::new));
+
+        // One extra row tells whether another page exists
+        List<ContactView> rows = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size), hasNext);
+    }
+
+    @Override
+    public List<StoredImage> findImages(long userId, Collection<Long> ids, String keyword) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StoredImage> query = cb.createQuery(StoredImage.class);
+        Root<Contact> contact = query.from(Contact.class);
+        query.select(cb.construct(StoredImage.class, contact.get("image"), contact.get("thumbnail"), contact.get("imageHash")))
+                .where(selected(cb, contact, userId, ids, keyword), cb.isNotNull(contact.get("image")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public int deleteMatching(long userId, Collection<Long> ids, String keyword) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Contact> delete = cb.createCriteriaDelete(Contact.class);
+        Root<Contact> contact = delete.from(Contact.class);
+        delete.where(selected(cb, contact, userId, ids, keyword));
+        return entityManager.createQuery(delete).executeUpdate();
+    }
+
+    @Override
+    public int updateMatching(long userId, Collection<Long> ids, String keyword, Contact changes, LocalDateTime now) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Contact> update = cb.createCriteriaUpdate(Contact.class);
+        Root<Contact> contact = update.from(Contact.class);
+        // Bulk statements bypass the entity callbacks: write the norm columns and the audit timestamp here
+        set(update, "firstName", "firstNameNorm", changes.getFirstName());
+        set(update, "lastName", "lastNameNorm", changes.getLastName());
+        set(update, "email", "emailNorm", changes.getEmail());
+        set(update, "phone", "phoneNorm", changes.getPhone());
+        if (changes.getPhone() != null) update.set("phoneDigits", Contact.digits(changes.getPhone()));
+        set(update, "title", "titleNorm", changes.getTitle());
+        update.set("updatedAt", now);
+        update.where(selected(cb, contact, userId, ids, keyword));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private static void set(CriteriaUpdate<Contact> update, String column, String normColumn, String value) {
+        if (value == null) return;
+        update.set(column, value);
+        update.set(normColumn, Contact.normalize(value));
+    }
+
+    private static Predicate selected(CriteriaBuilder cb, Root<Contact> contact, long userId, Collection<Long> ids,
+                                      String keyword) {
+        Predicate owner = cb.equal(contact.get("user").get("id"), userId);
+        return cb.and(owner, ids != null ? contact.get("id").in(ids) : matchesKeyword(cb, contact, keyword));
+    }
+
+    // Substring match over the normalized search columns, the same as ContactRepo.SEARCH_PREDICATE
+    private static Predicate matchesKeyword(CriteriaBuilder cb, Root<Contact> contact, String keyword) {
+        String pattern = LikePattern.contains(Contact.normalize(keyword));
+        return cb.or(
+                cb.like(contact.get("firstNameNorm"), pattern, LikePattern.ESCAPE),
+                cb.like(contact.get("lastNameNorm"), pattern, LikePattern.ESCAPE),
+                cb.like(contact.get("emailNorm"), pattern, LikePattern.ESCAPE),
+                cb.like(contact.get("titleNorm"), pattern, LikePattern.ESCAPE),
+                cb.like(contact.get("phoneNorm"), pattern, LikePattern.ESCAPE));
+    }
+}
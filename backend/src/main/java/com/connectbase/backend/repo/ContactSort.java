@@ -0,0 +1,29 @@
+package com.connectbase.backend.repo;
+
+/**
+ * Stable orderings for keyset pagination. Each one ends with the contact id, so the order is total
+ * and a cursor identifies an exact position.
+ */
+public enum ContactSort {
+    ID("id"),                // id ascending
+    NAME("name"),            // normalized first name ascending, then id
+    UPDATED_AT("updatedAt"); // most recently updated first, then id descending
+
+    private final String param;
+
+    ContactSort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public static ContactSort fromParam(String param) {
+        if (param == null || param.isBlank()) return ID;
+        for (ContactSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(param)) return sort;
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + param + " (use id, name or updatedAt)");
+    }
+}
@@ -0,0 +1,54 @@
+package com.connectbase.backend.repo;
+
+import com.connectbase.backend.dto.ContactsVersion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * The contact_version table: one row per user, read by primary key on every conditional GET and bumped by every
+ * contact write (ContactVersionTracker). Plain JDBC, and joins the caller's transaction like
+ * {@link ContactBatchInserter}.
+ * <p>
+ * Rows are created with the user ({@link #create}) and by the V10 migration for existing users; a write for a user
+ * without one inserts it.
+ */
+@Repository
+public class ContactVersionRepo {
+
+    private static final String FIND = "SELECT version, modified_at FROM contact_version WHERE user_id = ?";
+
+    private static final String INSERT = "INSERT INTO contact_version (user_id, version, modified_at) VALUES (?, ?, ?)";
+
+    // Last-Modified has one-second resolution: keep it strictly increasing so If-Modified-Since cannot miss a
+    // second write within the same second. now is whole seconds
+    private static final String INCREMENT = "UPDATE contact_version SET version = version + 1, " +
+            "modified_at = CASE WHEN modified_at < ? THEN ? ELSE modified_at + 1000 END WHERE user_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // (0, 0) for a user whose contacts never changed
+    public ContactsVersion find(long userId) {
+        List<ContactsVersion> rows = jdbcTemplate.query(FIND,
+                (rs, i) -> new ContactsVersion(rs.getLong(1), rs.getLong(2)), userId);
+        return rows.isEmpty() ? new ContactsVersion(0, 0) : rows.get(0);
+    }
+
+    public void create(long userId) {
+        jdbcTemplate.update(INSERT, userId, 0, 0);
+    }
+
+    public void increment(long userId, long now) {
+        if (jdbcTemplate.update(INCREMENT, now, now, userId) > 0) return;
+        try {
+            jdbcTemplate.update(INSERT, userId, 1, now);
+        } catch (DuplicateKeyException e) {
+            // A concurrent first write created the row
+            jdbcTemplate.update(INCREMENT, now, now, userId);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.connectbase.backend.repo;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reserves ids from the pools behind the entity id generators, for JDBC paths that insert outside Hibernate
+ * ({@link ContactBatchInserter}), so both take ids from the same pool and cannot collide.
+ * <p>
+ * A pool hands out blocks of {@link #BLOCK_SIZE} ids, and its stored value is the low end of the next block
+ * (Hibernate's pooled-lo optimizer). On H2 the pool is a sequence. MySQL has no sequences, so it is a
+ * one-row {@code next_val} table, which is also how Hibernate falls back there (V5 migration). Any number of
+ * ids costs one round trip on H2 and two on MySQL.
+ */
+@Repository
+public class IdBlockAllocator {
+
+    // allocationSize of the generators; the H2 sequences increment by it
+    public static final int BLOCK_SIZE = 50;
+
+    public static final String CONTACTS = "contact_seq";
+    public static final String USERS = "users_seq";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate ownTransaction;
+    private boolean tablePools;
+
+    @PostConstruct
+    void init() {
+        ownTransaction = new TransactionTemplate(transactionManager);
+        ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tablePools = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "MySQL".equals(connection.getMetaData().getDatabaseProductName())));
+    }
+
+    /**
+     * {@code count} unused ids from {@code pool}, whole blocks at a time; the rest of the last block is skipped.
+     */
+    public long[] allocate(String pool, int count) {
+        long[] ids = new long[count];
+        if (count == 0) return ids;
+        int blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long[] lows = tablePools ? reserveInTable(pool, blocks) : reserveInSequence(pool, blocks);
+        for (int i = 0; i < count; i++) {
+            ids[i] = lows[i / BLOCK_SIZE] + i % BLOCK_SIZE;
+        }
+        return ids;
+    }
+
+    // One value per block; concurrent callers may interleave, so the blocks need not be adjacent
+    private long[] reserveInSequence(String pool, int blocks) {
+        return jdbcTemplate.queryForList("SELECT NEXT VALUE FOR " + pool + " FROM SYSTEM_RANGE(1, ?)", Long.class, blocks)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Adjacent blocks in one UPDATE. Committed at once, like Hibernate's own table access, so the row lock is not
+    // held for the caller's transaction (an import can run for minutes)
+    private long[] reserveInTable(String pool, int blocks) {
+        long reserved = (long) blocks * BLOCK_SIZE;
+        Long next = ownTransaction.execute(status -> {
+            jdbcTemplate.update("UPDATE " + pool + " SET next_val = LAST_INSERT_ID(next_val + ?)", reserved);
+            return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        });
+        long[] lows = new long[blocks];
+        for (int i = 0; i < blocks; i++) {
+            lows[i] = next - reserved + (long) i * BLOCK_SIZE;
+        }
+        return lows;
+    }
+}
@@ -0,0 +1,35 @@
+package com.connectbase.backend.repo;
+
+/**
+ * LIKE patterns built from user input. The input's own {@code %} and {@code _} (and the escape character) are
+ * escaped, so they match literally, as they do in the in-memory indexes. Queries must declare the escape
+ * character: {@code LIKE :pattern ESCAPE '!'} in JPQL, or the three-argument {@code CriteriaBuilder.like}.
+ * {@code !} rather than a backslash, which MySQL also treats as an escape inside string literals.
+ */
+public final class LikePattern {
+
+    public static final char ESCAPE = '!';
+
+    private LikePattern() {
+    }
+
+    // "ab%" -> "ab!%%"
+    public static String startsWith(String text) {
+        return escape(text) + "%";
+    }
+
+    // "a_b" -> "%a!_b%"
+    public static String contains(String text) {
+        return "%" + escape(text) + "%";
+    }
+
+    static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) escaped.append(ESCAPE);
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
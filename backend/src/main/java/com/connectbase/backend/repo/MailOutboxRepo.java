@@ -0,0 +1,33 @@
+package com.connectbase.backend.repo;
+
+import com.connectbase.backend.model.MailOutbox;
+import com.connectbase.backend.model.MailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface MailOutboxRepo extends JpaRepository<MailOutbox, Long> {
+    List<MailOutbox> findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(Collection<MailStatus> statuses, LocalDateTime now, Pageable pageable);
+    long countByStatus(MailStatus status);
+
+    // Takes a due mail for one dispatcher until claimedUntil; 0 when another instance got it first
+    @Transactional
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = com.connectbase.backend.model.MailStatus.SENDING, m.nextAttemptAt = :claimedUntil " +
+            "WHERE m.id = :id AND m.status IN (com.connectbase.backend.model.MailStatus.PENDING, " +
+            "com.connectbase.backend.model.MailStatus.SENDING) AND m.nextAttemptAt <= :now")
+    int claim(@Param("id") long id, @Param("now") LocalDateTime now, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    // Over idx_mail_outbox_status_next: a finished row keeps the next_attempt_at of its last claim
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM MailOutbox m WHERE m.status IN :statuses AND m.nextAttemptAt < :before")
+    int deleteFinished(@Param("statuses") Collection<MailStatus> statuses, @Param("before") LocalDateTime before);
+}
@@ -1,10 +1,44 @@
 package com.connectbase.backend.repo;
 
+import com.connectbase.backend.model.ImageStatus;
 import com.connectbase.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.Optional;
 
 public interface UserRepo extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    // Checked on every refresh-token exchange: a primary key lookup of one column
+    @Query("SELECT u.sessionVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findSessionVersionById(@Param("id") long id);
+
+    // Ends every session of the user (password change or reset); a single statement, so concurrent bumps never collapse
+    @Modifying
+    @Query("UPDATE User u SET u.sessionVersion = u.sessionVersion + 1 WHERE u.id = :id")
+    int incrementSessionVersion(@Param("id") long id);
+
+    // Background image uploads (ImageUploadService); like the contact image, never written by saving the entity
+    @Query("SELECT u.profilePic FROM User u WHERE u.id = :id")
+    Optional<String> findProfilePicById(@Param("id") long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.profilePic = :image, u.profilePicStatus = :status WHERE u.id = :id")
+    int updateProfilePic(@Param("id") long id, @Param("image") String image, @Param("status") ImageStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.profilePicStatus = :status WHERE u.id = :id")
+    int updateProfilePicStatus(@Param("id") long id, @Param("status") ImageStatus status);
+
+    @Modifying
+    @Query("UPDATE User u SET u.profilePicStatus = :to WHERE u.profilePicStatus = :from " +
+            "AND (u.profilePicRequestedAt IS NULL OR u.profilePicRequestedAt < :before)")
+    int updateStaleProfilePicStatuses(@Param("from") ImageStatus from, @Param("to") ImageStatus to,
+                                      @Param("before") long before);
+}
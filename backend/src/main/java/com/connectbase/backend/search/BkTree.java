@@ -0,0 +1,111 @@
+package com.connectbase.backend.search;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Burkhard-Keller tree over strings under Levenshtein distance. A query of radius r only descends into
+ * children whose edge distance d satisfies |d - dist(query, node)| <= r (triangle inequality).
+ * Not thread-safe; callers synchronize.
+ */
+final class BkTree<T> {
+
+    private Node<T> root;
+    private int size;
+
+    // Returns false (and leaves the tree unchanged) if the key is already present
+    boolean add(String key, T value) {
+        if (root == null) {
+            root = new Node<>(key, value);
+            size++;
+            return true;
+        }
+        Node<T> node = root;
+        while (true) {
+            int distance = levenshtein(key, node.key, Integer.MAX_VALUE);
+            if (distance == 0) return false;
+            Node<T> child = node.child(distance);
+            if (child == null) {
+                node.addChild(distance, new Node<>(key, value));
+                size++;
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    void search(String query, int radius, Consumer<T> matches) {
+        if (root != null) search(root, query, radius, matches);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void search(Node<T> node, String query, int radius, Consumer<T> matches) {
+        int distance = levenshtein(query, node.key, Integer.MAX_VALUE);
+        if (distance <= radius) matches.accept(node.value);
+        for (int i = 0; i < node.childCount; i++) {
+            int edge = node.childDistances[i];
+            if (edge >= distance - radius && edge <= distance + radius) {
+                search(node.children[i], query, radius, matches);
+            }
+        }
+    }
+
+    /**
+     * Levenshtein distance, or any value greater than {@code limit} once the distance is known to exceed it.
+     */
+    static int levenshtein(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) return limit + 1;
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) return limit + 1;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class Node<T> {
+        final String key;
+        final T value;
+        int[] childDistances = new int[0];
+        @SuppressWarnings("unchecked")
+        Node<T>[] children = new Node[0];
+        int childCount;
+
+        Node(String key, T value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        Node<T> child(int distance) {
+            for (int i = 0; i < childCount; i++) {
+                if (childDistances[i] == distance) return children[i];
+            }
+            return null;
+        }
+
+        void addChild(int distance, Node<T> child) {
+            if (childCount == children.length) {
+                int capacity = childCount + 2;
+                childDistances = Arrays.copyOf(childDistances, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            childDistances[childCount] = distance;
+            children[childCount++] = child;
+        }
+    }
+}
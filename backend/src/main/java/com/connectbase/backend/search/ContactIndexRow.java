@@ -0,0 +1,7 @@
+package com.connectbase.backend.search;
+
+/**
+ * The searchable columns of a contact, loaded by projection when an in-memory index is built.
+ */
+public record ContactIndexRow(long id, String firstName, String lastName, String email, String title, String phone) {
+}
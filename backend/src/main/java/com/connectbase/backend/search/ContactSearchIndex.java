@@ -0,0 +1,171 @@
+package com.connectbase.backend.search;
+
+import com.connectbase.backend.model.Contact;
+import com.connectbase.backend.repo.ContactRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user in-memory indexes kept current by {@code ContactService} writes: trigram indexes for
+ * {@code /api/contacts/search}, fuzzy indexes for its {@code mode=fuzzy}, and prefix indexes for
+ * {@code /api/contacts/suggest}.
+ */
+@Component
+public class ContactSearchIndex {
+
+    @Autowired
+    private ContactRepo contactRepo;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${contacts.search.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${contacts.search.index.max-weight-mb:256}")
+    private long maxWeightMb;
+
+    @Value("${contacts.search.index.builder-threads:2}")
+    private int builderThreads;
+
+    @Value("${contacts.suggest.index.max-weight-mb:64}")
+    private long suggestMaxWeightMb;
+
+    @Value("${contacts.fuzzy.index.max-weight-mb:256}")
+    private long fuzzyMaxWeightMb;
+
+    private ThreadPoolExecutor builder;
+    private UserIndexRegistry<TrigramIndex> registry;
+    private UserIndexRegistry<PrefixIndex> suggestRegistry;
+    private UserIndexRegistry<FuzzyIndex> fuzzyRegistry;
+    private Counter indexSearches;
+    private Counter databaseSearches;
+    private Counter indexSuggests;
+    private Counter databaseSuggests;
+
+    @PostConstruct
+    void init() {
+        builder = new ThreadPoolExecutor(builderThreads, builderThreads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(64), new ThreadPoolExecutor.AbortPolicy());
+        builder.allowCoreThreadTimeOut(true);
+        registry = new UserIndexRegistry<>("trigram", maxWeightMb * 1024 * 1024,
+                userId -> new TrigramIndex(contactRepo.findIndexRowsByUserId(userId)), builder);
+        suggestRegistry = new UserIndexRegistry<>("prefix", suggestMaxWeightMb * 1024 * 1024,
+                userId -> new PrefixIndex(contactRepo.findIndexRowsByUserId(userId)), builder);
+        fuzzyRegistry = new UserIndexRegistry<>("fuzzy", fuzzyMaxWeightMb * 1024 * 1024,
+                userId -> new FuzzyIndex(contactRepo.findIndexRowsByUserId(userId)), builder);
+
+        if (meterRegistry != null) {
+            Gauge.builder("contacts.search.index.users", registry, UserIndexRegistry::size).register(meterRegistry);
+            Gauge.builder("contacts.search.index.weight", registry, UserIndexRegistry::totalWeight)
+                    .baseUnit("bytes").register(meterRegistry);
+            FunctionCounter.builder("contacts.search.index.evictions", registry, UserIndexRegistry::evictionCount)
+                    .register(meterRegistry);
+            indexSearches = Counter.builder("contacts.search.path").tag("path", "index").register(meterRegistry);
+            databaseSearches = Counter.builder("contacts.search.path").tag("path", "database").register(meterRegistry);
+            Gauge.builder("contacts.suggest.index.users", suggestRegistry, UserIndexRegistry::size).register(meterRegistry);
+            Gauge.builder("contacts.suggest.index.weight", suggestRegistry, UserIndexRegistry::totalWeight)
+                    .baseUnit("bytes").register(meterRegistry);
+            Gauge.builder("contacts.fuzzy.index.users", fuzzyRegistry, UserIndexRegistry::size).register(meterRegistry);
+            Gauge.builder("contacts.fuzzy.index.weight", fuzzyRegistry, UserIndexRegistry::totalWeight)
+                    .baseUnit("bytes").register(meterRegistry);
+            indexSuggests = Counter.builder("contacts.suggest.path").tag("path", "index").register(meterRegistry);
+            databaseSuggests = Counter.builder("contacts.suggest.path").tag("path", "database").register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * @return matching contact ids in ascending order, or null if the user's index is not warm yet
+     *         (the caller should query the database; a build has been scheduled)
+     */
+    public long[] search(long userId, String keyword) {
+        TrigramIndex index = enabled ? registry.getIfWarm(userId) : null;
+        if (index == null) {
+            if (databaseSearches != null) databaseSearches.increment();
+            return null;
+        }
+        if (indexSearches != null) indexSearches.increment();
+        return index.search(keyword);
+    }
+
+    /**
+     * @return up to {@code limit} contacts whose name, email local part or phone digits start with {@code prefix},
+     *         or null if the user's prefix index is not warm yet (a build has been scheduled)
+     */
+    public List<ContactSuggestion> suggest(long userId, String prefix, int limit) {
+        PrefixIndex index = enabled ? suggestRegistry.getIfWarm(userId) : null;
+        if (index == null) {
+            if (databaseSuggests != null) databaseSuggests.increment();
+            return null;
+        }
+        if (indexSuggests != null) indexSuggests.increment();
+        return index.suggest(prefix, limit);
+    }
+
+    /**
+     * Ranked, typo-tolerant search.
+     *
+     * @param k number of best matches to return
+     * @return null if the user's fuzzy index is not warm yet (a build has been scheduled); there is no database
+     *         equivalent, so the caller falls back to the exact substring search
+     */
+    public FuzzyMatches fuzzySearch(long userId, String query, int k) {
+        FuzzyIndex index = enabled ? fuzzyRegistry.getIfWarm(userId) : null;
+        return index != null ? index.search(query, k) : null;
+    }
+
+    // Whether fuzzySearch ranks rather than returning null; schedules a build like it when cold
+    public boolean isFuzzyWarm(long userId) {
+        return enabled && fuzzyRegistry.getIfWarm(userId) != null;
+    }
+
+    public void onSaved(long userId, Contact contact) {
+        ContactIndexRow row = toRow(contact);
+        registry.update(userId, index -> index.upsert(row));
+        suggestRegistry.update(userId, index -> index.upsert(row));
+        fuzzyRegistry.update(userId, index -> index.upsert(row));
+    }
+
+    public void onSavedAll(long userId, Collection<Contact> contacts) {
+        List<ContactIndexRow> rows = contacts.stream().map(ContactSearchIndex::toRow).toList();
+        registry.update(userId, index -> rows.forEach(index::upsert));
+        suggestRegistry.update(userId, index -> rows.forEach(index::upsert));
+        fuzzyRegistry.update(userId, index -> rows.forEach(index::upsert));
+    }
+
+    public void onDeleted(long userId, long contactId) {
+        registry.update(userId, index -> index.remove(contactId));
+        suggestRegistry.update(userId, index -> index.remove(contactId));
+        fuzzyRegistry.update(userId, index -> index.remove(contactId));
+    }
+
+    // For bulk changes that are cheaper to reload than to replay
+    public void invalidate(long userId) {
+        registry.invalidate(userId);
+        suggestRegistry.invalidate(userId);
+        fuzzyRegistry.invalidate(userId);
+    }
+
+    private static ContactIndexRow toRow(Contact contact) {
+        return new ContactIndexRow(contact.getId(), contact.getFirstName(), contact.getLastName(),
+                contact.getEmail(), contact.getTitle(), contact.getPhone());
+    }
+}
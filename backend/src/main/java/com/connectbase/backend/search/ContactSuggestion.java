@@ -0,0 +1,20 @@
+package com.connectbase.backend.search;
+
+/**
+ * One autocomplete result: the contact id and the name to show for it.
+ */
+public record ContactSuggestion(long id, String displayName) {
+
+    // Used by the database fallback query (JPQL constructor expression)
+    public ContactSuggestion(long id, String firstName, String lastName, String email, String phone) {
+        this(id, displayName(firstName, lastName, email, phone));
+    }
+
+    // "First Last", or the email / phone when the contact has no name
+    static String displayName(String firstName, String lastName, String email, String phone) {
+        String name = ((firstName == null ? "" : firstName.trim()) + " " + (lastName == null ? "" : lastName.trim())).trim();
+        if (!name.isEmpty()) return name;
+        if (email != null && !email.isBlank()) return email.trim();
+        return phone == null ? "" : phone.trim();
+    }
+}
@@ -0,0 +1,300 @@
+package com.connectbase.backend.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typo-tolerant, ranked search over one user's contacts.
+ * <p>
+ * Contacts are tokenized into first name, last name, email local part and title words. Each distinct token is
+ * a {@link Term} with a posting list of (contact id, fields) pairs. Query tokens are matched against the terms
+ * exactly, by prefix (via the sorted dictionary), and within a small edit distance (via a {@link BkTree}).
+ * A transposition such as "jonh" counts as one edit. Every contact scores the best match per query token,
+ * weighted by the field it was found in. Only the top {@code k} contacts are kept, in a bounded min-heap.
+ */
+public class FuzzyIndex implements UserIndex {
+
+    static final int FIRST_NAME = 1;
+    static final int LAST_NAME = 1 << 1;
+    static final int EMAIL = 1 << 2;
+    static final int TITLE = 1 << 3;
+
+    private static final float PREFIX_MATCH = 0.8f;
+    private static final float PER_EDIT_PENALTY = 0.3f;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<String, Term> dictionary = new TreeMap<>();
+    private BkTree<Term> bkTree = new BkTree<>();
+    private final Map<Long, String[]> termsByContact = new HashMap<>();
+    private int emptyTerms;
+
+    public FuzzyIndex(Collection<ContactIndexRow> rows) {
+        for (ContactIndexRow row : rows) {
+            add(row);
+        }
+    }
+
+    @Override
+    public void upsert(ContactIndexRow row) {
+        lock.writeLock().lock();
+        try {
+            removeContact(row.id());
+            add(row);
+            rebuildTreeIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long contactId) {
+        lock.writeLock().lock();
+        try {
+            removeContact(contactId);
+            rebuildTreeIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param k maximum number of ranked results to return
+     */
+    public FuzzyMatches search(String query, int k) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || k <= 0) return new FuzzyMatches(new long[0], new float[0], 0);
+
+        lock.readLock().lock();
+        try {
+            Map<Long, float[]> scores = new HashMap<>(); // Accumulated score per contact, boxed once
+            for (String token : queryTokens) {
+                Map<Long, Float> best = new HashMap<>();
+                for (Map.Entry<Term, Float> match : matchingTerms(token).entrySet()) {
+                    Term term = match.getKey();
+                    float similarity = match.getValue();
+                    for (int i = 0; i < term.size; i++) {
+                        float score = similarity * fieldWeight(term.fields[i]);
+                        best.merge(term.ids[i], score, Math::max);
+                    }
+                }
+                best.forEach((id, score) -> scores.computeIfAbsent(id, key -> new float[1])[0] += score);
+            }
+            return topK(scores, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return termsByContact.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long weight() {
+        lock.readLock().lock();
+        try {
+            long weight = 64L;
+            for (Term term : dictionary.values()) {
+                // Dictionary entry + key string + BK-tree node + postings arrays
+                weight += 40L + 40L + term.text.length() + 56L + 9L * term.ids.length;
+            }
+            for (String[] terms : termsByContact.values()) {
+                weight += 48L + 16L + 4L * terms.length;
+            }
+            return weight;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Similarity in (0, 1] for each term matching the query token
+    private Map<Term, Float> matchingTerms(String token) {
+        Map<Term, Float> matches = new HashMap<>();
+        // Prefix matches, which include the exact match; the query's last token is often still being typed
+        for (Term term : dictionary.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+            if (term.size > 0) matches.put(term, term.text.length() == token.length() ? 1.0f : PREFIX_MATCH);
+        }
+        int maxEdits = maxEdits(token.length());
+        if (maxEdits > 0) {
+            // A transposition is two Levenshtein edits but one OSA edit, so search one wider and verify
+            bkTree.search(token, maxEdits + 1, term -> {
+                if (term.size == 0) return;
+                int edits = osaDistance(token, term.text, maxEdits);
+                if (edits <= maxEdits) {
+                    matches.merge(term, 1.0f - PER_EDIT_PENALTY * edits, Math::max);
+                }
+            });
+        }
+        return matches;
+    }
+
+    private static FuzzyMatches topK(Map<Long, float[]> scores, int k) {
+        // Min-heap of the best k so far: the root is the weakest result and is the one evicted
+        PriorityQueue<Map.Entry<Long, float[]>> heap = new PriorityQueue<>(Math.min(k, Math.max(1, scores.size())),
+                (a, b) -> a.getValue()[0] != b.getValue()[0]
+                        ? Float.compare(a.getValue()[0], b.getValue()[0])
+                        : Long.compare(b.getKey(), a.getKey()));
+        for (Map.Entry<Long, float[]> entry : scores.entrySet()) {
+            if (heap.size() < k) {
+                heap.add(entry);
+            } else if (heap.comparator().compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        int count = heap.size();
+        long[] ids = new long[count];
+        float[] ranked = new float[count];
+        for (int i = count - 1; i >= 0; i--) {
+            Map.Entry<Long, float[]> entry = heap.poll();
+            ids[i] = entry.getKey();
+            ranked[i] = entry.getValue()[0];
+        }
+        return new FuzzyMatches(ids, ranked, scores.size());
+    }
+
+    private void add(ContactIndexRow row) {
+        Map<String, Integer> fieldsByToken = new LinkedHashMap<>();
+        addTokens(fieldsByToken, row.firstName(), FIRST_NAME);
+        addTokens(fieldsByToken, row.lastName(), LAST_NAME);
+        addTokens(fieldsByToken, emailLocalPart(row.email()), EMAIL);
+        addTokens(fieldsByToken, row.title(), TITLE);
+        if (fieldsByToken.isEmpty()) return;
+
+        String[] tokens = new String[fieldsByToken.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : fieldsByToken.entrySet()) {
+            Term term = dictionary.get(entry.getKey());
+            if (term == null) {
+                term = new Term(entry.getKey());
+                dictionary.put(term.text, term);
+                bkTree.add(term.text, term);
+            } else if (term.size == 0) {
+                emptyTerms--;
+            }
+            term.add(row.id(), entry.getValue().byteValue());
+            tokens[i++] = term.text;
+        }
+        termsByContact.put(row.id(), tokens);
+    }
+
+    private void removeContact(long contactId) {
+        String[] tokens = termsByContact.remove(contactId);
+        if (tokens == null) return;
+        for (String token : tokens) {
+            Term term = dictionary.get(token);
+            term.remove(contactId);
+            if (term.size == 0) emptyTerms++;
+        }
+    }
+
+    // Terms stay in the tree while empty (BK-trees cannot delete); rebuild once they dominate
+    private void rebuildTreeIfNeeded() {
+        if (emptyTerms < 1024 || emptyTerms < dictionary.size() / 2) return;
+        dictionary.values().removeIf(term -> term.size == 0);
+        bkTree = new BkTree<>();
+        for (Term term : dictionary.values()) {
+            bkTree.add(term.text, term);
+        }
+        emptyTerms = 0;
+    }
+
+    private static void addTokens(Map<String, Integer> fieldsByToken, String text, int field) {
+        for (String token : tokenize(text)) {
+            fieldsByToken.merge(token, field, (a, b) -> a | b);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() >= 2) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private static String emailLocalPart(String email) {
+        if (email == null) return null;
+        int at = email.indexOf('@');
+        return at >= 0 ? email.substring(0, at) : email;
+    }
+
+    // Names hit above emails, emails above titles
+    static float fieldWeight(int fields) {
+        if ((fields & (FIRST_NAME | LAST_NAME)) != 0) return 3.0f;
+        if ((fields & EMAIL) != 0) return 2.0f;
+        return 1.0f;
+    }
+
+    static int maxEdits(int length) {
+        if (length <= 3) return 0;
+        if (length <= 7) return 1;
+        return 2;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions), or {@code limit + 1}
+     * once it is known to exceed {@code limit}.
+     */
+    static int osaDistance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) return limit + 1;
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            int rowMin = Integer.MAX_VALUE;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, d[i - 2][j - 2] + 1);
+                }
+                d[i][j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit + 1) return limit + 1; // Transpositions look back two rows, so allow one row of slack
+        }
+        return Math.min(d[a.length()][b.length()], limit + 1);
+    }
+
+    // One dictionary token and the contacts containing it; postings are unordered
+    private static final class Term {
+        final String text;
+        long[] ids = new long[2];
+        byte[] fields = new byte[2];
+        int size;
+
+        Term(String text) {
+            this.text = text;
+        }
+
+        void add(long contactId, byte fieldMask) {
+            if (size == ids.length) {
+                int capacity = size + (size >> 1) + 1;
+                ids = Arrays.copyOf(ids, capacity);
+                fields = Arrays.copyOf(fields, capacity);
+            }
+            ids[size] = contactId;
+            fields[size++] = fieldMask;
+        }
+
+        // Swap-remove: order does not matter
+        void remove(long contactId) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == contactId) {
+                    size--;
+                    ids[i] = ids[size];
+                    fields[i] = fields[size];
+                    return;
+                }
+            }
+        }
+    }
+}
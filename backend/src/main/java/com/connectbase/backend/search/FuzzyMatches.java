@@ -0,0 +1,7 @@
+package com.connectbase.backend.search;
+
+/**
+ * Result of a fuzzy search: the best contacts in rank order with their scores, and how many contacts matched at all.
+ */
+public record FuzzyMatches(long[] ids, float[] scores, int totalMatches) {
+}
@@ -0,0 +1,48 @@
+package com.connectbase.backend.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive int list, used for posting lists so they never box their elements.
+ */
+final class IntList {
+
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        values = new int[Math.max(1, capacity)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int last() {
+        return values[size - 1];
+    }
+
+    // Only valid while elements were added in ascending order
+    boolean containsSorted(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    long weight() {
+        return 16L + 4L * values.length;
+    }
+}
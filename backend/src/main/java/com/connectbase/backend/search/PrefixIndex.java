@@ -0,0 +1,207 @@
+package com.connectbase.backend.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix (autocomplete) index over one user's contacts, keyed by full name, last name, email local part and
+ * phone digits.
+ * <p>
+ * Keys live in parallel sorted arrays (no per-entry objects), so a lookup is one binary search followed by a
+ * short forward scan. Writes go to a small delta keyed by contact id, which shadows that contact's entries in
+ * the sorted arrays; the delta is merged back into the arrays once it outgrows {@link #MAX_DELTA} contacts.
+ */
+public class PrefixIndex implements UserIndex {
+
+    private static final int MAX_DELTA = 512;
+    private static final Entry[] REMOVED = new Entry[0];
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key).thenComparingLong(Entry::id);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Sorted by (key, id); names[i] is shared by all entries of one contact
+    private String[] keys;
+    private long[] ids;
+    private String[] names;
+    private int size;
+    private long keyChars;
+
+    // Contacts written since the last merge; REMOVED for deletions
+    private final Map<Long, Entry[]> delta = new HashMap<>();
+
+    public PrefixIndex(Collection<ContactIndexRow> rows) {
+        List<Entry> entries = new ArrayList<>(rows.size() * 4);
+        for (ContactIndexRow row : rows) {
+            Collections.addAll(entries, entriesOf(row));
+        }
+        load(entries);
+    }
+
+    @Override
+    public void upsert(ContactIndexRow row) {
+        lock.writeLock().lock();
+        try {
+            delta.put(row.id(), entriesOf(row));
+            mergeIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long contactId) {
+        lock.writeLock().lock();
+        try {
+            delta.put(contactId, REMOVED);
+            mergeIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return up to {@code limit} distinct contacts with a key starting with {@code prefix}, in key order
+     */
+    public List<ContactSuggestion> suggest(String prefix, int limit) {
+        String needle = normalizeQuery(prefix);
+        if (needle.isEmpty() || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            List<Entry> candidates = new ArrayList<>();
+            Set<Long> seen = new HashSet<>();
+            for (int i = lowerBound(needle); i < size && seen.size() < limit && keys[i].startsWith(needle); i++) {
+                if (delta.containsKey(ids[i])) continue; // Shadowed by a newer version (or deleted)
+                if (seen.add(ids[i])) candidates.add(new Entry(keys[i], ids[i], names[i]));
+            }
+            for (Entry[] entries : delta.values()) {
+                for (Entry entry : entries) {
+                    if (entry.key().startsWith(needle)) candidates.add(entry);
+                }
+            }
+            candidates.sort(ORDER);
+
+            List<ContactSuggestion> suggestions = new ArrayList<>(Math.min(limit, candidates.size()));
+            seen.clear();
+            for (Entry entry : candidates) {
+                if (suggestions.size() == limit) break;
+                if (seen.add(entry.id())) suggestions.add(new ContactSuggestion(entry.id(), entry.name()));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long weight() {
+        lock.readLock().lock();
+        try {
+            // Array slots, key strings, and a share of the display name each entry points to
+            long weight = 64L + 24L * keys.length + 40L * size + keyChars + 16L * size;
+            for (Entry[] entries : delta.values()) {
+                weight += 64L;
+                for (Entry entry : entries) weight += 88L + entry.key().length() + entry.name().length();
+            }
+            return weight;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int lowerBound(String needle) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(needle) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private void mergeIfNeeded() {
+        if (delta.size() < Math.max(MAX_DELTA, size >> 5)) return;
+        List<Entry> entries = new ArrayList<>(size + delta.size() * 4);
+        for (int i = 0; i < size; i++) {
+            if (!delta.containsKey(ids[i])) entries.add(new Entry(keys[i], ids[i], names[i]));
+        }
+        for (Entry[] changed : delta.values()) {
+            Collections.addAll(entries, changed);
+        }
+        delta.clear();
+        load(entries);
+    }
+
+    private void load(List<Entry> entries) {
+        entries.sort(ORDER);
+        size = entries.size();
+        keys = new String[size];
+        ids = new long[size];
+        names = new String[size];
+        keyChars = 0;
+        for (int i = 0; i < size; i++) {
+            Entry entry = entries.get(i);
+            keys[i] = entry.key();
+            ids[i] = entry.id();
+            names[i] = entry.name();
+            keyChars += entry.key().length();
+        }
+    }
+
+    private static Entry[] entriesOf(ContactIndexRow row) {
+        String name = ContactSuggestion.displayName(row.firstName(), row.lastName(), row.email(), row.phone());
+        Set<String> rowKeys = new LinkedHashSet<>(4);
+        addKey(rowKeys, (trimmed(row.firstName()) + " " + trimmed(row.lastName())).trim());
+        addKey(rowKeys, trimmed(row.lastName()));
+        String email = trimmed(row.email());
+        int at = email.indexOf('@');
+        addKey(rowKeys, at >= 0 ? email.substring(0, at) : email);
+        addKey(rowKeys, digits(row.phone()));
+
+        Entry[] entries = new Entry[rowKeys.size()];
+        int i = 0;
+        for (String key : rowKeys) {
+            entries[i++] = new Entry(key, row.id(), name);
+        }
+        return entries;
+    }
+
+    private static void addKey(Set<String> rowKeys, String key) {
+        if (!key.isEmpty()) rowKeys.add(normalizeText(key));
+    }
+
+    // Phone-like queries ("+1 (555) 01") match on digits only; everything else on lower-cased, single-spaced text.
+    // Also used by the database fallback (ContactRepo#findSuggestions)
+    public static String normalizeQuery(String prefix) {
+        if (prefix == null) return "";
+        String text = normalizeText(prefix.trim());
+        boolean phoneLike = !text.isEmpty();
+        for (int i = 0; i < text.length() && phoneLike; i++) {
+            char c = text.charAt(i);
+            phoneLike = c >= '0' && c <= '9' || c == ' ' || c == '+' || c == '-' || c == '(' || c == ')' || c == '.';
+        }
+        return phoneLike ? digits(text) : text;
+    }
+
+    private static String normalizeText(String text) {
+        return text.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static String digits(String text) {
+        if (text == null) return "";
+        StringBuilder digits = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') digits.append(c); // ASCII only, like Contact#digits
+        }
+        return digits.toString();
+    }
+
+    private static String trimmed(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    private record Entry(String key, long id, String name) {
+    }
+}
@@ -0,0 +1,219 @@
+package com.connectbase.backend.search;
+
+import com.connectbase.backend.model.Contact;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted trigram index over one user's contacts (first name, last name, email, title, phone).
+ * <p>
+ * Every contact version gets an ordinal; ordinals only ever grow, so posting lists stay sorted and can be
+ * intersected with binary search. Updates retire the old ordinal and append a new one; retired ordinals are
+ * compacted away once they outnumber the live ones. Candidates from the trigram intersection are confirmed
+ * with a substring check. Query and columns are normalized with {@link Contact#normalize}, as in the persisted
+ * search columns, so results match the database search (ContactRepo.searchContacts) on any of the five columns.
+ */
+public class TrigramIndex implements UserIndex {
+
+    private static final char FIELD_SEPARATOR = '\u0000'; // Never part of a query, so matches cannot span fields
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] contactIds = new long[16];
+    private String[] texts = new String[16];
+    private final BitSet retired = new BitSet();
+    private int nextOrdinal;
+    private int liveCount;
+    private long textChars;
+
+    private final Map<Long, Integer> ordinalByContactId = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    public TrigramIndex(Collection<ContactIndexRow> rows) {
+        for (ContactIndexRow row : rows) {
+            append(row.id(), searchableText(row));
+        }
+    }
+
+    @Override
+    public void upsert(ContactIndexRow row) {
+        lock.writeLock().lock();
+        try {
+            retire(row.id());
+            append(row.id(), searchableText(row));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long contactId) {
+        lock.writeLock().lock();
+        try {
+            retire(contactId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return ids of all contacts whose searchable columns contain the normalized {@code keyword}, ascending
+     */
+    public long[] search(String keyword) {
+        String needle = Contact.normalize(keyword);
+        lock.readLock().lock();
+        try {
+            long[] matches = needle.length() < 3 ? scan(needle) : searchTrigrams(needle);
+            Arrays.sort(matches);
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long weight() {
+        lock.readLock().lock();
+        try {
+            long weight = 64L + 12L * contactIds.length + 2L * textChars + 48L * ordinalByContactId.size();
+            for (IntList list : postings.values()) {
+                weight += 48L + list.weight();
+            }
+            return weight;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] searchTrigrams(String needle) {
+        // Distinct trigrams of the query, rarest posting list first
+        List<IntList> lists = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i + 3 <= needle.length(); i++) {
+            long trigram = trigram(needle, i);
+            if (!seen.add(trigram)) continue;
+            IntList list = postings.get(trigram);
+            if (list == null) return new long[0];
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(IntList::size));
+
+        IntList shortest = lists.get(0);
+        long[] matches = new long[Math.min(shortest.size(), liveCount)];
+        int count = 0;
+        candidates:
+        for (int i = 0; i < shortest.size(); i++) {
+            int ordinal = shortest.get(i);
+            if (retired.get(ordinal)) continue;
+            for (int j = 1; j < lists.size(); j++) {
+                if (!lists.get(j).containsSorted(ordinal)) continue candidates;
+            }
+            if (texts[ordinal].contains(needle)) {
+                matches[count++] = contactIds[ordinal];
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private long[] scan(String needle) {
+        long[] matches = new long[liveCount];
+        int count = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (!retired.get(ordinal) && texts[ordinal].contains(needle)) {
+                matches[count++] = contactIds[ordinal];
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private void append(long contactId, String text) {
+        int ordinal = nextOrdinal++;
+        if (ordinal == contactIds.length) {
+            int capacity = ordinal + (ordinal >> 1) + 1;
+            contactIds = Arrays.copyOf(contactIds, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+        }
+        contactIds[ordinal] = contactId;
+        texts[ordinal] = text;
+        textChars += text.length();
+        ordinalByContactId.put(contactId, ordinal);
+        liveCount++;
+
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            if (text.charAt(i) == FIELD_SEPARATOR || text.charAt(i + 1) == FIELD_SEPARATOR || text.charAt(i + 2) == FIELD_SEPARATOR) {
+                continue;
+            }
+            IntList list = postings.computeIfAbsent(trigram(text, i), k -> new IntList());
+            if (list.size() == 0 || list.last() != ordinal) { // Repeated trigram within one contact
+                list.add(ordinal);
+            }
+        }
+    }
+
+    private void retire(long contactId) {
+        Integer ordinal = ordinalByContactId.remove(contactId);
+        if (ordinal != null) {
+            retired.set(ordinal);
+            textChars -= texts[ordinal].length();
+            texts[ordinal] = "";
+            liveCount--;
+        }
+    }
+
+    // Rebuild posting lists once retired ordinals outnumber live ones
+    private void compactIfNeeded() {
+        int retiredCount = nextOrdinal - liveCount;
+        if (retiredCount < 64 || retiredCount < liveCount) return;
+
+        long[] oldIds = contactIds;
+        String[] oldTexts = texts;
+        int oldCount = nextOrdinal;
+        BitSet oldRetired = (BitSet) retired.clone();
+
+        contactIds = new long[Math.max(16, liveCount)];
+        texts = new String[Math.max(16, liveCount)];
+        retired.clear();
+        nextOrdinal = 0;
+        liveCount = 0;
+        textChars = 0;
+        ordinalByContactId.clear();
+        postings.clear();
+        for (int ordinal = 0; ordinal < oldCount; ordinal++) {
+            if (!oldRetired.get(ordinal)) {
+                append(oldIds[ordinal], oldTexts[ordinal]);
+            }
+        }
+    }
+
+    // Normalized searchable columns joined by a separator
+    private static String searchableText(ContactIndexRow row) {
+        StringBuilder text = new StringBuilder(64);
+        appendField(text, row.firstName());
+        appendField(text, row.lastName());
+        appendField(text, row.email());
+        appendField(text, row.title());
+        appendField(text, row.phone());
+        return text.toString();
+    }
+
+    private static void appendField(StringBuilder text, String value) {
+        if (!text.isEmpty()) text.append(FIELD_SEPARATOR);
+        text.append(Contact.normalize(value));
+    }
+
+    private static long trigram(CharSequence text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+}
@@ -0,0 +1,14 @@
+package com.connectbase.backend.search;
+
+/**
+ * A per-user in-memory index held by {@link UserIndexRegistry}.
+ */
+public interface UserIndex {
+
+    void upsert(ContactIndexRow row);
+
+    void remove(long contactId);
+
+    // Approximate retained heap in bytes, used for the registry's size bound
+    long weight();
+}
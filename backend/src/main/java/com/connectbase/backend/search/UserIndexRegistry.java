@@ -0,0 +1,162 @@
+package com.connectbase.backend.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Weight-bounded cache of per-user in-memory indexes.
+ * <p>
+ * Indexes are built on first use on a background executor; until one is warm, {@link #getIfWarm} returns null and
+ * callers fall back to the database. Writes are applied to warm indexes through {@link #update}. A per-user write
+ * counter, held only while a build for the user is in flight, detects writes that race with the build, in which case
+ * the freshly built index is discarded. When the total weight exceeds the budget, the least recently used users'
+ * indexes are dropped, so per-user state is bounded by the warm users plus the builds in flight.
+ */
+public class UserIndexRegistry<I extends UserIndex> {
+
+    private static final Logger log = LoggerFactory.getLogger(UserIndexRegistry.class);
+
+    private final String name;
+    private final long maxWeight;
+    private final LongFunction<I> loader;
+    private final Executor buildExecutor;
+
+    private final Map<Long, Slot<I>> slots = new ConcurrentHashMap<>();
+    private final Map<Long, WriteCounter> writeCounters = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> building = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserIndexRegistry(String name, long maxWeight, LongFunction<I> loader, Executor buildExecutor) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.loader = loader;
+        this.buildExecutor = buildExecutor;
+    }
+
+    // Returns the user's index if it is built, otherwise schedules a build and returns null
+    public I getIfWarm(long userId) {
+        Slot<I> slot = slots.get(userId);
+        if (slot != null) {
+            slot.lastAccess = System.nanoTime();
+            return slot.index;
+        }
+        scheduleBuild(userId);
+        return null;
+    }
+
+    public void update(long userId, Consumer<I> mutation) {
+        recordWrite(userId);
+        Slot<I> slot = slots.get(userId);
+        if (slot != null) {
+            mutation.accept(slot.index);
+        }
+    }
+
+    public void invalidate(long userId) {
+        recordWrite(userId);
+        slots.remove(userId);
+    }
+
+    public long totalWeight() {
+        long total = 0;
+        for (Slot<I> slot : slots.values()) total += slot.index.weight();
+        return total;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    private void scheduleBuild(long userId) {
+        if (building.putIfAbsent(userId, Boolean.TRUE) != null) return;
+        try {
+            buildExecutor.execute(() -> {
+                try {
+                    build(userId);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to build {} index for user {}", name, userId, e);
+                } finally {
+                    building.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            building.remove(userId); // Builder saturated: stay on the database path for now
+        }
+    }
+
+    private I build(long userId) {
+        WriteCounter counter = writeCounters.compute(userId, (id, current) -> {
+            WriteCounter started = current != null ? current : new WriteCounter();
+            started.builds++;
+            return started;
+        });
+        try {
+            long writesBefore = counter.writes;
+            I index = loader.apply(userId);
+            if (counter.writes != writesBefore) {
+                return index; // A write raced with the load; serve this request but do not cache a stale index
+            }
+            Slot<I> slot = new Slot<>(index);
+            slots.put(userId, slot);
+            if (counter.writes != writesBefore) {
+                slots.remove(userId, slot);
+            }
+            evictIfNeeded();
+            return index;
+        } finally {
+            writeCounters.computeIfPresent(userId, (id, current) -> --current.builds == 0 ? null : current);
+        }
+    }
+
+    private void evictIfNeeded() {
+        long total = totalWeight();
+        if (total <= maxWeight) return;
+        List<Map.Entry<Long, Slot<I>>> coldestFirst = new ArrayList<>(slots.entrySet());
+        coldestFirst.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        for (Map.Entry<Long, Slot<I>> entry : coldestFirst) {
+            if (total <= maxWeight) break;
+            if (slots.remove(entry.getKey(), entry.getValue())) {
+                total -= entry.getValue().index.weight();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    // Writes made while no build is in flight need no counting: a later build loads them from the database
+    private void recordWrite(long userId) {
+        writeCounters.computeIfPresent(userId, (id, current) -> {
+            current.writes++;
+            return current;
+        });
+    }
+
+    // Both fields change only inside the map's compute functions, which are atomic per user
+    private static final class WriteCounter {
+        volatile long writes;
+        int builds;
+    }
+
+    private static final class Slot<I> {
+        final I index;
+        volatile long lastAccess = System.nanoTime();
+
+        Slot(I index) {
+            this.index = index;
+        }
+    }
+}
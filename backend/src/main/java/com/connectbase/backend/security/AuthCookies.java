@@ -0,0 +1,37 @@
+package com.connectbase.backend.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Reads and writes the HttpOnly session cookies shared by {@link JwtAuthenticationFilter} and the auth endpoints.
+ */
+public final class AuthCookies {
+
+    public static final String ACCESS_TOKEN = "accessToken";
+    public static final String REFRESH_TOKEN = "refreshToken";
+
+    private AuthCookies() {
+    }
+
+    public static String read(HttpServletRequest request, String name) {
+        String value = null;
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (name.equals(cookie.getName())) {
+                    value = cookie.getValue();
+                }
+            }
+        }
+        return value;
+    }
+
+    public static void write(HttpServletResponse response, String name, String value, int maxAge) {
+        Cookie cookie = new Cookie(name, value);
+        cookie.setHttpOnly(true); // Secure: JS cannot read this
+        cookie.setPath("/");
+        cookie.setMaxAge(maxAge);
+        response.addCookie(cookie);
+    }
+}
@@ -0,0 +1,79 @@
+package com.connectbase.backend.security;
+
+import com.connectbase.backend.exceptions.TooManyRequestsException;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the credential endpoints (login, forgot/reset password) by email and by client IP,
+ * so credential stuffing cannot turn into unbounded BCrypt work or outbound email.
+ */
+@Component
+public class AuthRateLimiter {
+
+    @Value("${security.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    // Attempts allowed per window, per email and per client IP
+    @Value("${security.rate-limit.login.per-email:5}")
+    private int loginPerEmail;
+
+    @Value("${security.rate-limit.login.per-ip:20}")
+    private int loginPerIp;
+
+    @Value("${security.rate-limit.login.window-seconds:60}")
+    private long loginWindowSeconds;
+
+    @Value("${security.rate-limit.password-reset.per-email:3}")
+    private int resetPerEmail;
+
+    @Value("${security.rate-limit.password-reset.per-ip:10}")
+    private int resetPerIp;
+
+    @Value("${security.rate-limit.password-reset.window-seconds:900}")
+    private long resetWindowSeconds;
+
+    private TokenBucketLimiter loginByEmail;
+    private TokenBucketLimiter loginByIp;
+    private TokenBucketLimiter resetByEmail;
+    private TokenBucketLimiter resetByIp;
+
+    @PostConstruct
+    void init() {
+        loginByEmail = new TokenBucketLimiter(loginPerEmail, loginWindowSeconds, TimeUnit.SECONDS, maxKeys);
+        loginByIp = new TokenBucketLimiter(loginPerIp, loginWindowSeconds, TimeUnit.SECONDS, maxKeys);
+        resetByEmail = new TokenBucketLimiter(resetPerEmail, resetWindowSeconds, TimeUnit.SECONDS, maxKeys);
+        resetByIp = new TokenBucketLimiter(resetPerIp, resetWindowSeconds, TimeUnit.SECONDS, maxKeys);
+    }
+
+    public void checkLogin(String email, HttpServletRequest request) {
+        check(loginByIp, request.getRemoteAddr(), "Too many login attempts. Please try again later.");
+        check(loginByEmail, normalize(email), "Too many login attempts. Please try again later.");
+    }
+
+    // Shared by forgot-password and reset-password: both spend email or code-guessing budget
+    public void checkPasswordReset(String email, HttpServletRequest request) {
+        check(resetByIp, request.getRemoteAddr(), "Too many password reset requests. Please try again later.");
+        check(resetByEmail, normalize(email), "Too many password reset requests. Please try again later.");
+    }
+
+    private void check(TokenBucketLimiter limiter, String key, String message) {
+        if (!enabled || key == null) return;
+        long waitNanos = limiter.tryAcquire(key);
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException(message, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,29 @@
+package com.connectbase.backend.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.security.Principal;
+
+/**
+ * Principal installed by {@link JwtAuthenticationFilter}. Built purely from verified token claims,
+ * so identifying the caller never requires a users-table lookup.
+ */
+public record AuthenticatedUser(long id, String email) implements Principal {
+
+    // Returns null for refresh tokens and for tokens that predate the user id claim (those users simply log in again)
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        if (JwtUtils.REFRESH_TOKEN_TYPE.equals(claims.get(JwtUtils.TOKEN_TYPE_CLAIM, String.class))) {
+            return null;
+        }
+        Long userId = claims.get(JwtUtils.USER_ID_CLAIM, Long.class);
+        if (userId == null || claims.getSubject() == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, claims.getSubject());
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,11 +1,12 @@
 package com.connectbase.backend.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
-import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -21,37 +22,50 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Value("${security.jwt.renew-threshold-ms:120000}")
+    private long renewThresholdMillis;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
         // 1. Get the token from the cookie
-        String token = null;
-        if (request.getCookies() != null) {
-            for (Cookie cookie : request.getCookies()) {
-                if ("accessToken".equals(cookie.getName())) {
-                    token = cookie.getValue();
-                }
-            }
-        }
-
-        // 2. Validate the token
-        if (token != null && jwtUtils.validateToken(token)) {
-            String email = jwtUtils.getEmailFromToken(token);
+        String token = AuthCookies.read(request, AuthCookies.ACCESS_TOKEN);
 
+        // 2. Validate the token (single parse; repeat tokens are served from the verified-token cache)
+        Claims claims = jwtUtils.parseVerifiedClaims(token);
+        AuthenticatedUser principal = claims != null ? AuthenticatedUser.fromClaims(claims) : null;
+        if (principal != null) {
             // 3. Tell Spring Security that the user is authenticated
             // (We are passing 'new ArrayList<>()' because we haven't implemented User Roles yet)
             UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(email, null, new ArrayList<>());
+                    new UsernamePasswordAuthenticationToken(principal, null, new ArrayList<>());
 
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
             // Set the user in the Security Context
             SecurityContextHolder.getContext().setAuthentication(authentication);
+
+            // Renew an access token that is about to expire while the session's refresh token is still good
+            if (claims.getExpiration().getTime() - System.currentTimeMillis() < renewThresholdMillis) {
+                renewAccessToken(request, response, principal);
+            }
         }
 
         // 4. Continue the request chain
         filterChain.doFilter(request, response);
     }
+
+    private void renewAccessToken(HttpServletRequest request, HttpServletResponse response, AuthenticatedUser principal) {
+        String refreshToken = AuthCookies.read(request, AuthCookies.REFRESH_TOKEN);
+        if (refreshToken != null && refreshTokenService.canRenew(refreshToken, principal.id())) {
+            AuthCookies.write(response, AuthCookies.ACCESS_TOKEN,
+                    jwtUtils.generateAccessToken(principal.id(), principal.email()),
+                    jwtUtils.getAccessTokenMaxAgeSeconds());
+        }
+    }
 }
\ No newline at end of file
@@ -1,42 +1,117 @@
 package com.connectbase.backend.security;
 
+import com.connectbase.backend.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtils {
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+    public static final String FAMILY_CLAIM = "fam";
+    public static final String SESSION_VERSION_CLAIM = "ver";
+    public static final String ACCESS_TOKEN_TYPE = "access";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    private static final long REFRESH_EXPIRATION = 604800000; // 7 days in milliseconds
+
     @Value("${security.jwt.secret-key}")
     private String secretKey;
 
     @Value("${security.jwt.expiration-time}")
     private long jwtExpiration;
 
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    // Derived once at startup instead of Base64-decoding the secret on every call
+    private Key signInKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        signInKey = Keys.hmacShaKeyFor(keyBytes);
+        parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+    }
+
     // Generate Access Token
-    public String generateAccessToken(String email) {
-        return buildToken(email, jwtExpiration);
+    public String generateAccessToken(User user) {
+        return generateAccessToken(user.getId(), user.getEmail());
+    }
+
+    // Minted from claims alone (e.g. on refresh), so no user lookup or password check is needed
+    public String generateAccessToken(long userId, String email) {
+        return baseToken(userId, email, jwtExpiration)
+                .claim(TOKEN_TYPE_CLAIM, ACCESS_TOKEN_TYPE)
+                .compact();
+    }
+
+    // Generate Refresh Token, starting a new rotation family (one per login)
+    public String generateRefreshToken(User user) {
+        return generateRefreshToken(user.getId(), user.getEmail(), UUID.randomUUID(), user.getSessionVersion());
+    }
+
+    // Each refresh token has its own id (jti) and carries its family, for rotation and reuse detection,
+    // and the user's session version, so a password change ends it
+    public String generateRefreshToken(long userId, String email, UUID familyId, int sessionVersion) {
+        return baseToken(userId, email, REFRESH_EXPIRATION)
+                .setId(UUID.randomUUID().toString())
+                .claim(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE)
+                .claim(FAMILY_CLAIM, familyId.toString())
+                .claim(SESSION_VERSION_CLAIM, sessionVersion)
+                .compact();
+    }
+
+    public int getAccessTokenMaxAgeSeconds() {
+        return (int) (jwtExpiration / 1000);
     }
 
-    // Generate Refresh Token (Example: 7 days fixed, or you can add another property)
-    public String generateRefreshToken(String email) {
-        long refreshExpiration = 604800000; // 7 days in milliseconds
-        return buildToken(email, refreshExpiration);
+    public int getRefreshTokenMaxAgeSeconds() {
+        return (int) (REFRESH_EXPIRATION / 1000);
     }
 
-    private String buildToken(String email, long expiration) {
+    // The user id travels in the token so authenticated requests never have to look the user up
+    private JwtBuilder baseToken(long userId, String email, long expiration) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setSubject(email)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .claim(USER_ID_CLAIM, userId)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiration))
+                .signWith(signInKey, SignatureAlgorithm.HS256);
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or null if the token is invalid or expired.
+     * Tokens that were already verified are served from the cache without recomputing the HMAC.
+     */
+    public Claims parseVerifiedClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        Claims cached = tokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            tokenCache.put(token, claims);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
     }
 
     // Extract Username (Email)
@@ -55,26 +130,15 @@ public class JwtUtils {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parseVerifiedClaims(token);
+        if (claims == null) {
+            throw new JwtException("Invalid or expired token");
+        }
+        return claims;
     }
 
     // Validate Token
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder().setSigningKey(getSignInKey()).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            // Log error here if needed
-            return false;
-        }
-    }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return parseVerifiedClaims(token) != null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package com.connectbase.backend.security;
+
+import com.connectbase.backend.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated, CPU-sized pool (a bulkhead), so a login storm
+ * cannot starve the Tomcat threads that serve the rest of the API. When the pool and its bounded queue
+ * are full, callers get a {@link ServiceBusyException} (503) instead of piling up.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private static final int MIN_STRENGTH = 10; // BCryptPasswordEncoder default; never calibrate below it
+    private static final int MAX_STRENGTH = 16;
+
+    // BCrypt cost; any value below 4 means "calibrate at startup to security.bcrypt.target-millis"
+    @Value("${security.bcrypt.strength:-1}")
+    private int configuredStrength;
+
+    @Value("${security.bcrypt.target-millis:250}")
+    private long targetMillis;
+
+    // 0 means one thread per available core
+    @Value("${security.bcrypt.threads:0}")
+    private int threads;
+
+    @Value("${security.bcrypt.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.bcrypt.timeout-ms:3000}")
+    private long timeoutMillis;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private BCryptPasswordEncoder encoder;
+    private int strength;
+    private ThreadPoolExecutor executor;
+    private Timer encodeTimer;
+    private Timer matchTimer;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void init() {
+        strength = configuredStrength >= 4 ? configuredStrength : calibrate();
+        encoder = new BCryptPasswordEncoder(strength);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        if (meterRegistry != null) {
+            Gauge.builder("auth.bcrypt.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+            Gauge.builder("auth.bcrypt.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+            encodeTimer = Timer.builder("auth.bcrypt.latency").tag("operation", "encode").register(meterRegistry);
+            matchTimer = Timer.builder("auth.bcrypt.latency").tag("operation", "matches").register(meterRegistry);
+            rejectedCounter = Counter.builder("auth.bcrypt.rejected").register(meterRegistry);
+        }
+        log.info("BCrypt bulkhead ready: cost={}, threads={}, queue={}", strength, poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> timed(encodeTimer, () -> encoder.encode(rawPassword)));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> timed(matchTimer, () -> encoder.matches(rawPassword, encodedPassword)));
+    }
+
+    // True when the stored hash uses an older (lower) cost than the current one
+    public boolean needsRehash(String encodedPassword) {
+        return encodedPassword != null && encoder.upgradeEncoding(encodedPassword);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            if (rejectedCounter != null) rejectedCounter.increment();
+            throw new ServiceBusyException("Authentication service is busy, please retry shortly");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            if (rejectedCounter != null) rejectedCounter.increment();
+            throw new ServiceBusyException("Authentication service is busy, please retry shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static <T> T timed(Timer timer, Callable<T> work) throws Exception {
+        return timer != null ? timer.recordCallable(work) : work.call();
+    }
+
+    // Each cost step doubles the work, so measure once at the minimum and extrapolate upwards
+    private int calibrate() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_STRENGTH);
+        probe.encode("calibration-warmup");
+        long start = System.nanoTime();
+        probe.encode("calibration-probe");
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        int cost = MIN_STRENGTH;
+        while (cost < MAX_STRENGTH && elapsedMillis * 2 <= targetMillis) {
+            cost++;
+            elapsedMillis *= 2;
+        }
+        log.info("Calibrated BCrypt cost {} (~{} ms per hash, target {} ms)", cost, elapsedMillis, targetMillis);
+        return cost;
+    }
+}
@@ -0,0 +1,106 @@
+package com.connectbase.backend.security;
+
+import com.connectbase.backend.exceptions.InvalidTokenException;
+import com.connectbase.backend.repo.UserRepo;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Exchanges refresh tokens for new access tokens without touching the password hash.
+ * Refresh tokens are single-use: every exchange rotates to a new token in the same family, and presenting
+ * an already-exchanged token revokes the whole family (the token was most likely stolen). Two tabs refreshing
+ * with the same cookie at once are not a theft, so a second exchange within {@code refresh-reuse-grace-ms}
+ * is answered with another token in the family instead.
+ * <p>
+ * Each token also carries the user's session version, which a password change or reset bumps. It is read from
+ * the users table by primary key on every exchange, so ended sessions stay ended across restarts and instances.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    @Autowired private JwtUtils jwtUtils;
+    @Autowired private RefreshTokenStore refreshTokenStore;
+    @Autowired private UserRepo userRepo;
+
+    @Value("${security.jwt.refresh-reuse-grace-ms:10000}")
+    private long reuseGraceMillis;
+
+    public record TokenPair(String accessToken, String refreshToken) {
+    }
+
+    public TokenPair refresh(String refreshToken) {
+        RefreshClaims refresh = parse(refreshToken);
+        if (refreshTokenStore.isFamilyRevoked(refresh.familyId()) || !isCurrentSession(refresh)) {
+            throw new InvalidTokenException("Session has been revoked");
+        }
+        if (!refreshTokenStore.markConsumed(refresh.tokenId(), refresh.expiresAt())
+                && System.currentTimeMillis() - refreshTokenStore.consumedAt(refresh.tokenId()) >= reuseGraceMillis) {
+            refreshTokenStore.revokeFamily(refresh.familyId(), System.currentTimeMillis() + jwtUtils.getRefreshTokenMaxAgeSeconds() * 1000L);
+            log.warn("Refresh token reuse detected for user {}; session family revoked", refresh.userId());
+            throw new InvalidTokenException("Refresh token reuse detected");
+        }
+        return new TokenPair(
+                jwtUtils.generateAccessToken(refresh.userId(), refresh.email()),
+                jwtUtils.generateRefreshToken(refresh.userId(), refresh.email(), refresh.familyId(), refresh.sessionVersion()));
+    }
+
+    // True when the refresh token is still usable for this user; does not consume it
+    public boolean canRenew(String refreshToken, long userId) {
+        try {
+            RefreshClaims refresh = parse(refreshToken);
+            return refresh.userId() == userId
+                    && !refreshTokenStore.isFamilyRevoked(refresh.familyId())
+                    && !refreshTokenStore.isConsumed(refresh.tokenId())
+                    && isCurrentSession(refresh);
+        } catch (InvalidTokenException e) {
+            return false;
+        }
+    }
+
+    // Logging out ends the whole rotation family, not just the current cookie
+    public void revoke(String refreshToken) {
+        try {
+            RefreshClaims refresh = parse(refreshToken);
+            refreshTokenStore.revokeFamily(refresh.familyId(), System.currentTimeMillis() + jwtUtils.getRefreshTokenMaxAgeSeconds() * 1000L);
+        } catch (InvalidTokenException e) {
+            // Nothing to revoke
+        }
+    }
+
+    // False once the user's password has changed since the token was issued (or the user is gone)
+    private boolean isCurrentSession(RefreshClaims refresh) {
+        return userRepo.findSessionVersionById(refresh.userId())
+                .map(version -> version == refresh.sessionVersion())
+                .orElse(false);
+    }
+
+    private RefreshClaims parse(String refreshToken) {
+        Claims claims = jwtUtils.parseVerifiedClaims(refreshToken);
+        if (claims == null || !JwtUtils.REFRESH_TOKEN_TYPE.equals(claims.get(JwtUtils.TOKEN_TYPE_CLAIM, String.class))) {
+            throw new InvalidTokenException("Invalid or expired refresh token");
+        }
+        Long userId = claims.get(JwtUtils.USER_ID_CLAIM, Long.class);
+        String familyId = claims.get(JwtUtils.FAMILY_CLAIM, String.class);
+        Integer sessionVersion = claims.get(JwtUtils.SESSION_VERSION_CLAIM, Integer.class);
+        if (userId == null || familyId == null || claims.getId() == null) {
+            throw new InvalidTokenException("Invalid or expired refresh token");
+        }
+        try {
+            return new RefreshClaims(userId, claims.getSubject(), UUID.fromString(claims.getId()),
+                    UUID.fromString(familyId), sessionVersion != null ? sessionVersion : 0, claims.getExpiration().getTime());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid or expired refresh token");
+        }
+    }
+
+    private record RefreshClaims(long userId, String email, UUID tokenId, UUID familyId, int sessionVersion, long expiresAt) {
+    }
+}
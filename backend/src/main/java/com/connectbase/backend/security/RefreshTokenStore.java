@@ -0,0 +1,63 @@
+package com.connectbase.backend.security;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact in-memory revocation store for refresh-token rotation. It remembers only
+ * refresh token ids (jti) that were already exchanged and token families that were revoked, each
+ * until the point where the token would have expired anyway, keyed by UUID (two longs) rather than
+ * by the token itself. State is per instance and is lost on restart; sessions ended by a password change
+ * are enforced from the users table instead (RefreshTokenService).
+ */
+@Component
+public class RefreshTokenStore {
+
+    private final Map<UUID, Consumed> consumedTokens = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> revokedFamilies = new ConcurrentHashMap<>();
+
+    /**
+     * Marks a refresh token as exchanged.
+     *
+     * @return false if it had already been exchanged, i.e. this is a reuse
+     */
+    public boolean markConsumed(UUID tokenId, long expiresAtMillis) {
+        return consumedTokens.putIfAbsent(tokenId, new Consumed(System.currentTimeMillis(), expiresAtMillis)) == null;
+    }
+
+    public boolean isConsumed(UUID tokenId) {
+        return consumedTokens.containsKey(tokenId);
+    }
+
+    // When the token was first exchanged, or 0 if it was not
+    public long consumedAt(UUID tokenId) {
+        Consumed consumed = consumedTokens.get(tokenId);
+        return consumed != null ? consumed.at() : 0;
+    }
+
+    public void revokeFamily(UUID familyId, long untilMillis) {
+        revokedFamilies.merge(familyId, untilMillis, Math::max);
+    }
+
+    public boolean isFamilyRevoked(UUID familyId) {
+        return revokedFamilies.containsKey(familyId);
+    }
+
+    public int size() {
+        return consumedTokens.size() + revokedFamilies.size();
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation-purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        consumedTokens.values().removeIf(consumed -> consumed.expiresAt() <= now);
+        revokedFamilies.values().removeIf(until -> until <= now);
+    }
+
+    private record Consumed(long at, long expiresAt) {
+    }
+}
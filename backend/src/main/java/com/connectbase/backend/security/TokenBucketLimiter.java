@@ -0,0 +1,133 @@
+package com.connectbase.backend.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-striped token-bucket rate limiter keyed by arbitrary strings (emails, client IPs).
+ * <p>
+ * Buckets refill lazily on access, so there is no background thread. Keys hash onto independent stripes,
+ * each guarding a small access-ordered map, so unrelated keys never contend on the same lock. Memory is
+ * bounded by {@code maxKeys}: idle buckets (which would be full anyway) are dropped first, then the least
+ * recently used ones.
+ */
+public class TokenBucketLimiter {
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final int maxKeysPerStripe;
+    private final long idleNanos;
+    private final LongSupplier clock;
+
+    public TokenBucketLimiter(int capacity, long refillPeriod, TimeUnit unit, int maxKeys) {
+        this(capacity, refillPeriod, unit, maxKeys, 64, System::nanoTime);
+    }
+
+    /**
+     * @param capacity     burst size; also the number of tokens restored per {@code refillPeriod}
+     * @param refillPeriod time to refill an empty bucket completely
+     * @param maxKeys      upper bound on tracked keys across all stripes
+     * @param stripeCount  rounded up to a power of two
+     */
+    TokenBucketLimiter(int capacity, long refillPeriod, TimeUnit unit, int maxKeys, int stripeCount, LongSupplier clock) {
+        int stripesPow2 = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[stripesPow2];
+        for (int i = 0; i < stripesPow2; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripesPow2 - 1;
+        this.capacity = capacity;
+        this.idleNanos = unit.toNanos(refillPeriod);
+        this.tokensPerNano = capacity / (double) idleNanos;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / stripesPow2);
+        this.clock = clock;
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return 0 if the call is allowed, otherwise the number of nanoseconds until a token becomes available
+     */
+    public long tryAcquire(String key) {
+        Stripe stripe = stripes[spread(key.hashCode()) & stripeMask];
+        long now = clock.getAsLong();
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                stripe.evictIdle(now);
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                bucket.refill(now);
+            }
+            if (bucket.tokens >= 1.0) {
+                bucket.tokens -= 1.0;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1.0 - bucket.tokens) / tokensPerNano));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.buckets.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                return size() > maxKeysPerStripe;
+            }
+        };
+
+        // Buckets untouched for a full refill period are full again, so forgetting them changes nothing
+        void evictIdle(long now) {
+            Iterator<Bucket> it = buckets.values().iterator();
+            while (it.hasNext()) {
+                if (now - it.next().lastRefill < idleNanos) break; // Access order: the rest are more recent
+                it.remove();
+            }
+        }
+    }
+
+    private final class Bucket {
+        double tokens;
+        long lastRefill;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+        }
+
+        void refill(long now) {
+            long elapsed = now - lastRefill;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+                lastRefill = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.connectbase.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of tokens whose signature has already been verified.
+ * Entries are keyed by a SHA-256 digest of the token (so raw bearer tokens are never kept on the heap)
+ * and stop being served at the token's own expiry.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${security.jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final Map<Digest, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    @PostConstruct
+    void registerMetrics() {
+        if (meterRegistry == null) return;
+        FunctionCounter.builder("jwt.verification.cache", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Requests whose token was served from the verified-token cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.verification.cache", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Requests that required full signature verification")
+                .register(meterRegistry);
+        Gauge.builder("jwt.verification.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    // Returns the cached claims, or null if the token has not been verified yet (or has expired)
+    public Claims get(String token) {
+        Digest key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.claims();
+    }
+
+    public void put(String token, Claims claims) {
+        if (claims.getExpiration() == null) return; // Never cache tokens without an expiry
+        long expiresAt = claims.getExpiration().getTime();
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(digest(token), new Entry(claims, expiresAt));
+    }
+
+    public void invalidate(String token) {
+        entries.remove(digest(token));
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Drop expired entries first; if the cache is still full, drop an arbitrary tenth of it
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(e -> e.expiresAt() <= now);
+        if (entries.size() < maxSize) return;
+        int excess = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<Digest> it = entries.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static Digest digest(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer buffer = ByteBuffer.wrap(hash);
+        return new Digest(buffer.getLong(), buffer.getLong());
+    }
+
+    // First 128 bits of the SHA-256 digest
+    private record Digest(long high, long low) {
+    }
+
+    private record Entry(Claims claims, long expiresAt) {
+    }
+}
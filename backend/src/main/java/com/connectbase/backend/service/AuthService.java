@@ -1,32 +1,37 @@
 package com.connectbase.backend.service;
 
+import com.connectbase.backend.model.ImageStatus;
 import com.connectbase.backend.model.User;
+import com.connectbase.backend.repo.ContactVersionRepo;
 import com.connectbase.backend.repo.UserRepo;
 import com.connectbase.backend.security.JwtUtils;
+import com.connectbase.backend.security.PasswordHasher;
 import org.springframework.beans.factory.annotation.Autowired;
 
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.Map;
 import java.util.Random;
 
 @Service
 public class AuthService {
 
     @Autowired private UserRepo userRepo;
-    @Autowired private CloudinaryService cloudinaryService;
+    @Autowired private ContactVersionRepo contactVersionRepo;
+    @Autowired private ImageUploadService imageUploadService; // Pictures are uploaded off the request thread
     @Autowired private JwtUtils jwtUtils;
-    @Autowired private JavaMailSender mailSender; // Configured in application.properties
+    @Autowired private MailOutboxService mailOutboxService; // Mail is delivered asynchronously from the outbox
+    @Autowired private PasswordHasher passwordHasher; // BCrypt runs on its own bounded pool, not on request threads
+    @Autowired private TransactionTemplate transactionTemplate;
 
-    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    // Compiled once at class load instead of concatenating the HTML on every call
+    private static final MailTemplate RESET_PASSWORD_TEMPLATE = MailTemplate.fromClasspath("mail/reset-password.html");
 
     public User getUserProfile(String email) {
         return userRepo.findByEmail(email)
@@ -45,27 +50,45 @@ public class AuthService {
         user.setEmail(email);
         user.setPhone(phone);
         user.setGender(gender);
-        user.setPassword(passwordEncoder.encode(password));
+        user.setPassword(passwordHasher.encode(password));
 
-        if (image != null && !image.isEmpty()) {
-            String imageUrl = cloudinaryService.uploadFile(image);
-            user.setProfilePic(imageUrl);
+        // Uploaded in the background; profilePicStatus tells the client when the picture is there
+        ImageUploadService.Pending picture = imageUploadService.prepare(image);
+        if (picture != null) {
+            user.setProfilePicStatus(ImageStatus.PENDING);
+            user.setProfilePicRequestedAt(System.currentTimeMillis());
         }
 
-        return userRepo.save(user);
+        User saved;
+        try {
+            saved = userRepo.save(user);
+        } catch (RuntimeException e) {
+            if (picture != null) imageUploadService.abandon(picture);
+            throw e;
+        }
+        contactVersionRepo.create(saved.getId()); // So that contact writes only ever update it
+        if (picture != null) imageUploadService.start(picture, ImageUploadService.Owner.USER, saved.getId(), saved.getId());
+        return saved;
     }
 
     public User loginUser(String email, String password) {
         User user = userRepo.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHasher.matches(password, user.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
+
+        // Transparently upgrade hashes created with an older BCrypt cost
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHasher.encode(password));
+            user = userRepo.save(user);
+        }
         return user;
     }
 
 
+    @Transactional
     public void generateResetCode(String email) {
         User user = userRepo.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -77,77 +100,63 @@ public class AuthService {
         user.setVerificationCodeExpiry(LocalDateTime.now().plusMinutes(15));
         userRepo.save(user);
 
-        // Send HTML Email
-        sendHtmlEmail(email, "ConnectBase: Reset Your Password", getResetPasswordEmailTemplate(user.getFirstName(), code));
+        // Queue the HTML email in the same transaction as the code; the outbox dispatcher sends it
+        mailOutboxService.enqueue(email, "ConnectBase: Reset Your Password", RESET_PASSWORD_TEMPLATE.render(Map.of(
+                "firstName", String.valueOf(user.getFirstName()),
+                "code", code,
+                "year", String.valueOf(Year.now().getValue()))));
     }
 
+    // Ends every session of the user: their refresh tokens carry the old session version.
+    // The new password is hashed before the transaction, so no connection is held while BCrypt runs; the write
+    // checks the code again in case a concurrent reset used it meanwhile
     public void resetPassword(String email, String code, String newPassword) {
-        User user = userRepo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        if (!code.equals(user.getVerificationCode()) ||
-                user.getVerificationCodeExpiry().isBefore(LocalDateTime.now())) {
-            throw new RuntimeException("Invalid or expired code");
-        }
-
-        user.setPassword(passwordEncoder.encode(newPassword));
-        user.setVerificationCode(null); // Clear code
-        userRepo.save(user);
+        checkResetCode(userRepo.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found")), code);
+
+        String hash = passwordHasher.encode(newPassword);
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepo.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            checkResetCode(user, code);
+            user.setPassword(hash);
+            user.setVerificationCode(null); // Clear code
+            userRepo.save(user);
+            userRepo.incrementSessionVersion(user.getId());
+        });
     }
 
-    public void changePassword(String email, String oldPassword, String newPassword) {
+    // Ends every session of the user; the returned user carries the new session version, for the caller's new tokens.
+    // Verifying and hashing happen before the transaction, as in resetPassword; the write only goes ahead if the
+    // password verified is still the current one
+    public User changePassword(String email, String oldPassword, String newPassword) {
         User user = userRepo.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordHasher.matches(oldPassword, user.getPassword())) {
             throw new RuntimeException("Incorrect old password");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepo.save(user);
+        String verified = user.getPassword();
+        String hash = passwordHasher.encode(newPassword);
+        return transactionTemplate.execute(status -> {
+            User current = userRepo.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            if (!verified.equals(current.getPassword())) {
+                throw new RuntimeException("Incorrect old password");
+            }
+            current.setPassword(hash);
+            userRepo.save(current);
+            userRepo.incrementSessionVersion(current.getId());
+            current.setSessionVersion(current.getSessionVersion() + 1);
+            return current;
+        });
     }
 
-    private void sendHtmlEmail(String to, String subject, String content) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom("ConnectBase Support <noreply@connectbase.com>");
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(content, true);
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            throw new RuntimeException("Failed to send email", e);
+    private static void checkResetCode(User user, String code) {
+        if (!code.equals(user.getVerificationCode()) ||
+                user.getVerificationCodeExpiry().isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("Invalid or expired code");
         }
     }
-
-    private String getResetPasswordEmailTemplate(String firstName, String code) {
-        return "<!DOCTYPE html>" +
-                "<html>" +
-                "<body style=\"background-color: #f3f4f6; margin: 0; padding: 0; font-family: 'Helvetica Neue', Helvetica, Arial, sans-serif;\">" +
-                "    <div style=\"max-width: 600px; margin: 40px auto; background-color: #ffffff; border-radius: 8px; overflow: hidden; box-shadow: 0 4px 6px rgba(0,0,0,0.1);\">" +
-                "        <div style=\"background-color: #4f46e5; padding: 24px; text-align: center;\">" +
-                "            <h1 style=\"color: #ffffff; margin: 0; font-size: 24px;\">ConnectBase</h1>" +
-                "        </div>" +
-                "        <div style=\"padding: 32px; text-align: center;\">" +
-                "            <h2 style=\"color: #111827; font-size: 20px; font-weight: 600; margin-bottom: 16px;\">Password Reset</h2>" +
-                "            <p style=\"color: #4b5563; font-size: 16px; margin-bottom: 24px;\">" +
-                "                Hi " + firstName + ", use the code below to reset your password. It expires in 15 minutes." +
-                "            </p>" +
-                "            <div style=\"background-color: #f3f4f6; border-radius: 8px; padding: 16px; display: inline-block; margin-bottom: 24px;\">" +
-                "                <span style=\"font-size: 32px; font-weight: 700; letter-spacing: 4px; color: #4f46e5;\">" + code + "</span>" +
-                "            </div>" +
-                "            <p style=\"color: #6b7280; font-size: 14px;\">" +
-                "                If you didn't request this, you can safely ignore this email." +
-                "            </p>" +
-                "        </div>" +
-                "        <div style=\"background-color: #f9fafb; padding: 16px; text-align: center; border-top: 1px solid #e5e7eb;\">" +
-                "            <p style=\"color: #9ca3af; font-size: 12px; margin: 0;\">" +
-                "                © " + LocalDateTime.now().getYear() + " ConnectBase Inc." +
-                "            </p>" +
-                "        </div>" +
-                "    </div>" +
-                "</body>" +
-                "</html>";
-    }
-}
\ No newline at end of file
+}
@@ -2,46 +2,48 @@ package com.connectbase.backend.service;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 @Service
 public class CloudinaryService {
 
+    private static final Logger log = LoggerFactory.getLogger(CloudinaryService.class);
+
     @Autowired
     private Cloudinary cloudinary;
 
-    public String uploadFile(MultipartFile file) {
-        try {
-            if (file == null || file.isEmpty()) {
-                return null;
-            }
-            Map uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.asMap(
-                    "resource_type", "auto"
-            ));
-            return (String) uploadResult.get("secure_url");
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
+    // Streams the file from disk. Throws instead of returning null, so that the caller can retry or report it
+    public String upload(Path file) throws IOException {
+        Map uploadResult = cloudinary.uploader().upload(file.toFile(), ObjectUtils.asMap(
+                "resource_type", "auto"
+        ));
+        Object url = uploadResult.get("secure_url");
+        if (url == null) {
+            throw new IOException("Upload returned no URL: " + uploadResult.get("error"));
         }
+        return (String) url;
     }
 
-    public Map deleteFile(String publicId) {
+    // One Admin API call for up to 100 images; failures are logged and return null (the files are left orphaned)
+    public Map deleteFiles(List<String> publicIds) {
         try {
-            if (publicId == null || publicId.isEmpty()) {
+            if (publicIds == null || publicIds.isEmpty()) {
                 return null;
             }
-            return cloudinary.uploader().destroy(publicId, ObjectUtils.asMap(
+            return cloudinary.api().deleteResources(publicIds, ObjectUtils.asMap(
                     "resource_type", "image",
                     "invalidate", true
             ));
-        } catch (IOException e) {
-            e.printStackTrace();
+        } catch (Exception e) {
+            log.warn("Failed to delete {} images, first {}", publicIds.size(), publicIds.get(0), e);
             return null;
         }
     }
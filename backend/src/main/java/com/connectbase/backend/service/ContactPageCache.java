@@ -0,0 +1,117 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.dto.ContactView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache of contact list and search pages (Caffeine, W-TinyLFU eviction).
+ * <p>
+ * Keys carry the user's version from {@link ContactVersionTracker}, so a write invalidates all of that user's
+ * pages in O(1): later lookups use the new version, and the stale entries are never read again and age out.
+ * The budget is a weight in bytes; every entry weighs at least budget / max-entries, so the entry count is
+ * bounded too. Each endpoint can be switched off on its own, in which case lookups go straight to the loader.
+ */
+@Component
+public class ContactPageCache {
+
+    public enum Endpoint { LIST, SEARCH }
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${contacts.cache.list.enabled:true}")
+    private boolean listEnabled;
+
+    @Value("${contacts.cache.search.enabled:true}")
+    private boolean searchEnabled;
+
+    @Value("${contacts.cache.max-weight-mb:64}")
+    private long maxWeightMb;
+
+    @Value("${contacts.cache.max-entries:20000}")
+    private long maxEntries;
+
+    private Cache<Key, Page<ContactView>> cache;
+
+    @PostConstruct
+    void init() {
+        long maxWeight = maxWeightMb * 1024 * 1024;
+        int minEntryWeight = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxWeight / Math.max(1, maxEntries)));
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, Page<ContactView> page) -> Math.max(minEntryWeight, weigh(key, page)))
+                .recordStats()
+                .build();
+
+        if (meterRegistry != null) {
+            // cache.gets{result=hit|miss}, cache.evictions, cache.eviction.weight, cache.size
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "contacts.page");
+            Gauge.builder("contacts.page.cache.hit.ratio", this, ContactPageCache::hitRatio).register(meterRegistry);
+            Gauge.builder("contacts.page.cache.weight", this, ContactPageCache::weight)
+                    .baseUnit("bytes").register(meterRegistry);
+        }
+    }
+
+    /**
+     * @param version the user's contact version, read once for the request before anything is loaded: a write
+     *                racing with the load can only leave a newer page under an old key
+     * @param keyword null for the plain listing
+     * @param loader  runs on a miss (or when caching is off for the endpoint); exceptions propagate and nothing is cached
+     */
+    public Page<ContactView> get(Endpoint endpoint, long userId, long version, String keyword, int page, int size,
+                                 Supplier<Page<ContactView>> loader) {
+        if (cache == null || !isEnabled(endpoint)) {
+            return loader.get();
+        }
+        Key key = new Key(endpoint, userId, version, keyword, page, size);
+        return cache.get(key, k -> loader.get());
+    }
+
+    public boolean isEnabled(Endpoint endpoint) {
+        return switch (endpoint) {
+            case LIST -> listEnabled;
+            case SEARCH -> searchEnabled;
+        };
+    }
+
+    public double hitRatio() {
+        return cache == null ? 0 : cache.stats().hitRate();
+    }
+
+    public long evictionCount() {
+        return cache == null ? 0 : cache.stats().evictionCount();
+    }
+
+    public long weight() {
+        if (cache == null) return 0;
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    // Rough retained size of the page: strings at two bytes per char plus object headers
+    static int weigh(Key key, Page<ContactView> page) {
+        long weight = 160 + (key.keyword() == null ? 0 : 40 + 2L * key.keyword().length());
+        for (ContactView view : page.getContent()) {
+            weight += 112 + chars(view.firstName()) + chars(view.lastName()) + chars(view.title())
+                    + chars(view.image()) + chars(view.email()) + chars(view.phone());
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+
+    record Key(Endpoint endpoint, long userId, long version, String keyword, int page, int size) {
+    }
+}
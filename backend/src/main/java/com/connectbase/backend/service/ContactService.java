@@ -1,54 +1,270 @@
 package com.connectbase.backend.service;
 
+import com.connectbase.backend.dto.BulkResult;
+import com.connectbase.backend.dto.ContactExportRow;
+import com.connectbase.backend.dto.ContactKeyRow;
+import com.connectbase.backend.dto.ContactView;
+import com.connectbase.backend.dto.ImportResult;
+import com.connectbase.backend.dto.StoredImage;
+import com.connectbase.backend.format.ContactFormat;
+import com.connectbase.backend.format.ContactFormats;
+import com.connectbase.backend.format.ContactReader;
+import com.connectbase.backend.format.ContactWriter;
+import com.connectbase.backend.format.CsvFormat;
+import com.connectbase.backend.format.FormatOptions;
 import com.connectbase.backend.model.Contact;
-import com.connectbase.backend.model.User;
+import com.connectbase.backend.model.ImageStatus;
+import com.connectbase.backend.repo.ContactBatchInserter;
+import com.connectbase.backend.repo.ContactCursor;
 import com.connectbase.backend.repo.ContactRepo;
+import com.connectbase.backend.repo.ContactSort;
+import com.connectbase.backend.repo.UserRepo;
+import com.connectbase.backend.search.ContactSearchIndex;
+import com.connectbase.backend.search.ContactSuggestion;
+import com.connectbase.backend.search.FuzzyMatches;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import java.util.Optional;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 public class ContactService {
 
+    private static final Logger log = LoggerFactory.getLogger(ContactService.class);
+
+    private static final Pattern PHONE = Pattern.compile("\\+?[0-9 ().\\-/]+(\\s*(?:x|ext\\.?)\\s*[0-9]+)?",
+            Pattern.CASE_INSENSITIVE);
+
     @Autowired
     private ContactRepo contactRepo;
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private UserRepo userRepo;
+
+    @Autowired
+    private ImageCleanupService imageCleanupService;
+
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    @Autowired
+    private ContactSearchIndex contactSearchIndex;
+
+    @Autowired
+    private ContactVersionTracker contactVersions;
+
+    @Autowired
+    private ContactPageCache pageCache;
+
+    @Autowired
+    private ContactBatchInserter contactBatchInserter;
+
+    @Autowired
+    private ContactFormats contactFormats;
+
+    @Autowired
+    private ParallelCsvParser parallelCsvParser;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${contacts.search.fulltext.enabled:false}")
+    private boolean fullTextEnabled;
+
+    @Value("${contacts.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${contacts.suggest.max-results:25}")
+    private int maxSuggestions;
+
+    @Value("${contacts.fuzzy.max-results:1000}")
+    private int maxFuzzyResults;
+
+    @Value("${contacts.import.chunk-size:1000}")
+    private int importChunkSize;
+
+    @Value("${contacts.export.flush-rows:1000}")
+    private int exportFlushRows;
 
-    public Page<Contact> getAllContacts(User user, int page, int size) {
-        return contactRepo.findByUser(user, PageRequest.of(page, size));
+    @Value("${contacts.bulk.max-ids:10000}")
+    private int maxBulkIds;
+
+    // Contacts are addressed by the owner's id only; the owning user row is never loaded.
+    // version is the user's contact version (ContactVersionTracker), read once for the request
+    public Page<ContactView> getAllContacts(long userId, long version, int page, int size) {
+        return pageCache.get(ContactPageCache.Endpoint.LIST, userId, version, null, page, size,
+                () -> contactRepo.findViewsByUserId(userId, PageRequest.of(page, size)));
+    }
+
+    // Repeated pages are served from the versioned page cache until the user's next write
+    public Page<ContactView> searchContacts(long userId, long version, String keyword, int page, int size) {
+        return pageCache.get(ContactPageCache.Endpoint.SEARCH, userId, version, keyword, page, size,
+                () -> loadSearchPage(userId, keyword, page, size));
+    }
+
+    private Page<ContactView> loadSearchPage(long userId, String keyword, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        long[] matchingIds = contactSearchIndex.search(userId, keyword);
+        if (matchingIds == null) {
+            // Index not warm yet (it is being built in the background): the same substring match in the database
+            return contactRepo.searchContacts(userId, keyword, pageRequest);
+        }
+
+        // Warm index: only the requested page of rows is read from the database, and no COUNT query
+        int from = (int) Math.min(pageRequest.getOffset(), matchingIds.length);
+        int to = Math.min(from + size, matchingIds.length);
+        return new PageImpl<>(findViewsInIdOrder(userId, matchingIds, from, to), pageRequest, matchingIds.length);
+    }
+
+    // Whole-word prefix search over the MySQL FULLTEXT index ("smi acm" finds "John Smith, Acme"), in id order.
+    // Not a substitute for the substring search: "mith" matches nothing here, so it is only used when asked for
+    public Page<ContactView> wordSearchContacts(long userId, String query, int page, int size) {
+        if (!fullTextEnabled) {
+            throw new IllegalArgumentException("Word search is not enabled");
+        }
+        String terms = toFullTextTerms(query);
+        if (terms == null) {
+            throw new IllegalArgumentException("Word search needs words of at least 3 letters");
+        }
+        PageRequest pageRequest = PageRequest.of(page, size);
+        Page<Long> ids = contactRepo.searchContactIdsFullText(userId, terms, pageRequest);
+        List<ContactView> content = ids.isEmpty() ? List.of() : contactRepo.findViewsByUserIdAndIdIn(userId, ids.getContent());
+        return new PageImpl<>(content, pageRequest, ids.getTotalElements());
+    }
+
+    // Ranked, typo-tolerant search: best matches first, only the requested page of rows is read from the database.
+    // Until the user's fuzzy index is warm (or with the indexes switched off) this is the exact substring search
+    public Page<ContactView> fuzzySearchContacts(long userId, long version, String query, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        int k = (int) Math.min(pageRequest.getOffset() + size, maxFuzzyResults);
+        FuzzyMatches matches = contactSearchIndex.fuzzySearch(userId, query, k);
+        if (matches == null) {
+            return searchContacts(userId, version, query, page, size);
+        }
+        long total = Math.min(matches.totalMatches(), maxFuzzyResults);
+
+        int from = (int) Math.min(pageRequest.getOffset(), matches.ids().length);
+        List<Long> pageIds = Arrays.stream(matches.ids(), from, matches.ids().length).boxed().toList();
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageRequest, total);
+        }
+        Map<Long, ContactView> byId = new HashMap<>();
+        contactRepo.findViewsByUserIdAndIdIn(userId, pageIds).forEach(view -> byId.put(view.id(), view));
+        List<ContactView> content = pageIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageRequest, total);
+    }
+
+    // Whether fuzzySearchContacts ranks right now, rather than answering with the exact search
+    public boolean isFuzzySearchReady(long userId) {
+        return contactSearchIndex.isFuzzyWarm(userId);
+    }
+
+    // Keyset pagination: cost is independent of how deep the client has paged, and no COUNT query is run
+    public Slice<ContactView> getContactsAfter(long userId, ContactSort sort, ContactCursor after, int size) {
+        return contactRepo.findSlice(userId, null, sort, after, clampPageSize(size));
+    }
+
+    public Slice<ContactView> searchContactsAfter(long userId, String keyword, ContactSort sort, ContactCursor after, int size) {
+        int pageSize = clampPageSize(size);
+        long[] matchingIds = sort == ContactSort.ID ? contactSearchIndex.search(userId, keyword) : null;
+        if (matchingIds == null) {
+            return contactRepo.findSlice(userId, keyword, sort, after, pageSize);
+        }
+
+        // Warm index, id order: seek in the sorted id array instead of the database
+        int from = 0;
+        if (after != null) {
+            int position = Arrays.binarySearch(matchingIds, after.id());
+            from = position >= 0 ? position + 1 : -position - 1;
+        }
+        int to = Math.min(from + pageSize, matchingIds.length);
+        return new SliceImpl<>(findViewsInIdOrder(userId, matchingIds, from, to), PageRequest.of(0, pageSize), to < matchingIds.length);
     }
 
-    public Page<Contact> searchContacts(User user, String keyword, int page, int size) {
-        return contactRepo.searchContacts(user, keyword, PageRequest.of(page, size));
+    // ids[from, to) are ascending, and the query orders by id, so rows come back in index order
+    private List<ContactView> findViewsInIdOrder(long userId, long[] ids, int from, int to) {
+        if (from >= to) return List.of();
+        return contactRepo.findViewsByUserIdAndIdIn(userId, Arrays.stream(ids, from, to).boxed().toList());
     }
 
-    public Contact getContactById(long id, User user){
-        Contact contact = contactRepo.findById(id).orElseThrow(() -> new RuntimeException("Contact not found with id: " + id));
-        if (contact.getUser().getId() != user.getId()) {
-            throw new RuntimeException("Unauthorized access to contact");
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    // Autocomplete: id + display name only, from the in-memory prefix index once it is warm
+    public List<ContactSuggestion> suggestContacts(long userId, String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) return List.of();
+        int max = Math.max(1, Math.min(limit, maxSuggestions));
+        List<ContactSuggestion> suggestions = contactSearchIndex.suggest(userId, prefix, max);
+        if (suggestions != null) {
+            return suggestions;
         }
-        return contact;
+        return contactRepo.findSuggestions(userId, prefix, max);
     }
 
-    public Contact createContact(User user, Contact contact, MultipartFile imageFile) {
-        contact.setUser(user);
-        if (imageFile != null && !imageFile.isEmpty()) {
-            String imageUrl = cloudinaryService.uploadFile(imageFile);
-            contact.setImage(imageUrl);
+    // "John Smith" -> "+john* +smith*" (boolean-mode prefix terms); null when there are no words or any word is
+    // shorter than InnoDB's minimum token size (3), since FULLTEXT cannot match those
+    static String toFullTextTerms(String keyword) {
+        StringBuilder terms = new StringBuilder();
+        for (String word : Contact.normalize(keyword).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            if (word.length() < 3) return null;
+            if (!terms.isEmpty()) terms.append(' ');
+            terms.append('+').append(word).append('*');
         }
-        return contactRepo.save(contact);
+        return terms.isEmpty() ? null : terms.toString();
     }
 
-    public Contact updateContact(long id, User user, Contact updatedContactDetails, MultipartFile imageFile) {
-        Contact existingContact = getContactById(id, user);
+    public ContactView getContactView(long id, long userId) {
+        return contactRepo.findViewByIdAndUserId(id, userId)
+                .orElseThrow(() -> new RuntimeException("Contact not found with id: " + id));
+    }
+
+    // Ownership is part of the lookup, so another user's contact is indistinguishable from a missing one
+    public Contact getContactById(long id, long userId){
+        return contactRepo.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new RuntimeException("Contact not found with id: " + id));
+    }
+
+    public Contact createContact(long userId, Contact contact, MultipartFile imageFile) {
+        contact.setUser(userRepo.getReferenceById(userId));
+        ImageUploadService.Pending image = imageUploadService.prepare(imageFile);
+        if (image != null) {
+            contact.setImageStatus(ImageStatus.PENDING);
+            contact.setImageRequestedAt(System.currentTimeMillis());
+        }
+        return save(userId, contact, image, false);
+    }
+
+    public Contact updateContact(long id, long userId, Contact updatedContactDetails, MultipartFile imageFile) {
+        Contact existingContact = getContactById(id, userId);
 
         if (updatedContactDetails.getFirstName() != null) existingContact.setFirstName(updatedContactDetails.getFirstName());
         if (updatedContactDetails.getLastName() != null) existingContact.setLastName(updatedContactDetails.getLastName());
@@ -56,109 +272,290 @@ public class ContactService {
         if (updatedContactDetails.getPhone() != null) existingContact.setPhone(updatedContactDetails.getPhone());
         if (updatedContactDetails.getTitle() != null) existingContact.setTitle(updatedContactDetails.getTitle());
 
-        if (imageFile != null && !imageFile.isEmpty()) {
-            // Delete old image if exists
-            if (existingContact.getImage() != null) {
-                String publicId = cloudinaryService.extractPublicIdFromUrl(existingContact.getImage());
-                if (publicId != null) {
-                    cloudinaryService.deleteFile(publicId);
-                }
-            }
-            // Upload new image
-            String imageUrl = cloudinaryService.uploadFile(imageFile);
-            existingContact.setImage(imageUrl);
+        // The current image stays until the new one is uploaded, and is deleted then
+        ImageUploadService.Pending image = imageUploadService.prepare(imageFile);
+        if (image != null) existingContact.setImageStatus(ImageStatus.PENDING);
+
+        return save(userId, existingContact, image, true);
+    }
+
+    // The row and the user's contact version commit together; the spooled image is handed over after the commit
+    private Contact save(long userId, Contact contact, ImageUploadService.Pending image, boolean exists) {
+        Contact saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Contact row = contactRepo.save(contact);
+                // Saving an existing row leaves the image columns alone
+                if (image != null && exists) contactRepo.markImagePending(row.getId(), System.currentTimeMillis());
+                contactVersions.bump(userId);
+                return row;
+            });
+        } catch (RuntimeException e) {
+            if (image != null) imageUploadService.abandon(image);
+            throw e;
         }
-        
-        return contactRepo.save(existingContact);
+        contactSearchIndex.onSaved(userId, saved);
+        if (image != null) imageUploadService.start(image, ImageUploadService.Owner.CONTACT, saved.getId(), userId);
+        return saved;
     }
 
-    public void deleteContact(long id, User user) {
-        Contact existingContact = getContactById(id, user);
-        // Delete image from Cloudinary if exists
+    public void deleteContact(long id, long userId) {
+        Contact existingContact = getContactById(id, userId);
+        transactionTemplate.executeWithoutResult(status -> {
+            contactRepo.delete(existingContact);
+            contactVersions.bump(userId);
+        });
+        // Its files are deleted unless another contact shares them
         if (existingContact.getImage() != null) {
-            String publicId = cloudinaryService.extractPublicIdFromUrl(existingContact.getImage());
-            if (publicId != null) {
-                cloudinaryService.deleteFile(publicId);
-            }
+            imageCleanupService.enqueueUnreferenced(userId, List.of(new StoredImage(existingContact.getImage(),
+                    existingContact.getThumbnail(), existingContact.getImageHash())));
         }
-        contactRepo.delete(existingContact);
+        contactSearchIndex.onDeleted(userId, id);
+    }
+
+    /**
+     * Deletes the selected contacts with one set-based statement, after one query for their images, however many
+     * there are. Once the delete has committed, the images no remaining contact shares are queued for batched cleanup.
+     *
+     * @param ids   contacts to delete, or null to select by {@code query}
+     * @param query search keyword, used when ids is null
+     */
+    public BulkResult bulkDelete(long userId, Collection<Long> ids, String query) {
+        String keyword = bulkKeyword(ids, query);
+        List<StoredImage> images = new ArrayList<>();
+        int deleted = transactionTemplate.execute(status -> {
+            images.addAll(contactRepo.findImages(userId, ids, keyword));
+            return bumpIfChanged(userId, contactRepo.deleteMatching(userId, ids, keyword));
+        });
+        int queued = imageCleanupService.enqueueUnreferenced(userId, images);
+        bulkChanged(userId, deleted);
+        return new BulkResult(deleted, queued);
     }
 
-    public void exportContacts(User user, PrintWriter writer) {
-        List<Contact> contacts = contactRepo.findByUser(user);
-        writer.write("First Name,Last Name,Email,Phone,Title,Image URL\n");
-        for (Contact contact : contacts) {
-            writer.write(escapeSpecialCharacters(contact.getFirstName()) + "," +
-                    escapeSpecialCharacters(contact.getLastName()) + "," +
-                    escapeSpecialCharacters(contact.getEmail()) + "," +
-                    escapeSpecialCharacters(contact.getPhone()) + "," +
-                    escapeSpecialCharacters(contact.getTitle()) + "," +
-                    escapeSpecialCharacters(contact.getImage()) + "\n");
+    // Sets the non-null fields of changes on the selected contacts in one statement; same selection as bulkDelete
+    public BulkResult bulkUpdate(long userId, Collection<Long> ids, String query, Contact changes) {
+        String keyword = bulkKeyword(ids, query);
+        if (changes.getFirstName() == null && changes.getLastName() == null && changes.getEmail() == null
+                && changes.getPhone() == null && changes.getTitle() == null) {
+            throw new IllegalArgumentException("No fields to update");
         }
+        String problem = rejectionReason(changes);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+        int updated = transactionTemplate.execute(status ->
+                bumpIfChanged(userId, contactRepo.updateMatching(userId, ids, keyword, changes, LocalDateTime.now())));
+        bulkChanged(userId, updated);
+        return new BulkResult(updated, 0);
     }
 
-    private String escapeSpecialCharacters(String data) {
-        if (data == null) {
-            return "";
+    // Exactly one of ids and a non-blank query; returns the keyword to filter by, or null when selecting by ids
+    private String bulkKeyword(Collection<Long> ids, String query) {
+        boolean byQuery = query != null && !query.isBlank();
+        if ((ids != null) == byQuery) {
+            throw new IllegalArgumentException("Select contacts by either ids or query");
+        }
+        if (byQuery) return query;
+        if (ids.isEmpty() || ids.contains(null)) {
+            throw new IllegalArgumentException("ids must be a non-empty list of contact ids");
         }
-        String escapedData = data.replaceAll("\\R", " ");
-        if (escapedData.contains(",") || escapedData.contains("\"") || escapedData.contains("'")) {
-            escapedData = escapedData.replace("\"", "\"\"");
-            escapedData = "\"" + escapedData + "\"";
+        if (ids.size() > maxBulkIds) {
+            throw new IllegalArgumentException("At most " + maxBulkIds + " ids per request");
         }
-        return escapedData;
+        return null;
     }
 
-    public void importContacts(User user, MultipartFile file) throws IOException {
-        long lineCount = 0;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            String line;
-            boolean firstLine = true;
-            List<Contact> contacts = new ArrayList<>();
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                
-                lineCount++;
-                if (firstLine) {
-                    firstLine = false; 
-                    continue;
-                }
-                // Regex to split by comma but ignore commas inside quotes
-                String[] data = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-                
-                if (data.length < 5) {
-                     throw new IllegalArgumentException("Invalid CSV format. Row must contain at least 5 columns (First Name, Last Name, Email, Phone, Title).");
-                }
+    // In the bulk statement's transaction
+    private int bumpIfChanged(long userId, int rows) {
+        if (rows > 0) contactVersions.bump(userId);
+        return rows;
+    }
+
+    private void bulkChanged(long userId, int rows) {
+        if (rows > 0) contactSearchIndex.invalidate(userId);
+    }
 
-                Contact contact = new Contact();
-                contact.setUser(user);
-                contact.setFirstName(cleanup(data[0]));
-                contact.setLastName(cleanup(data[1]));
-                contact.setEmail(cleanup(data[2]));
-                contact.setPhone(cleanup(data[3]));
-                contact.setTitle(cleanup(data[4]));
-                if (data.length > 5 && !data[5].isEmpty()) {
-                        contact.setImage(cleanup(data[5]));
+    /**
+     * Streams the user's contacts from a database cursor straight into {@code writer}: no entities, no list
+     * of rows, so heap use does not depend on the number of contacts. Whatever the format writes first (the CSV
+     * header) is flushed before the query runs, and the writer every {@code contacts.export.flush-rows} rows,
+     * so the client sees bytes at once.
+     *
+     * @return number of contacts written
+     */
+    @Transactional(readOnly = true)
+    public long exportContacts(long userId, ContactWriter writer) throws IOException {
+        writer.begin();
+        writer.flush();
+        long rows = 0;
+        try (Stream<ContactExportRow> contacts = contactRepo.streamExportRows(userId)) {
+            Iterator<ContactExportRow> it = contacts.iterator();
+            while (it.hasNext()) {
+                writer.write(it.next());
+                if (++rows % exportFlushRows == 0) writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    public ImportResult importContacts(long userId, MultipartFile file) throws IOException {
+        return importContacts(userId, file, contactFormats.defaultFormat(), FormatOptions.DEFAULT, DuplicateMode.SKIP);
+    }
+
+    /**
+     * Streams the upload: records are parsed and validated one at a time and written in JDBC batches of
+     * {@code contacts.import.chunk-size}, so heap use does not grow with the file. Rows duplicating an existing
+     * contact or an earlier row are handled per {@code duplicates}. The whole file is one transaction, so an
+     * invalid row anywhere rolls back the chunks written before it. Large CSV files are parsed on several cores
+     * ({@link ParallelCsvParser}); rows are still written in file order.
+     */
+    public ImportResult importContacts(long userId, MultipartFile file, ContactFormat format, FormatOptions options,
+                                       DuplicateMode duplicates) throws IOException {
+        long start = System.nanoTime();
+        ImportDeduplicator dedupe;
+        if (parallelCsvParser.supports(format, options, file.getSize())) {
+            dedupe = importInParallel(userId, file, (CsvFormat) format, options, duplicates);
+        } else {
+            try (ContactReader reader = format.reader(file.getInputStream(), options)) {
+                dedupe = transactionTemplate.execute(status -> insertRows(userId, reader, duplicates));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        // After commit: bulk rows are cheaper to reindex lazily than to replay
+        contactSearchIndex.invalidate(userId);
+
+        ImportResult result = ImportResult.of(dedupe.inserted(), dedupe.skipped(), dedupe.merged(), System.nanoTime() - start);
+        log.info("Imported {} contacts for user {} in {} ms ({} rows/s, {} duplicates skipped, {} merged)", result.imported(),
+                userId, result.elapsedMillis(), result.rowsPerSecond(), result.duplicatesSkipped(), result.duplicatesMerged());
+        return result;
+    }
+
+    // The file is spooled so that byte ranges of it can be read independently
+    private ImportDeduplicator importInParallel(long userId, MultipartFile file, CsvFormat format, FormatOptions options,
+                                                DuplicateMode duplicates) throws IOException {
+        Path spooled = Files.createTempFile("connectbase-import-", ".csv");
+        try {
+            file.transferTo(spooled);
+            try (ParallelCsvParser.Ranges ranges = parallelCsvParser.open(spooled, format, options, this::rejectionReason)) {
+                return transactionTemplate.execute(status -> insertRows(userId, ranges, duplicates));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    private ImportDeduplicator insertRows(long userId, ContactReader reader, DuplicateMode duplicates) {
+        ImportDeduplicator dedupe = newDeduplicator(userId, duplicates);
+        LocalDateTime now = LocalDateTime.now();
+        long rows = 0;
+        try {
+            while (reader.next()) {
+                addRow(userId, dedupe, ParsedRow.read(reader).validated(this::rejectionReason), now);
+                rows++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return finishRows(userId, dedupe, rows, now);
+    }
+
+    private ImportDeduplicator insertRows(long userId, ParallelCsvParser.Ranges ranges, DuplicateMode duplicates) {
+        ImportDeduplicator dedupe = newDeduplicator(userId, duplicates);
+        LocalDateTime now = LocalDateTime.now();
+        long rows = 0;
+        try {
+            List<ParsedRow> parsed;
+            while ((parsed = ranges.next()) != null) {
+                for (ParsedRow row : parsed) {
+                    addRow(userId, dedupe, row, now);
                 }
-                contacts.add(contact);
+                rows += parsed.size();
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return finishRows(userId, dedupe, rows, now);
+    }
 
-            if (contacts.isEmpty() && lineCount <= 1) {
-                 throw new IllegalArgumentException("CSV file is empty or contains only headers.");
+    private void addRow(long userId, ImportDeduplicator dedupe, ParsedRow row, LocalDateTime now) {
+        if (row.problem() != null) {
+            throw new IllegalArgumentException("Invalid record on line " + row.line() + ": " + row.problem());
+        }
+        dedupe.add(row.contact());
+        if (dedupe.pendingSize() >= importChunkSize) {
+            writePending(userId, dedupe, now);
+        }
+    }
+
+    private ImportDeduplicator finishRows(long userId, ImportDeduplicator dedupe, long rows, LocalDateTime now) {
+        writePending(userId, dedupe, now);
+        if (rows == 0) {
+            throw new IllegalArgumentException("File is empty or contains no contacts.");
+        }
+        contactVersions.bump(userId);
+        return dedupe;
+    }
+
+    /**
+     * Indexes the user's existing contacts for an import run: one projection query, kept as primitive hashes
+     * (under 128 bytes per contact).
+     */
+    public ImportDeduplicator newDeduplicator(long userId, DuplicateMode duplicates) {
+        return transactionTemplate.execute(status -> {
+            ImportDeduplicator dedupe = new ImportDeduplicator(duplicates, (int) Math.min(contactRepo.countByUserId(userId), 1 << 24));
+            try (Stream<ContactKeyRow> rows = contactRepo.streamKeyRows(userId)) {
+                rows.forEach(row -> dedupe.addExisting(row.id(), row.email(), row.phone()));
             }
+            return dedupe;
+        });
+    }
+
+    /**
+     * Job mode: writes the rows pending in {@code dedupe} in their own transaction and publishes them right away,
+     * so progress is visible (and kept) while the rest of the file is still being processed.
+     */
+    public void importChunk(long userId, ImportDeduplicator dedupe) {
+        if (dedupe.pendingSize() == 0) return;
+        transactionTemplate.executeWithoutResult(status -> {
+            writePending(userId, dedupe, LocalDateTime.now());
+            contactVersions.bump(userId);
+        });
+        contactSearchIndex.invalidate(userId);
+    }
 
-            contactRepo.saveAll(contacts);
+    private void writePending(long userId, ImportDeduplicator dedupe, LocalDateTime now) {
+        long[] ids = contactBatchInserter.insert(userId, dedupe.pendingInserts(), now);
+        contactBatchInserter.update(userId, dedupe.pendingUpdates(), dedupe.mode() == DuplicateMode.MERGE, now);
+        dedupe.written(dedupe.needsIds() ? ids : null);
+    }
+
+    /**
+     * Why an imported contact cannot be saved, or null if it can. Thread-safe, so import jobs validate
+     * chunks in parallel.
+     */
+    public String rejectionReason(Contact contact) {
+        // Same constraint the entity enforces on persist, which the JDBC path bypasses
+        if (!validator.validateProperty(contact, "email").isEmpty()) {
+            return "Invalid email address: " + contact.getEmail();
+        }
+        if (!isValidPhone(contact.getPhone())) {
+            return "Invalid phone number: " + contact.getPhone();
         }
+        return null;
     }
 
-    private String cleanup(String data) {
-        if (data == null) return "";
-        String cleaned = data.trim();
-        if (cleaned.startsWith("\"") && cleaned.endsWith("\"")) {
-            cleaned = cleaned.substring(1, cleaned.length() - 1);
-            cleaned = cleaned.replace("\"\"", "\"");
+    // Empty, or digits with the usual separators and an optional extension: at least 3 digits, at most 32 chars
+    static boolean isValidPhone(String phone) {
+        if (phone == null || phone.isEmpty()) return true;
+        if (phone.length() > 32 || !PHONE.matcher(phone).matches()) return false;
+        int digits = 0;
+        for (int i = 0; i < phone.length(); i++) {
+            if (Character.isDigit(phone.charAt(i))) digits++;
         }
-        return cleaned;
+        return digits >= 3;
     }
-   
 }
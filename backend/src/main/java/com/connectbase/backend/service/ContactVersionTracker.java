@@ -0,0 +1,57 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.dto.ContactsVersion;
+import com.connectbase.backend.repo.ContactVersionRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Per-user change version of the contact list, bumped by every contact write.
+ * <p>
+ * Read endpoints look it up once per request: the ETag and Last-Modified derive from it, so a conditional GET is
+ * answered with 304 after one primary key lookup on contact_version and before any contact query runs, and the
+ * same stamp keys the page cache. The version is bumped in the transaction of the write, so every instance sees
+ * the same value, and the ETag carries the user id (browsers key their cache by URL only).
+ */
+@Component
+public class ContactVersionTracker {
+
+    // Last-Modified for users whose contacts have not changed since the version was introduced
+    private final long startedAt = toSeconds(System.currentTimeMillis());
+
+    @Autowired
+    private ContactVersionRepo contactVersionRepo;
+
+    public Stamp current(long userId) {
+        ContactsVersion version = contactVersionRepo.find(userId);
+        long lastModified = version.modifiedAt() > 0 ? version.modifiedAt() : startedAt;
+        return new Stamp(userId, version.version(), lastModified);
+    }
+
+    // Joins the caller's transaction, so the new version commits (or rolls back) with the write
+    @Transactional
+    public void bump(long userId) {
+        contactVersionRepo.increment(userId, toSeconds(System.currentTimeMillis()));
+    }
+
+    // HTTP dates have whole-second precision
+    private static long toSeconds(long millis) {
+        return millis - millis % 1000;
+    }
+
+    /**
+     * @param version monotonic per user; 0 until the first write
+     */
+    public record Stamp(long userId, long version, long lastModified) {
+
+        public String eTag() {
+            return "\"" + userId + "-" + version + "\"";
+        }
+
+        // For responses that also depend on something besides the contacts, e.g. "fuzzy" for ranked results
+        public String eTag(String variant) {
+            return "\"" + userId + "-" + version + "-" + variant + "\"";
+        }
+    }
+}
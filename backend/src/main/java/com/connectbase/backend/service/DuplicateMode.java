@@ -0,0 +1,25 @@
+package com.connectbase.backend.service;
+
+/**
+ * What an import does with a row that matches an existing contact, or an earlier row of the same file.
+ * Rows match on normalized email, or on phone digits when the row has no email.
+ */
+public enum DuplicateMode {
+    SKIP("skip"),          // keep the existing contact as it is
+    MERGE("merge"),        // fill the existing contact's blank fields from the row
+    OVERWRITE("overwrite"); // replace the existing contact's fields with the row's non-blank ones
+
+    private final String param;
+
+    DuplicateMode(String param) {
+        this.param = param;
+    }
+
+    public static DuplicateMode fromParam(String param) {
+        if (param == null || param.isBlank()) return SKIP;
+        for (DuplicateMode mode : values()) {
+            if (mode.param.equalsIgnoreCase(param)) return mode;
+        }
+        throw new IllegalArgumentException("Unsupported duplicates mode: " + param + " (use skip, merge or overwrite)");
+    }
+}
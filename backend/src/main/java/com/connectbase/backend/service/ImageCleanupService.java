@@ -0,0 +1,124 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.dto.StoredImage;
+import com.connectbase.backend.repo.ContactRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Deletes uploaded images off the request path. Callers queue Cloudinary public ids once the rows that
+ * referenced them are committed; a scheduled drain destroys them in batches of {@code batch-size}, one Admin
+ * API call per batch (it takes at most 100). Like the single-contact delete, cleanup is best effort: failed
+ * batches are logged, not retried, and ids still queued when the instance stops leave orphaned uploads.
+ * <p>
+ * Files shared by contacts with the same upload are queued with their hash, and the drain checks again that no
+ * contact uses the hash before destroying them: an upload may have picked the files up for reuse in the meantime.
+ */
+@Service
+public class ImageCleanupService {
+
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private final Queue<Queued> pending = new ConcurrentLinkedQueue<>();
+
+    // hash is null for files that are never shared (profile pictures, replaced uploads)
+    private record Queued(String publicId, long userId, String hash) {
+    }
+
+    @Autowired
+    private CloudinaryService cloudinaryService;
+
+    @Autowired
+    private ContactRepo contactRepo;
+
+    @Value("${contacts.images.cleanup.batch-size:100}")
+    private int batchSize;
+
+    public void enqueue(Collection<String> publicIds) {
+        for (String publicId : publicIds) {
+            pending.add(new Queued(publicId, 0, null));
+        }
+    }
+
+    /**
+     * Queues the files of those {@code images} that no contact of {@code userId} refers to any more. Contacts given
+     * the same upload share its files (ImageUploadService), so they are deleted with the last contact using them.
+     * Call once the rows that dropped the images are committed.
+     *
+     * @return number of images queued
+     */
+    public int enqueueUnreferenced(long userId, Collection<StoredImage> images) {
+        Set<String> hashes = new HashSet<>();
+        for (StoredImage image : images) {
+            if (image.hash() != null) hashes.add(image.hash());
+        }
+        if (!hashes.isEmpty()) {
+            hashes.removeAll(contactRepo.findImageHashesInUse(userId, hashes));
+        }
+        Set<String> publicIds = new HashSet<>();
+        int queued = 0;
+        for (StoredImage image : images) {
+            if (image.image() == null || image.hash() != null && !hashes.contains(image.hash())) continue;
+            String publicId = cloudinaryService.extractPublicIdFromUrl(image.image());
+            if (publicId == null || !publicIds.add(publicId)) continue;
+            queued++;
+            pending.add(new Queued(publicId, userId, image.hash()));
+            String thumbnailId = cloudinaryService.extractPublicIdFromUrl(image.thumbnail());
+            if (thumbnailId != null && publicIds.add(thumbnailId)) {
+                pending.add(new Queued(thumbnailId, userId, image.hash()));
+            }
+        }
+        return queued;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${contacts.images.cleanup.interval-ms:2000}",
+            initialDelayString = "${contacts.images.cleanup.initial-delay-ms:5000}")
+    public void drain() {
+        int size = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        List<Queued> batch = new ArrayList<>(size);
+        while (true) {
+            Queued queued;
+            while (batch.size() < size && (queued = pending.poll()) != null) {
+                batch.add(queued);
+            }
+            if (batch.isEmpty()) return;
+            List<String> publicIds = unreferenced(batch);
+            if (!publicIds.isEmpty()) {
+                cloudinaryService.deleteFiles(publicIds); // Logs its own failures
+            }
+            batch.clear();
+        }
+    }
+
+    // Public ids of the batch, less the files whose hash a contact of the user took up again; one query per user
+    private List<String> unreferenced(List<Queued> batch) {
+        Map<Long, Set<String>> hashesByUser = new HashMap<>();
+        for (Queued queued : batch) {
+            if (queued.hash() != null) hashesByUser.computeIfAbsent(queued.userId(), id -> new HashSet<>()).add(queued.hash());
+        }
+        hashesByUser.forEach((userId, hashes) -> hashes.retainAll(contactRepo.findImageHashesInUse(userId, hashes)));
+        List<String> publicIds = new ArrayList<>(batch.size());
+        for (Queued queued : batch) {
+            if (queued.hash() == null || !hashesByUser.get(queued.userId()).contains(queued.hash())) {
+                publicIds.add(queued.publicId());
+            }
+        }
+        return publicIds;
+    }
+}
@@ -0,0 +1,246 @@
+package com.connectbase.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+
+/**
+ * Shrinks uploaded images before they are stored. Phone photos arrive as multi-megabyte JPEGs of 12 megapixels or
+ * more; they are decoded (subsampled while reading when much larger than needed), turned upright according to
+ * their EXIF orientation, scaled to fit {@code max-dimension} and written as baseline JPEG with no metadata, so
+ * EXIF, GPS positions and embedded previews are dropped. The thumbnail is a centre square of {@code thumbnail-size}
+ * pixels, sized for list avatars.
+ * <p>
+ * Plain JDK ImageIO, so JPEG, PNG, GIF and BMP are decoded; anything else (HEIC, WebP) is stored as it was sent.
+ * Work is synchronous and CPU-bound, and a decoded photo takes tens of megabytes of heap: callers run it on a
+ * small pool (ImageUploadService).
+ */
+@Component
+public class ImageProcessor {
+
+    private static final String JPEG_METADATA = "javax_imageio_jpeg_image_1.0";
+    private static final int APP1 = 0xE1;
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    @Value("${contacts.images.max-dimension:1024}")
+    private int maxDimension;
+
+    @Value("${contacts.images.thumbnail-size:128}")
+    private int thumbnailSize;
+
+    @Value("${contacts.images.jpeg-quality:0.82}")
+    private float quality;
+
+    // Decompression bombs: a small file can declare a huge canvas
+    @Value("${contacts.images.max-pixels:50000000}")
+    private long maxPixels;
+
+    /**
+     * The re-encoded files, next to the source. Both belong to the caller.
+     *
+     * @param thumbnail null if none was asked for
+     */
+    public record Normalized(Path image, Path thumbnail) {
+    }
+
+    // Lower-case hex SHA-256 of the file, the key that contacts share stored images by
+    public static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every JRE has SHA-256
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @return null if ImageIO cannot decode the file
+     * @throws IllegalArgumentException if the image has more than {@code max-pixels} pixels
+     */
+    public Normalized normalize(Path source, boolean thumbnail) throws IOException {
+        BufferedImage image = read(source);
+        if (image == null) return null;
+        Path normalized = write(fit(image, maxDimension), source, ".jpg");
+        try {
+            return new Normalized(normalized, thumbnail ? write(square(image, thumbnailSize), source, ".thumb.jpg") : null);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(normalized);
+            throw e;
+        }
+    }
+
+    // Decoded, upright and opaque; null if no ImageIO reader takes the file
+    private BufferedImage read(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, false);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IllegalArgumentException("Image is too large: " + width + "x" + height);
+                }
+                int orientation = orientation(reader);
+                // Skipping pixels is cheap but blocky, so keep at least twice the target for the smooth pass
+                int step = Math.max(1, Math.min(width, height) / (2 * Math.max(maxDimension, thumbnailSize)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return upright(reader.read(0, param), orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // EXIF orientation (1 to 8) of a JPEG, 1 when there is none
+    private static int orientation(ImageReader reader) {
+        try {
+            IIOMetadata metadata = reader.getImageMetadata(0);
+            if (metadata == null || !JPEG_METADATA.equals(metadata.getNativeMetadataFormatName())) return 1;
+            Node markers = ((IIOMetadataNode) metadata.getAsTree(JPEG_METADATA)).getElementsByTagName("markerSequence").item(0);
+            for (Node marker = markers == null ? null : markers.getFirstChild(); marker != null; marker = marker.getNextSibling()) {
+                if (marker instanceof IIOMetadataNode node && "unknown".equals(node.getNodeName())
+                        && String.valueOf(APP1).equals(node.getAttribute("MarkerTag"))
+                        && node.getUserObject() instanceof byte[] data) {
+                    int orientation = exifOrientation(data);
+                    if (orientation > 0) return orientation;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Unreadable metadata: keep the stored orientation
+        }
+        return 1;
+    }
+
+    // APP1 payload: "Exif\0\0", then a TIFF header (byte order, 42, offset of IFD0) and IFD0's 12-byte entries
+    static int exifOrientation(byte[] app1) {
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') return 0;
+        ByteBuffer tiff = ByteBuffer.wrap(app1, 6, app1.length - 6).slice();
+        tiff.order(tiff.getShort(0) == 0x4949 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiff.getInt(4);
+        if (ifd < 8 || ifd > tiff.limit() - 2) return 0;
+        int entries = tiff.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry > tiff.limit() - 12) break;
+            if ((tiff.getShort(entry) & 0xFFFF) == ORIENTATION_TAG) {
+                int orientation = tiff.getShort(entry + 8) & 0xFFFF;
+                return orientation >= 1 && orientation <= 8 ? orientation : 0;
+            }
+        }
+        return 0;
+    }
+
+    // Applies the orientation and flattens transparency onto white, as JPEG has no alpha
+    static BufferedImage upright(BufferedImage image, int orientation) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { transform.translate(width, 0); transform.scale(-1, 1); }
+            case 3 -> { transform.translate(width, height); transform.rotate(Math.PI); }
+            case 4 -> { transform.translate(0, height); transform.scale(1, -1); }
+            case 5 -> { transform.rotate(Math.PI / 2); transform.scale(1, -1); }
+            case 6 -> { transform.translate(height, 0); transform.rotate(Math.PI / 2); }
+            case 7 -> { transform.translate(height, width); transform.rotate(-Math.PI / 2); transform.scale(1, -1); }
+            case 8 -> { transform.translate(0, width); transform.rotate(-Math.PI / 2); }
+            default -> {
+                if (image.getType() == BufferedImage.TYPE_INT_RGB) return image;
+            }
+        }
+        boolean swap = orientation >= 5 && orientation <= 8;
+        BufferedImage result = new BufferedImage(swap ? height : width, swap ? width : height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = result.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, result.getWidth(), result.getHeight());
+        g.drawImage(image, transform, null);
+        g.dispose();
+        return result;
+    }
+
+    static BufferedImage fit(BufferedImage image, int max) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width <= max && height <= max) return image;
+        double scale = (double) max / Math.max(width, height);
+        return scale(image, Math.max(1, (int) Math.round(width * scale)), Math.max(1, (int) Math.round(height * scale)));
+    }
+
+    // The centre square, scaled down to size (never up)
+    static BufferedImage square(BufferedImage image, int size) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        BufferedImage square = image.getSubimage((image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+        return side <= size ? square : scale(square, size, size);
+    }
+
+    // Bilinear steps of at most one half, which keeps detail that a single bilinear pass would alias away
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        BufferedImage current = image;
+        do {
+            int stepWidth = Math.max(width, current.getWidth() / 2);
+            int stepHeight = Math.max(height, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(stepWidth, stepHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+            g.dispose();
+            current = next;
+        } while (current.getWidth() != width || current.getHeight() != height);
+        return current;
+    }
+
+    // Without image metadata the writer emits only a JFIF header
+    private Path write(BufferedImage image, Path source, String suffix) throws IOException {
+        Path target = Files.createTempFile(source.toAbsolutePath().getParent(), "image-", suffix);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (FileImageOutputStream out = new FileImageOutputStream(target.toFile())) {
+            JPEGImageWriteParam param = (JPEGImageWriteParam) writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setOptimizeHuffmanTables(true);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,401 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.dto.StoredImage;
+import com.connectbase.backend.exceptions.ServiceBusyException;
+import com.connectbase.backend.model.ImageStatus;
+import com.connectbase.backend.repo.ContactRepo;
+import com.connectbase.backend.repo.UserRepo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads contact images and profile pictures off the request thread. The request spools the part to local disk
+ * ({@link #prepare}), saves its row with the image PENDING and hands the file over ({@link #start}). A small
+ * processing pool shrinks it ({@link ImageProcessor}; contacts also get a thumbnail), then an upload pool streams
+ * the result to Cloudinary, retrying with exponential backoff, and sets the URLs and READY, or FAILED after
+ * {@code contacts.images.upload.max-attempts}. A contact image whose file the user already uploaded for another
+ * contact (same SHA-256) reuses that contact's stored files without being decoded or uploaded again. The image
+ * being replaced is deleted only once the new one is in place and no other contact shares it. At most
+ * {@code threads + queue-capacity} uploads are accepted at a time; beyond that, requests get a
+ * {@link ServiceBusyException} (503) before anything is saved.
+ * <p>
+ * Uploads live in memory, like import jobs: when a newer upload for the same row arrives, the older one's result is
+ * discarded. Rows left PENDING by a stopped instance are marked FAILED by a periodic sweep (the first run at
+ * startup), once their upload was requested longer ago than the retry window plus {@code stale-after-ms}: any
+ * instance still working on such a row would have finished or failed it by then, so rows that other running
+ * instances are uploading are left alone.
+ */
+@Service
+public class ImageUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageUploadService.class);
+
+    public enum Owner { CONTACT, USER }
+
+    /**
+     * A spooled image holding a slot in the pool. Must be passed to {@link #start} or {@link #abandon}.
+     */
+    public record Pending(Path file) {
+    }
+
+    // Compared by identity in latest; the mutable state is handed between pool threads with each task
+    private static final class Upload {
+
+        final Owner owner;
+        final long id;
+        final long userId;
+        final Path file;
+        String hash;
+        ImageProcessor.Normalized normalized;
+        int attempt = 1;
+
+        Upload(Owner owner, long id, long userId, Path file) {
+            this.owner = owner;
+            this.id = id;
+            this.userId = userId;
+            this.file = file;
+        }
+
+        String key() {
+            return owner + ":" + id;
+        }
+    }
+
+    @Autowired
+    private CloudinaryService cloudinaryService;
+
+    @Autowired
+    private ImageCleanupService imageCleanupService;
+
+    @Autowired
+    private ImageProcessor imageProcessor;
+
+    @Autowired
+    private ContactRepo contactRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private ContactVersionTracker contactVersions;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${contacts.images.upload.threads:4}")
+    private int threads;
+
+    // Decoding is CPU-bound and a decoded photo takes tens of megabytes, so few at a time
+    @Value("${contacts.images.processing.threads:2}")
+    private int processingThreads;
+
+    @Value("${contacts.images.upload.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${contacts.images.upload.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${contacts.images.upload.backoff-base-ms:1000}")
+    private long backoffBaseMillis;
+
+    // Margin over the retry backoffs for queueing and the attempts themselves
+    @Value("${contacts.images.upload.stale-after-ms:600000}")
+    private long staleAfterMillis;
+
+    // Empty means a directory under java.io.tmpdir
+    @Value("${contacts.images.upload.spool-dir:}")
+    private String spoolDir;
+
+    // The newest upload per row; older ones finishing later are discarded
+    private final Map<String, Upload> latest = new ConcurrentHashMap<>();
+    private ScheduledThreadPoolExecutor executor;
+    private ExecutorService processing;
+    private Semaphore slots;
+    private Path spoolDirectory;
+
+    @PostConstruct
+    void init() throws IOException {
+        spoolDirectory = Files.createDirectories(spoolDir.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "connectbase-images")
+                : Path.of(spoolDir));
+        slots = new Semaphore(threads + queueCapacity);
+        executor = new ScheduledThreadPoolExecutor(threads, daemonThreads("image-upload-"));
+        executor.setRemoveOnCancelPolicy(true);
+        // Unbounded queue, but never longer than the slots
+        processing = Executors.newFixedThreadPool(processingThreads, daemonThreads("image-processing-"));
+
+        if (meterRegistry != null) {
+            Gauge.builder("contacts.images.upload.pending", latest, Map::size).register(meterRegistry);
+        }
+    }
+
+    // Uploads requested before the returned time were lost with the instance that accepted them
+    private long staleBefore(long now) {
+        long backoffs = maxAttempts > 1 ? backoffBaseMillis * ((1L << (maxAttempts - 1)) - 1) : 0;
+        return now - backoffs - staleAfterMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${contacts.images.upload.stale-sweep-interval-ms:60000}",
+            initialDelayString = "${contacts.images.upload.stale-sweep-initial-delay-ms:0}")
+    public void failStaleUploads() {
+        long before = staleBefore(System.currentTimeMillis());
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> userIds = contactRepo.findUserIdsWithStaleImages(ImageStatus.PENDING, before);
+            int contacts = 0;
+            if (!userIds.isEmpty()) {
+                contacts = contactRepo.updateStaleImageStatuses(ImageStatus.PENDING, ImageStatus.FAILED, before);
+                userIds.forEach(contactVersions::bump);
+            }
+            int users = userRepo.updateStaleProfilePicStatuses(ImageStatus.PENDING, ImageStatus.FAILED, before);
+            if (contacts + users > 0) {
+                log.warn("Marked {} contact images and {} profile pictures left pending by a stopped instance as failed",
+                        contacts, users);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        processing.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Spools {@code image} and reserves a slot for it.
+     *
+     * @return null if there is no image
+     * @throws ServiceBusyException if the pool and its queue are full
+     */
+    public Pending prepare(MultipartFile image) {
+        if (image == null || image.isEmpty()) return null;
+        if (!slots.tryAcquire()) {
+            throw new ServiceBusyException("Image upload queue is full, please retry shortly");
+        }
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile(spoolDirectory, "image-", ".upload");
+            image.transferTo(spooled);
+            return new Pending(spooled);
+        } catch (IOException e) {
+            delete(spooled);
+            slots.release();
+            throw new UncheckedIOException("Failed to store uploaded image", e);
+        } catch (RuntimeException e) {
+            delete(spooled);
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Uploads the spooled image for a row already saved with status PENDING.
+     *
+     * @param userId the owning user, whose contact version is bumped when the image changes
+     */
+    public void start(Pending pending, Owner owner, long id, long userId) {
+        Upload upload = new Upload(owner, id, userId, pending.file());
+        latest.put(upload.key(), upload);
+        try {
+            processing.execute(() -> process(upload));
+        } catch (RejectedExecutionException e) {
+            finish(upload); // Shutting down: the row stays PENDING until a sweep finds it stale
+        }
+    }
+
+    // The row was not saved after all
+    public void abandon(Pending pending) {
+        delete(pending.file());
+        slots.release();
+    }
+
+    private void submit(Upload upload, long delayMillis) {
+        try {
+            executor.schedule(() -> attempt(upload), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            finish(upload); // Shutting down: the row stays PENDING until a sweep finds it stale
+        }
+    }
+
+    // Reuses the files of a contact with the same upload, or shrinks the image for uploading
+    private void process(Upload upload) {
+        if (superseded(upload)) return;
+        try {
+            if (upload.owner == Owner.CONTACT) {
+                upload.hash = ImageProcessor.hash(upload.file);
+                List<StoredImage> stored = contactRepo.findStoredImages(upload.userId, upload.hash, PageRequest.of(0, 1));
+                if (!stored.isEmpty()) {
+                    complete(upload, stored.get(0));
+                    finish(upload);
+                    return;
+                }
+            }
+            upload.normalized = imageProcessor.normalize(upload.file, upload.owner == Owner.CONTACT);
+        } catch (Exception e) {
+            // Retrying will not make the file decodable
+            log.error("Image processing for {} failed", upload.key(), e);
+            fail(upload);
+            return;
+        }
+        submit(upload, 0);
+    }
+
+    private void attempt(Upload upload) {
+        if (superseded(upload)) return;
+        StoredImage stored;
+        try {
+            stored = store(upload);
+        } catch (Exception e) {
+            if (upload.attempt < maxAttempts) {
+                long delay = backoffBaseMillis << (upload.attempt - 1);
+                log.warn("Image upload for {} failed (attempt {}), retrying in {} ms: {}", upload.key(), upload.attempt,
+                        delay, e.getMessage());
+                upload.attempt++;
+                submit(upload, delay);
+            } else {
+                log.error("Image upload for {} failed after {} attempts", upload.key(), upload.attempt, e);
+                fail(upload);
+            }
+            return;
+        }
+        complete(upload, stored);
+        finish(upload);
+    }
+
+    // The shrunk image and its thumbnail, or the file as it was sent if ImageIO could not decode it
+    private StoredImage store(Upload upload) throws IOException {
+        ImageProcessor.Normalized normalized = upload.normalized;
+        if (normalized == null) return new StoredImage(cloudinaryService.upload(upload.file), null, upload.hash);
+        String image = cloudinaryService.upload(normalized.image());
+        if (normalized.thumbnail() == null) return new StoredImage(image, null, upload.hash);
+        try {
+            return new StoredImage(image, cloudinaryService.upload(normalized.thumbnail()), upload.hash);
+        } catch (IOException | RuntimeException e) {
+            deleteLater(image); // The retry uploads both again
+            throw e;
+        }
+    }
+
+    private boolean superseded(Upload upload) {
+        if (latest.get(upload.key()) == upload) return false;
+        finish(upload);
+        return true;
+    }
+
+    private void complete(Upload upload, StoredImage stored) {
+        // Superseded while uploading, or the row is gone: the files may not be referenced by anything
+        if (!latest.remove(upload.key(), upload) || !replaceImage(upload, stored)) {
+            release(upload, stored);
+        }
+    }
+
+    // Sets the new image and queues the one it replaces for deletion; false if the row no longer exists
+    private boolean replaceImage(Upload upload, StoredImage stored) {
+        if (upload.owner == Owner.USER) {
+            String previous = transactionTemplate.execute(status -> {
+                String old = userRepo.findProfilePicById(upload.id).orElse(null);
+                return userRepo.updateProfilePic(upload.id, stored.image(), ImageStatus.READY) > 0 ? old : stored.image();
+            });
+            if (stored.image().equals(previous)) return false;
+            if (previous != null) deleteLater(previous);
+            return true;
+        }
+        StoredImage previous = transactionTemplate.execute(status -> {
+            StoredImage old = contactRepo.findStoredImageById(upload.id).orElse(null);
+            if (old != null) {
+                contactRepo.updateImage(upload.id, stored.image(), stored.thumbnail(), stored.hash(), ImageStatus.READY,
+                        LocalDateTime.now());
+                contactVersions.bump(upload.userId);
+            }
+            return old;
+        });
+        if (previous == null) return false;
+        if (previous.image() != null) imageCleanupService.enqueueUnreferenced(upload.userId, List.of(previous));
+        return true;
+    }
+
+    private void release(Upload upload, StoredImage stored) {
+        if (upload.owner == Owner.CONTACT) {
+            imageCleanupService.enqueueUnreferenced(upload.userId, List.of(stored));
+        } else {
+            deleteLater(stored.image());
+        }
+    }
+
+    // FAILED only if no newer upload took over the row
+    private void fail(Upload upload) {
+        if (latest.remove(upload.key(), upload)) {
+            if (upload.owner == Owner.CONTACT) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    contactRepo.updateImageStatus(upload.id, ImageStatus.FAILED);
+                    contactVersions.bump(upload.userId);
+                });
+            } else {
+                userRepo.updateProfilePicStatus(upload.id, ImageStatus.FAILED);
+            }
+        }
+        finish(upload);
+    }
+
+    private void deleteLater(String url) {
+        String publicId = cloudinaryService.extractPublicIdFromUrl(url);
+        if (publicId != null) imageCleanupService.enqueue(List.of(publicId));
+    }
+
+    private void finish(Upload upload) {
+        delete(upload.file);
+        if (upload.normalized != null) {
+            delete(upload.normalized.image());
+            delete(upload.normalized.thumbnail());
+        }
+        slots.release();
+    }
+
+    private static void delete(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled image {}", file, e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,177 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.model.Contact;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Duplicate detection for one import run. The user's existing contacts are indexed once by 64-bit hashes
+ * of their normalized email and of their phone digits; each row is then checked in O(1) against them and
+ * against the rows before it in the file. Rows match on email, or on phone when the row has no email.
+ * <p>
+ * Rows accumulate as pending inserts and updates until {@link ContactService#importChunk} writes them.
+ * Merging into a row that is still pending happens in memory; merging into one that is already written needs
+ * its id, so in {@link DuplicateMode#MERGE} and {@link DuplicateMode#OVERWRITE} inserted ids are read back.
+ * Hashes are not verified against the stored strings: at 64 bits a false match among a million contacts
+ * has a probability around 1e-8.
+ */
+public final class ImportDeduplicator {
+
+    private final DuplicateMode mode;
+    private final LongLongHashMap emails;
+    private final LongLongHashMap phones;
+    private final List<Contact> inserts = new ArrayList<>();
+    private final List<Contact> updates = new ArrayList<>();
+    private long inserted;
+    private long skipped;
+    private long merged;
+
+    ImportDeduplicator(DuplicateMode mode, int expectedContacts) {
+        this.mode = mode;
+        emails = new LongLongHashMap(expectedContacts);
+        phones = new LongLongHashMap(expectedContacts);
+    }
+
+    // Seeds the index with an existing contact
+    void addExisting(long id, String email, String phone) {
+        index(emailKey(email), phoneKey(phone), id);
+    }
+
+    /** Queues the row as an insert, or resolves it against the contact it duplicates. */
+    public void add(Contact row) {
+        long emailKey = emailKey(row.getEmail());
+        long phoneKey = phoneKey(row.getPhone());
+        long match = emailKey != 0 ? emails.get(emailKey) : phoneKey != 0 ? phones.get(phoneKey) : LongLongHashMap.NO_VALUE;
+
+        if (match == LongLongHashMap.NO_VALUE) {
+            inserts.add(row);
+            inserted++;
+            index(emailKey, phoneKey, pendingRef(inserts.size() - 1));
+        } else if (mode == DuplicateMode.SKIP) {
+            skipped++;
+        } else if (match < 0) {
+            // Same file, same chunk: the earlier row has not been written yet
+            Contact pending = inserts.get((int) (-match - 1));
+            apply(pending, row);
+            index(emailKey(pending.getEmail()), phoneKey(pending.getPhone()), match);
+            merged++;
+        } else {
+            row.setId(match);
+            updates.add(row);
+            // The merge may give the contact an email or phone it did not have
+            index(emailKey, phoneKey, match);
+            merged++;
+        }
+    }
+
+    public int pendingSize() {
+        return inserts.size() + updates.size();
+    }
+
+    boolean needsIds() {
+        return mode != DuplicateMode.SKIP;
+    }
+
+    DuplicateMode mode() {
+        return mode;
+    }
+
+    List<Contact> pendingInserts() {
+        return inserts;
+    }
+
+    List<Contact> pendingUpdates() {
+        return updates;
+    }
+
+    /** Called once the pending rows are written; {@code ids} are the inserted rows' ids, or null in SKIP mode. */
+    void written(long[] ids) {
+        if (ids != null) {
+            for (int i = 0; i < ids.length; i++) {
+                Contact contact = inserts.get(i);
+                long emailKey = emailKey(contact.getEmail());
+                long phoneKey = phoneKey(contact.getPhone());
+                long ref = pendingRef(i);
+                if (emailKey != 0 && emails.get(emailKey) == ref) emails.put(emailKey, ids[i]);
+                if (phoneKey != 0 && phones.get(phoneKey) == ref) phones.put(phoneKey, ids[i]);
+            }
+        }
+        inserts.clear();
+        updates.clear();
+    }
+
+    public long inserted() {
+        return inserted;
+    }
+
+    public long skipped() {
+        return skipped;
+    }
+
+    // Merged into an existing contact or an earlier row, in MERGE or OVERWRITE mode
+    public long merged() {
+        return merged;
+    }
+
+    // MERGE fills blanks of the target; OVERWRITE lets the row's non-blank fields win
+    private void apply(Contact target, Contact row) {
+        boolean overwrite = mode == DuplicateMode.OVERWRITE;
+        target.setFirstName(pick(target.getFirstName(), row.getFirstName(), overwrite));
+        target.setLastName(pick(target.getLastName(), row.getLastName(), overwrite));
+        target.setEmail(pick(target.getEmail(), row.getEmail(), overwrite));
+        target.setPhone(pick(target.getPhone(), row.getPhone(), overwrite));
+        target.setTitle(pick(target.getTitle(), row.getTitle(), overwrite));
+        target.setImage(pick(target.getImage(), row.getImage(), overwrite));
+    }
+
+    private static String pick(String current, String incoming, boolean overwrite) {
+        if (isBlank(incoming)) return current;
+        return overwrite || isBlank(current) ? incoming : current;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private void index(long emailKey, long phoneKey, long ref) {
+        if (emailKey != 0) emails.putIfAbsent(emailKey, ref);
+        if (phoneKey != 0) phones.putIfAbsent(phoneKey, ref);
+    }
+
+    // Pending rows are referenced by negative positions, written ones by their (positive) ids
+    private static long pendingRef(int position) {
+        return -(position + 1L);
+    }
+
+    static long emailKey(String email) {
+        String normalized = Contact.normalize(email);
+        return normalized.isEmpty() ? 0 : hash(normalized);
+    }
+
+    // Digits only, so "+1 (415) 555-0100" and "+1 415 555 0100" match
+    static long phoneKey(String phone) {
+        if (phone == null) return 0;
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') digits.append(c);
+        }
+        return digits.length() < 3 ? 0 : hash(digits);
+    }
+
+    // FNV-1a over the chars with a murmur3 finalizer; never 0, which marks "no key"
+    static long hash(CharSequence value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+}
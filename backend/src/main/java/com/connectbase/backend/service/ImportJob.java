@@ -0,0 +1,158 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.dto.ImportJobStatus;
+import com.connectbase.backend.dto.ImportRejection;
+import com.connectbase.backend.format.ContactFormat;
+import com.connectbase.backend.format.FormatOptions;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * State of one asynchronous import, written by its worker thread and read by status requests.
+ */
+class ImportJob {
+
+    enum State { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    private final String id;
+    private final long userId;
+    private final Path file;
+    private final ContactFormat format;
+    private final FormatOptions options;
+    private final DuplicateMode duplicates;
+    private final int maxReportedRejections;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.QUEUED);
+    private final AtomicBoolean released = new AtomicBoolean();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong duplicatesSkipped = new AtomicLong();
+    private final AtomicLong duplicatesMerged = new AtomicLong();
+    private final List<ImportRejection> rejections = new ArrayList<>();
+    private volatile boolean cancelRequested;
+    private volatile String error;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    ImportJob(String id, long userId, Path file, ContactFormat format, FormatOptions options, DuplicateMode duplicates,
+              int maxReportedRejections) {
+        this.id = id;
+        this.userId = userId;
+        this.file = file;
+        this.format = format;
+        this.options = options;
+        this.duplicates = duplicates;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    String id() {
+        return id;
+    }
+
+    long userId() {
+        return userId;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    ContactFormat format() {
+        return format;
+    }
+
+    FormatOptions options() {
+        return options;
+    }
+
+    DuplicateMode duplicates() {
+        return duplicates;
+    }
+
+    State state() {
+        return state.get();
+    }
+
+    boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    LocalDateTime finishedAt() {
+        return finishedAt;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    // False if the job was cancelled while it was still queued
+    boolean start() {
+        if (!state.compareAndSet(State.QUEUED, State.RUNNING)) return false;
+        startNanos = System.nanoTime();
+        startedAt = LocalDateTime.now();
+        return true;
+    }
+
+    /** Cancels a queued job at once; a running one stops after its current chunk. False if already finished. */
+    boolean requestCancel() {
+        if (state.compareAndSet(State.QUEUED, State.CANCELLED)) {
+            finishedAt = LocalDateTime.now();
+            return true;
+        }
+        cancelRequested = true;
+        return state.get() == State.RUNNING;
+    }
+
+    void finish(State finalState, String error) {
+        this.error = error;
+        endNanos = System.nanoTime();
+        state.set(finalState);
+        finishedAt = LocalDateTime.now();
+    }
+
+    // True exactly once, for whoever frees the job's per-user slot and spooled file
+    boolean release() {
+        return released.compareAndSet(false, true);
+    }
+
+    // The deduplicator's counters are totals for the whole job
+    void recordChunk(long rows, ImportDeduplicator dedupe) {
+        imported.set(dedupe.inserted());
+        duplicatesSkipped.set(dedupe.skipped());
+        duplicatesMerged.set(dedupe.merged());
+        processed.addAndGet(rows);
+    }
+
+    void reject(long line, String reason) {
+        rejected.incrementAndGet();
+        synchronized (rejections) {
+            if (rejections.size() < maxReportedRejections) rejections.add(new ImportRejection(line, reason));
+        }
+    }
+
+    ImportJobStatus status() {
+        List<ImportRejection> reported;
+        synchronized (rejections) {
+            reported = List.copyOf(rejections);
+        }
+        long rows = processed.get();
+        long rowsPerSecond = 0;
+        if (startedAt != null) {
+            long elapsed = (endNanos != 0 ? endNanos : System.nanoTime()) - startNanos;
+            rowsPerSecond = elapsed > 0 ? rows * 1_000_000_000L / elapsed : rows;
+        }
+        return new ImportJobStatus(id, state.get().name(), rows, imported.get(), rejected.get(), reported,
+                duplicatesSkipped.get(), duplicatesMerged.get(),
+                rowsPerSecond, error, createdAt, startedAt, finishedAt);
+    }
+}
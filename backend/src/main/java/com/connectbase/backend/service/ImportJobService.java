@@ -0,0 +1,312 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.dto.ImportJobStatus;
+import com.connectbase.backend.exceptions.ServiceBusyException;
+import com.connectbase.backend.exceptions.TooManyRequestsException;
+import com.connectbase.backend.format.ContactFormat;
+import com.connectbase.backend.format.ContactReader;
+import com.connectbase.backend.format.CsvFormat;
+import com.connectbase.backend.format.FormatOptions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous contact imports, in any {@link ContactFormat}. The upload is spooled to local disk and the caller gets a job id at once; a
+ * bounded pool works through the file in chunks of {@code contacts.import.chunk-size}, validating each chunk
+ * in parallel (large CSV files are parsed in parallel too, see {@link ParallelCsvParser}) and committing it in
+ * its own transaction. Invalid rows are skipped and reported by line
+ * number instead of failing the import. Each user may have {@code contacts.import.jobs.max-per-user} jobs
+ * queued or running; when the pool and its queue are full, callers get a {@link ServiceBusyException} (503).
+ * <p>
+ * Jobs live in memory: with several instances, status and cancel requests must reach the one that took the
+ * upload. Finished jobs are forgotten after {@code contacts.import.jobs.retention-minutes}.
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    @Autowired
+    private ContactService contactService;
+
+    @Autowired
+    private ParallelCsvParser parallelCsvParser;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${contacts.import.jobs.threads:2}")
+    private int threads;
+
+    @Value("${contacts.import.jobs.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${contacts.import.jobs.max-per-user:2}")
+    private int maxPerUser;
+
+    // 0 means one thread per available core
+    @Value("${contacts.import.jobs.validation-threads:0}")
+    private int validationThreads;
+
+    @Value("${contacts.import.jobs.max-reported-rejections:100}")
+    private int maxReportedRejections;
+
+    @Value("${contacts.import.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    // Empty means a directory under java.io.tmpdir
+    @Value("${contacts.import.jobs.spool-dir:}")
+    private String spoolDir;
+
+    @Value("${contacts.import.chunk-size:1000}")
+    private int chunkSize;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> activeJobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private ExecutorService validationPool;
+    private int validationParallelism;
+    private Path spoolDirectory;
+
+    @PostConstruct
+    void init() throws IOException {
+        spoolDirectory = Files.createDirectories(spoolDir.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "connectbase-imports")
+                : Path.of(spoolDir));
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("contact-import-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        validationParallelism = validationThreads > 0 ? validationThreads : Runtime.getRuntime().availableProcessors();
+        validationPool = Executors.newFixedThreadPool(validationParallelism, daemonThreads("contact-import-validate-"));
+
+        if (meterRegistry != null) {
+            Gauge.builder("contacts.import.jobs.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+            Gauge.builder("contacts.import.jobs.queued", executor, e -> e.getQueue().size()).register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        validationPool.shutdownNow();
+    }
+
+    /**
+     * Spools the upload and queues it.
+     *
+     * @throws TooManyRequestsException if the user already has the maximum number of jobs queued or running
+     * @throws ServiceBusyException     if the job queue is full
+     */
+    public ImportJobStatus submit(long userId, MultipartFile file, ContactFormat format, FormatOptions options,
+                                  DuplicateMode duplicates) throws IOException {
+        reserveSlot(userId);
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile(spoolDirectory, "import-", "." + format.fileExtensions().get(0));
+            file.transferTo(spooled);
+            ImportJob job = new ImportJob(UUID.randomUUID().toString(), userId, spooled, format, options,
+                    duplicates, maxReportedRejections);
+            jobs.put(job.id(), job);
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id());
+                throw new ServiceBusyException("Import queue is full, please retry shortly");
+            }
+            return job.status();
+        } catch (IOException | RuntimeException e) {
+            releaseSlot(userId);
+            if (spooled != null) Files.deleteIfExists(spooled);
+            throw e;
+        }
+    }
+
+    public ImportJobStatus status(long userId, String jobId) {
+        return find(userId, jobId).status();
+    }
+
+    /** Stops the job after the chunk in progress; chunks already committed stay imported. */
+    public ImportJobStatus cancel(long userId, String jobId) {
+        ImportJob job = find(userId, jobId);
+        job.requestCancel();
+        if (job.state() == ImportJob.State.CANCELLED) {
+            release(job); // No-op if the worker already did; a queued job's worker returns without touching it
+        }
+        return job.status();
+    }
+
+    @Scheduled(fixedDelayString = "${contacts.import.jobs.purge-interval-ms:300000}")
+    public void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt().isBefore(cutoff));
+    }
+
+    // Other users' jobs are indistinguishable from missing ones
+    private ImportJob find(long userId, String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null || job.userId() != userId) {
+            throw new RuntimeException("Import job not found");
+        }
+        return job;
+    }
+
+    private void run(ImportJob job) {
+        if (!job.start()) return;
+        ImportJob.State state = ImportJob.State.FAILED;
+        String error = null;
+        try {
+            ImportDeduplicator dedupe = contactService.newDeduplicator(job.userId(), job.duplicates());
+            boolean finished = parallelCsvParser.supports(job.format(), job.options(), Files.size(job.file()))
+                    ? runParallel(job, dedupe)
+                    : runSequential(job, dedupe);
+            state = finished ? ImportJob.State.COMPLETED : ImportJob.State.CANCELLED;
+        } catch (IllegalArgumentException e) {
+            // Malformed input (e.g. an unterminated quote or vCard): the rest of the file cannot be read reliably
+            error = e.getMessage();
+        } catch (InterruptedException | InterruptedIOException e) {
+            Thread.currentThread().interrupt();
+            error = "Import was interrupted";
+        } catch (Exception e) {
+            log.warn("Import job {} for user {} failed", job.id(), job.userId(), e);
+            error = "Import failed: " + e.getMessage();
+        } finally {
+            // Free the slot and the spooled file before the job reports itself finished
+            release(job);
+            job.finish(state, error);
+            ImportJobStatus status = job.status();
+            log.info("Import job {} for user {} {}: {} imported, {} rejected ({} rows/s)", job.id(), job.userId(),
+                    status.state(), status.rowsImported(), status.rowsRejected(), status.rowsPerSecond());
+        }
+    }
+
+    // False if cancelled
+    private boolean runSequential(ImportJob job, ImportDeduplicator dedupe) throws IOException, InterruptedException,
+            ExecutionException {
+        try (ContactReader reader = job.format().reader(Files.newInputStream(job.file()), job.options())) {
+            List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+            while (reader.next()) {
+                chunk.add(ParsedRow.read(reader));
+                if (chunk.size() == chunkSize) {
+                    processChunk(job, chunk, dedupe);
+                    chunk.clear();
+                    if (job.isCancelRequested()) return false;
+                }
+            }
+            processChunk(job, chunk, dedupe);
+            return true;
+        }
+    }
+
+    // Rows arrive parsed and validated; they are committed in chunks as in runSequential
+    private boolean runParallel(ImportJob job, ImportDeduplicator dedupe) throws IOException {
+        try (ParallelCsvParser.Ranges ranges = parallelCsvParser.open(job.file(), (CsvFormat) job.format(), job.options(),
+                contactService::rejectionReason)) {
+            int pending = 0;
+            List<ParsedRow> rows;
+            while ((rows = ranges.next()) != null) {
+                for (ParsedRow row : rows) {
+                    if (row.problem() == null) {
+                        dedupe.add(row.contact());
+                    } else {
+                        job.reject(row.line(), row.problem());
+                    }
+                    if (++pending == chunkSize) {
+                        commit(job, pending, dedupe);
+                        pending = 0;
+                        if (job.isCancelRequested()) return false;
+                    }
+                }
+            }
+            if (pending > 0) commit(job, pending, dedupe);
+            return true;
+        }
+    }
+
+    // Rows are validated in parallel slices of the chunk, then deduplicated and written in file order
+    private void processChunk(ImportJob job, List<ParsedRow> chunk, ImportDeduplicator dedupe) throws InterruptedException, ExecutionException {
+        if (chunk.isEmpty()) return;
+        int rows = chunk.size();
+        String[] reasons = new String[rows];
+        int sliceSize = (rows + validationParallelism - 1) / validationParallelism;
+        List<Future<?>> slices = new ArrayList<>();
+        for (int from = 0; from < rows; from += sliceSize) {
+            int start = from;
+            int end = Math.min(rows, from + sliceSize);
+            slices.add(validationPool.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    ParsedRow row = chunk.get(i);
+                    reasons[i] = row.problem() != null ? row.problem() : contactService.rejectionReason(row.contact());
+                }
+            }));
+        }
+        for (Future<?> slice : slices) {
+            slice.get();
+        }
+
+        for (int i = 0; i < rows; i++) {
+            if (reasons[i] == null) {
+                dedupe.add(chunk.get(i).contact());
+            } else {
+                job.reject(chunk.get(i).line(), reasons[i]);
+            }
+        }
+        commit(job, rows, dedupe);
+    }
+
+    private void commit(ImportJob job, int rows, ImportDeduplicator dedupe) {
+        contactService.importChunk(job.userId(), dedupe);
+        job.recordChunk(rows, dedupe);
+    }
+
+    private void reserveSlot(long userId) {
+        if (activeJobs.merge(userId, 1, Integer::sum) > maxPerUser) {
+            releaseSlot(userId);
+            throw new TooManyRequestsException(
+                    "You already have " + maxPerUser + " imports in progress; wait for one to finish", 5);
+        }
+    }
+
+    private void releaseSlot(long userId) {
+        activeJobs.computeIfPresent(userId, (id, active) -> active > 1 ? active - 1 : null);
+    }
+
+    private void release(ImportJob job) {
+        if (!job.release()) return;
+        releaseSlot(job.userId());
+        try {
+            Files.deleteIfExists(job.file());
+        } catch (IOException e) {
+            log.warn("Could not delete spooled import {}", job.file(), e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
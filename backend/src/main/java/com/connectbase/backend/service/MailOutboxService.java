@@ -0,0 +1,192 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.model.MailOutbox;
+import com.connectbase.backend.model.MailStatus;
+import com.connectbase.backend.repo.MailOutboxRepo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Transactional outbox for outgoing mail. Requests only insert a row (in their own transaction);
+ * a background dispatcher drains pending rows in batches over a single SMTP connection,
+ * retrying with exponential backoff and dead-lettering after {@code mail.outbox.max-attempts}.
+ * <p>
+ * Every instance runs the dispatcher: a row is sent only by the one whose conditional update claims it
+ * (PENDING to SENDING). A claim that outlives {@code mail.outbox.claim-timeout-ms}, e.g. after a crash mid-batch,
+ * makes the row due again. Sent and dead-lettered rows, which may hold reset codes, are deleted after
+ * {@code mail.outbox.retention-ms}.
+ */
+@Service
+public class MailOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(MailOutboxService.class);
+    private static final String FROM = "ConnectBase Support <noreply@connectbase.com>";
+
+    @Autowired private MailOutboxRepo mailOutboxRepo;
+    @Autowired private JavaMailSender mailSender; // Configured in application.properties
+    @Autowired(required = false) private MeterRegistry meterRegistry;
+
+    @Value("${mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-base-ms:5000}")
+    private long backoffBaseMillis;
+
+    @Value("${mail.outbox.backoff-max-ms:600000}")
+    private long backoffMaxMillis;
+
+    // Longer than sending a batch can take: SMTP timeouts are 5 to 10 s per command
+    @Value("${mail.outbox.claim-timeout-ms:300000}")
+    private long claimTimeoutMillis;
+
+    @Value("${mail.outbox.retention-ms:86400000}")
+    private long retentionMillis;
+
+    @PostConstruct
+    void registerMetrics() {
+        if (meterRegistry == null) return;
+        Gauge.builder("mail.outbox.pending", mailOutboxRepo, repo -> repo.countByStatus(MailStatus.PENDING)).register(meterRegistry);
+        Gauge.builder("mail.outbox.dead", mailOutboxRepo, repo -> repo.countByStatus(MailStatus.DEAD)).register(meterRegistry);
+    }
+
+    // Joins the caller's transaction, so the message is stored atomically with the state that triggered it
+    public MailOutbox enqueue(String to, String subject, String htmlBody) {
+        MailOutbox mail = new MailOutbox();
+        mail.setRecipient(to);
+        mail.setSubject(subject);
+        mail.setBody(htmlBody);
+        mail.setStatus(MailStatus.PENDING);
+        mail.setNextAttemptAt(LocalDateTime.now());
+        return mailOutboxRepo.save(mail);
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:2000}",
+            initialDelayString = "${mail.outbox.initial-delay-ms:5000}")
+    public void dispatchPending() {
+        List<MailOutbox> due;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            due = mailOutboxRepo.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                    List.of(MailStatus.PENDING, MailStatus.SENDING), now, PageRequest.of(0, batchSize));
+            List<MailOutbox> batch = claim(due, now);
+            if (!batch.isEmpty()) {
+                sendBatch(batch);
+            }
+        } while (due.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.purge-interval-ms:3600000}",
+            initialDelayString = "${mail.outbox.purge-initial-delay-ms:60000}")
+    public void purgeFinished() {
+        int deleted = mailOutboxRepo.deleteFinished(List.of(MailStatus.SENT, MailStatus.DEAD),
+                LocalDateTime.now().minusNanos(retentionMillis * 1_000_000));
+        if (deleted > 0) {
+            log.info("Purged {} sent or dead-lettered mails", deleted);
+        }
+    }
+
+    // Each claim is its own short transaction; rows another instance claimed first are left to it
+    private List<MailOutbox> claim(List<MailOutbox> due, LocalDateTime now) {
+        LocalDateTime claimedUntil = now.plusNanos(claimTimeoutMillis * 1_000_000);
+        List<MailOutbox> claimed = new ArrayList<>(due.size());
+        for (MailOutbox mail : due) {
+            if (mailOutboxRepo.claim(mail.getId(), now, claimedUntil) == 1) {
+                mail.setStatus(MailStatus.SENDING);
+                mail.setNextAttemptAt(claimedUntil);
+                claimed.add(mail);
+            }
+        }
+        return claimed;
+    }
+
+    private void sendBatch(List<MailOutbox> batch) {
+        Map<MimeMessage, MailOutbox> messages = new IdentityHashMap<>();
+        for (MailOutbox mail : batch) {
+            try {
+                messages.put(toMimeMessage(mail), mail);
+            } catch (MessagingException e) {
+                // Unbuildable message (e.g. malformed address): retrying will not help
+                mail.setAttempts(mail.getAttempts() + 1);
+                mail.setLastError(String.valueOf(e.getMessage()));
+                mail.setStatus(MailStatus.DEAD);
+                log.error("Mail {} to {} dead-lettered: {}", mail.getId(), mail.getRecipient(), e.getMessage());
+            }
+        }
+
+        Map<Object, Exception> failures = Collections.emptyMap();
+        MailException batchFailure = null;
+        if (!messages.isEmpty()) {
+            try {
+                // JavaMailSenderImpl opens one transport connection for the whole array
+                mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages();
+                if (failures.isEmpty()) batchFailure = e; // Connection-level failure: nothing was sent
+            } catch (MailException e) {
+                batchFailure = e;
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<MimeMessage, MailOutbox> entry : messages.entrySet()) {
+            MailOutbox mail = entry.getValue();
+            Exception failure = batchFailure != null ? batchFailure : failures.get(entry.getKey());
+            if (failure == null) {
+                mail.setStatus(MailStatus.SENT);
+                mail.setSentAt(now);
+                mail.setLastError(null);
+            } else {
+                markFailed(mail, failure);
+            }
+        }
+        mailOutboxRepo.saveAll(batch);
+        log.debug("Mail outbox batch processed: {} messages, {} failed", batch.size(),
+                batchFailure != null ? messages.size() : failures.size());
+    }
+
+    private void markFailed(MailOutbox mail, Exception failure) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        String error = String.valueOf(failure.getMessage());
+        mail.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (attempts >= maxAttempts) {
+            mail.setStatus(MailStatus.DEAD);
+            log.error("Mail {} to {} dead-lettered after {} attempts: {}", mail.getId(), mail.getRecipient(), attempts, error);
+        } else {
+            long delay = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(attempts - 1, 20));
+            mail.setStatus(MailStatus.PENDING);
+            mail.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+            log.warn("Mail {} to {} failed (attempt {}), retrying in {} ms", mail.getId(), mail.getRecipient(), attempts, delay);
+        }
+    }
+
+    private MimeMessage toMimeMessage(MailOutbox mail) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(FROM);
+        helper.setTo(mail.getRecipient());
+        helper.setSubject(mail.getSubject());
+        helper.setText(mail.getBody(), true);
+        return message;
+    }
+}
@@ -0,0 +1,69 @@
+package com.connectbase.backend.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTML mail template compiled once into literal segments and {{placeholder}} slots,
+ * so rendering is a single pass of appends into a pre-sized buffer. Values are HTML-escaped.
+ */
+public final class MailTemplate {
+
+    private final String[] literals;     // literals.length == placeholders.length + 1
+    private final String[] placeholders;
+    private final int literalLength;
+
+    private MailTemplate(String[] literals, String[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) length += literal.length();
+        this.literalLength = length;
+    }
+
+    public static MailTemplate fromClasspath(String path) {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load mail template " + path, e);
+        }
+    }
+
+    public static MailTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            int close = open < 0 ? -1 : source.indexOf("}}", open + 2);
+            if (close < 0) {
+                literals.add(source.substring(position));
+                break;
+            }
+            literals.add(source.substring(position, open));
+            placeholders.add(source.substring(open + 2, close).trim());
+            position = close + 2;
+        }
+        return new MailTemplate(literals.toArray(String[]::new), placeholders.toArray(String[]::new));
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder out = new StringBuilder(literalLength + placeholders.length * 16);
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]);
+            String value = values.get(placeholders[i]);
+            if (value != null) {
+                out.append(HtmlUtils.htmlEscape(value));
+            }
+        }
+        return out.append(literals[literals.length - 1]).toString();
+    }
+}
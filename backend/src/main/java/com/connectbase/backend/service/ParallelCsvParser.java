@@ -0,0 +1,156 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.csv.CsvSplitter;
+import com.connectbase.backend.format.ContactFormat;
+import com.connectbase.backend.format.ContactReader;
+import com.connectbase.backend.format.CsvFormat;
+import com.connectbase.backend.format.FormatOptions;
+import com.connectbase.backend.model.Contact;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Multi-core parsing of large CSV imports. The spooled file is split into byte ranges on record boundaries
+ * ({@link CsvSplitter}), which a ForkJoin pool parses and validates. The one writer takes the parsed ranges in
+ * file order from a bounded window (two ranges per thread, at most {@code max-buffered-bytes} of the file), so
+ * inserts stay sequential and a slow database holds parsing back instead of filling the heap.
+ */
+@Component
+public class ParallelCsvParser {
+
+    // 0 means one thread per available core; 1 turns parallel parsing off
+    @Value("${contacts.import.parallel.threads:0}")
+    private int threads;
+
+    @Value("${contacts.import.parallel.chunk-bytes:1048576}")
+    private int chunkBytes;
+
+    // File bytes parsed ahead of the writer; parsed rows take a few times that on the heap
+    @Value("${contacts.import.parallel.max-buffered-bytes:8388608}")
+    private long maxBufferedBytes;
+
+    // Smaller files are parsed on the importing thread
+    @Value("${contacts.import.parallel.min-file-bytes:8388608}")
+    private long minFileBytes;
+
+    private ForkJoinPool pool;
+    private int parallelism;
+    private int window;
+
+    @PostConstruct
+    void init() {
+        parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(parallelism);
+        window = (int) Math.max(2, Math.min(2L * parallelism, maxBufferedBytes / chunkBytes));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public boolean supports(ContactFormat format, FormatOptions options, long fileSize) {
+        return parallelism > 1 && fileSize >= minFileBytes && format instanceof CsvFormat
+                && CsvSplitter.supports(options.charset(), options.delimiter());
+    }
+
+    /**
+     * Splits {@code file} and starts parsing it.
+     *
+     * @param validate the reason a contact is rejected, or null; called on the pool's threads
+     */
+    public Ranges open(Path file, CsvFormat format, FormatOptions options, Function<Contact, String> validate)
+            throws IOException {
+        List<CsvSplitter.Range> ranges = CsvSplitter.split(file, options.charset(), options.delimiter(), chunkBytes, pool);
+        return new Ranges(file, format, options, validate, ranges);
+    }
+
+    /**
+     * The parsed ranges of one file, in order. For a single consumer; closing it abandons ranges not yet taken.
+     */
+    public final class Ranges implements Closeable {
+
+        private final Path file;
+        private final CsvFormat format;
+        private final FormatOptions options;
+        private final Function<Contact, String> validate;
+        private final List<CsvSplitter.Range> ranges;
+        private final Deque<ForkJoinTask<List<ParsedRow>>> inFlight = new ArrayDeque<>();
+        private int submitted;
+        private boolean headerSkipped;
+
+        private Ranges(Path file, CsvFormat format, FormatOptions options, Function<Contact, String> validate,
+                       List<CsvSplitter.Range> ranges) {
+            this.file = file;
+            this.format = format;
+            this.options = options;
+            this.validate = validate;
+            this.ranges = ranges;
+        }
+
+        /**
+         * The rows of the next range, or null after the last.
+         *
+         * @throws IllegalArgumentException if the file cannot be read past some point (an unterminated quote)
+         */
+        public List<ParsedRow> next() throws IOException {
+            while (submitted < ranges.size() && inFlight.size() < window) {
+                CsvSplitter.Range range = ranges.get(submitted++);
+                inFlight.add(pool.submit(() -> parse(range)));
+            }
+            ForkJoinTask<List<ParsedRow>> head = inFlight.poll();
+            if (head == null) return null;
+            List<ParsedRow> rows = await(head);
+            // The header is the first record of the file (range 0 may hold nothing but blank lines)
+            if (!headerSkipped && !rows.isEmpty()) {
+                headerSkipped = true;
+                return rows.subList(1, rows.size());
+            }
+            return rows;
+        }
+
+        @Override
+        public void close() {
+            inFlight.forEach(task -> task.cancel(true));
+            inFlight.clear();
+        }
+
+        private List<ParsedRow> parse(CsvSplitter.Range range) throws IOException {
+            List<ParsedRow> rows = new ArrayList<>();
+            try (ContactReader reader = format.reader(CsvSplitter.open(file, range), options, range)) {
+                while (reader.next()) {
+                    rows.add(ParsedRow.read(reader).validated(validate));
+                }
+            }
+            return rows;
+        }
+
+        private List<ParsedRow> await(ForkJoinTask<List<ParsedRow>> task) throws IOException {
+            try {
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while parsing import");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) throw io;
+                if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.format.ContactReader;
+import com.connectbase.backend.model.Contact;
+
+import java.util.function.Function;
+
+/**
+ * One record of an import file: the contact, or why it cannot be imported.
+ */
+public record ParsedRow(long line, Contact contact, String problem) {
+
+    // A record the format cannot turn into a contact is kept with the format's message
+    static ParsedRow read(ContactReader reader) {
+        try {
+            return new ParsedRow(reader.lineNumber(), reader.contact(), null);
+        } catch (IllegalArgumentException e) {
+            return new ParsedRow(reader.lineNumber(), null, e.getMessage());
+        }
+    }
+
+    // validate returns the reason a contact is rejected, or null
+    ParsedRow validated(Function<Contact, String> validate) {
+        if (problem != null) return this;
+        String reason = validate.apply(contact);
+        return reason == null ? this : new ParsedRow(line, contact, reason);
+    }
+}
@@ -0,0 +1,11 @@
+-- Per-user contact list version behind the contact ETags and page cache keys (ContactVersionTracker), bumped in
+-- the transaction of every contact write so that all instances see it. A table of its own, so that reading it
+-- never touches the users table and contact writes never lock the user row
+CREATE TABLE contact_version (
+    user_id     BIGINT NOT NULL PRIMARY KEY,
+    version     BIGINT NOT NULL,
+    modified_at BIGINT NOT NULL,
+    CONSTRAINT fk_contact_version_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+INSERT INTO contact_version (user_id, version, modified_at) SELECT id, 0, 0 FROM users;
@@ -0,0 +1,4 @@
+-- When the pending background upload was requested (epoch ms). Only uploads older than the retry window are taken
+-- as lost with a stopped instance (ImageUploadService); NULL for rows left PENDING before this column existed
+ALTER TABLE contact ADD COLUMN image_requested_at BIGINT;
+ALTER TABLE users ADD COLUMN profile_pic_requested_at BIGINT;
@@ -0,0 +1,21 @@
+-- Lower-cased copies of the searchable columns, maintained by Contact#normalizeSearchColumns,
+-- so search no longer applies LOWER() to every row at query time.
+ALTER TABLE contact ADD COLUMN first_name_norm VARCHAR(255);
+ALTER TABLE contact ADD COLUMN last_name_norm VARCHAR(255);
+ALTER TABLE contact ADD COLUMN email_norm VARCHAR(255);
+ALTER TABLE contact ADD COLUMN title_norm VARCHAR(255);
+ALTER TABLE contact ADD COLUMN phone_norm VARCHAR(255);
+
+UPDATE contact SET
+    first_name_norm = LOWER(TRIM(first_name)),
+    last_name_norm  = LOWER(TRIM(last_name)),
+    email_norm      = LOWER(TRIM(email)),
+    title_norm      = LOWER(TRIM(title)),
+    phone_norm      = LOWER(TRIM(phone));
+
+-- Per-user listing in id order and by recency
+CREATE INDEX idx_contact_user_id ON contact (user_id, id);
+CREATE INDEX idx_contact_user_updated ON contact (user_id, updated_at);
+
+-- Per-user exact lookups by email (imports, duplicate checks)
+CREATE INDEX idx_contact_user_email ON contact (user_id, email_norm);
@@ -0,0 +1,10 @@
+-- Keyset pagination compares (sort key, id) tuples, so the sort keys must never be NULL
+UPDATE contact SET first_name_norm = '' WHERE first_name_norm IS NULL;
+UPDATE contact SET last_name_norm = '' WHERE last_name_norm IS NULL;
+UPDATE contact SET email_norm = '' WHERE email_norm IS NULL;
+UPDATE contact SET title_norm = '' WHERE title_norm IS NULL;
+UPDATE contact SET phone_norm = '' WHERE phone_norm IS NULL;
+UPDATE contact SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+
+-- Name-ordered listing: seek to (first_name_norm, id) within the user's range
+CREATE INDEX idx_contact_user_name ON contact (user_id, first_name_norm, id);
@@ -0,0 +1,3 @@
+-- Images are uploaded in the background after the row is saved (ImageUploadService); NULL = no upload requested
+ALTER TABLE contact ADD COLUMN image_status VARCHAR(16);
+ALTER TABLE users ADD COLUMN profile_pic_status VARCHAR(16);
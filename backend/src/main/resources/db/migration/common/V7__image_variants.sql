@@ -0,0 +1,5 @@
+-- Normalized images (ImageProcessor): the avatar-sized variant for lists, and the SHA-256 of the uploaded file so a
+-- user's contacts can share one stored image. NULL for images set by imports
+ALTER TABLE contact ADD COLUMN thumbnail VARCHAR(255);
+ALTER TABLE contact ADD COLUMN image_hash CHAR(64);
+CREATE INDEX idx_contact_user_image_hash ON contact (user_id, image_hash);
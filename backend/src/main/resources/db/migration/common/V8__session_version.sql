@@ -0,0 +1,2 @@
+-- Bumped by every password change or reset; refresh tokens carry the value they were issued under
+ALTER TABLE users ADD COLUMN session_version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+-- Digits-only copy of the phone, maintained by Contact#normalizeSearchColumns, so that the suggestion fallback
+-- matches "4155" against "+1 415 555 ..." as the in-memory prefix index does
+ALTER TABLE contact ADD COLUMN phone_digits VARCHAR(255);
+
+UPDATE contact SET phone_digits = REGEXP_REPLACE(COALESCE(phone, ''), '[^0-9]', '');
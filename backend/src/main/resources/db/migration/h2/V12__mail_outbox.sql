@@ -0,0 +1,16 @@
+-- Outbox of transactional mail (H2 flavour of mysql/V12__mail_outbox.sql).
+
+CREATE TABLE mail_outbox (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    recipient       VARCHAR(255)  NOT NULL,
+    subject         VARCHAR(255)  NOT NULL,
+    body            CLOB          NOT NULL,
+    status          VARCHAR(16)   NOT NULL,
+    attempts        INTEGER       NOT NULL,
+    next_attempt_at TIMESTAMP(6),
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMP(6),
+    sent_at         TIMESTAMP(6)
+);
+
+CREATE INDEX idx_mail_outbox_status_next ON mail_outbox (status, next_attempt_at);
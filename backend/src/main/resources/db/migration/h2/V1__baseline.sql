@@ -0,0 +1,29 @@
+-- Baseline schema (H2 flavour of mysql/V1__baseline.sql, used by tests).
+
+CREATE TABLE users (
+    id                       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email                    VARCHAR(255) NOT NULL,
+    password                 VARCHAR(255),
+    first_name               VARCHAR(255),
+    last_name                VARCHAR(255),
+    phone                    VARCHAR(255),
+    gender                   VARCHAR(255),
+    profile_pic              VARCHAR(255),
+    verification_code        VARCHAR(255),
+    verification_code_expiry TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE contact (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255),
+    title      VARCHAR(255),
+    image      VARCHAR(255),
+    email      VARCHAR(255),
+    phone      VARCHAR(255),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    user_id    BIGINT,
+    CONSTRAINT fk_contact_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
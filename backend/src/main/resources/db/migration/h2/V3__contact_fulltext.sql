@@ -0,0 +1,2 @@
+-- H2 has no FULLTEXT index; contacts.search.fulltext.enabled stays false on H2 and search uses LIKE.
+SELECT 1;
@@ -0,0 +1,5 @@
+-- Id pools for the Contact and User generators (pooled-lo, blocks of IdBlockAllocator.BLOCK_SIZE), replacing IDENTITY
+-- so that inserts can be batched. The H2 database is created empty by the tests, so the pools start at 1; the
+-- identity columns are left in place but no longer used.
+CREATE SEQUENCE contact_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
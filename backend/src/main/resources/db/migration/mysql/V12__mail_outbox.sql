@@ -0,0 +1,18 @@
+-- Outbox of transactional mail (MailOutboxService): written in the transaction of the change that sends it,
+-- delivered by the dispatcher with retries.
+
+CREATE TABLE mail_outbox (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    recipient       VARCHAR(255) NOT NULL,
+    subject         VARCHAR(255) NOT NULL,
+    body            LONGTEXT     NOT NULL,
+    status          VARCHAR(16)  NOT NULL,
+    attempts        INT          NOT NULL,
+    next_attempt_at DATETIME(6),
+    last_error      VARCHAR(1000),
+    created_at      DATETIME(6),
+    sent_at         DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_mail_outbox_status_next ON mail_outbox (status, next_attempt_at);
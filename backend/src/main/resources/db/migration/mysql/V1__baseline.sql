@@ -0,0 +1,33 @@
+-- Baseline schema as previously generated by hibernate.ddl-auto=update.
+-- Existing databases already have these tables: Flyway baselines them at version 1 (spring.flyway.baseline-on-migrate)
+-- and only applies later versions.
+
+CREATE TABLE users (
+    id                       BIGINT       NOT NULL AUTO_INCREMENT,
+    email                    VARCHAR(255) NOT NULL,
+    password                 VARCHAR(255),
+    first_name               VARCHAR(255),
+    last_name                VARCHAR(255),
+    phone                    VARCHAR(255),
+    gender                   VARCHAR(255),
+    profile_pic              VARCHAR(255),
+    verification_code        VARCHAR(255),
+    verification_code_expiry DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE contact (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255),
+    title      VARCHAR(255),
+    image      VARCHAR(255),
+    email      VARCHAR(255),
+    phone      VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    user_id    BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_contact_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,2 @@
+-- Word-prefix search over the normalized columns (ContactRepo#searchContactsFullText)
+CREATE FULLTEXT INDEX ft_contact_search ON contact (first_name_norm, last_name_norm, email_norm, title_norm, phone_norm);
@@ -0,0 +1,14 @@
+-- Id pools for the Contact and User generators (pooled-lo, blocks of IdBlockAllocator.BLOCK_SIZE), replacing
+-- AUTO_INCREMENT so that inserts can be batched. MySQL has no sequences: each pool is a one-row table whose next_val
+-- is the low end of the next block, which is what Hibernate uses in their place.
+-- Seeded past the existing ids. AUTO_INCREMENT stays on the columns but must not be used from now on: an instance
+-- still inserting without an id would collide with the pools, so stop the previous version before migrating.
+CREATE TABLE contact_seq (
+    next_val BIGINT NOT NULL
+) ENGINE = InnoDB;
+INSERT INTO contact_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM contact;
+
+CREATE TABLE users_seq (
+    next_val BIGINT NOT NULL
+) ENGINE = InnoDB;
+INSERT INTO users_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM users;
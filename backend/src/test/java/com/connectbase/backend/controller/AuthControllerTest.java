@@ -1,7 +1,9 @@
 package com.connectbase.backend.controller;
 
 import com.connectbase.backend.model.User;
+import com.connectbase.backend.security.AuthRateLimiter;
 import com.connectbase.backend.security.JwtUtils;
+import com.connectbase.backend.security.RefreshTokenService;
 import com.connectbase.backend.service.AuthService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -31,6 +33,12 @@ class AuthControllerTest {
     @MockBean
     private JwtUtils jwtUtils;
 
+    @MockBean
+    private AuthRateLimiter authRateLimiter;
+
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -42,8 +50,8 @@ class AuthControllerTest {
         mockUser.setFirstName("Test");
 
         when(authService.loginUser(anyString(), anyString())).thenReturn(mockUser);
-        when(jwtUtils.generateAccessToken(anyString())).thenReturn("mock-access-token");
-        when(jwtUtils.generateRefreshToken(anyString())).thenReturn("mock-refresh-token");
+        when(jwtUtils.generateAccessToken(any(User.class))).thenReturn("mock-access-token");
+        when(jwtUtils.generateRefreshToken(any(User.class))).thenReturn("mock-refresh-token");
 
         // Act & Assert
         mockMvc.perform(post("/auth/login")
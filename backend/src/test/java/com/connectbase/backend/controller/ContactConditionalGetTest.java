@@ -0,0 +1,258 @@
+package com.connectbase.backend.controller;
+
+import com.connectbase.backend.model.Contact;
+import com.connectbase.backend.model.User;
+import com.connectbase.backend.repo.ContactRepo;
+import com.connectbase.backend.repo.ContactVersionRepo;
+import com.connectbase.backend.repo.UserRepo;
+import com.connectbase.backend.security.JwtUtils;
+import com.connectbase.backend.service.ContactService;
+import com.connectbase.backend.service.ContactVersionTracker;
+import com.connectbase.backend.support.SqlStatementRecorder;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Real Tomcat (for compression) plus MockMvc (for byte and SQL accounting) against 100 realistic contacts
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.connectbase.backend.support.SqlStatementRecorder",
+        "server.compression.enabled=true",
+        "server.compression.mime-types=application/json,text/csv",
+        "server.compression.min-response-size=2KB"})
+@AutoConfigureMockMvc
+class ContactConditionalGetTest {
+
+    private static final String[] FIRST_NAMES = {"Olivia", "Liam", "Amelia", "Noah", "Sofia", "Mateo", "Priya", "Kenji", "Fatima", "Lucas"};
+    private static final String[] LAST_NAMES = {"García", "Nguyen", "Okafor", "Schmidt", "Kowalski", "Haddad", "Tanaka", "O'Brien", "Silva", "Patel"};
+    private static final String[] TITLES = {"Account Executive", "Senior Software Engineer", "Head of Procurement",
+            "Marketing Manager", "Chief Financial Officer"};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private ContactVersionRepo contactVersionRepo;
+
+    @Autowired
+    private ContactRepo contactRepo;
+
+    @Autowired
+    private ContactService contactService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    private User user;
+    private Cookie accessToken;
+    private List<Contact> contacts;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepo.save(newUser("etag-owner@example.com"));
+        contacts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String first = FIRST_NAMES[i % FIRST_NAMES.length];
+            String last = LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+            Contact contact = new Contact();
+            contact.setFirstName(first);
+            contact.setLastName(last);
+            contact.setEmail(first.toLowerCase() + "." + last.toLowerCase().replace("'", "") + i + "@example-corp.com");
+            contact.setPhone("+1 (415) 555-" + String.format("%04d", i));
+            contact.setTitle(TITLES[i % TITLES.length]);
+            contact.setImage("https://res.cloudinary.com/connectbase/image/upload/v1712345678/contacts/avatar_" + i + ".jpg");
+            contact.setUser(user);
+            contacts.add(contact);
+        }
+        contacts = contactRepo.saveAll(contacts);
+        accessToken = new Cookie("accessToken", jwtUtils.generateAccessToken(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        contactRepo.deleteAll();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void revalidatingUnchangedReadsCostsNoBodyAndNoContactQueries() throws Exception {
+        List<String> urls = List.of(
+                "/api/contacts?page=0&size=100",
+                "/api/contacts?sort=name",
+                "/api/contact/" + contacts.get(0).getId(),
+                "/api/contacts/search?query=engineer&size=50",
+                "/api/contacts/export");
+
+        for (String url : urls) {
+            MvcResult full = mockMvc.perform(get(url).cookie(accessToken))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                    .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                    .andReturn();
+            String eTag = full.getResponse().getHeader(HttpHeaders.ETAG);
+            assertThat(eTag).as(url).isNotBlank();
+
+            SqlStatementRecorder.clear();
+            MvcResult revalidated = mockMvc.perform(get(url).cookie(accessToken).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                    .andReturn();
+
+            assertThat(revalidated.getResponse().getContentAsByteArray()).as(url).isEmpty();
+            assertThat(full.getResponse().getContentAsByteArray().length).as(url).isGreaterThan(200);
+            assertThat(SqlStatementRecorder.statementsTouching("contact")).as(url).isEmpty();
+        }
+    }
+
+    @Test
+    void everyWriteInvalidatesTheETag() throws Exception {
+        String eTag = eTagOf("/api/contacts?page=0&size=100");
+
+        Contact changes = new Contact();
+        changes.setTitle("VP of Sales");
+        contactService.updateContact(contacts.get(0).getId(), user.getId(), changes, null);
+        String afterUpdate = eTagOf("/api/contacts?page=0&size=100");
+        assertThat(afterUpdate).isNotEqualTo(eTag);
+
+        mockMvc.perform(get("/api/contacts?page=0&size=100").cookie(accessToken).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, afterUpdate));
+
+        contactService.deleteContact(contacts.get(1).getId(), user.getId());
+        assertThat(eTagOf("/api/contacts?page=0&size=100")).isNotEqualTo(afterUpdate);
+    }
+
+    @Test
+    void eTagIsTheSameOnEveryInstance() throws Exception {
+        String eTag = eTagOf("/api/contacts");
+        // A second instance (or this one after a restart) reads the same persisted version
+        ContactVersionTracker otherInstance = new ContactVersionTracker();
+        ReflectionTestUtils.setField(otherInstance, "contactVersionRepo", contactVersionRepo);
+        assertThat(otherInstance.current(user.getId()).eTag()).isEqualTo(eTag);
+
+        contactService.deleteContact(contacts.get(0).getId(), user.getId());
+
+        assertThat(otherInstance.current(user.getId()).eTag()).isNotEqualTo(eTag).isEqualTo(eTagOf("/api/contacts"));
+    }
+
+    @Test
+    void fuzzyFallbackResultsAreNotRevalidatedOnceTheIndexIsWarm() throws Exception {
+        String url = "/api/contacts/search?query=engneer&mode=fuzzy";
+        String exactETag = eTagOf("/api/contacts/search?query=engineer");
+
+        // Cold index: exact matches, with nothing a client could revalidate them with
+        mockMvc.perform(get(url).cookie(accessToken).header(HttpHeaders.IF_NONE_MATCH, exactETag))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+
+        for (int attempt = 0; attempt < 200 && !contactService.isFuzzySearchReady(user.getId()); attempt++) {
+            Thread.sleep(25);
+        }
+        String rankedETag = eTagOf(url);
+        assertThat(rankedETag).isNotEqualTo(exactETag);
+        mockMvc.perform(get(url).cookie(accessToken).header(HttpHeaders.IF_NONE_MATCH, exactETag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(url).cookie(accessToken).header(HttpHeaders.IF_NONE_MATCH, rankedETag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void eTagIsNotSharedBetweenUsers() throws Exception {
+        String ownerETag = eTagOf("/api/contacts");
+        User other = userRepo.save(newUser("etag-other@example.com"));
+        Cookie otherToken = new Cookie("accessToken", jwtUtils.generateAccessToken(other));
+
+        // Same URL in the same browser after switching accounts
+        mockMvc.perform(get("/api/contacts").cookie(otherToken).header(HttpHeaders.IF_NONE_MATCH, ownerETag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void largeBodiesAreGzippedAndStillRevalidate() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        String url = "http://localhost:" + port + "/api/contacts?page=0&size=100";
+
+        HttpResponse<byte[]> identity = client.send(request(url).build(), HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> gzip = client.send(request(url).header("Accept-Encoding", "gzip").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(identity.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(gzip.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(gunzip(gzip.body())).isEqualTo(identity.body());
+        assertThat(gzip.body().length)
+                .as("gzip %d bytes vs identity %d bytes", gzip.body().length, identity.body().length)
+                .isLessThan(identity.body().length / 4);
+
+        // Tomcat weakens the ETag of a compressed body; weak comparison still matches on revalidation
+        String eTag = gzip.headers().firstValue("ETag").orElseThrow();
+        HttpResponse<byte[]> revalidated = client.send(request(url).header("Accept-Encoding", "gzip")
+                .header("If-None-Match", eTag).build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(revalidated.statusCode()).isEqualTo(304);
+        assertThat(revalidated.body()).isEmpty();
+    }
+
+    @Test
+    void smallBodiesAreNotCompressed() throws Exception {
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(
+                request("http://localhost:" + port + "/api/contact/" + contacts.get(0).getId())
+                        .header("Accept-Encoding", "gzip").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+    }
+
+    private String eTagOf(String url) throws Exception {
+        return mockMvc.perform(get(url).cookie(accessToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private HttpRequest.Builder request(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Cookie", "accessToken=" + accessToken.getValue());
+    }
+
+    private static User newUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("Owner");
+        user.setPassword("password");
+        return user;
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.connectbase.backend.controller;
+
+import com.connectbase.backend.model.Contact;
+import com.connectbase.backend.model.User;
+import com.connectbase.backend.repo.ContactRepo;
+import com.connectbase.backend.repo.UserRepo;
+import com.connectbase.backend.security.JwtUtils;
+import com.connectbase.backend.service.ImageCleanupService;
+import com.connectbase.backend.support.SqlStatementRecorder;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Real Tomcat as well, so uploads go through the multipart limits
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.connectbase.backend.support.SqlStatementRecorder")
+@AutoConfigureMockMvc
+class ContactControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private ContactRepo contactRepo;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private ImageCleanupService imageCleanupService;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Value("${contacts.import.parallel.min-file-bytes}")
+    private long parallelMinFileBytes;
+
+    private User user;
+    private Cookie accessToken;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("owner@example.com");
+        user.setFirstName("Owner");
+        user.setPassword("password");
+        user = userRepo.save(user);
+
+        Contact contact = new Contact();
+        contact.setFirstName("Alice");
+        contact.setLastName("Smith");
+        contact.setEmail("alice@test.com");
+        contact.setUser(user);
+        contactRepo.save(contact);
+
+        accessToken = new Cookie("accessToken", jwtUtils.generateAccessToken(user));
+        SqlStatementRecorder.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        contactRepo.deleteAll();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void getContacts_ShouldNotQueryUsersTable() throws Exception {
+        mockMvc.perform(get("/api/contacts").cookie(accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].firstName").value("Alice"));
+
+        assertThat(SqlStatementRecorder.statementsTouching("contact")).isNotEmpty();
+        assertThat(SqlStatementRecorder.statementsTouching("users")).isEmpty();
+    }
+
+    @Test
+    void searchContacts_ShouldNotQueryUsersTable() throws Exception {
+        mockMvc.perform(get("/api/contacts/search").param("query", "ali").cookie(accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].email").value("alice@test.com"));
+
+        assertThat(SqlStatementRecorder.statementsTouching("users")).isEmpty();
+    }
+
+    @Test
+    void importContacts_ShouldWriteEveryChunkAndReportThroughput() throws Exception {
+        mockMvc.perform(multipart("/api/contacts/import").file(csv(2500, false)).cookie(accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.imported").value(2500))
+                .andExpect(jsonPath("$.data.rowsPerSecond").isNumber());
+
+        assertThat(contactRepo.countByUserId(user.getId())).isEqualTo(2501);
+        mockMvc.perform(get("/api/contacts/search").param("query", "person2499@").cookie(accessToken))
+                .andExpect(jsonPath("$.data.totalElements").value(1));
+    }
+
+    @Test
+    void importContacts_SkipsRowsAlreadyImported() throws Exception {
+        mockMvc.perform(multipart("/api/contacts/import").file(csv(2500, false)).cookie(accessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(multipart("/api/contacts/import").file(csv(2500, false)).cookie(accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.imported").value(0))
+                .andExpect(jsonPath("$.data.duplicatesSkipped").value(2500));
+
+        assertThat(contactRepo.countByUserId(user.getId())).isEqualTo(2501);
+    }
+
+    @Test
+    void importContacts_MergeFillsBlankFieldsOfExistingAndEarlierRows() throws Exception {
+        String body = "First Name,Last Name,Email,Phone,Title\n"
+                + "Alicia,Smith,ALICE@test.com,555-0199,CTO\n"          // Existing Alice: keeps her name, gains phone and title
+                + "Bob,,bob@example.com,,\n"
+                + "Robert,Jones,Bob@Example.com,(555) 0100,Engineer\n"  // Earlier row: fills its blanks
+                + "Dan,Brown,,555 0100,\n";                             // No email: matches Bob by phone digits
+        MockMultipartFile file = new MockMultipartFile("file", "contacts.csv", "text/csv", body.getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/api/contacts/import").file(file).param("duplicates", "merge").cookie(accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.imported").value(1))
+                .andExpect(jsonPath("$.data.duplicatesMerged").value(3));
+
+        assertThat(contactRepo.countByUserId(user.getId())).isEqualTo(2);
+        String export = mockMvc.perform(get("/api/contacts/export").cookie(accessToken))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(export).contains("Alice,Smith,alice@test.com,555-0199,CTO,", "Bob,Jones,bob@example.com,(555) 0100,Engineer,");
+    }
+
+    @Test
+    void importContacts_ShouldRollBackEarlierChunks_WhenALaterRowIsInvalid() throws Exception {
+        mockMvc.perform(multipart("/api/contacts/import").file(csv(2500, true)).cookie(accessToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("line 2502")));
+
+        assertThat(contactRepo.countByUserId(user.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void importContacts_AsyncJobSkipsAndReportsInvalidRows() throws Exception {
+        String body = "First Name,Last Name,Email,Phone,Title\n"
+                + "Bob,Jones,bob@example.com,+1 (415) 555-0100,Engineer\n"
+                + "Bad,Email,not-an-email,555-0100,Engineer\n"
+                + "Bad,Phone,phone@example.com,call me,Engineer\n"
+                + "Too,Few\n"
+                + "Carol,White,carol@example.com,555-0101 ext 12,Manager\n";
+        MockMultipartFile file = new MockMultipartFile("file", "contacts.csv", "text/csv", body.getBytes(StandardCharsets.UTF_8));
+
+        String location = mockMvc.perform(multipart("/api/contacts/import").file(file).param("async", "true").cookie(accessToken))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.data.state").exists())
+                .andReturn().getResponse().getHeader("Location");
+
+        String state = "QUEUED";
+        for (int attempt = 0; attempt < 100 && (state.equals("QUEUED") || state.equals("RUNNING")); attempt++) {
+            Thread.sleep(50);
+            state = com.jayway.jsonpath.JsonPath.read(mockMvc.perform(get(location).cookie(accessToken))
+                    .andReturn().getResponse().getContentAsString(), "$.data.state");
+        }
+        mockMvc.perform(get(location).cookie(accessToken))
+                .andExpect(jsonPath("$.data.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.data.rowsProcessed").value(5))
+                .andExpect(jsonPath("$.data.rowsImported").value(2))
+                .andExpect(jsonPath("$.data.rowsRejected").value(3))
+                .andExpect(jsonPath("$.data.rejections[*].line").value(org.hamcrest.Matchers.contains(3, 4, 5)));
+        assertThat(contactRepo.countByUserId(user.getId())).isEqualTo(3);
+
+        // Jobs are private to their owner
+        User other = new User();
+        other.setEmail("other@example.com");
+        other.setFirstName("Other");
+        other.setPassword("password");
+        other = userRepo.save(other);
+        mockMvc.perform(get(location).cookie(new Cookie("accessToken", jwtUtils.generateAccessToken(other))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportContacts_GzipDownloadMatchesPlainCsv() throws Exception {
+        mockMvc.perform(multipart("/api/contacts/import").file(csv(2500, false)).cookie(accessToken))
+                .andExpect(status().isOk());
+
+        byte[] plain = mockMvc.perform(get("/api/contacts/export").cookie(accessToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"contacts.csv\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] gzipped = mockMvc.perform(get("/api/contacts/export").param("gzip", "true").cookie(accessToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"contacts.csv.gz\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(new String(plain, StandardCharsets.UTF_8))
+                .startsWith("First Name,Last Name,Email,Phone,Title,Image URL\r\nAlice,Smith,alice@test.com,,,\r\n")
+                .hasLineCount(2502);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain);
+        }
+        assertThat(gzipped.length).isLessThan(plain.length / 4);
+        // Projection only: no entities, no join to users
+        assertThat(SqlStatementRecorder.statementsTouching("users")).isEmpty();
+    }
+
+    @Test
+    void exportContacts_NegotiatesVCardAndImportsItBack() throws Exception {
+        String vcard = mockMvc.perform(get("/api/contacts/export").header("Accept", "text/vcard").cookie(accessToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/vcard;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"contacts.vcf\""))
+                .andExpect(header().string("Vary", org.hamcrest.Matchers.containsString("Accept")))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(vcard).startsWith("BEGIN:VCARD\r\nVERSION:4.0\r\nFN:Alice Smith\r\nN:Smith;Alice;;;\r\n");
+
+        // A phone's export: 3.0, folded, sent as a generic binary upload so only the extension identifies it
+        String upload = vcard + "BEGIN:VCARD\r\nVERSION:3.0\r\nN:Jones;Bob;;;\r\nEMAIL;TYPE=INTERNET:bob@exa\r\n mple.com\r\n"
+                + "TEL;TYPE=CELL:555-0100\r\nPHOTO;ENCODING=b;TYPE=JPEG:/9j/4AAQ\r\nEND:VCARD\r\n";
+        MockMultipartFile file = new MockMultipartFile("file", "contacts.vcf", "application/octet-stream",
+                upload.getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(multipart("/api/contacts/import").file(file).cookie(accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.imported").value(1))
+                .andExpect(jsonPath("$.data.duplicatesSkipped").value(1));
+
+        String ndjson = mockMvc.perform(get("/api/contacts/export").param("format", "ndjson").cookie(accessToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"contacts.ndjson\""))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(ndjson.lines()).hasSize(2).anyMatch(line -> line.contains("\"email\":\"bob@example.com\""));
+    }
+
+    @Test
+    void importContacts_AcceptsFilesLargeEnoughForParallelParsing() throws Exception {
+        // Rows of about 260 bytes: 11 MB is over the old 10 MB cap and over the parallel threshold
+        String title = "Senior Engineer ".repeat(13);
+        StringBuilder csv = new StringBuilder("First Name,Last Name,Email,Phone,Title,Image URL\n");
+        int rows = 0;
+        while (csv.length() < 11 * 1024 * 1024) {
+            csv.append("First").append(rows).append(",Last,person").append(rows).append("@example.com,555-0100,")
+                    .append(title).append(",\n");
+            rows++;
+        }
+        byte[] file = csv.toString().getBytes(StandardCharsets.UTF_8);
+        assertThat((long) file.length).isGreaterThanOrEqualTo(parallelMinFileBytes);
+
+        String boundary = "----contacts-import";
+        byte[] head = ("--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"contacts.csv\"\r\n"
+                + "Content-Type: text/csv\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/contacts/import"))
+                .header("Cookie", "accessToken=" + accessToken.getValue())
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(List.of(head, file, tail)))
+                .build();
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+        assertThat(response.body()).contains("\"imported\":" + rows);
+        assertThat(contactRepo.countByUserId(user.getId())).isEqualTo(rows + 1);
+    }
+
+    @Test
+    void importContacts_RejectsUnknownFileTypes() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "contacts.xlsx", "application/octet-stream", new byte[]{1});
+
+        mockMvc.perform(multipart("/api/contacts/import").file(file).cookie(accessToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid file type. Please upload a .csv, .vcf or .ndjson file."));
+    }
+
+    @Test
+    void bulkDelete_RemovesOnlyOwnContactsInOneStatementAndQueuesTheirImages() throws Exception {
+        User other = new User();
+        other.setEmail("other@example.com");
+        other.setFirstName("Other");
+        other.setPassword("password");
+        other = userRepo.save(other);
+        Contact foreign = new Contact();
+        foreign.setFirstName("Mallory");
+        foreign.setUser(other);
+        foreign = contactRepo.save(foreign);
+
+        List<Contact> contacts = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Contact contact = new Contact();
+            contact.setFirstName("Bulk" + i);
+            contact.setImage(i % 2 == 0 ? "https://res.cloudinary.com/demo/image/upload/v1/bulk" + i + ".jpg" : null);
+            contact.setUser(user);
+            contacts.add(contact);
+        }
+        StringJoiner ids = new StringJoiner(",", "[", "]");
+        contactRepo.saveAll(contacts).forEach(contact -> ids.add(Long.toString(contact.getId())));
+        ids.add(Long.toString(foreign.getId()));
+        int queuedBefore = imageCleanupService.pendingCount();
+        SqlStatementRecorder.clear();
+
+        mockMvc.perform(post("/api/contacts/bulk-delete").cookie(accessToken)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"ids\":" + ids + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.affected").value(300))
+                .andExpect(jsonPath("$.data.imagesQueued").value(150));
+
+        // One query for the images, one DELETE
+        assertThat(SqlStatementRecorder.statementsTouching("contact")).hasSize(2);
+        assertThat(contactRepo.countByUserId(user.getId())).isEqualTo(1);
+        assertThat(contactRepo.existsById(foreign.getId())).isTrue();
+        assertThat(imageCleanupService.pendingCount() - queuedBefore).isEqualTo(150);
+    }
+
+    @Test
+    void bulkDelete_KeepsImagesThatRemainingContactsShare() throws Exception {
+        String shared = "a".repeat(64);
+        Contact first = imageContact("First", "shared", shared);
+        Contact second = imageContact("Second", "shared", shared);
+        Contact own = imageContact("Own", "own", "b".repeat(64));
+        contactRepo.saveAll(List.of(first, second, own));
+        int queuedBefore = imageCleanupService.pendingCount();
+
+        mockMvc.perform(post("/api/contacts/bulk-delete").cookie(accessToken).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + first.getId() + "," + own.getId() + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.affected").value(2))
+                .andExpect(jsonPath("$.data.imagesQueued").value(1));
+
+        // The second contact still uses the shared files; the other image goes with its thumbnail
+        assertThat(imageCleanupService.pendingCount() - queuedBefore).isEqualTo(2);
+    }
+
+    @Test
+    void bulkUpdate_SetsFieldsOnContactsMatchingTheQuery() throws Exception {
+        Contact carol = new Contact();
+        carol.setFirstName("Carol");
+        carol.setLastName("Smith");
+        carol.setUser(user);
+        Contact dave = new Contact();
+        dave.setFirstName("Dave");
+        dave.setLastName("Brown");
+        dave.setUser(user);
+        contactRepo.saveAll(List.of(carol, dave));
+
+        mockMvc.perform(post("/api/contacts/bulk-update").cookie(accessToken)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"query\":\"smith\",\"title\":\"Director\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.affected").value(2));
+
+        // The search columns were updated with the values, and cached pages are stale
+        mockMvc.perform(get("/api/contacts/search").param("query", "director").cookie(accessToken))
+                .andExpect(jsonPath("$.data.totalElements").value(2));
+
+        mockMvc.perform(post("/api/contacts/bulk-update").cookie(accessToken)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[1],\"query\":\"smith\",\"title\":\"x\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Select contacts by either ids or query"));
+    }
+
+    private static MockMultipartFile csv(int rows, boolean invalidLastRow) {
+        StringBuilder csv = new StringBuilder("First Name,Last Name,Email,Phone,Title,Image URL\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("First").append(i).append(",Last,person").append(i).append("@example.com,555-0100,Engineer,\n");
+        }
+        if (invalidLastRow) {
+            csv.append("Too,Few,Columns\n");
+        }
+        return new MockMultipartFile("file", "contacts.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void getContacts_ShouldRejectMissingToken() throws Exception {
+        mockMvc.perform(get("/api/contacts"))
+                .andExpect(status().isForbidden());
+    }
+
+    private Contact imageContact(String firstName, String image, String hash) {
+        Contact contact = new Contact();
+        contact.setFirstName(firstName);
+        contact.setImage("https://res.cloudinary.com/demo/image/upload/v1/" + image + ".jpg");
+        contact.setThumbnail("https://res.cloudinary.com/demo/image/upload/v1/" + image + "_thumb.jpg");
+        contact.setImageHash(hash);
+        contact.setUser(user);
+        return contact;
+    }
+}
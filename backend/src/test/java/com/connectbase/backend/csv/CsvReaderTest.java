@@ -0,0 +1,122 @@
+package com.connectbase.backend.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTest {
+
+    @Test
+    void readsPlainAndQuotedFields() throws IOException {
+        assertThat(readAll("a,b,c\n\"x, y\",\"say \"\"hi\"\"\",\n"))
+                .containsExactly(List.of("a", "b", "c"), List.of("x, y", "say \"hi\"", ""));
+    }
+
+    @Test
+    void quotedFieldsMayContainLineBreaks() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("name,notes\nAda,\"line one\r\nline two\"\nBob,x\n"), ',');
+
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.field(1)).isEqualTo("line one\r\nline two");
+        assertThat(reader.lineNumber()).isEqualTo(2);
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.field(0)).isEqualTo("Bob");
+        assertThat(reader.lineNumber()).isEqualTo(4);
+        assertThat(reader.next()).isFalse();
+    }
+
+    @Test
+    void acceptsCrLfLoneCrAndMissingFinalNewline() throws IOException {
+        assertThat(readAll("a,b\r\nc,d\re,f"))
+                .containsExactly(List.of("a", "b"), List.of("c", "d"), List.of("e", "f"));
+    }
+
+    @Test
+    void blankLinesAreSingleEmptyRecords() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a\n   \n\nb\n"), ',');
+        List<Boolean> blank = new ArrayList<>();
+        while (reader.next()) blank.add(reader.isBlankRecord());
+
+        assertThat(blank).containsExactly(false, true, true, false);
+    }
+
+    @Test
+    void skipsByteOrderMarkAndHonoursCharset() throws IOException {
+        byte[] utf8 = "\uFEFFFirst Name;Last Name\nZoë;Ørsted\n".getBytes(StandardCharsets.UTF_8);
+        byte[] latin1 = "Zoë;Ørsted\n".getBytes(StandardCharsets.ISO_8859_1);
+
+        assertThat(readAll(CsvReader.open(new ByteArrayInputStream(utf8), StandardCharsets.UTF_8, ';')))
+                .containsExactly(List.of("First Name", "Last Name"), List.of("Zoë", "Ørsted"));
+        assertThat(readAll(CsvReader.open(new ByteArrayInputStream(latin1), Charset.forName("ISO-8859-1"), ';')))
+                .containsExactly(List.of("Zoë", "Ørsted"));
+    }
+
+    @Test
+    void supportsOtherDelimiters() throws IOException {
+        assertThat(readAll(new CsvReader(new StringReader("a\tb,c\t\"d\te\"\n"), '\t')))
+                .containsExactly(List.of("a", "b,c", "d\te"));
+        assertThatThrownBy(() -> new CsvReader(new StringReader(""), '"')).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void isLenientAboutStrayQuotes() throws IOException {
+        assertThat(readAll("O\"Brien,\"quoted\" tail\n"))
+                .containsExactly(List.of("O\"Brien", "quoted tail"));
+    }
+
+    @Test
+    void rejectsUnterminatedQuote() {
+        assertThatThrownBy(() -> readAll("a,b\nc,\"never closed\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 2");
+    }
+
+    @Test
+    void handlesFieldsLongerThanTheBuffer() throws IOException {
+        String longField = "x".repeat(50_000) + ",\"" + "y,".repeat(20_000) + "\"";
+
+        List<List<String>> records = readAll(longField + "\n");
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).get(0)).hasSize(50_000);
+        assertThat(records.get(0).get(1)).hasSize(40_000);
+    }
+
+    // Reads back exactly what CsvWriter wrote, including the awkward cases
+    @Test
+    void roundTripsThroughWriter() throws IOException {
+        List<List<String>> rows = List.of(
+                List.of("plain", "with,comma", "with \"quotes\"", "multi\nline", " padded ", ""),
+                List.of("", "", "", "", "", "last"));
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out, ',');
+        for (List<String> row : rows) writer.record(row.toArray(String[]::new));
+
+        assertThat(readAll(out.toString())).isEqualTo(rows);
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        return readAll(new CsvReader(new StringReader(csv), ','));
+    }
+
+    private static List<List<String>> readAll(CsvReader reader) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        while (reader.next()) {
+            List<String> fields = new ArrayList<>();
+            for (int i = 0; i < reader.fieldCount(); i++) fields.add(reader.field(i));
+            records.add(fields);
+        }
+        return records;
+    }
+}
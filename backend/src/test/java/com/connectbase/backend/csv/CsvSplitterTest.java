@@ -0,0 +1,129 @@
+package com.connectbase.backend.csv;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvSplitterTest {
+
+    // Quoted line breaks and delimiters, doubled quotes, stray quotes in unquoted fields, text after a closing
+    // quote, CRLF, lone CR, blank lines, multi-byte characters and a byte order mark
+    private static final String TRICKY = "\uFEFF\"First\",Last,Notes\r\n"
+            + "Ada,Lovelace,\"line one\r\nline two, \"\"quoted\"\"\"\r\n"
+            + "\r\n"
+            + "Bob,O\"Brien,5\" tall\n"
+            + "Zoë,\"Ünïcode\"tail,\"\"\"\"\r"
+            + "Carl,\"\n\n\",x\n"
+            + "last,row,\"no newline\"";
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void rangesReadTheSameRecordsAndLinesAsOnePassAtEveryCut() throws IOException {
+        Path file = write(TRICKY, StandardCharsets.UTF_8);
+        List<String> expected = readSequentially(file, StandardCharsets.UTF_8);
+
+        for (int target = 1; target <= Files.size(file); target++) {
+            List<CsvSplitter.Range> ranges = CsvSplitter.split(file, StandardCharsets.UTF_8, ',', target, pool);
+
+            assertThat(readRanges(file, ranges, StandardCharsets.UTF_8)).as("target %d", target).isEqualTo(expected);
+            assertThat(ranges.get(0).start()).isZero();
+            assertThat(ranges.get(ranges.size() - 1).end()).isEqualTo(Files.size(file));
+            for (int i = 1; i < ranges.size(); i++) {
+                assertThat(ranges.get(i).start()).isEqualTo(ranges.get(i - 1).end());
+            }
+        }
+    }
+
+    @Test
+    void singleByteCharsetsAndOtherDelimitersSplitToo() throws IOException {
+        Charset latin1 = StandardCharsets.ISO_8859_1;
+        Path file = write("a;b\n\"x;\ny\";é\nc;d\n", latin1);
+
+        List<CsvSplitter.Range> ranges = CsvSplitter.split(file, latin1, ';', 3, pool);
+
+        assertThat(ranges).hasSizeGreaterThan(1);
+        assertThat(readRanges(file, ranges, latin1, ';')).containsExactly("1:[a][b]", "2:[x;\ny][é]", "4:[c][d]");
+    }
+
+    @Test
+    void anUnterminatedQuoteFailsInTheLastRangeWithItsLine() throws IOException {
+        Path file = write("a,b\nc,d\n\"open,e\nf,g\nh,i\n", StandardCharsets.UTF_8);
+
+        List<CsvSplitter.Range> ranges = CsvSplitter.split(file, StandardCharsets.UTF_8, ',', 2, pool);
+
+        // Nothing after the open quote can start a record
+        assertThat(ranges.get(ranges.size() - 1).start()).isEqualTo(8);
+        assertThatThrownBy(() -> readRanges(file, ranges, StandardCharsets.UTF_8))
+                .hasMessage("Unterminated quoted field starting on line 3");
+    }
+
+    @Test
+    void multiByteOrWideCharsetsAreNotSplit() {
+        assertThat(CsvSplitter.supports(StandardCharsets.UTF_8, ',')).isTrue();
+        assertThat(CsvSplitter.supports(Charset.forName("windows-1252"), '\t')).isTrue();
+        assertThat(CsvSplitter.supports(StandardCharsets.UTF_16, ',')).isFalse();
+        assertThat(CsvSplitter.supports(StandardCharsets.UTF_8, '§')).isFalse();
+    }
+
+    private Path write(String content, Charset charset) throws IOException {
+        return Files.write(dir.resolve("contacts.csv"), content.getBytes(charset));
+    }
+
+    private static List<String> readSequentially(Path file, Charset charset) throws IOException {
+        try (CsvReader reader = CsvReader.open(Files.newInputStream(file), charset, ',')) {
+            List<String> records = new ArrayList<>();
+            while (reader.next()) records.add(record(reader));
+            return records;
+        }
+    }
+
+    private static List<String> readRanges(Path file, List<CsvSplitter.Range> ranges, Charset charset) throws IOException {
+        return readRanges(file, ranges, charset, ',');
+    }
+
+    private static List<String> readRanges(Path file, List<CsvSplitter.Range> ranges, Charset charset, char delimiter)
+            throws IOException {
+        List<String> records = new ArrayList<>();
+        for (CsvSplitter.Range range : ranges) {
+            InputStream in = CsvSplitter.open(file, range);
+            try (CsvReader reader = range.start() == 0
+                    ? CsvReader.open(in, charset, delimiter)
+                    : CsvReader.openAt(in, charset, delimiter, range.firstLine())) {
+                while (reader.next()) records.add(record(reader));
+            }
+        }
+        return records;
+    }
+
+    // Line number and fields, e.g. "3:[a][b]"
+    private static String record(CsvReader reader) {
+        StringBuilder record = new StringBuilder().append(reader.lineNumber()).append(':');
+        for (int i = 0; i < reader.fieldCount(); i++) {
+            record.append('[').append(reader.field(i)).append(']');
+        }
+        return record.toString();
+    }
+}
@@ -0,0 +1,30 @@
+package com.connectbase.backend.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvWriterTest {
+
+    @Test
+    void quotesOnlyWhenNeeded() throws IOException {
+        StringWriter out = new StringWriter();
+        new CsvWriter(out, ',').record("Ada", "Lovelace, Countess", "say \"hi\"", null, "O'Brien", "two\nlines");
+
+        assertThat(out.toString())
+                .isEqualTo("Ada,\"Lovelace, Countess\",\"say \"\"hi\"\"\",,O'Brien,\"two\nlines\"\r\n");
+    }
+
+    @Test
+    void quotesForTheConfiguredDelimiter() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out, ';');
+        writer.record("a,b", "c;d");
+        writer.field("x").field(" y").endRecord();
+
+        assertThat(out.toString()).isEqualTo("a,b;\"c;d\"\r\nx;\" y\"\r\n");
+    }
+}
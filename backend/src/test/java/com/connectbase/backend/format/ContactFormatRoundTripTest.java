@@ -0,0 +1,94 @@
+package com.connectbase.backend.format;
+
+import com.connectbase.backend.dto.ContactExportRow;
+import com.connectbase.backend.model.Contact;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContactFormatRoundTripTest {
+
+    private static final List<ContactExportRow> ROWS = List.of(
+            new ContactExportRow("Ada", "Lovelace", "ada@example.com", "+44 20 7946 0000", "Analyst",
+                    "https://res.cloudinary.com/demo/image/upload/ada.jpg"),
+            // Every character a format escapes: delimiters, quotes, backslash, line breaks, non-ASCII
+            new ContactExportRow("Zoë", "O'Brien, Jr.; III", "zoe@example.com", "+1 (415) 555-0100 ext 12",
+                    "Head of \"Sales\"\nEMEA \\ APAC", null),
+            // Longer than one vCard content line, with a surrogate pair near the fold
+            new ContactExportRow("Long", "Title", "long@example.com", "555-0199",
+                    "Vice President of Customer Success and Strategic Partnerships 🚀 for North America", null));
+
+    static Stream<ContactFormat> formats() {
+        NdjsonFormat ndjson = new NdjsonFormat();
+        ReflectionTestUtils.setField(ndjson, "jsonMapper", JsonMapper.builder().build());
+        return Stream.of(new CsvFormat(), new VCardFormat(), ndjson);
+    }
+
+    @ParameterizedTest
+    @MethodSource("formats")
+    void exportedContactsReadBackUnchanged(ContactFormat format) throws IOException {
+        assertRoundTrip(format, FormatOptions.DEFAULT);
+    }
+
+    @ParameterizedTest
+    @MethodSource("formats")
+    void nonDefaultOptionsRoundTrip(ContactFormat format) throws IOException {
+        assertRoundTrip(format, new FormatOptions(StandardCharsets.UTF_16LE, ';', VCardFormat.VERSION_3));
+    }
+
+    @ParameterizedTest
+    @MethodSource("formats")
+    void anEmptyExportHasNoContacts(ContactFormat format) throws IOException {
+        assertThat(read(format, write(format, FormatOptions.DEFAULT, List.of()), FormatOptions.DEFAULT)).isEmpty();
+    }
+
+    private static void assertRoundTrip(ContactFormat format, FormatOptions options) throws IOException {
+        List<ContactExportRow> read = read(format, write(format, options, ROWS), options);
+
+        assertThat(read).hasSize(ROWS.size());
+        for (int i = 0; i < ROWS.size(); i++) {
+            ContactExportRow expected = ROWS.get(i);
+            ContactExportRow actual = read.get(i);
+            assertThat(actual.firstName()).isEqualTo(expected.firstName());
+            assertThat(actual.lastName()).isEqualTo(expected.lastName());
+            assertThat(actual.email()).isEqualTo(expected.email());
+            assertThat(actual.phone()).isEqualTo(expected.phone());
+            assertThat(actual.title()).isEqualTo(expected.title());
+            assertThat(actual.image()).isEqualTo(expected.image());
+        }
+    }
+
+    private static byte[] write(ContactFormat format, FormatOptions options, List<ContactExportRow> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ContactWriter writer = format.writer(out, options)) {
+            writer.begin();
+            for (ContactExportRow row : rows) {
+                writer.write(row);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static List<ContactExportRow> read(ContactFormat format, byte[] bytes, FormatOptions options) throws IOException {
+        List<ContactExportRow> rows = new ArrayList<>();
+        try (ContactReader reader = format.reader(new ByteArrayInputStream(bytes), options)) {
+            while (reader.next()) {
+                Contact contact = reader.contact();
+                rows.add(new ContactExportRow(contact.getFirstName(), contact.getLastName(), contact.getEmail(),
+                        contact.getPhone(), contact.getTitle(), contact.getImage()));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,108 @@
+package com.connectbase.backend.format;
+
+import com.connectbase.backend.model.Contact;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VCardReaderTest {
+
+    @Test
+    void readsAFoldedVersion3CardFromAPhone() throws IOException {
+        String card = "BEGIN:VCARD\r\n"
+                + "VERSION:3.0\r\n"
+                + "N:Lovelace;Augusta Ada;;Countess;\r\n"
+                + "FN:Augusta Ada Lovelace\r\n"
+                + "item1.EMAIL;type=INTERNET;type=pref:ada@exam\r\n"
+                + " ple.com\r\n"
+                + "EMAIL;TYPE=INTERNET:second@example.com\r\n"
+                + "TEL;TYPE=CELL:+44 20 \r\n"
+                + "\t7946 0000\r\n"
+                + "TITLE:Analyst\\, Engine\\;s\\nNotes\r\n"
+                + "END:VCARD\r\n";
+
+        Contact contact = single(card);
+
+        assertThat(contact.getFirstName()).isEqualTo("Augusta Ada");
+        assertThat(contact.getLastName()).isEqualTo("Lovelace");
+        assertThat(contact.getEmail()).isEqualTo("ada@example.com");
+        assertThat(contact.getPhone()).isEqualTo("+44 20 7946 0000");
+        assertThat(contact.getTitle()).isEqualTo("Analyst, Engine;s\nNotes");
+    }
+
+    @Test
+    void readsVersion4UrisAndFallsBackToTheFormattedName() throws IOException {
+        String card = "BEGIN:VCARD\nVERSION:4.0\nFN:Grace Brewster Hopper\nEMAIL:mailto:grace@example.com\n"
+                + "TEL;VALUE=uri;TYPE=\"voice,work\":tel:+1-202-555-0100\nEND:VCARD\n";
+
+        Contact contact = single(card);
+
+        assertThat(contact.getFirstName()).isEqualTo("Grace");
+        assertThat(contact.getLastName()).isEqualTo("Brewster Hopper");
+        assertThat(contact.getEmail()).isEqualTo("grace@example.com");
+        assertThat(contact.getPhone()).isEqualTo("+1-202-555-0100");
+    }
+
+    @Test
+    void keepsPhotoUrlsAndDropsInlinePhotos() throws IOException {
+        String cards = "BEGIN:VCARD\nVERSION:4.0\nN:A;Url;;;\nPHOTO:https://example.com/a.jpg\nEND:VCARD\n"
+                + "BEGIN:VCARD\nVERSION:4.0\nN:B;Data;;;\nPHOTO:data:image/jpeg;base64,/9j/4AAQSkZJRg==\nEND:VCARD\n"
+                + "BEGIN:VCARD\nVERSION:3.0\nN:C;Binary;;;\nPHOTO;ENCODING=b;TYPE=JPEG:/9j/4AAQSkZJRg==\nEND:VCARD\n";
+
+        assertThat(readAll(cards)).extracting(Contact::getImage)
+                .containsExactly("https://example.com/a.jpg", null, null);
+    }
+
+    @Test
+    void anInlinePhotoLongerThanALineIsSkippedWithoutFailingTheCard() throws IOException {
+        String photo = "PHOTO;ENCODING=b;TYPE=JPEG:" + "QUJD".repeat(VCardReader.MAX_LINE) + "\r\n";
+        String card = "BEGIN:VCARD\r\nVERSION:3.0\r\nN:Big;Photo;;;\r\n" + photo + "EMAIL:big@example.com\r\nEND:VCARD\r\n";
+
+        Contact contact = single(card);
+
+        assertThat(contact.getImage()).isNull();
+        assertThat(contact.getEmail()).isEqualTo("big@example.com");
+    }
+
+    @Test
+    void anOverlongKeptValueRejectsOnlyItsCard() throws IOException {
+        String cards = "BEGIN:VCARD\nN:Long;Title;;;\nTITLE:" + "x".repeat(VCardReader.MAX_LINE + 1) + "\nEND:VCARD\n"
+                + "BEGIN:VCARD\nN:Next;Card;;;\nEND:VCARD\n";
+        VCardReader reader = new VCardReader(new StringReader(cards));
+
+        assertThat(reader.next()).isTrue();
+        assertThatThrownBy(reader::contact).hasMessageContaining("TITLE on line 3");
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.lineNumber()).isEqualTo(5);
+        assertThat(reader.contact().getLastName()).isEqualTo("Next");
+    }
+
+    @Test
+    void anUnterminatedCardFailsWithItsLine() throws IOException {
+        VCardReader reader = new VCardReader(new StringReader("\uFEFFBEGIN:VCARD\nN:A;B;;;\nEND:VCARD\n\nBEGIN:VCARD\nN:C;D;;;\n"));
+
+        assertThat(reader.next()).isTrue();
+        assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unterminated vCard starting on line 5");
+    }
+
+    private static Contact single(String input) throws IOException {
+        List<Contact> contacts = readAll(input);
+        assertThat(contacts).hasSize(1);
+        return contacts.get(0);
+    }
+
+    private static List<Contact> readAll(String input) throws IOException {
+        List<Contact> contacts = new ArrayList<>();
+        try (VCardReader reader = new VCardReader(new StringReader(input))) {
+            while (reader.next()) contacts.add(reader.contact());
+        }
+        return contacts;
+    }
+}
@@ -0,0 +1,90 @@
+package com.connectbase.backend.repo;
+
+import com.connectbase.backend.model.Contact;
+import com.connectbase.backend.model.User;
+import com.connectbase.backend.support.SqlStatementRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.connectbase.backend.support.SqlStatementRecorder")
+@Import({IdBlockAllocator.class, ContactBatchInserter.class})
+class ContactIdGenerationTest {
+
+    @Autowired
+    private ContactRepo contactRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private ContactBatchInserter contactBatchInserter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("batcher@example.com");
+        user.setPassword("password");
+        user = userRepo.save(user);
+    }
+
+    @Test
+    void saveAllOfTenThousandContactsIsSentInBatches() {
+        List<Contact> contacts = contacts(10_000);
+        SqlStatementRecorder.clear();
+
+        contactRepo.saveAll(contacts);
+        contactRepo.flush();
+
+        // With IDENTITY this was 10,000 single-row INSERTs. Now one id block and (at most) one batch per 50 rows
+        List<String> inserts = SqlStatementRecorder.statements().stream()
+                .filter(sql -> sql.matches("(?is)\\s*insert\\s+into\\s+contact\\b.*")).toList();
+        assertThat(inserts).isNotEmpty().hasSizeLessThanOrEqualTo(10_000 / IdBlockAllocator.BLOCK_SIZE);
+        assertThat(SqlStatementRecorder.statementsTouching(IdBlockAllocator.CONTACTS))
+                .hasSizeLessThanOrEqualTo(10_000 / IdBlockAllocator.BLOCK_SIZE);
+        assertThat(SqlStatementRecorder.statements()).hasSizeLessThanOrEqualTo(2 * 10_000 / IdBlockAllocator.BLOCK_SIZE);
+        assertThat(countDistinctIds()).isEqualTo(10_000);
+    }
+
+    @Test
+    void jdbcBatchesAndHibernateDrawIdsFromTheSamePool() {
+        contactRepo.saveAndFlush(contacts(1).get(0)); // Hibernate holds the rest of this block
+
+        long[] ids = contactBatchInserter.insert(user.getId(), contacts(60), LocalDateTime.now());
+        contactRepo.saveAllAndFlush(contacts(60));
+
+        assertThat(ids).hasSize(60).doesNotHaveDuplicates();
+        assertThat(countDistinctIds()).isEqualTo(121);
+    }
+
+    private List<Contact> contacts(int count) {
+        List<Contact> contacts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Contact contact = new Contact();
+            contact.setFirstName("First" + i);
+            contact.setEmail("person" + i + "@example.com");
+            contact.setUser(user);
+            contacts.add(contact);
+        }
+        return contacts;
+    }
+
+    private long countDistinctIds() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM contact WHERE user_id = ?", Long.class, user.getId());
+    }
+}
@@ -0,0 +1,152 @@
+package com.connectbase.backend.repo;
+
+import com.connectbase.backend.dto.ContactView;
+import com.connectbase.backend.model.Contact;
+import com.connectbase.backend.model.User;
+import com.connectbase.backend.support.SqlStatementRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.connectbase.backend.support.SqlStatementRecorder")
+class ContactKeysetPaginationTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private ContactRepo contactRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbc;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(dataSource);
+        user = new User();
+        user.setEmail("pager@example.com");
+        user.setPassword("password");
+        userRepo.save(user);
+    }
+
+    @Test
+    void deepPageCostsTheSameAsFirstPage() {
+        insertContacts(5000 * PAGE_SIZE, i -> "contact" + i);
+        // Cursor positioned after the last row of page 4999, i.e. page 5000 is next
+        long lastIdOfPage4999 = jdbc.queryForObject(
+                "SELECT id FROM contact WHERE user_id = ? ORDER BY id OFFSET ? ROWS FETCH FIRST 1 ROWS ONLY",
+                Long.class, user.getId(), 4999 * PAGE_SIZE - 1);
+        ContactCursor page5000 = new ContactCursor(ContactSort.ID, "", lastIdOfPage4999);
+
+        long firstPageNanos = medianNanos(() -> contactRepo.findSlice(user.getId(), null, ContactSort.ID, null, PAGE_SIZE));
+        long deepPageNanos = medianNanos(() -> contactRepo.findSlice(user.getId(), null, ContactSort.ID, page5000, PAGE_SIZE));
+
+        Slice<ContactView> deep = contactRepo.findSlice(user.getId(), null, ContactSort.ID, page5000, PAGE_SIZE);
+        assertThat(deep.getContent()).hasSize(PAGE_SIZE);
+        assertThat(deep.hasNext()).isFalse(); // Page 5000 is the last one
+        assertThat(deep.getContent().get(0).id()).isGreaterThan(lastIdOfPage4999);
+
+        // OFFSET would make page 5000 thousands of times slower; a seek stays within noise of page 1
+        assertThat(deepPageNanos).isLessThan(firstPageNanos * 3 + 5_000_000);
+
+        SqlStatementRecorder.clear();
+        contactRepo.findSlice(user.getId(), null, ContactSort.ID, page5000, PAGE_SIZE);
+        assertThat(SqlStatementRecorder.statements())
+                .hasSize(1)
+                .noneMatch(sql -> sql.toLowerCase().contains("offset"))
+                .noneMatch(sql -> sql.toLowerCase().contains("count("));
+    }
+
+    @Test
+    void walkingByNameVisitsEveryContactOnceDespiteDuplicateNames() {
+        insertContacts(95, i -> "name" + (i % 7)); // Many ties on the sort key
+        List<Long> seen = walk(ContactSort.NAME, null);
+
+        assertThat(seen).hasSize(95);
+        assertThat(new HashSet<>(seen)).hasSize(95);
+    }
+
+    @Test
+    void walkingByUpdatedAtIsNewestFirstAndComplete() {
+        insertContacts(42, i -> "contact" + i);
+        List<Long> seen = walk(ContactSort.UPDATED_AT, null);
+
+        assertThat(seen).hasSize(42);
+        assertThat(seen).isSortedAccordingTo((a, b) -> Long.compare(b, a)); // Inserted in id order, one second apart
+    }
+
+    @Test
+    void searchSliceOnlyReturnsMatchesAfterCursor() {
+        insertContacts(30, i -> i % 2 == 0 ? "even" + i : "odd" + i);
+        List<Long> seen = walk(ContactSort.ID, "EVEN");
+
+        assertThat(seen).hasSize(15);
+        assertThat(seen).isSorted();
+    }
+
+    @Test
+    void cursorRoundTripsThroughOpaqueToken() {
+        ContactCursor cursor = new ContactCursor(ContactSort.NAME, "o'neil: jr", 42);
+
+        assertThat(ContactCursor.decode(cursor.encode(), ContactSort.NAME)).isEqualTo(cursor);
+    }
+
+    private List<Long> walk(ContactSort sort, String keyword) {
+        List<Long> seen = new ArrayList<>();
+        ContactCursor after = null;
+        Slice<ContactView> slice;
+        do {
+            slice = contactRepo.findSlice(user.getId(), keyword, sort, after, PAGE_SIZE);
+            slice.forEach(contact -> seen.add(contact.id()));
+            if (!slice.isEmpty()) {
+                ContactView last = slice.getContent().get(slice.getNumberOfElements() - 1);
+                after = ContactCursor.of(sort, last);
+            }
+        } while (slice.hasNext());
+        return seen;
+    }
+
+    private void insertContacts(int count, IntFunction<String> firstName) {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = firstName.apply(i);
+            Timestamp updatedAt = Timestamp.valueOf(base.plusSeconds(i));
+            rows.add(new Object[]{name, Contact.normalize(name), "", "", "", "", updatedAt, updatedAt, user.getId()});
+        }
+        jdbc.batchUpdate("INSERT INTO contact (first_name, first_name_norm, last_name_norm, email_norm, title_norm, phone_norm, " +
+                "created_at, updated_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private static long medianNanos(Runnable query) {
+        for (int i = 0; i < 20; i++) query.run(); // Warm-up
+        long[] samples = new long[21];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            query.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+}
@@ -0,0 +1,67 @@
+package com.connectbase.backend.repo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs EXPLAIN on H2 against the Flyway-managed schema to make sure the main queries use the migration indexes
+@DataJpaTest
+class ContactQueryPlanTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void contactListingUsesUserIdIndex() {
+        String plan = explain("SELECT * FROM contact WHERE user_id = 1 ORDER BY id LIMIT 20");
+
+        assertThat(plan).contains("IDX_CONTACT_USER_ID").doesNotContain("tableScan");
+    }
+
+    @Test
+    void recentContactsUseUpdatedAtIndex() {
+        String plan = explain("SELECT * FROM contact WHERE user_id = 1 ORDER BY updated_at DESC LIMIT 20");
+
+        assertThat(plan).contains("IDX_CONTACT_USER_UPDATED").doesNotContain("tableScan");
+    }
+
+    @Test
+    void searchIsScopedByUserIndexAndUsesNormalizedColumns() {
+        String plan = explain("SELECT * FROM contact WHERE user_id = 1 AND (" +
+                "first_name_norm LIKE '%ali%' OR last_name_norm LIKE '%ali%' OR email_norm LIKE '%ali%' OR " +
+                "title_norm LIKE '%ali%' OR phone_norm LIKE '%ali%')");
+
+        assertThat(plan).contains("USER_ID = 1").doesNotContain("tableScan").doesNotContain("LOWER(");
+    }
+
+    @Test
+    void contactEmailLookupUsesEmailIndex() {
+        String plan = explain("SELECT id FROM contact WHERE user_id = 1 AND email_norm = 'alice@test.com'");
+
+        assertThat(plan).contains("IDX_CONTACT_USER_EMAIL");
+    }
+
+    @Test
+    void loginLookupUsesUniqueEmailIndex() {
+        String plan = explain("SELECT * FROM users WHERE email = 'test@example.com'");
+
+        assertThat(plan).contains("EMAIL = 'test@example.com'").doesNotContain("tableScan");
+    }
+
+    private String explain(String sql) {
+        return jdbc.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
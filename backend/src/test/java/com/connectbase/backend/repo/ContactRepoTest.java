@@ -1,7 +1,11 @@
 package com.connectbase.backend.repo;
 
+import com.connectbase.backend.dto.ContactView;
 import com.connectbase.backend.model.Contact;
 import com.connectbase.backend.model.User;
+import com.connectbase.backend.search.ContactSuggestion;
+import com.connectbase.backend.search.PrefixIndex;
+import com.connectbase.backend.search.TrigramIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +13,11 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
@@ -53,10 +62,10 @@ class ContactRepoTest {
     @Test
     void shouldFindContactByKeyword() {
         // Test the custom search query
-        Page<Contact> result = contactRepo.searchContacts(user, "Alice", PageRequest.of(0, 10));
+        Page<ContactView> result = contactRepo.searchContacts(user.getId(), "Alice", PageRequest.of(0, 10));
 
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getFirstName()).isEqualTo("Alice");
+        assertThat(result.getContent().get(0).firstName()).isEqualTo("Alice");
     }
 
     @Test
@@ -67,8 +76,75 @@ class ContactRepoTest {
         userRepo.save(otherUser);
 
         // Search with the other user
-        Page<Contact> result = contactRepo.searchContacts(otherUser, "Alice", PageRequest.of(0, 10));
+        Page<ContactView> result = contactRepo.searchContacts(otherUser.getId(), "Alice", PageRequest.of(0, 10));
 
         assertThat(result.getContent()).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void suggestionFallbackShouldMatchWarmPrefixIndex() {
+        save("John", "Smith", "john.smith@acme.com", "+1 (415) 555-0100");
+        save("Johnny", "Appleseed", "ja@test.com", "415.555.0199");
+        save("Ann", "O'Neil", "100%_sure@test.com", "020 7946 0000");
+        save("Maria", "de la Cruz", "maria@x.org", null);
+        PrefixIndex warm = new PrefixIndex(contactRepo.findIndexRowsByUserId(user.getId()));
+
+        // Full names, phone digits, email local parts, and LIKE wildcards taken literally
+        for (String prefix : List.of("john", "john sm", "JOHN  SMITH", "smi", "de la", "cruz", "ja", "ja@",
+                "4155", "+1 415", "(415) 555-01", "0207", "100%", "100%_", "1_0", "%", "_", "j%", "xyz")) {
+            assertThat(ids(contactRepo.findSuggestions(user.getId(), prefix, 50)))
+                    .as(prefix)
+                    .isEqualTo(ids(warm.suggest(prefix, 50)));
+        }
+        assertThat(ids(contactRepo.findSuggestions(user.getId(), "4155", 50))).hasSize(1);
+        assertThat(ids(contactRepo.findSuggestions(user.getId(), "john sm", 50))).hasSize(1);
+    }
+
+    @Test
+    void searchFallbackShouldMatchWarmTrigramIndex() {
+        save("  Ann ", "Lee", " ann.lee@test.com", " 555-0100 ");
+        save("Joanne", "Annis ", null, "5550100");
+        TrigramIndex warm = new TrigramIndex(contactRepo.findIndexRowsByUserId(user.getId()));
+
+        // Padded keywords and padded columns are compared trimmed on both paths
+        for (String keyword : List.of("ann", " ann", "ann ", "  ANN LEE", " ann.", "annis ", "lee ", "n ", " 555-0100",
+                "0100 ", "   ", "zzz ")) {
+            Set<Long> fallback = contactRepo.searchContacts(user.getId(), keyword, PageRequest.of(0, 50)).getContent()
+                    .stream().map(ContactView::id).collect(Collectors.toSet());
+            assertThat(fallback).as(keyword).isEqualTo(Arrays.stream(warm.search(keyword)).boxed().collect(Collectors.toSet()));
+        }
+        assertThat(warm.search(" annis ")).hasSize(1);
+        assertThat(warm.search("0100 ")).hasSize(2);
+    }
+
+    @Test
+    void keywordWildcardsShouldMatchLiterally() {
+        save("Ann", "O'Neil", "100%_sure@test.com", null);
+
+        // Search and bulk selection by query must pick the same contacts
+        for (String keyword : List.of("%", "_", "0%_s", " 100%")) {
+            assertThat(contactRepo.searchContacts(user.getId(), keyword, PageRequest.of(0, 10)).getContent())
+                    .as(keyword).extracting(ContactView::firstName).containsExactly("Ann");
+            assertThat(contactRepo.findSlice(user.getId(), keyword, ContactSort.ID, null, 10).getContent())
+                    .as(keyword).extracting(ContactView::firstName).containsExactly("Ann");
+        }
+        assertThat(contactRepo.searchContacts(user.getId(), "a_i", PageRequest.of(0, 10))).isEmpty();
+        assertThat(contactRepo.deleteMatching(user.getId(), null, "1_0")).isZero();
+        assertThat(contactRepo.deleteMatching(user.getId(), null, "%_")).isEqualTo(1);
+    }
+
+    private void save(String firstName, String lastName, String email, String phone) {
+        Contact contact = new Contact();
+        contact.setFirstName(firstName);
+        contact.setLastName(lastName);
+        contact.setEmail(email);
+        contact.setPhone(phone);
+        contact.setUser(user);
+        contactRepo.save(contact);
+    }
+
+    // The two paths order ties differently; the matched contacts must be the same
+    private static Set<Long> ids(List<ContactSuggestion> suggestions) {
+        return suggestions.stream().map(ContactSuggestion::id).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,100 @@
+package com.connectbase.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyIndexTest {
+
+    private static ContactIndexRow row(long id, String firstName, String lastName, String email, String title) {
+        return new ContactIndexRow(id, firstName, lastName, email, title, null);
+    }
+
+    @Test
+    void search_ShouldTolerateTyposAndTranspositions() {
+        FuzzyIndex index = new FuzzyIndex(List.of(
+                row(1, "John", "Smith", "john.smith@test.com", "Engineer"),
+                row(2, "Jon", "Smithers", null, null),
+                row(3, "Alice", "Jones", null, null)));
+
+        FuzzyMatches matches = index.search("jonh smth", 10);
+
+        assertArrayEquals(new long[]{1, 2}, matches.ids()); // Both tokens within one edit of John Smith, one of Jon
+        assertTrue(matches.scores()[0] > matches.scores()[1]);
+        assertEquals(0, index.search("zzzz", 10).totalMatches());
+    }
+
+    @Test
+    void search_ShouldRankNameHitsAboveTitleHits() {
+        FuzzyIndex index = new FuzzyIndex(List.of(
+                row(1, "Alex", "Baker", null, "Designer"),
+                row(2, "Designer", "Jones", null, null),
+                row(3, "Sam", "Lee", "designer.sam@test.com", null)));
+
+        FuzzyMatches matches = index.search("designer", 10);
+
+        assertArrayEquals(new long[]{2, 3, 1}, matches.ids());
+        assertEquals(3, matches.totalMatches());
+    }
+
+    @Test
+    void search_ShouldMatchPrefixesOfTheLastToken() {
+        FuzzyIndex index = new FuzzyIndex(List.of(row(1, "Margaret", "Hamilton", null, null)));
+
+        assertArrayEquals(new long[]{1}, index.search("marg ham", 10).ids());
+    }
+
+    @Test
+    void search_ShouldKeepOnlyTopKButCountAllMatches() {
+        List<ContactIndexRow> rows = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rows.add(row(i, "Chris", i % 2 == 0 ? "Taylor" : "Tyler", null, null));
+        }
+        FuzzyIndex index = new FuzzyIndex(rows);
+
+        FuzzyMatches matches = index.search("chris taylor", 5);
+
+        assertEquals(5, matches.ids().length);
+        assertEquals(50, matches.totalMatches());
+        for (long id : matches.ids()) {
+            assertEquals(0, id % 2, "exact last-name matches must outrank the one-edit ones");
+        }
+    }
+
+    @Test
+    void upsertAndRemove_ShouldKeepIndexCurrent() {
+        FuzzyIndex index = new FuzzyIndex(List.of(row(1, "Alice", "Smith", null, null)));
+
+        index.upsert(row(1, "Alicia", "Keys", null, null));
+        assertEquals(0, index.search("smith", 10).totalMatches());
+        assertArrayEquals(new long[]{1}, index.search("keys", 10).ids());
+
+        index.remove(1);
+        assertEquals(0, index.search("alicia", 10).totalMatches());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void search_ShouldStayCorrectAfterTreeRebuilds() {
+        FuzzyIndex index = new FuzzyIndex(List.of());
+        // Unique names churned through: most terms end up empty, forcing BK-tree rebuilds
+        for (int i = 0; i < 5000; i++) {
+            index.upsert(row(i % 100, "name" + i, "keep", null, null));
+        }
+        assertEquals(100, index.search("keep", 200).totalMatches());
+        assertEquals(99L, index.search("name4999", 10).ids()[0]);
+        assertEquals(0, index.search("name10", 10).totalMatches()); // Long gone, and too far from name49xx
+        assertEquals(100, index.size());
+    }
+
+    @Test
+    void osaDistance_ShouldCountTranspositionsAsOneEdit() {
+        assertEquals(1, FuzzyIndex.osaDistance("jonh", "john", 2));
+        assertEquals(1, FuzzyIndex.osaDistance("smth", "smith", 2));
+        assertEquals(3, FuzzyIndex.osaDistance("abcdef", "xyzdef", 2)); // Capped at limit + 1
+        assertEquals(2, BkTree.levenshtein("jonh", "john", Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,99 @@
+package com.connectbase.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    private static ContactIndexRow row(long id, String firstName, String lastName, String email, String phone) {
+        return new ContactIndexRow(id, firstName, lastName, email, null, phone);
+    }
+
+    private static List<Long> ids(List<ContactSuggestion> suggestions) {
+        return suggestions.stream().map(ContactSuggestion::id).toList();
+    }
+
+    @Test
+    void suggest_ShouldMatchNameEmailLocalPartAndPhoneDigits() {
+        PrefixIndex index = new PrefixIndex(List.of(
+                row(1, "Alice", "Smith", "ali.s@test.com", "+1 (555) 010-2000"),
+                row(2, "Bob", "Smithers", "bobby@test.com", "555 999"),
+                row(3, null, null, "carol@test.com", null)));
+
+        assertEquals(List.of(1L), ids(index.suggest("AL", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("alice sm", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.suggest("smith", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("bobby", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("1 555-01", 10))); // Phone-like queries match digits
+        assertEquals(List.of(), ids(index.suggest("test.com", 10)));   // Email domains are not indexed
+        assertEquals("carol@test.com", index.suggest("car", 10).get(0).displayName());
+    }
+
+    @Test
+    void suggest_ShouldReturnEachContactOnceAndRespectLimit() {
+        PrefixIndex index = new PrefixIndex(List.of(
+                row(1, "Sam", "Samson", "sam@test.com", null),
+                row(2, "Sally", "Sanders", null, null),
+                row(3, "Sarah", "Stone", null, null)));
+
+        List<ContactSuggestion> suggestions = index.suggest("sa", 10);
+        assertEquals(3, suggestions.size());
+        assertEquals(3, suggestions.stream().map(ContactSuggestion::id).distinct().count());
+        assertEquals(2, index.suggest("sa", 2).size());
+        assertEquals("Sam Samson", index.suggest("samson", 1).get(0).displayName());
+    }
+
+    @Test
+    void upsertAndRemove_ShouldShadowOldEntries() {
+        PrefixIndex index = new PrefixIndex(List.of(row(1, "Alice", "Smith", null, null)));
+
+        index.upsert(row(1, "Alicia", "Keys", null, null));
+        index.upsert(row(2, "Alina", "Smith", null, null));
+
+        assertEquals(List.of(1L, 2L), ids(index.suggest("ali", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("smith", 10)));
+        assertEquals("Alicia Keys", index.suggest("keys", 10).get(0).displayName());
+
+        index.remove(1);
+        assertEquals(List.of(2L), ids(index.suggest("ali", 10)));
+    }
+
+    @Test
+    void suggest_ShouldAgreeWithBruteForceAcrossDeltaMerges() {
+        Random random = new Random(7);
+        String[] names = {"ann", "anna", "anne", "bob", "bobby", "carl", "carla", "dan"};
+        List<ContactIndexRow> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rows.add(row(i, names[random.nextInt(names.length)], names[random.nextInt(names.length)], null, null));
+        }
+        PrefixIndex index = new PrefixIndex(rows);
+
+        // Enough writes to trigger several merges of the delta into the sorted arrays
+        for (int round = 0; round < 2000; round++) {
+            int id = random.nextInt(400);
+            if (random.nextInt(5) == 0) {
+                index.remove(id);
+                rows.removeIf(r -> r.id() == id);
+            } else {
+                ContactIndexRow updated = row(id, names[random.nextInt(names.length)], names[random.nextInt(names.length)], null, null);
+                index.upsert(updated);
+                rows.removeIf(r -> r.id() == id);
+                rows.add(updated);
+            }
+        }
+
+        for (String prefix : List.of("a", "ann", "anna ", "bo", "carl", "d", "z")) {
+            String needle = prefix.trim().toLowerCase(Locale.ROOT);
+            long expected = rows.stream()
+                    .filter(r -> (r.firstName() + " " + r.lastName()).startsWith(needle) || r.lastName().startsWith(needle))
+                    .count();
+            assertEquals(expected, index.suggest(prefix, Integer.MAX_VALUE).size(), prefix);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.connectbase.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private static ContactIndexRow row(long id, String firstName, String lastName, String email, String title, String phone) {
+        return new ContactIndexRow(id, firstName, lastName, email, title, phone);
+    }
+
+    @Test
+    void search_ShouldMatchSubstringsCaseInsensitivelyAcrossColumns() {
+        TrigramIndex index = new TrigramIndex(List.of(
+                row(1, "Alice", "Smith", "alice@test.com", "Engineer", "1234567890"),
+                row(2, "Bob", "Jones", "bob@test.com", "Manager", "0987654321"),
+                row(3, "Malice", null, null, null, null)));
+
+        assertArrayEquals(new long[]{1, 3}, index.search("ALIC"));
+        assertArrayEquals(new long[]{2}, index.search("anag"));
+        assertArrayEquals(new long[]{1}, index.search("4567"));
+        assertArrayEquals(new long[]{1, 2}, index.search("@test."));
+        assertArrayEquals(new long[]{2}, index.search("bo")); // Short queries fall back to a scan
+        assertArrayEquals(new long[0], index.search("zzz"));
+    }
+
+    @Test
+    void search_ShouldNotMatchAcrossColumnBoundaries() {
+        TrigramIndex index = new TrigramIndex(List.of(row(1, "Ann", "Lee", null, null, null)));
+
+        assertArrayEquals(new long[0], index.search("annlee"));
+        assertArrayEquals(new long[]{1}, index.search("ann"));
+    }
+
+    @Test
+    void upsertAndRemove_ShouldKeepIndexCurrent() {
+        TrigramIndex index = new TrigramIndex(List.of(row(1, "Alice", "Smith", null, null, null)));
+
+        index.upsert(row(1, "Alicia", "Keys", null, null, null));
+        index.upsert(row(2, "Alina", "Smith", null, null, null));
+
+        assertArrayEquals(new long[]{1, 2}, index.search("ali"));
+        assertArrayEquals(new long[]{2}, index.search("smith"));
+        assertArrayEquals(new long[]{1}, index.search("keys"));
+
+        index.remove(1);
+        assertArrayEquals(new long[]{2}, index.search("ali"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void search_ShouldAgreeWithBruteForceAfterManyUpdates() {
+        Random random = new Random(42);
+        String[] names = {"anna", "annabel", "john", "johnny", "maria", "mario", "li", "lee", "smith", "smyth"};
+        List<ContactIndexRow> rows = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            rows.add(randomRow(random, names, id));
+        }
+        TrigramIndex index = new TrigramIndex(rows);
+
+        // Enough churn to trigger compaction
+        for (int i = 0; i < 2_000; i++) {
+            int position = random.nextInt(rows.size());
+            ContactIndexRow updated = randomRow(random, names, rows.get(position).id());
+            rows.set(position, updated);
+            index.upsert(updated);
+        }
+        for (int i = 0; i < 50; i++) {
+            index.remove(rows.remove(random.nextInt(rows.size())).id());
+        }
+
+        for (String query : new String[]{"ann", "john", "mari", "smith", "sm", "@mail", "55", "x"}) {
+            long[] expected = rows.stream()
+                    .filter(r -> Stream.of(r.firstName(), r.lastName(), r.email(), r.title(), r.phone())
+                            .anyMatch(v -> v != null && v.toLowerCase(Locale.ROOT).contains(query)))
+                    .mapToLong(ContactIndexRow::id).sorted().toArray();
+            assertArrayEquals(expected, index.search(query), query);
+        }
+    }
+
+    private static ContactIndexRow randomRow(Random random, String[] names, long id) {
+        String first = names[random.nextInt(names.length)];
+        String last = names[random.nextInt(names.length)];
+        return row(id, first, last, first + "." + last + "@mail.com", random.nextBoolean() ? "Sales" : null,
+                String.valueOf(5_550_000 + random.nextInt(10_000)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.connectbase.backend.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserIndexRegistryTest {
+
+    private static ContactIndexRow row(long id, String firstName) {
+        return new ContactIndexRow(id, firstName, null, null, null, null);
+    }
+
+    private static Map<?, ?> writeCounters(UserIndexRegistry<?> registry) {
+        return (Map<?, ?>) ReflectionTestUtils.getField(registry, "writeCounters");
+    }
+
+    @Test
+    void getIfWarm_ShouldBuildInBackgroundAndKeepNoPerUserCounters() {
+        List<Runnable> builds = new ArrayList<>();
+        UserIndexRegistry<PrefixIndex> registry = new UserIndexRegistry<>("prefix", Long.MAX_VALUE,
+                userId -> new PrefixIndex(List.of(row(1, "Alice"))), builds::add);
+
+        assertNull(registry.getIfWarm(1L));
+        for (long userId = 2; userId <= 1000; userId++) {
+            registry.update(userId, index -> fail("no index is warm")); // Writes for users without an index
+        }
+        builds.forEach(Runnable::run);
+
+        assertNotNull(registry.getIfWarm(1L));
+        assertEquals(1, registry.size());
+        assertTrue(writeCounters(registry).isEmpty());
+    }
+
+    @Test
+    void build_ShouldDiscardIndexWhenWriteRacesWithLoad() {
+        AtomicReference<UserIndexRegistry<PrefixIndex>> self = new AtomicReference<>();
+        List<Runnable> builds = new ArrayList<>();
+        UserIndexRegistry<PrefixIndex> registry = new UserIndexRegistry<>("prefix", Long.MAX_VALUE, userId -> {
+            self.get().update(userId, index -> index.remove(1)); // Lands while the rows are being read
+            return new PrefixIndex(List.of(row(1, "Alice")));
+        }, builds::add);
+        self.set(registry);
+
+        registry.getIfWarm(1L);
+        builds.forEach(Runnable::run);
+
+        assertEquals(0, registry.size());
+        assertTrue(writeCounters(registry).isEmpty());
+    }
+}
@@ -0,0 +1,69 @@
+package com.connectbase.backend.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    // 256-bit Base64 test secret
+    private static final String SECRET = "dGVzdC1zZWNyZXQta2V5LWZvci1jb25uZWN0YmFzZS1qd3QtdGVzdHM=";
+
+    private JwtUtils jwtUtils;
+    private VerifiedTokenCache tokenCache;
+
+    @BeforeEach
+    void setUp() {
+        tokenCache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(tokenCache, "maxSize", 100);
+
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtUtils, "tokenCache", tokenCache);
+        jwtUtils.init();
+    }
+
+    @Test
+    void parseVerifiedClaims_ShouldServeRepeatTokensFromCache() {
+        String token = jwtUtils.generateAccessToken("test@example.com");
+
+        Claims first = jwtUtils.parseVerifiedClaims(token);
+        Claims second = jwtUtils.parseVerifiedClaims(token);
+
+        assertEquals("test@example.com", first.getSubject());
+        assertSame(first, second);
+        assertEquals(1, tokenCache.getMissCount());
+        assertEquals(1, tokenCache.getHitCount());
+    }
+
+    @Test
+    void parseVerifiedClaims_ShouldRejectTamperedToken() {
+        String token = jwtUtils.generateAccessToken("test@example.com");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertNull(jwtUtils.parseVerifiedClaims(tampered));
+        assertFalse(jwtUtils.validateToken(tampered));
+        assertEquals(0, tokenCache.size());
+    }
+
+    @Test
+    void parseVerifiedClaims_ShouldNotServeExpiredTokens() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", -1_000L);
+        String expired = jwtUtils.generateAccessToken("test@example.com");
+
+        assertNull(jwtUtils.parseVerifiedClaims(expired));
+        assertEquals(0, tokenCache.getHitCount());
+    }
+
+    @Test
+    void cache_ShouldStayBounded() {
+        for (int i = 0; i < 250; i++) {
+            jwtUtils.parseVerifiedClaims(jwtUtils.generateAccessToken("user" + i + "@example.com"));
+        }
+        assertTrue(tokenCache.size() <= 100);
+    }
+}
@@ -0,0 +1,95 @@
+package com.connectbase.backend.security;
+
+import com.connectbase.backend.exceptions.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    private PasswordHasher newHasher(int strength, int threads, int queueCapacity, long timeoutMillis) {
+        PasswordHasher passwordHasher = new PasswordHasher();
+        ReflectionTestUtils.setField(passwordHasher, "configuredStrength", strength);
+        ReflectionTestUtils.setField(passwordHasher, "targetMillis", 250L);
+        ReflectionTestUtils.setField(passwordHasher, "threads", threads);
+        ReflectionTestUtils.setField(passwordHasher, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(passwordHasher, "timeoutMillis", timeoutMillis);
+        passwordHasher.init();
+        return passwordHasher;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (hasher != null) hasher.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_ShouldRoundTrip() {
+        hasher = newHasher(4, 2, 4, 5_000);
+
+        String hash = hasher.encode("secret");
+
+        assertTrue(hasher.matches("secret", hash));
+        assertFalse(hasher.matches("wrong", hash));
+    }
+
+    @Test
+    void needsRehash_ShouldFlagHashesWithLowerCost() {
+        hasher = newHasher(6, 1, 4, 5_000);
+
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+        String currentHash = hasher.encode("secret");
+
+        assertTrue(hasher.needsRehash(oldHash));
+        assertFalse(hasher.needsRehash(currentHash));
+        assertTrue(hasher.matches("secret", oldHash));
+    }
+
+    @Test
+    void calibration_ShouldNeverGoBelowDefaultCost() {
+        hasher = newHasher(-1, 1, 4, 5_000);
+
+        assertTrue(hasher.getStrength() >= 10);
+    }
+
+    @Test
+    void execute_ShouldRejectWhenPoolAndQueueAreFull() throws Exception {
+        hasher = newHasher(4, 1, 1, 5_000);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // One task occupies the only worker, one fills the queue
+            callers.submit(() -> hasher.execute(() -> release.await(5, TimeUnit.SECONDS)));
+            callers.submit(() -> hasher.execute(() -> release.await(5, TimeUnit.SECONDS)));
+            long deadline = System.currentTimeMillis() + 2_000;
+            while (hasher.getQueueDepth() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+
+            assertThrows(ServiceBusyException.class, () -> hasher.encode("secret"));
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_ShouldTimeOutInsteadOfBlockingForever() {
+        hasher = newHasher(4, 1, 4, 50);
+
+        assertThrows(ServiceBusyException.class, () -> hasher.execute(() -> {
+            Thread.sleep(1_000);
+            return null;
+        }));
+    }
+}
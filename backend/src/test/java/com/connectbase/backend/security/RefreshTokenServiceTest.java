@@ -0,0 +1,122 @@
+package com.connectbase.backend.security;
+
+import com.connectbase.backend.exceptions.InvalidTokenException;
+import com.connectbase.backend.model.User;
+import com.connectbase.backend.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQta2V5LWZvci1jb25uZWN0YmFzZS1qd3QtdGVzdHM=";
+
+    private JwtUtils jwtUtils;
+    private RefreshTokenService refreshTokenService;
+    private UserRepo userRepo;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        VerifiedTokenCache tokenCache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(tokenCache, "maxSize", 100);
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtUtils, "tokenCache", tokenCache);
+        jwtUtils.init();
+
+        refreshTokenService = new RefreshTokenService();
+        ReflectionTestUtils.setField(refreshTokenService, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenStore", new RefreshTokenStore());
+        userRepo = mock(UserRepo.class);
+        when(userRepo.findSessionVersionById(7L)).thenReturn(Optional.of(0));
+        ReflectionTestUtils.setField(refreshTokenService, "userRepo", userRepo);
+
+        user = new User();
+        user.setId(7L);
+        user.setEmail("session@example.com");
+    }
+
+    @Test
+    void refresh_ShouldMintAccessTokenAndRotateRefreshToken() {
+        String refreshToken = jwtUtils.generateRefreshToken(user);
+
+        RefreshTokenService.TokenPair tokens = refreshTokenService.refresh(refreshToken);
+
+        AuthenticatedUser principal = AuthenticatedUser.fromClaims(jwtUtils.parseVerifiedClaims(tokens.accessToken()));
+        assertEquals(new AuthenticatedUser(7L, "session@example.com"), principal);
+        assertNotEquals(refreshToken, tokens.refreshToken());
+        assertNotNull(refreshTokenService.refresh(tokens.refreshToken()));
+    }
+
+    @Test
+    void refresh_ShouldRevokeFamilyOnReuse() {
+        String original = jwtUtils.generateRefreshToken(user);
+        RefreshTokenService.TokenPair rotated = refreshTokenService.refresh(original);
+
+        // Replaying the exchanged token kills the family, including the legitimately rotated token
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.refresh(original));
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.refresh(rotated.refreshToken()));
+        assertFalse(refreshTokenService.canRenew(rotated.refreshToken(), 7L));
+    }
+
+    @Test
+    void refresh_ShouldAllowConcurrentExchangeWithinGraceWindow() {
+        ReflectionTestUtils.setField(refreshTokenService, "reuseGraceMillis", 10_000L);
+        String shared = jwtUtils.generateRefreshToken(user);
+
+        // Two tabs exchange the same cookie: both get working tokens and the family survives
+        RefreshTokenService.TokenPair first = refreshTokenService.refresh(shared);
+        RefreshTokenService.TokenPair second = refreshTokenService.refresh(shared);
+
+        assertNotNull(refreshTokenService.refresh(first.refreshToken()));
+        assertNotNull(refreshTokenService.refresh(second.refreshToken()));
+    }
+
+    @Test
+    void passwordChange_ShouldEndExistingSessions() {
+        String refreshToken = jwtUtils.generateRefreshToken(user);
+        assertTrue(refreshTokenService.canRenew(refreshToken, 7L));
+
+        when(userRepo.findSessionVersionById(7L)).thenReturn(Optional.of(1));
+
+        assertFalse(refreshTokenService.canRenew(refreshToken, 7L));
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.refresh(refreshToken));
+        user.setSessionVersion(1);
+        assertNotNull(refreshTokenService.refresh(jwtUtils.generateRefreshToken(user)));
+    }
+
+    @Test
+    void refresh_ShouldRejectAccessTokens() {
+        String accessToken = jwtUtils.generateAccessToken(user);
+
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.refresh(accessToken));
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.refresh(null));
+    }
+
+    @Test
+    void refreshTokens_ShouldNotAuthenticateRequests() {
+        String refreshToken = jwtUtils.generateRefreshToken(user);
+
+        assertNull(AuthenticatedUser.fromClaims(jwtUtils.parseVerifiedClaims(refreshToken)));
+    }
+
+    @Test
+    void revoke_ShouldEndSession() {
+        String refreshToken = jwtUtils.generateRefreshToken(user);
+        assertTrue(refreshTokenService.canRenew(refreshToken, 7L));
+        assertFalse(refreshTokenService.canRenew(refreshToken, 8L));
+
+        refreshTokenService.revoke(refreshToken);
+
+        assertFalse(refreshTokenService.canRenew(refreshToken, 7L));
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.refresh(refreshToken));
+    }
+}
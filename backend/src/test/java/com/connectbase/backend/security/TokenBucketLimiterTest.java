@@ -0,0 +1,95 @@
+package com.connectbase.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    private TokenBucketLimiter limiter(int capacity, int maxKeys) {
+        return new TokenBucketLimiter(capacity, 60, TimeUnit.SECONDS, maxKeys, 8, clock::get);
+    }
+
+    @Test
+    void tryAcquire_ShouldAllowBurstThenReportWait() {
+        TokenBucketLimiter limiter = limiter(3, 100);
+
+        assertEquals(0, limiter.tryAcquire("a@test.com"));
+        assertEquals(0, limiter.tryAcquire("a@test.com"));
+        assertEquals(0, limiter.tryAcquire("a@test.com"));
+
+        long wait = limiter.tryAcquire("a@test.com");
+        assertTrue(wait > 0);
+        assertTrue(wait <= TimeUnit.SECONDS.toNanos(20)); // One token every 20s
+        assertEquals(0, limiter.tryAcquire("b@test.com")); // Keys are independent
+    }
+
+    @Test
+    void tryAcquire_ShouldRefillLazily() {
+        TokenBucketLimiter limiter = limiter(2, 100);
+        limiter.tryAcquire("ip");
+        limiter.tryAcquire("ip");
+        assertNotEquals(0, limiter.tryAcquire("ip"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30)); // Half a window = one token
+
+        assertEquals(0, limiter.tryAcquire("ip"));
+        assertNotEquals(0, limiter.tryAcquire("ip"));
+    }
+
+    @Test
+    void tracking_ShouldStayBoundedAndDropIdleKeys() {
+        TokenBucketLimiter limiter = limiter(5, 64);
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("key-" + i);
+        }
+        assertTrue(limiter.size() <= 64);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        limiter.tryAcquire("fresh");
+        assertTrue(limiter.size() <= 64);
+    }
+
+    @Test
+    void concurrentCallers_ShouldNeverExceedCapacity() throws Exception {
+        int capacity = 100;
+        TokenBucketLimiter limiter = limiter(capacity, 1_000); // Frozen clock: no refill during the test
+        int threads = 16;
+        int callsPerThread = 10_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<int[]>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int[] allowed = new int[2];
+                    for (int i = 0; i < callsPerThread; i++) {
+                        if (limiter.tryAcquire("shared") == 0) allowed[0]++;
+                        if (limiter.tryAcquire("own-" + thread) == 0) allowed[1]++;
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+
+            int sharedAllowed = 0;
+            for (Future<int[]> result : results) {
+                int[] allowed = result.get(30, TimeUnit.SECONDS);
+                sharedAllowed += allowed[0];
+                assertEquals(capacity, allowed[1]);
+            }
+            assertEquals(capacity, sharedAllowed);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
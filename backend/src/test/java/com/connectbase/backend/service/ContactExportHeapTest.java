@@ -0,0 +1,100 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.format.ContactWriter;
+import com.connectbase.backend.format.CsvFormat;
+import com.connectbase.backend.format.FormatOptions;
+import com.connectbase.backend.model.Contact;
+import com.connectbase.backend.model.User;
+import com.connectbase.backend.repo.ContactBatchInserter;
+import com.connectbase.backend.repo.UserRepo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports 500k contacts inside the 256 MB heap of {@code ./gradlew heapLimitedTest}, and checks that the first
+ * byte leaves before the cursor query has produced its rows. Shares the file-backed H2 setup with
+ * {@link ContactImportHeapTest}.
+ */
+@Tag("heap-limited")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/import-heap-test/${random.uuid};CACHE_SIZE=8192",
+        "contacts.import.chunk-size=1000"})
+class ContactExportHeapTest {
+
+    private static final int ROWS = 500_000;
+
+    @Autowired
+    private ContactService contactService;
+
+    @Autowired
+    private ContactBatchInserter contactBatchInserter;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    void exportsHalfAMillionRowsInAFixedHeap() throws IOException {
+        assertThat(Runtime.getRuntime().maxMemory()).as("run via heapLimitedTest").isLessThanOrEqualTo(300L << 20);
+
+        User user = new User();
+        user.setEmail("bulk-exporter@example.com");
+        user.setPassword("password");
+        long userId = userRepo.save(user).getId();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Contact> chunk = new ArrayList<>(1000);
+        for (int i = 0; i < ROWS; i++) {
+            Contact contact = new Contact();
+            contact.setFirstName("First" + i);
+            contact.setLastName("Last, " + i);
+            contact.setEmail("person" + i + "@example.com");
+            contact.setTitle("Account Manager");
+            chunk.add(contact);
+            if (chunk.size() == 1000) {
+                contactBatchInserter.insert(userId, chunk, now);
+                chunk.clear();
+            }
+        }
+
+        CountingSink sink = new CountingSink();
+        long start = System.nanoTime();
+        long exported;
+        try (ContactWriter writer = new CsvFormat().writer(sink, FormatOptions.DEFAULT)) {
+            exported = contactService.exportContacts(userId, writer);
+        }
+        long total = System.nanoTime() - start;
+
+        assertThat(exported).isEqualTo(ROWS);
+        assertThat(sink.lines).isEqualTo(ROWS + 1);
+        assertThat(sink.firstByteAt - start).as("time to first byte").isLessThan(total / 20);
+    }
+
+    // Discards the export, keeping only the line count and when the first byte arrived
+    private static final class CountingSink extends OutputStream {
+        long lines;
+        long firstByteAt;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            if (firstByteAt == 0 && length > 0) firstByteAt = System.nanoTime();
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes[i] == '\n') lines++;
+            }
+        }
+    }
+}
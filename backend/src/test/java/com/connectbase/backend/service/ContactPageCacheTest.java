@@ -0,0 +1,129 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.dto.ContactView;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContactPageCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ContactPageCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = newCache(true, true, 64, 20_000);
+    }
+
+    @Test
+    void repeatedPageIsLoadedOnce() {
+        Page<ContactView> first = cache.get(ContactPageCache.Endpoint.LIST, 1, 0, null, 0, 10, loader("alice"));
+        Page<ContactView> second = cache.get(ContactPageCache.Endpoint.LIST, 1, 0, null, 0, 10, loader("alice"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.hitRatio()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("contacts.page.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void pagesAreKeyedByUserEndpointKeywordAndPosition() {
+        cache.get(ContactPageCache.Endpoint.LIST, 1, 0, null, 0, 10, loader("a"));
+        cache.get(ContactPageCache.Endpoint.LIST, 2, 0, null, 0, 10, loader("b"));
+        cache.get(ContactPageCache.Endpoint.LIST, 1, 0, null, 1, 10, loader("c"));
+        cache.get(ContactPageCache.Endpoint.SEARCH, 1, 0, "ali", 0, 10, loader("d"));
+        cache.get(ContactPageCache.Endpoint.SEARCH, 1, 0, "bob", 0, 10, loader("e"));
+
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void writeInvalidatesOnlyThatUsersPages() {
+        cache.get(ContactPageCache.Endpoint.LIST, 1, 0, null, 0, 10, loader("before"));
+        cache.get(ContactPageCache.Endpoint.LIST, 2, 0, null, 0, 10, loader("other"));
+
+        // A write bumped user 1's version
+        Page<ContactView> reloaded = cache.get(ContactPageCache.Endpoint.LIST, 1, 1, null, 0, 10, loader("after"));
+        cache.get(ContactPageCache.Endpoint.LIST, 2, 0, null, 0, 10, loader("other"));
+
+        assertThat(reloaded.getContent().get(0).firstName()).isEqualTo("after");
+        assertThat(loads).hasValue(3); // User 2 was still a hit
+    }
+
+    @Test
+    void disabledEndpointAlwaysLoads() {
+        cache = newCache(true, false, 64, 20_000);
+
+        cache.get(ContactPageCache.Endpoint.SEARCH, 1, 0, "ali", 0, 10, loader("a"));
+        cache.get(ContactPageCache.Endpoint.SEARCH, 1, 0, "ali", 0, 10, loader("a"));
+        cache.get(ContactPageCache.Endpoint.LIST, 1, 0, null, 0, 10, loader("a"));
+        cache.get(ContactPageCache.Endpoint.LIST, 1, 0, null, 0, 10, loader("a"));
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        assertThatThrownBy(() -> cache.get(ContactPageCache.Endpoint.LIST, 1, 0, null, 0, 10, () -> {
+            throw new IllegalArgumentException("Page index must not be less than zero");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        cache.get(ContactPageCache.Endpoint.LIST, 1, 0, null, 0, 10, loader("a"));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void entryCountIsBoundedEvenForTinyPages() {
+        cache = newCache(true, true, 1, 50);
+
+        for (int page = 0; page < 500; page++) {
+            cache.get(ContactPageCache.Endpoint.LIST, 1, 0, null, page, 1, loader("a"));
+        }
+        cleanUp();
+
+        // Each entry weighs at least 1 MB / 50, so at most 50 fit
+        assertThat(cache.weight()).isLessThanOrEqualTo(1024 * 1024);
+        assertThat(cache.evictionCount()).isGreaterThanOrEqualTo(450);
+        assertThat(meterRegistry.get("contacts.page.cache.weight").gauge().value()).isEqualTo(cache.weight());
+    }
+
+    private ContactPageCache newCache(boolean listEnabled, boolean searchEnabled, long maxWeightMb, long maxEntries) {
+        meterRegistry = new SimpleMeterRegistry();
+        ContactPageCache pageCache = new ContactPageCache();
+        ReflectionTestUtils.setField(pageCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(pageCache, "listEnabled", listEnabled);
+        ReflectionTestUtils.setField(pageCache, "searchEnabled", searchEnabled);
+        ReflectionTestUtils.setField(pageCache, "maxWeightMb", maxWeightMb);
+        ReflectionTestUtils.setField(pageCache, "maxEntries", maxEntries);
+        pageCache.init();
+        return pageCache;
+    }
+
+    // Caffeine evicts asynchronously on the common pool; settle before asserting on size
+    private void cleanUp() {
+        ((Cache<?, ?>) ReflectionTestUtils.getField(cache, "cache")).cleanUp();
+    }
+
+    private Supplier<Page<ContactView>> loader(String firstName) {
+        return () -> {
+            loads.incrementAndGet();
+            LocalDateTime now = LocalDateTime.now();
+            return new PageImpl<>(List.of(new ContactView(1, firstName, "Smith", "Engineer", null, null, null,
+                    firstName + "@example.com", "555-0100", now, now)));
+        };
+    }
+}
@@ -1,24 +1,38 @@
 package com.connectbase.backend.service;
 
+import com.connectbase.backend.dto.ContactView;
 import com.connectbase.backend.model.Contact;
+import com.connectbase.backend.model.ImageStatus;
 import com.connectbase.backend.model.User;
 import com.connectbase.backend.repo.ContactRepo;
+import com.connectbase.backend.repo.UserRepo;
+import com.connectbase.backend.search.ContactSearchIndex;
+import com.connectbase.backend.search.ContactSuggestion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,7 +42,22 @@ class ContactServiceTest {
     private ContactRepo contactRepo;
 
     @Mock
-    private CloudinaryService cloudinaryService;
+    private UserRepo userRepo;
+
+    @Mock
+    private ImageUploadService imageUploadService;
+
+    @Mock
+    private ContactSearchIndex contactSearchIndex;
+
+    @Mock
+    private ContactVersionTracker contactVersions;
+
+    @Spy // Never initialized, so every lookup goes straight to the repository
+    private ContactPageCache pageCache = new ContactPageCache();
+
+    @Spy // Runs the callbacks without a database
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
 
     @InjectMocks
     private ContactService contactService;
@@ -52,56 +81,159 @@ class ContactServiceTest {
     @Test
     void createContact_ShouldSaveContact() {
         // Arrange
+        when(userRepo.getReferenceById(1L)).thenReturn(user);
         when(contactRepo.save(any(Contact.class))).thenReturn(contact);
 
         // Act
-        Contact created = contactService.createContact(user, contact, null);
+        Contact created = contactService.createContact(1L, contact, null);
 
         // Assert
         assertNotNull(created);
         assertEquals("Test", created.getFirstName());
         verify(contactRepo, times(1)).save(any(Contact.class));
+        verify(userRepo, never()).findById(anyLong());
+        verify(contactVersions).bump(1L);
     }
 
     @Test
-    void createContact_WithImage_ShouldUploadAndSave() {
+    void createContact_WithImage_ShouldSavePendingAndUploadInBackground() {
         // Arrange
         MultipartFile mockFile = mock(MultipartFile.class);
-        when(mockFile.isEmpty()).thenReturn(false);
-        when(cloudinaryService.uploadFile(mockFile)).thenReturn("http://image.url");
-        when(contactRepo.save(any(Contact.class))).thenReturn(contact);
+        ImageUploadService.Pending pending = new ImageUploadService.Pending(Path.of("image.upload"));
+        when(imageUploadService.prepare(mockFile)).thenReturn(pending);
+        when(contactRepo.save(any(Contact.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
-        Contact created = contactService.createContact(user, contact, mockFile);
+        Contact created = contactService.createContact(1L, contact, mockFile);
 
         // Assert
-        verify(cloudinaryService, times(1)).uploadFile(mockFile);
-        verify(contactRepo, times(1)).save(any(Contact.class));
-        // Note: In a real run, we'd assert contact.getImage() is set,
-        // but here we are returning the 'contact' object which we manually set up in setUp().
+        assertEquals(ImageStatus.PENDING, created.getImageStatus());
+        assertNull(created.getImage());
+        verify(imageUploadService).start(pending, ImageUploadService.Owner.CONTACT, 100L, 1L);
+        verify(imageUploadService, never()).abandon(any());
+    }
+
+    @Test
+    void createContact_WhenSaveFails_ShouldAbandonImage() {
+        MultipartFile mockFile = mock(MultipartFile.class);
+        ImageUploadService.Pending pending = new ImageUploadService.Pending(Path.of("image.upload"));
+        when(imageUploadService.prepare(mockFile)).thenReturn(pending);
+        when(contactRepo.save(any(Contact.class))).thenThrow(new IllegalStateException("Database down"));
+
+        assertThrows(IllegalStateException.class, () -> contactService.createContact(1L, contact, mockFile));
+        verify(imageUploadService).abandon(pending);
+        verify(imageUploadService, never()).start(any(), any(), anyLong(), anyLong());
     }
 
     @Test
     void getAllContacts_ShouldReturnPage() {
         // Arrange
-        Page<Contact> contactPage = new PageImpl<>(Collections.singletonList(contact));
-        when(contactRepo.findByUser(any(User.class), any(PageRequest.class))).thenReturn(contactPage);
+        Page<ContactView> contactPage = new PageImpl<>(Collections.singletonList(ContactView.from(contact)));
+        when(contactRepo.findViewsByUserId(eq(1L), any(PageRequest.class))).thenReturn(contactPage);
 
         // Act
-        Page<Contact> result = contactService.getAllContacts(user, 0, 10);
+        Page<ContactView> result = contactService.getAllContacts(1L, 0L, 0, 10);
 
         // Assert
         assertEquals(1, result.getTotalElements());
-        verify(contactRepo, times(1)).findByUser(any(User.class), any(PageRequest.class));
+        verify(contactRepo, times(1)).findViewsByUserId(eq(1L), any(PageRequest.class));
+    }
+
+    @Test
+    void searchContacts_ShouldUseWarmIndexWithoutLikeQuery() {
+        // Arrange
+        Contact other = new Contact();
+        other.setId(101L);
+        when(contactSearchIndex.search(1L, "test")).thenReturn(new long[]{100L, 101L, 102L});
+        when(contactRepo.findViewsByUserIdAndIdIn(1L, List.of(100L, 101L)))
+                .thenReturn(List.of(ContactView.from(contact), ContactView.from(other)));
+
+        // Act
+        Page<ContactView> result = contactService.searchContacts(1L, 0L, "test", 0, 2);
+
+        // Assert
+        assertEquals(3, result.getTotalElements());
+        assertEquals(List.of(100L, 101L), result.getContent().stream().map(ContactView::id).toList());
+        verify(contactRepo, never()).searchContacts(anyLong(), any(), any());
+    }
+
+    @Test
+    void searchContacts_ShouldFallBackToSql_WhenIndexIsCold() {
+        // Arrange
+        when(contactSearchIndex.search(1L, "test")).thenReturn(null);
+        when(contactRepo.searchContacts(eq(1L), eq("test"), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(Collections.singletonList(ContactView.from(contact))));
+
+        // Act
+        Page<ContactView> result = contactService.searchContacts(1L, 0L, "test", 0, 10);
+
+        // Assert
+        assertEquals(1, result.getTotalElements());
+    }
+
+    @Test
+    void searchContacts_ShouldNotSwitchToWordSearch_WhenIndexIsCold() {
+        ReflectionTestUtils.setField(contactService, "fullTextEnabled", true);
+        when(contactSearchIndex.search(1L, "smith")).thenReturn(null);
+        when(contactRepo.searchContacts(eq(1L), eq("smith"), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        contactService.searchContacts(1L, 0L, "smith", 0, 10);
+
+        verify(contactRepo, never()).searchContactIdsFullText(anyLong(), any(), any());
+    }
+
+    @Test
+    void wordSearchContacts_ShouldLoadViewsForMatchingIds_OnlyWhenEnabled() {
+        assertThrows(IllegalArgumentException.class, () -> contactService.wordSearchContacts(1L, "smith", 0, 10));
+
+        ReflectionTestUtils.setField(contactService, "fullTextEnabled", true);
+        when(contactRepo.searchContactIdsFullText(eq(1L), eq("+smi* +acm*"), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(100L), PageRequest.of(0, 1), 3));
+        ContactView view = ContactView.from(contact);
+        when(contactRepo.findViewsByUserIdAndIdIn(1L, List.of(100L))).thenReturn(List.of(view));
+
+        Page<ContactView> result = contactService.wordSearchContacts(1L, "Smi Acm", 0, 1);
+
+        assertEquals(List.of(view), result.getContent());
+        assertEquals(3, result.getTotalElements());
+        assertThrows(IllegalArgumentException.class, () -> contactService.wordSearchContacts(1L, "Jo", 0, 10));
+    }
+
+    @Test
+    void fuzzySearchContacts_ShouldFallBackToExactSearch_WhenIndexIsCold() {
+        when(contactSearchIndex.fuzzySearch(eq(1L), eq("jhon"), anyInt())).thenReturn(null);
+        when(contactRepo.searchContacts(eq(1L), eq("jhon"), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        Page<ContactView> result = contactService.fuzzySearchContacts(1L, 0L, "jhon", 0, 10);
+
+        assertEquals(0, result.getTotalElements());
+        verify(contactRepo, never()).findViewsByUserIdAndIdIn(anyLong(), any());
+    }
+
+    @Test
+    void suggestContacts_ShouldUseIndex_AndFallBackToPrefixQueryWhenCold() {
+        // Arrange
+        List<ContactSuggestion> fromIndex = List.of(new ContactSuggestion(100L, "Test User"));
+        when(contactSearchIndex.suggest(eq(1L), eq("Te"), anyInt())).thenReturn(fromIndex);
+        when(contactSearchIndex.suggest(eq(2L), eq("Te"), anyInt())).thenReturn(null);
+        when(contactRepo.findSuggestions(2L, "Te", 8)).thenReturn(List.of());
+
+        // Act & Assert
+        assertEquals(fromIndex, contactService.suggestContacts(1L, "Te", 8));
+        assertEquals(List.of(), contactService.suggestContacts(2L, "Te", 8));
+        assertEquals(List.of(), contactService.suggestContacts(1L, "  ", 8));
+        verify(contactRepo, never()).findSuggestions(eq(1L), any(), anyInt());
     }
 
     @Test
     void getContactById_ShouldReturnContact_WhenOwnedByUser() {
         // Arrange
-        when(contactRepo.findById(100L)).thenReturn(Optional.of(contact));
+        when(contactRepo.findByIdAndUserId(100L, 1L)).thenReturn(Optional.of(contact));
 
         // Act
-        Contact result = contactService.getContactById(100L, user);
+        Contact result = contactService.getContactById(100L, 1L);
 
         // Assert
         assertEquals(100L, result.getId());
@@ -110,11 +242,17 @@ class ContactServiceTest {
     @Test
     void getContactById_ShouldThrowException_WhenNotOwnedByUser() {
         // Arrange
-        User otherUser = new User();
-        otherUser.setId(2L); // Different ID
-        when(contactRepo.findById(100L)).thenReturn(Optional.of(contact));
+        when(contactRepo.findByIdAndUserId(100L, 2L)).thenReturn(Optional.empty()); // Different user ID
 
         // Act & Assert
-        assertThrows(RuntimeException.class, () -> contactService.getContactById(100L, otherUser));
+        assertThrows(RuntimeException.class, () -> contactService.getContactById(100L, 2L));
+    }
+
+    @Test
+    void toFullTextTerms_ShouldBuildPrefixTerms_OrFallBackForShortWords() {
+        assertEquals("+john* +smith*", ContactService.toFullTextTerms("  John SMITH "));
+        assertEquals("+alice* +test*", ContactService.toFullTextTerms("alice@test"));
+        assertNull(ContactService.toFullTextTerms("Jo Smith")); // Below InnoDB's minimum token size
+        assertNull(ContactService.toFullTextTerms("--"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.dto.StoredImage;
+import com.connectbase.backend.repo.ContactRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImageCleanupServiceTest {
+
+    private static final String URL = "https://res.cloudinary.com/demo/image/upload/v1/";
+
+    @Mock
+    private CloudinaryService cloudinaryService;
+
+    @Mock
+    private ContactRepo contactRepo;
+
+    @InjectMocks
+    private ImageCleanupService imageCleanupService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(imageCleanupService, "batchSize", 100);
+    }
+
+    @Test
+    void drain_ShouldKeepFilesThatAnUploadReusedAfterTheyWereQueued() {
+        when(cloudinaryService.extractPublicIdFromUrl(anyString())).thenCallRealMethod();
+        String reused = "a".repeat(64);
+        String dropped = "b".repeat(64);
+        // Nothing uses either image when the contacts are deleted; by the drain an upload has taken the first one up
+        when(contactRepo.findImageHashesInUse(eq(1L), any())).thenReturn(List.of(), List.of(reused));
+
+        int queued = imageCleanupService.enqueueUnreferenced(1L, List.of(
+                new StoredImage(URL + "reused.jpg", URL + "reused_thumb.jpg", reused),
+                new StoredImage(URL + "dropped.jpg", URL + "dropped_thumb.jpg", dropped)));
+        imageCleanupService.enqueue(List.of("avatar"));
+        imageCleanupService.drain();
+
+        assertEquals(2, queued);
+        verify(cloudinaryService).deleteFiles(List.of("dropped", "dropped_thumb", "avatar"));
+        assertEquals(0, imageCleanupService.pendingCount());
+    }
+}
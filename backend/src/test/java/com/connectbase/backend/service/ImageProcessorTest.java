@@ -0,0 +1,160 @@
+package com.connectbase.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageProcessorTest {
+
+    @TempDir
+    Path dir;
+
+    private final ImageProcessor processor = processor(1024, 128, 50_000_000L);
+
+    @Test
+    void shrinksAPhotoAndCutsASquareThumbnail() throws IOException {
+        Path photo = photo(dir, 2400, 1600);
+
+        ImageProcessor.Normalized normalized = processor.normalize(photo, true);
+
+        BufferedImage image = ImageIO.read(normalized.image().toFile());
+        assertThat(image.getWidth()).isEqualTo(1024);
+        assertThat(image.getHeight()).isEqualTo(683);
+        BufferedImage thumbnail = ImageIO.read(normalized.thumbnail().toFile());
+        assertThat(thumbnail.getWidth()).isEqualTo(128);
+        assertThat(thumbnail.getHeight()).isEqualTo(128);
+        assertThat(Files.size(normalized.image())).isLessThan(Files.size(photo) / 5);
+        assertThat(Files.size(normalized.thumbnail())).isLessThan(Files.size(normalized.image()) / 10);
+    }
+
+    @Test
+    void turnsPhotosUprightAndDropsTheirExif() throws IOException {
+        // Orientation 6: stored landscape, displayed rotated 90 degrees clockwise
+        byte[] exif = {'E', 'x', 'i', 'f', 0, 0, 'I', 'I', 42, 0, 8, 0, 0, 0, 1, 0,
+                0x12, 0x01, 3, 0, 1, 0, 0, 0, 6, 0, 0, 0, 0, 0, 0, 0};
+        Path photo = dir.resolve("rotated.jpg");
+        Files.write(photo, withApp1(jpeg(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB)), exif));
+
+        ImageProcessor.Normalized normalized = processor.normalize(photo, false);
+
+        BufferedImage image = ImageIO.read(normalized.image().toFile());
+        assertThat(image.getWidth()).isEqualTo(200);
+        assertThat(image.getHeight()).isEqualTo(400);
+        assertThat(normalized.thumbnail()).isNull();
+        assertThat(indexOfMarker(Files.readAllBytes(normalized.image()), 0xE1)).isNegative();
+    }
+
+    @Test
+    void smallImagesKeepTheirSizeAndTransparencyTurnsWhite() throws IOException {
+        Path png = dir.resolve("logo.png");
+        ImageIO.write(new BufferedImage(64, 48, BufferedImage.TYPE_INT_ARGB), "png", png.toFile());
+
+        BufferedImage image = ImageIO.read(processor.normalize(png, true).image().toFile());
+
+        assertThat(image.getWidth()).isEqualTo(64);
+        assertThat(image.getHeight()).isEqualTo(48);
+        assertThat(image.getRGB(32, 24) & 0xFF).isGreaterThan(250);
+    }
+
+    @Test
+    void filesImageIoCannotDecodeAreLeftAlone() throws IOException {
+        Path heic = Files.write(dir.resolve("photo.heic"), new byte[]{0, 0, 0, 24, 'f', 't', 'y', 'p', 'h', 'e', 'i', 'c'});
+
+        assertThat(processor.normalize(heic, true)).isNull();
+    }
+
+    @Test
+    void rejectsImagesOverThePixelCapBeforeDecodingThem() throws IOException {
+        Path photo = photo(dir, 400, 300);
+
+        assertThatThrownBy(() -> processor(1024, 128, 100_000).normalize(photo, true))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Image is too large: 400x300");
+    }
+
+    @Test
+    void hashIsTheSha256OfTheFile() throws IOException {
+        Path file = Files.writeString(dir.resolve("abc"), "abc");
+
+        assertThat(ImageProcessor.hash(file))
+                .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+    }
+
+    static ImageProcessor processor(int maxDimension, int thumbnailSize, long maxPixels) {
+        ImageProcessor processor = new ImageProcessor();
+        ReflectionTestUtils.setField(processor, "maxDimension", maxDimension);
+        ReflectionTestUtils.setField(processor, "thumbnailSize", thumbnailSize);
+        ReflectionTestUtils.setField(processor, "quality", 0.82f);
+        ReflectionTestUtils.setField(processor, "maxPixels", maxPixels);
+        return processor;
+    }
+
+    // Gradients with sensor-like noise, saved at the high quality phones use: compresses about like a photo
+    static Path photo(Path dir, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(32);
+                image.setRGB(x, y, (x * 200 / width + noise) << 16 | (y * 200 / height + noise) << 8 | (x + y) % 200 + noise);
+            }
+        }
+        Path file = Files.createTempFile(dir, "photo", ".jpg");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (FileImageOutputStream out = new FileImageOutputStream(file.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.95f);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return file;
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    // Replaces the JFIF APP0 segment after SOI with an APP1 one, as in camera files
+    private static byte[] withApp1(byte[] jpeg, byte[] payload) {
+        int app0End = 4 + ((jpeg[4] & 0xFF) << 8 | jpeg[5] & 0xFF);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(0xFF);
+        out.write(0xE1);
+        out.write((payload.length + 2) >> 8);
+        out.write((payload.length + 2) & 0xFF);
+        out.write(payload, 0, payload.length);
+        out.write(jpeg, app0End, jpeg.length - app0End);
+        return out.toByteArray();
+    }
+
+    // Markers before the first scan
+    private static int indexOfMarker(byte[] jpeg, int marker) {
+        for (int i = 2; i + 3 < jpeg.length; ) {
+            if ((jpeg[i] & 0xFF) != 0xFF || (jpeg[i + 1] & 0xFF) == 0xDA) return -1;
+            if ((jpeg[i + 1] & 0xFF) == marker) return i;
+            i += 2 + ((jpeg[i + 2] & 0xFF) << 8 | jpeg[i + 3] & 0xFF);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,80 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.model.Contact;
+import com.connectbase.backend.model.ImageStatus;
+import com.connectbase.backend.model.User;
+import com.connectbase.backend.repo.ContactRepo;
+import com.connectbase.backend.repo.UserRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"contacts.images.upload.max-attempts=3", "contacts.images.upload.backoff-base-ms=1000",
+        "contacts.images.upload.stale-after-ms=60000"})
+class ImageUploadServiceTest {
+
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    @Autowired
+    private ContactRepo contactRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private ContactVersionTracker contactVersions;
+
+    @AfterEach
+    void tearDown() {
+        contactRepo.deleteAll();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void failStaleUploads_ShouldLeaveUploadsOtherInstancesMayStillBeRetrying() {
+        // Retry window: backoffs of 1 s and 2 s, plus the one minute margin
+        long now = System.currentTimeMillis();
+        User owner = user("owner@example.com", now);
+        User legacy = user("legacy@example.com", null);
+        Contact stale = contact(owner, now - 64_000);
+        Contact recent = contact(owner, now - 30_000);
+        Contact unknown = contact(owner, null);
+        long version = contactVersions.current(owner.getId()).version();
+
+        imageUploadService.failStaleUploads();
+
+        assertThat(status(stale)).isEqualTo(ImageStatus.FAILED);
+        assertThat(status(unknown)).isEqualTo(ImageStatus.FAILED);
+        assertThat(status(recent)).isEqualTo(ImageStatus.PENDING);
+        assertThat(userRepo.findById(owner.getId()).orElseThrow().getProfilePicStatus()).isEqualTo(ImageStatus.PENDING);
+        assertThat(userRepo.findById(legacy.getId()).orElseThrow().getProfilePicStatus()).isEqualTo(ImageStatus.FAILED);
+        // Cached pages and ETags of the owner's list show the new status
+        assertThat(contactVersions.current(owner.getId()).version()).isEqualTo(version + 1);
+    }
+
+    private User user(String email, Long requestedAt) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setProfilePicStatus(ImageStatus.PENDING);
+        user.setProfilePicRequestedAt(requestedAt);
+        return userRepo.save(user);
+    }
+
+    private Contact contact(User owner, Long requestedAt) {
+        Contact contact = new Contact();
+        contact.setFirstName("Pending");
+        contact.setImageStatus(ImageStatus.PENDING);
+        contact.setImageRequestedAt(requestedAt);
+        contact.setUser(owner);
+        return contactRepo.save(contact);
+    }
+
+    private ImageStatus status(Contact contact) {
+        return contactRepo.findById(contact.getId()).orElseThrow().getImageStatus();
+    }
+}
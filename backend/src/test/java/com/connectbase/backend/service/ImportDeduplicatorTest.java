@@ -0,0 +1,82 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.model.Contact;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportDeduplicatorTest {
+
+    @Test
+    void skipDropsRowsMatchingExistingContactsOrEarlierRows() {
+        ImportDeduplicator dedupe = new ImportDeduplicator(DuplicateMode.SKIP, 1);
+        dedupe.addExisting(7, "Alice@Test.com", "555-0100");
+
+        dedupe.add(contact("Alice", " alice@test.com ", null));   // Existing, by email
+        dedupe.add(contact("Al", "", "+1 (555) 0100"));           // Country code: different digits, new
+        dedupe.add(contact("Ally", "", "555 0100"));               // Existing, by phone digits
+        dedupe.add(contact("Bob", "bob@example.com", null));
+        dedupe.add(contact("Bobby", "BOB@example.com", null));     // Earlier row
+
+        assertThat(dedupe.inserted()).isEqualTo(2);
+        assertThat(dedupe.skipped()).isEqualTo(3);
+        assertThat(dedupe.pendingInserts()).extracting(Contact::getFirstName).containsExactly("Al", "Bob");
+        assertThat(dedupe.pendingUpdates()).isEmpty();
+    }
+
+    @Test
+    void mergeQueuesUpdatesForWrittenContactsAndMergesPendingRowsInMemory() {
+        ImportDeduplicator dedupe = new ImportDeduplicator(DuplicateMode.MERGE, 1);
+        dedupe.addExisting(7, "alice@test.com", null);
+
+        dedupe.add(contact("Alicia", "alice@test.com", "555-0100"));
+        dedupe.add(contact("Bob", "bob@example.com", null));
+        dedupe.add(contact("Robert", "bob@example.com", "555-0101"));
+
+        assertThat(dedupe.pendingUpdates()).singleElement().satisfies(update -> assertThat(update.getId()).isEqualTo(7));
+        assertThat(dedupe.pendingInserts()).singleElement().satisfies(bob -> {
+            assertThat(bob.getFirstName()).isEqualTo("Bob");
+            assertThat(bob.getPhone()).isEqualTo("555-0101");
+        });
+        assertThat(dedupe.merged()).isEqualTo(2);
+
+        // Once written, later rows resolve to the new id instead of the pending row
+        dedupe.written(new long[]{42});
+        dedupe.add(contact("B", "", "555 0101"));
+        assertThat(dedupe.pendingUpdates()).singleElement().satisfies(update -> assertThat(update.getId()).isEqualTo(42));
+    }
+
+    @Test
+    void overwriteLetsNonBlankFieldsOfTheLaterRowWin() {
+        ImportDeduplicator dedupe = new ImportDeduplicator(DuplicateMode.OVERWRITE, 1);
+
+        dedupe.add(contact("Bob", "bob@example.com", "555-0100"));
+        dedupe.add(contact("Robert", "bob@example.com", ""));
+
+        Contact bob = dedupe.pendingInserts().get(0);
+        assertThat(bob.getFirstName()).isEqualTo("Robert");
+        assertThat(bob.getPhone()).isEqualTo("555-0100");
+    }
+
+    @Test
+    void hashMapGrowsPastItsInitialCapacity() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        for (long key = 1; key <= 100_000; key++) {
+            map.put(ImportDeduplicator.hash(Long.toString(key)), key);
+        }
+
+        assertThat(map.size()).isEqualTo(100_000);
+        for (long key = 1; key <= 100_000; key++) {
+            assertThat(map.get(ImportDeduplicator.hash(Long.toString(key)))).isEqualTo(key);
+        }
+        assertThat(map.get(ImportDeduplicator.hash("missing"))).isEqualTo(LongLongHashMap.NO_VALUE);
+    }
+
+    private static Contact contact(String firstName, String email, String phone) {
+        Contact contact = new Contact();
+        contact.setFirstName(firstName);
+        contact.setEmail(email);
+        contact.setPhone(phone);
+        return contact;
+    }
+}
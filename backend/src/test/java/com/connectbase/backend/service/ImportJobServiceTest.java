@@ -0,0 +1,210 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.dto.ImportJobStatus;
+import com.connectbase.backend.dto.ImportRejection;
+import com.connectbase.backend.exceptions.TooManyRequestsException;
+import com.connectbase.backend.format.CsvFormat;
+import com.connectbase.backend.format.FormatOptions;
+import com.connectbase.backend.model.Contact;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImportJobServiceTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private ContactService contactService;
+    private ImportJobService jobs;
+    private final CountDownLatch releaseChunks = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        contactService = mock(ContactService.class);
+        jobs = new ImportJobService();
+        ReflectionTestUtils.setField(jobs, "contactService", contactService);
+        ReflectionTestUtils.setField(jobs, "parallelCsvParser", ParallelCsvParserTest.parser(1, 1024, 0));
+        ReflectionTestUtils.setField(jobs, "threads", 1);
+        ReflectionTestUtils.setField(jobs, "queueCapacity", 4);
+        ReflectionTestUtils.setField(jobs, "maxPerUser", 1);
+        ReflectionTestUtils.setField(jobs, "validationThreads", 4);
+        ReflectionTestUtils.setField(jobs, "maxReportedRejections", 2);
+        ReflectionTestUtils.setField(jobs, "retentionMinutes", 60L);
+        ReflectionTestUtils.setField(jobs, "spoolDir", spoolDir.toString());
+        ReflectionTestUtils.setField(jobs, "chunkSize", 10);
+        jobs.init();
+        when(contactService.newDeduplicator(anyLong(), any()))
+                .thenAnswer(invocation -> new ImportDeduplicator(invocation.getArgument(1), 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseChunks.countDown();
+        jobs.shutdown();
+    }
+
+    @Test
+    void invalidRowsAreReportedByLineAndTheRestIsImported() throws Exception {
+        when(contactService.rejectionReason(any())).thenAnswer(invocation -> {
+            Contact contact = invocation.getArgument(0);
+            return contact.getEmail().startsWith("bad") ? "Invalid email address: " + contact.getEmail() : null;
+        });
+        StringBuilder csv = new StringBuilder("First Name,Last Name,Email,Phone,Title\n");
+        for (int i = 0; i < 25; i++) {
+            csv.append("First").append(i).append(",Last,").append(i % 5 == 0 ? "bad" : "person").append(i)
+                    .append("@example.com,555-0100,Engineer\n");
+        }
+        csv.append("Too,Few\n");
+
+        ImportJobStatus done = awaitFinished(1, jobs.submit(1, file(csv), new CsvFormat(), FormatOptions.DEFAULT, DuplicateMode.SKIP));
+
+        assertThat(done.state()).isEqualTo("COMPLETED");
+        assertThat(done.rowsProcessed()).isEqualTo(26);
+        assertThat(done.rowsImported()).isEqualTo(20);
+        assertThat(done.rowsRejected()).isEqualTo(6);
+        // Only the first maxReportedRejections are listed, in file order within a chunk
+        assertThat(done.rejections()).extracting(ImportRejection::line).containsExactly(2L, 7L);
+        verify(contactService, times(3)).importChunk(eq(1L), any());
+        try (var files = Files.list(spoolDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void largeCsvFilesAreParsedInParallelWithTheSameOutcome() throws Exception {
+        ParallelCsvParser parser = ParallelCsvParserTest.parser(4, 128, 0);
+        ReflectionTestUtils.setField(jobs, "parallelCsvParser", parser);
+        when(contactService.rejectionReason(any())).thenAnswer(invocation -> {
+            Contact contact = invocation.getArgument(0);
+            return contact.getEmail().startsWith("bad") ? "Invalid email address: " + contact.getEmail() : null;
+        });
+        StringBuilder csv = new StringBuilder("First Name,Last Name,Email,Phone,Title\n");
+        for (int i = 0; i < 25; i++) {
+            csv.append("First").append(i).append(",Last,").append(i % 5 == 0 ? "bad" : "person").append(i)
+                    .append("@example.com,555-0100,Engineer\n");
+        }
+        csv.append("Too,Few\n");
+
+        try {
+            ImportJobStatus done = awaitFinished(1, jobs.submit(1, file(csv), new CsvFormat(), FormatOptions.DEFAULT, DuplicateMode.SKIP));
+
+            assertThat(done.state()).isEqualTo("COMPLETED");
+            assertThat(done.rowsProcessed()).isEqualTo(26);
+            assertThat(done.rowsImported()).isEqualTo(20);
+            assertThat(done.rowsRejected()).isEqualTo(6);
+            assertThat(done.rejections()).extracting(ImportRejection::line).containsExactly(2L, 7L);
+            verify(contactService, times(3)).importChunk(eq(1L), any());
+        } finally {
+            parser.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentJobsAreCappedPerUser() throws Exception {
+        blockChunks();
+        ImportJobStatus first = jobs.submit(1, file(rows(5)), new CsvFormat(), FormatOptions.DEFAULT, DuplicateMode.SKIP);
+
+        assertThatThrownBy(() -> jobs.submit(1, file(rows(5)), new CsvFormat(), FormatOptions.DEFAULT, DuplicateMode.SKIP))
+                .isInstanceOf(TooManyRequestsException.class);
+        ImportJobStatus otherUser = jobs.submit(2, file(rows(5)), new CsvFormat(), FormatOptions.DEFAULT, DuplicateMode.SKIP);
+
+        releaseChunks.countDown();
+        awaitFinished(1, first);
+        awaitFinished(2, otherUser);
+        assertThat(awaitFinished(1, jobs.submit(1, file(rows(5)), new CsvFormat(), FormatOptions.DEFAULT, DuplicateMode.SKIP)).state())
+                .isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void cancelStopsARunningJobAfterItsCurrentChunk() throws Exception {
+        blockChunks();
+        ImportJobStatus job = jobs.submit(1, file(rows(100)), new CsvFormat(), FormatOptions.DEFAULT, DuplicateMode.SKIP);
+        awaitState(1, job, "RUNNING");
+
+        jobs.cancel(1, job.id());
+        releaseChunks.countDown();
+
+        ImportJobStatus done = awaitFinished(1, job);
+        assertThat(done.state()).isEqualTo("CANCELLED");
+        assertThat(done.rowsImported()).isEqualTo(10);
+        verify(contactService, times(1)).importChunk(anyLong(), any());
+    }
+
+    @Test
+    void cancelledQueuedJobNeverRunsAndFreesItsSlot() throws Exception {
+        blockChunks();
+        ImportJobStatus running = jobs.submit(1, file(rows(5)), new CsvFormat(), FormatOptions.DEFAULT, DuplicateMode.SKIP);
+        ImportJobStatus queued = jobs.submit(2, file(rows(5)), new CsvFormat(), FormatOptions.DEFAULT, DuplicateMode.SKIP);
+
+        assertThat(jobs.cancel(2, queued.id()).state()).isEqualTo("CANCELLED");
+        jobs.submit(2, file(rows(5)), new CsvFormat(), FormatOptions.DEFAULT, DuplicateMode.SKIP); // Slot is free again
+
+        releaseChunks.countDown();
+        awaitFinished(1, running);
+        assertThat(jobs.status(2, queued.id()).rowsProcessed()).isZero();
+    }
+
+    @Test
+    void jobsAreInvisibleToOtherUsers() throws Exception {
+        ImportJobStatus job = jobs.submit(1, file(rows(5)), new CsvFormat(), FormatOptions.DEFAULT, DuplicateMode.SKIP);
+
+        assertThatThrownBy(() -> jobs.status(2, job.id())).hasMessage("Import job not found");
+        assertThatThrownBy(() -> jobs.cancel(2, job.id())).hasMessage("Import job not found");
+    }
+
+    private void blockChunks() {
+        doAnswer(invocation -> releaseChunks.await(10, TimeUnit.SECONDS))
+                .when(contactService).importChunk(anyLong(), any());
+    }
+
+    private ImportJobStatus awaitFinished(long userId, ImportJobStatus job) throws InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            ImportJobStatus status = jobs.status(userId, job.id());
+            if (!List.of("QUEUED", "RUNNING").contains(status.state())) return status;
+            Thread.sleep(25);
+        }
+        throw new AssertionError("Import job did not finish: " + jobs.status(userId, job.id()));
+    }
+
+    private void awaitState(long userId, ImportJobStatus job, String state) throws InterruptedException {
+        for (int attempt = 0; attempt < 200 && !jobs.status(userId, job.id()).state().equals(state); attempt++) {
+            Thread.sleep(25);
+        }
+        assertThat(jobs.status(userId, job.id()).state()).isEqualTo(state);
+    }
+
+    private static CharSequence rows(int count) {
+        StringBuilder csv = new StringBuilder("First Name,Last Name,Email,Phone,Title\n");
+        for (int i = 0; i < count; i++) {
+            csv.append("First").append(i).append(",Last,person").append(i).append("@example.com,555-0100,Engineer\n");
+        }
+        return csv;
+    }
+
+    private static MockMultipartFile file(CharSequence csv) {
+        return new MockMultipartFile("file", "contacts.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,145 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.model.MailOutbox;
+import com.connectbase.backend.model.MailStatus;
+import com.connectbase.backend.model.User;
+import com.connectbase.backend.repo.MailOutboxRepo;
+import com.connectbase.backend.repo.UserRepo;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs against an in-process GreenMail SMTP server on port 3025 (see test application.properties)
+@SpringBootTest(properties = {"mail.outbox.max-attempts=2", "mail.outbox.backoff-base-ms=0"})
+class MailOutboxServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private MailOutboxService mailOutboxService;
+
+    @Autowired
+    private MailOutboxRepo mailOutboxRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("reset@example.com");
+        user.setFirstName("<Reset>");
+        user.setPassword("hash");
+        userRepo.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailOutboxRepo.deleteAll();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void generateResetCode_ShouldQueueMailInsteadOfSendingInline() {
+        authService.generateResetCode("reset@example.com");
+
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+        List<MailOutbox> queued = mailOutboxRepo.findAll();
+        assertThat(queued).hasSize(1);
+        assertThat(queued.get(0).getStatus()).isEqualTo(MailStatus.PENDING);
+        String code = userRepo.findByEmail("reset@example.com").orElseThrow().getVerificationCode();
+        assertThat(queued.get(0).getBody()).contains(code).contains("&lt;Reset&gt;");
+    }
+
+    @Test
+    void dispatchPending_ShouldDeliverBatchOverSmtp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mailOutboxService.enqueue("user" + i + "@example.com", "Subject " + i, "<p>Body " + i + "</p>");
+        }
+
+        mailOutboxService.dispatchPending();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(3);
+        assertThat(received[0].getSubject()).isEqualTo("Subject 0");
+        assertThat(mailOutboxRepo.findAll()).allMatch(mail -> mail.getStatus() == MailStatus.SENT);
+    }
+
+    @Test
+    void dispatchPending_ShouldLeaveMailClaimedByAnotherInstance() throws Exception {
+        MailOutbox claimed = mailOutboxService.enqueue("claimed@example.com", "Claimed", "<p>Body</p>");
+        MailOutbox abandoned = mailOutboxService.enqueue("abandoned@example.com", "Abandoned", "<p>Body</p>");
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(mailOutboxRepo.claim(claimed.getId(), now, now.plusMinutes(5))).isEqualTo(1);
+        // Claimed by an instance that stopped before finishing the batch
+        assertThat(mailOutboxRepo.claim(abandoned.getId(), now, now.minusSeconds(1))).isEqualTo(1);
+        assertThat(mailOutboxRepo.claim(claimed.getId(), now, now.plusMinutes(5))).isZero();
+
+        mailOutboxService.dispatchPending();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        assertThat(received[0].getSubject()).isEqualTo("Abandoned");
+        assertThat(mailOutboxRepo.findById(claimed.getId()).orElseThrow().getStatus()).isEqualTo(MailStatus.SENDING);
+        assertThat(mailOutboxRepo.findById(abandoned.getId()).orElseThrow().getStatus()).isEqualTo(MailStatus.SENT);
+    }
+
+    @Test
+    void purgeFinished_ShouldDeleteSentAndDeadMailPastRetention() {
+        LocalDateTime twoDaysAgo = LocalDateTime.now().minusDays(2);
+        MailOutbox oldSent = store(MailStatus.SENT, twoDaysAgo);
+        MailOutbox oldDead = store(MailStatus.DEAD, twoDaysAgo);
+        MailOutbox oldPending = store(MailStatus.PENDING, twoDaysAgo);
+        MailOutbox recentSent = store(MailStatus.SENT, LocalDateTime.now());
+
+        mailOutboxService.purgeFinished();
+
+        assertThat(mailOutboxRepo.findAll()).extracting(MailOutbox::getId)
+                .containsExactlyInAnyOrder(oldPending.getId(), recentSent.getId())
+                .doesNotContain(oldSent.getId(), oldDead.getId());
+    }
+
+    @Test
+    void dispatchPending_ShouldRetryThenDeadLetterWhenSmtpIsDown() {
+        greenMail.stop();
+        MailOutbox mail = mailOutboxService.enqueue("down@example.com", "Subject", "<p>Body</p>");
+
+        mailOutboxService.dispatchPending();
+        MailOutbox afterFirst = mailOutboxRepo.findById(mail.getId()).orElseThrow();
+        assertThat(afterFirst.getStatus()).isEqualTo(MailStatus.PENDING);
+        assertThat(afterFirst.getAttempts()).isEqualTo(1);
+        assertThat(afterFirst.getLastError()).isNotBlank();
+
+        mailOutboxService.dispatchPending();
+        MailOutbox afterSecond = mailOutboxRepo.findById(mail.getId()).orElseThrow();
+        assertThat(afterSecond.getStatus()).isEqualTo(MailStatus.DEAD);
+        assertThat(afterSecond.getAttempts()).isEqualTo(2);
+    }
+
+    private MailOutbox store(MailStatus status, LocalDateTime nextAttemptAt) {
+        MailOutbox mail = new MailOutbox();
+        mail.setRecipient("user@example.com");
+        mail.setSubject("Subject");
+        mail.setBody("<p>Your code is 123456</p>");
+        mail.setStatus(status);
+        mail.setNextAttemptAt(nextAttemptAt);
+        return mailOutboxRepo.save(mail);
+    }
+}
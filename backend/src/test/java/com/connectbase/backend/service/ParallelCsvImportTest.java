@@ -0,0 +1,79 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.dto.ImportResult;
+import com.connectbase.backend.model.User;
+import com.connectbase.backend.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The synchronous import with every file parsed in parallel, in ranges much smaller than the file.
+ */
+@SpringBootTest(properties = {
+        "contacts.import.parallel.threads=4",
+        "contacts.import.parallel.chunk-bytes=4096",
+        "contacts.import.parallel.min-file-bytes=0"})
+class ParallelCsvImportTest {
+
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private ContactService contactService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("parallel-" + System.nanoTime() + "@example.com");
+        user.setPassword("password");
+        user = userRepo.save(user);
+    }
+
+    @Test
+    void importsEveryRowOnce() throws IOException {
+        ImportResult result = contactService.importContacts(user.getId(), csv(ROWS, null));
+
+        assertThat(result.imported()).isEqualTo(ROWS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT email) FROM contact WHERE user_id = ?", Long.class,
+                user.getId())).isEqualTo(ROWS);
+    }
+
+    @Test
+    void anInvalidRowNearTheEndRollsBackTheWholeFile() {
+        MockMultipartFile file = csv(ROWS, "Too,Few\n");
+
+        // Rows take two lines each after the header on line 1
+        assertThatThrownBy(() -> contactService.importContacts(user.getId(), file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid record on line " + (2 + ROWS * 2) + ":");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contact WHERE user_id = ?", Long.class, user.getId()))
+                .isZero();
+    }
+
+    private MockMultipartFile csv(int rows, String lastRow) {
+        StringBuilder csv = new StringBuilder("First Name,Last Name,Email,Phone,Title\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("First").append(i).append(",\"Last,\nJr.\",person").append(i).append('.').append(user.getId())
+                    .append("@example.com,+1 415 555 0100,Engineer\n");
+        }
+        if (lastRow != null) csv.append(lastRow);
+        return new MockMultipartFile("file", "contacts.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,105 @@
+package com.connectbase.backend.service;
+
+import com.connectbase.backend.format.CsvFormat;
+import com.connectbase.backend.format.FormatOptions;
+import com.connectbase.backend.format.VCardFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ParallelCsvParserTest {
+
+    @TempDir
+    Path dir;
+
+    private ParallelCsvParser parser;
+
+    @AfterEach
+    void tearDown() {
+        if (parser != null) parser.shutdown();
+    }
+
+    @Test
+    void rowsComeBackInFileOrderWithTheirLinesAndProblems() throws IOException {
+        parser = parser(4, 64, 0);
+        StringBuilder csv = new StringBuilder("\n\nFirst Name,Last Name,Email,Phone,Title\n");
+        for (int i = 0; i < 500; i++) {
+            if (i == 250) {
+                csv.append("Too,Few\n");
+            } else {
+                csv.append("First").append(i).append(",\"Last,\nJr.\",").append(i % 100 == 7 ? "bad" : "person")
+                        .append(i).append("@example.com,555-0100,Engineer\n");
+            }
+        }
+        Path file = Files.writeString(dir.resolve("contacts.csv"), csv);
+
+        List<ParsedRow> rows = new ArrayList<>();
+        try (ParallelCsvParser.Ranges ranges = parser.open(file, new CsvFormat(), FormatOptions.DEFAULT,
+                contact -> contact.getEmail().startsWith("bad") ? "Invalid email" : null)) {
+            List<ParsedRow> range;
+            while ((range = ranges.next()) != null) rows.addAll(range);
+        }
+
+        assertThat(rows).hasSize(500);
+        assertThat(rows.get(0).line()).isEqualTo(4); // Blank lines and the header are not rows
+        assertThat(rows.get(0).contact().getLastName()).isEqualTo("Last,\nJr.");
+        assertThat(rows.get(499).line()).isEqualTo(4 + 499 * 2 - 1); // Row 250 takes one line, the others two
+        assertThat(rows).filteredOn(row -> row.problem() != null)
+                .extracting(ParsedRow::line, ParsedRow::problem)
+                .hasSize(6)
+                .contains(tuple(4L + 7 * 2, "Invalid email"), tuple(4L + 250 * 2,
+                        "Row must contain at least 5 columns (First Name, Last Name, Email, Phone, Title)"));
+    }
+
+    @Test
+    void anUnterminatedQuoteFailsTheParse() throws IOException {
+        parser = parser(4, 16, 0);
+        Path file = Files.writeString(dir.resolve("contacts.csv"),
+                "First Name,Last Name,Email,Phone,Title\nA,B,a@example.com,555-0100,CTO\n\"C,D,c@example.com,555-0100,CTO\n");
+
+        try (ParallelCsvParser.Ranges ranges = parser.open(file, new CsvFormat(), FormatOptions.DEFAULT, contact -> null)) {
+            assertThatThrownBy(() -> {
+                while (ranges.next() != null) {
+                    // Drain
+                }
+            }).hasMessage("Unterminated quoted field starting on line 3");
+        }
+    }
+
+    @Test
+    void onlyLargeCsvFilesInSplittableCharsetsAreParsedInParallel() {
+        parser = parser(4, 1024, 1000);
+        FormatOptions utf16 = new FormatOptions(StandardCharsets.UTF_16, ',', VCardFormat.VERSION_4);
+
+        assertThat(parser.supports(new CsvFormat(), FormatOptions.DEFAULT, 1000)).isTrue();
+        assertThat(parser.supports(new CsvFormat(), FormatOptions.DEFAULT, 999)).isFalse();
+        assertThat(parser.supports(new CsvFormat(), utf16, 1000)).isFalse();
+        assertThat(parser.supports(new VCardFormat(), FormatOptions.DEFAULT, 1000)).isFalse();
+        parser.shutdown();
+
+        parser = parser(1, 1024, 0);
+        assertThat(parser.supports(new CsvFormat(), FormatOptions.DEFAULT, 1000)).isFalse();
+    }
+
+    static ParallelCsvParser parser(int threads, int chunkBytes, long minFileBytes) {
+        ParallelCsvParser parser = new ParallelCsvParser();
+        ReflectionTestUtils.setField(parser, "threads", threads);
+        ReflectionTestUtils.setField(parser, "chunkBytes", chunkBytes);
+        ReflectionTestUtils.setField(parser, "maxBufferedBytes", 16L << 20);
+        ReflectionTestUtils.setField(parser, "minFileBytes", minFileBytes);
+        parser.init();
+        return parser;
+    }
+}
@@ -8,11 +8,38 @@ const api = axios.create({
   }
 });
 
+// Single in-flight refresh shared by all requests that fail at the same time
+let refreshPromise = null;
+
+const refreshSession = () => {
+  if (!refreshPromise) {
+    refreshPromise = api.post('/auth/refresh').finally(() => {
+      refreshPromise = null;
+    });
+  }
+  return refreshPromise;
+};
+
 // Optional: Interceptor to handle 401 Unauthorized globally
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
-    if (error.response && (error.response.status === 403 || error.response.status === 401)) {
+  async (error) => {
+    const original = error.config;
+    const status = error.response?.status;
+    const isAuthCall = original?.url?.startsWith('/auth/refresh') || original?.url?.startsWith('/auth/login');
+
+    // Access token expired: renew the session from the refresh cookie once, then replay the request
+    if ((status === 401 || status === 403) && original && !original._retried && !isAuthCall) {
+      original._retried = true;
+      try {
+        await refreshSession();
+        return api(original);
+      } catch {
+        // Fall through to the logout redirect below
+      }
+    }
+
+    if (status === 403 || status === 401) {
       // Token invalid or expired - clear flag and redirect
       localStorage.removeItem('isAuthenticated');
       window.location.href = '/auth';
@@ -16,6 +16,8 @@ const ContactsPage = () => {
     const [totalPages, setTotalPages] = useState(0);
     const [totalElements, setTotalElements] = useState(0);
     const [searchQuery, setSearchQuery] = useState('');
+    const [suggestions, setSuggestions] = useState([]);
+    const [showSuggestions, setShowSuggestions] = useState(false);
     
     // UI States
     const [isCreateOpen, setIsCreateOpen] = useState(false);
@@ -43,8 +45,8 @@ const ContactsPage = () => {
         fetchUser();
         fetchContacts(currentPage, searchQuery);
     }, [currentPage]);
-    const fetchContacts = async (page = 0, query = '') => {
-        setLoading(true);
+    const fetchContacts = async (page = 0, query = '', quiet = false) => {
+        if (!quiet) setLoading(true);
         try {
             const endpoint = query 
                 ? `/api/contacts/search?query=${query}&page=${page}&size=10`
@@ -89,6 +91,42 @@ const ContactsPage = () => {
     }, [searchQuery, currentPage]);
 
 
+    // Images are uploaded in the background: refresh quietly until none on this page is pending
+    useEffect(() => {
+        if (!contacts.some(contact => contact.imageStatus === 'PENDING')) return;
+        const timeoutId = setTimeout(() => fetchContacts(currentPage, searchQuery, true), 2000);
+        return () => clearTimeout(timeoutId);
+    }, [contacts]);
+
+    // Autocomplete: cheap id/name lookups on every keystroke, the full search stays debounced above
+    useEffect(() => {
+        const prefix = searchQuery.trim();
+        if (!prefix) {
+            setSuggestions([]);
+            return;
+        }
+        const timeoutId = setTimeout(async () => {
+            try {
+                const response = await api.get('/api/contacts/suggest', { params: { prefix, limit: 8 } });
+                setSuggestions(response.data?.data || []);
+            } catch (error) {
+                setSuggestions([]);
+            }
+        }, 120);
+        return () => clearTimeout(timeoutId);
+    }, [searchQuery]);
+
+    const handleSuggestionSelect = async (suggestion) => {
+        setShowSuggestions(false);
+        try {
+            const response = await api.get(`/api/contact/${suggestion.id}`);
+            setSelectedContact(response.data.data);
+            setIsViewOpen(true);
+        } catch (error) {
+            showToast('Failed to load contact', 'error');
+        }
+    };
+
     // Handlers
     const handleCreate = async (formData) => {
         try {
@@ -199,10 +237,26 @@ const ContactsPage = () => {
         formData.append('file', file);
 
         try {
-            await api.post('/api/contacts/import', formData, {
-                headers: { 'Content-Type': 'multipart/form-data' }
+            // Runs as a background job on the server; poll it until it finishes
+            const response = await api.post('/api/contacts/import', formData, {
+                headers: { 'Content-Type': 'multipart/form-data' },
+                params: { async: true }
             });
-            showToast('Contacts imported successfully', 'success');
+            let job = response.data.data;
+            showToast('Importing contacts...', 'success');
+            while (job.state === 'QUEUED' || job.state === 'RUNNING') {
+                await new Promise(resolve => setTimeout(resolve, 1000));
+                job = (await api.get(`/api/contacts/import/${job.id}`)).data.data;
+            }
+            if (job.state === 'FAILED') {
+                showToast(job.error || 'Failed to import contacts', 'error');
+            } else {
+                const rejected = job.rowsRejected > 0
+                    ? `, skipped ${job.rowsRejected} invalid rows (first on line ${job.rejections[0]?.line})`
+                    : '';
+                const duplicates = job.duplicatesSkipped > 0 ? `, ${job.duplicatesSkipped} already existed` : '';
+                showToast(`Imported ${job.rowsImported} contacts${duplicates}${rejected}`, job.rowsRejected > 0 ? 'error' : 'success');
+            }
             fetchContacts(0, searchQuery);
         } catch (error) {
             console.error(error);
@@ -296,8 +350,23 @@ const ContactsPage = () => {
                             placeholder="Search contacts..."
                             className="block w-full pl-9 pr-3 py-2 border border-gray-300 rounded leading-5 bg-white placeholder-gray-500 focus:outline-none focus:border-indigo-500 focus:ring-1 focus:ring-indigo-500 transition-all text-sm"
                             value={searchQuery}
-                            onChange={(e) => setSearchQuery(e.target.value)}
+                            onChange={(e) => { setSearchQuery(e.target.value); setShowSuggestions(true); }}
+                            onFocus={() => setShowSuggestions(true)}
+                            onBlur={() => setShowSuggestions(false)}
                         />
+                        {showSuggestions && suggestions.length > 0 && (
+                            <ul className="absolute z-20 mt-1 w-full bg-white border border-gray-200 rounded shadow-lg max-h-64 overflow-y-auto text-sm">
+                                {suggestions.map((suggestion) => (
+                                    <li
+                                        key={suggestion.id}
+                                        onMouseDown={(e) => { e.preventDefault(); handleSuggestionSelect(suggestion); }}
+                                        className="px-3 py-2 cursor-pointer hover:bg-indigo-50 text-gray-700"
+                                    >
+                                        {suggestion.displayName}
+                                    </li>
+                                ))}
+                            </ul>
+                        )}
                     </div>
                     
                     <div className="flex gap-3">
@@ -305,7 +374,7 @@ const ContactsPage = () => {
                             type="file" 
                             ref={fileInputRef} 
                             onChange={handleImportFileChange} 
-                            accept=".csv" 
+                            accept=".csv,.vcf,.vcard,.ndjson,.jsonl" 
                             className="hidden" 
                         />
                         <button 
@@ -380,7 +449,7 @@ const ContactsPage = () => {
                                                         title="Change Photo"
                                                     >
                                                         {contact.image ? (
-                                                            <img className="h-10 w-10 rounded-full object-cover border border-gray-200 transition-opacity group-hover/avatar:opacity-75" src={contact.image} alt="" />
+                                                            <img className="h-10 w-10 rounded-full object-cover border border-gray-200 transition-opacity group-hover/avatar:opacity-75" src={contact.thumbnail || contact.image} alt="" />
                                                         ) : (
                                                             <div className="h-10 w-10 rounded-full bg-slate-100 flex items-center justify-center text-slate-500 font-bold text-sm transition-opacity group-hover/avatar:opacity-75">
                                                                 {contact.firstName.charAt(0)}{contact.lastName.charAt(0)}